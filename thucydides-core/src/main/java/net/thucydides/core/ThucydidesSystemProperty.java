@@ -38,12 +38,43 @@ public enum ThucydidesSystemProperty {
      */
     OUTPUT_DIRECTORY("thucydides.outputDirectory"),
 
+    /**
+     * How many threads should be used to generate the aggregate HTML reports.
+     * Defaults to the number of available processors; use 1 to generate the pages one at a time.
+     */
+    REPORT_THREADS("thucydides.report.threads"),
+
     /**
      * Should Thucydides only store screenshots for failing steps?
      * This can save disk space and speed up the tests somewhat. Useful for data-driven testing.
      */
     ONLY_SAVE_FAILING_SCREENSHOTS("thucydides.only.save.failing.screenshots"),
 
+    /**
+     * Don't store a new screenshot if it looks the same as the previous one: the step refers to the earlier image.
+     * This can save a lot of disk space for tests that don't change the screen much.
+     */
+    SKIP_UNCHANGED_SCREENSHOTS("thucydides.skip.unchanged.screenshots"),
+
+    /**
+     * How different two screenshots need to be before they are considered to have changed,
+     * as the number of bits (from 0 to 64) that can differ between their image fingerprints.
+     * If both this and the screenshot pixel tolerance are 0, only identical screenshots are considered unchanged.
+     * Screenshots of failing steps are always stored.
+     */
+    SCREENSHOT_SIMILARITY_THRESHOLD("thucydides.screenshot.similarity.threshold"),
+
+    /**
+     * How many pixels can differ between low resolution samples (about 64 by 64 pixels) of two screenshots
+     * that are considered unchanged. Changes that fall between the sampled pixels are not seen.
+     */
+    SCREENSHOT_PIXEL_TOLERANCE("thucydides.screenshot.pixel.tolerance"),
+
+    /**
+     * How many background threads should be used to write screenshots to disk.
+     */
+    SCREENSHOT_PROCESSING_THREADS("thucydides.screenshot.threads"),
+
     /**
      * Restart the browser every so often during data-driven tests.
      */
@@ -59,6 +90,56 @@ public enum ThucydidesSystemProperty {
      */
     ELEMENT_TIMEOUT("thucydides.timeout"),
 
+    /**
+     * How often (in ms) should the driver be checked to make sure it is still usable.
+     * By default, the driver is only checked after a command has failed.
+     */
+    DRIVER_LIVENESS_CHECK_INTERVAL("thucydides.driver.liveness.check.interval"),
+
+    /**
+     * How many idle browsers of each type should be kept open between test classes.
+     * Browsers are closed at the end of each test class unless this is set to a positive value.
+     */
+    DRIVER_POOL_SIZE("thucydides.driver.pool.size"),
+
+    /**
+     * How many browsers of each type should be started in the background when the driver pool is used.
+     */
+    DRIVER_POOL_PREWARM("thucydides.driver.pool.prewarm"),
+
+    /**
+     * How many test classes can use the same pooled browser before it is closed (no limit by default).
+     */
+    DRIVER_POOL_MAX_USES("thucydides.driver.pool.max.uses"),
+
+    /**
+     * How long (in seconds) a pooled browser can be kept open (no limit by default).
+     */
+    DRIVER_POOL_MAX_AGE("thucydides.driver.pool.max.age"),
+
+    /**
+     * Wait for elements, text and titles to appear by watching for changes in the page, rather than by polling
+     * the browser, when the driver supports Javascript. Disabled by default.
+     */
+    JAVASCRIPT_WAITS("thucydides.javascript.waits"),
+
+    /**
+     * The script timeout (in milliseconds) that Javascript waits set back once they are done (0 by default).
+     * WebDriver cannot report the script timeout in use, so set this if the tests use a script timeout of their own.
+     */
+    JAVASCRIPT_WAITS_SCRIPT_TIMEOUT("thucydides.javascript.waits.script.timeout"),
+
+    /**
+     * How often page object waits check their condition: "fixed" (every 50 ms, the default), or "backoff"
+     * (immediately, then less and less often).
+     */
+    POLLING_STRATEGY("thucydides.polling.strategy"),
+
+    /**
+     * The longest pause (in ms) between two checks when the "backoff" polling strategy is used (1000 by default).
+     */
+    POLLING_MAX_PAUSE("thucydides.polling.max.pause"),
+
     /**
      * Don't accept sites using untrusted certificates.
      * By default, Thucydides accepts untrusted certificates - use this to change this behaviour.
@@ -177,7 +258,23 @@ public enum ThucydidesSystemProperty {
      * Should we store test result history.
      * It is usually only deactivated for testing purposes.
      */
-    STORE_TEST_HISTORY("thucydides.store.history");
+    STORE_TEST_HISTORY("thucydides.store.history"),
+
+    /**
+     * Store the test result history in a background thread, so that the tests do not have to wait
+     * for the statistics database at the end of each test class.
+     */
+    STORE_TEST_HISTORY_IN_BACKGROUND("thucydides.store.history.background"),
+
+    /**
+     * How many connections Hibernate keeps open to the statistics database.
+     */
+    STATISTICS_POOL_SIZE("thucydides.statistics.pool_size"),
+
+    /**
+     * How many inserts are sent to the statistics database in a single JDBC batch.
+     */
+    STATISTICS_BATCH_SIZE("thucydides.statistics.batch_size");
 
     private String propertyName;
     public static final int DEFAULT_HEIGHT = 1000;
@@ -11,6 +11,9 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
 
+import static net.thucydides.core.ThucydidesSystemProperty.STATISTICS_BATCH_SIZE;
+import static net.thucydides.core.ThucydidesSystemProperty.STATISTICS_POOL_SIZE;
+
 /**
  * Obtain the statistics database connection details.
  * The statistics database is configured using the environment variables.
@@ -20,6 +23,16 @@ public class DatabaseConfig {
 
     private static final int TABLE_NAME_COLUMN  = 3;
 
+    /**
+     * Used when the thucydides.statistics.pool_size property is not set.
+     */
+    public static final int DEFAULT_POOL_SIZE = 4;
+
+    /**
+     * Used when the thucydides.statistics.batch_size property is not set.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 50;
+
     private final EnvironmentVariables environmentVariables;
 
     public DatabaseConfig(EnvironmentVariables environmentVariables) {
@@ -44,7 +57,10 @@ public class DatabaseConfig {
         properties.put("hibernate.connection.username", username);
         properties.put("hibernate.connection.password", password);
         properties.put("hibernate.dialect", dialect);
-        properties.put("hibernate.connection.pool_size", "1");
+        properties.put("hibernate.connection.pool_size", Integer.toString(getPoolSize()));
+        properties.put("hibernate.jdbc.batch_size", Integer.toString(getBatchSize()));
+        properties.put("hibernate.order_inserts", "true");
+        properties.put("hibernate.order_updates", "true");
 
         boolean databaseIsConfigured = databaseIsConfigured(properties);
         if (usingDefaultDatabase() || !databaseIsConfigured) {
@@ -55,6 +71,14 @@ public class DatabaseConfig {
         return properties;
     }
 
+    public int getPoolSize() {
+        return Math.max(1, environmentVariables.getPropertyAsInteger(STATISTICS_POOL_SIZE.getPropertyName(), DEFAULT_POOL_SIZE));
+    }
+
+    public int getBatchSize() {
+        return Math.max(1, environmentVariables.getPropertyAsInteger(STATISTICS_BATCH_SIZE.getPropertyName(), DEFAULT_BATCH_SIZE));
+    }
+
     private String getDefaultDatabaseUrl() {
         String defaultThucydidesDirectory = environmentVariables.getProperty("user.home") + "/.thucydides";
         String defaultDatabase = defaultThucydidesDirectory + "/stats";
@@ -0,0 +1,176 @@
+package net.thucydides.core.images;
+
+import javax.imageio.IIOException;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Computes a 64-bit "average hash" fingerprint of a PNG image.
+ * Images that look the same to a human produce fingerprints that differ by only a few bits,
+ * even if the underlying bytes are different.
+ * The image is decoded at a much lower resolution than the original, and the decoding buffer
+ * is reused from one image to the next, so hashing successive screenshots of the same size
+ * allocates very little memory. Instances are not thread-safe.
+ */
+public class PerceptualHasher {
+
+    private static final int HASH_SIZE = 8;
+    private static final int SAMPLED_SIZE = 64;
+
+    private final ImageReader reader;
+    private final ImageReadParam readParam;
+    private final long[] blockTotals = new long[HASH_SIZE * HASH_SIZE];
+    private final int[] blockCounts = new int[HASH_SIZE * HASH_SIZE];
+    private BufferedImage sampledImage;
+    private byte[] sampledLuminance = new byte[0];
+
+    private int width;
+    private int height;
+
+    public PerceptualHasher() {
+        reader = ImageIO.getImageReadersByFormatName("png").next();
+        readParam = reader.getDefaultReadParam();
+    }
+
+    /**
+     * Compute the fingerprint of a PNG image.
+     * The dimensions of the image are available through getWidth() and getHeight() afterwards.
+     */
+    public long hashOf(final byte[] pngData) throws IOException {
+        try {
+            sampledImage = readSampled(pngData, sampledImage);
+        } catch (IIOException incompatibleBuffer) {
+            sampledImage = readSampled(pngData, null);
+        }
+        return averageHashOf(sampledImage);
+    }
+
+    /**
+     * Copy the luminance of each pixel sampled by the last call to hashOf(), one byte per pixel, into a buffer.
+     * This is far more detailed than the fingerprint, so it can confirm that two images
+     * with close fingerprints really do look the same.
+     * The buffer is returned if it is the right size, so that successive screenshots can share buffers;
+     * otherwise a new one is allocated.
+     */
+    public byte[] sampledLuminanceInto(final byte[] buffer) {
+        byte[] luminance = ((buffer != null) && (buffer.length == sampledLuminance.length))
+                ? buffer : new byte[sampledLuminance.length];
+        System.arraycopy(sampledLuminance, 0, luminance, 0, sampledLuminance.length);
+        return luminance;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * The number of bits that differ between two fingerprints, from 0 (identical) to 64.
+     */
+    public static int distanceBetween(final long hash, final long otherHash) {
+        return Long.bitCount(hash ^ otherHash);
+    }
+
+    /**
+     * The number of sampled pixels whose luminance differs between two images.
+     * Images sampled at different sizes differ in every pixel.
+     */
+    public static int sampledPixelsThatDiffer(final byte[] luminance, final byte[] otherLuminance) {
+        if (luminance.length != otherLuminance.length) {
+            return Integer.MAX_VALUE;
+        }
+        int differentPixels = 0;
+        for (int i = 0; i < luminance.length; i++) {
+            if (luminance[i] != otherLuminance[i]) {
+                differentPixels++;
+            }
+        }
+        return differentPixels;
+    }
+
+    private BufferedImage readSampled(final byte[] pngData, final BufferedImage reusableBuffer) throws IOException {
+        ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(pngData));
+        try {
+            reader.setInput(input, true, true);
+            width = reader.getWidth(0);
+            height = reader.getHeight(0);
+
+            int xStep = Math.max(1, width / SAMPLED_SIZE);
+            int yStep = Math.max(1, height / SAMPLED_SIZE);
+            readParam.setSourceSubsampling(xStep, yStep, 0, 0);
+            readParam.setDestination(canReuse(reusableBuffer, xStep, yStep) ? reusableBuffer : null);
+
+            return reader.read(0, readParam);
+        } finally {
+            reader.setInput(null);
+            input.close();
+        }
+    }
+
+    private boolean canReuse(final BufferedImage buffer, final int xStep, final int yStep) {
+        return (buffer != null)
+                && (buffer.getWidth() == sampledLength(width, xStep))
+                && (buffer.getHeight() == sampledLength(height, yStep));
+    }
+
+    private int sampledLength(final int length, final int step) {
+        return (length + step - 1) / step;
+    }
+
+    private long averageHashOf(final BufferedImage image) {
+        Arrays.fill(blockTotals, 0);
+        Arrays.fill(blockCounts, 0);
+
+        int sampledWidth = image.getWidth();
+        int sampledHeight = image.getHeight();
+        if (sampledLuminance.length != sampledWidth * sampledHeight) {
+            sampledLuminance = new byte[sampledWidth * sampledHeight];
+        }
+        for (int y = 0; y < sampledHeight; y++) {
+            int blockRow = y * HASH_SIZE / sampledHeight;
+            for (int x = 0; x < sampledWidth; x++) {
+                int block = blockRow * HASH_SIZE + (x * HASH_SIZE / sampledWidth);
+                int luminance = luminanceOf(image.getRGB(x, y));
+                sampledLuminance[y * sampledWidth + x] = (byte) luminance;
+                blockTotals[block] += luminance;
+                blockCounts[block]++;
+            }
+        }
+
+        long average = 0;
+        int usedBlocks = 0;
+        for (int block = 0; block < blockTotals.length; block++) {
+            if (blockCounts[block] > 0) {
+                blockTotals[block] = blockTotals[block] / blockCounts[block];
+                average += blockTotals[block];
+                usedBlocks++;
+            }
+        }
+        average = (usedBlocks > 0) ? average / usedBlocks : 0;
+
+        long hash = 0;
+        for (int block = 0; block < blockTotals.length; block++) {
+            hash <<= 1;
+            if ((blockCounts[block] > 0) && (blockTotals[block] > average)) {
+                hash |= 1;
+            }
+        }
+        return hash;
+    }
+
+    private int luminanceOf(final int rgb) {
+        int red = (rgb >> 16) & 0xFF;
+        int green = (rgb >> 8) & 0xFF;
+        int blue = rgb & 0xFF;
+        return (red * 299 + green * 587 + blue * 114) / 1000;
+    }
+}
@@ -6,11 +6,7 @@ import net.thucydides.core.model.features.ApplicationFeature;
 import java.util.ArrayList;
 import java.util.List;
 
-import static ch.lambdaj.Lambda.extract;
 import static ch.lambdaj.Lambda.filter;
-import static ch.lambdaj.Lambda.on;
-import static ch.lambdaj.Lambda.sum;
-import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 
 /**
@@ -54,45 +50,83 @@ public class FeatureResults {
         storyTestResultsList.add(storyResults);
     }
 
+    /**
+     * The totals are rolled up from the tallies kept by each story, rather than recalculated from the test outcomes.
+     */
     public Integer getTotalTests() {
-        return sum(extract(storyTestResultsList, on(StoryTestResults.class).getTotal())).intValue();
+        int total = 0;
+        for (StoryTestResults story : storyTestResultsList) {
+            total += story.getTotal();
+        }
+        return total;
     }
 
     public Integer getPassingTests() {
-        return sum(extract(storyTestResultsList, on(StoryTestResults.class).getSuccessCount())).intValue();
+        int total = 0;
+        for (StoryTestResults story : storyTestResultsList) {
+            total += story.getSuccessCount();
+        }
+        return total;
     }
 
     public Integer getFailingTests() {
-        return sum(extract(storyTestResultsList, on(StoryTestResults.class).getFailureCount())).intValue();
+        int total = 0;
+        for (StoryTestResults story : storyTestResultsList) {
+            total += story.getFailureCount();
+        }
+        return total;
     }
 
     public Integer getPassingSteps() {
-        return sum(extract(storyTestResultsList, on(StoryTestResults.class).countStepsInSuccessfulTests())).intValue();
+        return countStepsInSuccessfulTests();
     }
 
     public Integer getFailingSteps() {
-        return sum(extract(storyTestResultsList, on(StoryTestResults.class).countStepsInFailingTests())).intValue();
+        int total = 0;
+        for (StoryTestResults story : storyTestResultsList) {
+            total += story.countStepsInFailingTests();
+        }
+        return total;
     }
 
     public Integer getSkippedSteps() {
-        return sum(extract(storyTestResultsList, on(StoryTestResults.class).countStepsInSkippedTests())).intValue();
+        int total = 0;
+        for (StoryTestResults story : storyTestResultsList) {
+            total += story.countStepsInSkippedTests();
+        }
+        return total;
     }
 
     public Integer getSkippedTests() {
-        return sum(extract(storyTestResultsList, on(StoryTestResults.class).getSkipCount())).intValue();
+        int total = 0;
+        for (StoryTestResults story : storyTestResultsList) {
+            total += story.getSkipCount();
+        }
+        return total;
     }
 
     public Integer getPendingTests() {
-        return sum(extract(storyTestResultsList, on(StoryTestResults.class).getPendingCount())).intValue();
+        int total = 0;
+        for (StoryTestResults story : storyTestResultsList) {
+            total += story.getPendingCount();
+        }
+        return total;
     }
 
     public Integer getTotalSteps() {
-        return sum(extract(storyTestResultsList, on(StoryTestResults.class).getStepCount())).intValue();
+        int total = 0;
+        for (StoryTestResults story : storyTestResultsList) {
+            total += story.getStepCount();
+        }
+        return total;
     }
 
     public Integer getEstimatedTotalSteps() {
-        List<Integer> stepCounts = extract(storyTestResultsList, on(StoryTestResults.class).getEstimatedTotalStepCount());
-        return sum(stepCounts, on(Integer.class).intValue());
+        int total = 0;
+        for (StoryTestResults story : storyTestResultsList) {
+            total += story.getEstimatedTotalStepCount();
+        }
+        return total;
     }
 
     public double getCoverage() {
@@ -120,10 +154,11 @@ public class FeatureResults {
     }
 
     public int countStepsInSuccessfulTests() {
-        if (storyTestResultsList.size() == 0) {
-            return 0;
+        int total = 0;
+        for (StoryTestResults story : storyTestResultsList) {
+            total += story.countStepsInSuccessfulTests();
         }
-        return sum(storyTestResultsList, on(StoryTestResults.class).countStepsInSuccessfulTests());
+        return total;
     }
 
     public Double getPercentPassingCoverage() {
@@ -174,7 +209,11 @@ public class FeatureResults {
     }
 
     private List<TestResult> getCurrentTestResults() {
-        return extract(storyTestResultsList, on(StoryTestResults.class).getResult());
+        List<TestResult> results = new ArrayList<TestResult>();
+        for (StoryTestResults story : storyTestResultsList) {
+            results.add(story.getResult());
+        }
+        return results;
     }
 
 }
@@ -0,0 +1,142 @@
+package net.thucydides.core.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The numbers behind a set of test outcomes: how many tests passed, failed, were skipped or are pending,
+ * how many steps they contain, how long they took and so on.
+ * The tally is worked out in a single pass over the test outcomes, working out the result of each test
+ * only once, and does not change once it has been created.
+ */
+public class OutcomeTally {
+
+    private final int testCount;
+    private final int successCount;
+    private final int failureCount;
+    private final int skipCount;
+    private final int pendingCount;
+    private final int implementedTestCount;
+    private final int stepCount;
+    private final int stepsInSuccessfulTests;
+    private final int stepsInFailingTests;
+    private final int stepsInSkippedTests;
+    private final long duration;
+    private final TestResult overallResult;
+    private final Set<String> issues;
+
+    private OutcomeTally(final List<TestOutcome> testOutcomes) {
+        int successes = 0, failures = 0, skips = 0, pendings = 0, implementedTests = 0;
+        int steps = 0, successfulSteps = 0, failingSteps = 0, skippedSteps = 0;
+        long totalDuration = 0;
+        List<TestResult> results = new ArrayList<TestResult>();
+        Set<String> allIssues = new HashSet<String>();
+
+        for (TestOutcome testOutcome : testOutcomes) {
+            TestResult result = testOutcome.getResult();
+            int nestedStepCount = testOutcome.getNestedStepCount();
+            results.add(result);
+            steps += nestedStepCount;
+            totalDuration += testOutcome.getDuration();
+            if (!testOutcome.getTestSteps().isEmpty()) {
+                implementedTests++;
+            }
+            if (result == TestResult.SUCCESS) {
+                successes++;
+                successfulSteps += nestedStepCount;
+            } else if (result == TestResult.FAILURE) {
+                failures++;
+                failingSteps += nestedStepCount;
+            } else if ((result == TestResult.SKIPPED) || (result == TestResult.IGNORED)) {
+                skips++;
+                skippedSteps += nestedStepCount;
+            }
+            if ((result == TestResult.PENDING) || (testOutcome.getStepCount() == 0)) {
+                pendings++;
+            }
+            allIssues.addAll(testOutcome.getIssues());
+        }
+
+        this.testCount = testOutcomes.size();
+        this.successCount = successes;
+        this.failureCount = failures;
+        this.skipCount = skips;
+        this.pendingCount = pendings;
+        this.implementedTestCount = implementedTests;
+        this.stepCount = steps;
+        this.stepsInSuccessfulTests = successfulSteps;
+        this.stepsInFailingTests = failingSteps;
+        this.stepsInSkippedTests = skippedSteps;
+        this.duration = totalDuration;
+        this.overallResult = TestResultList.of(results).getOverallResult();
+        this.issues = Collections.unmodifiableSet(allIssues);
+    }
+
+    public static OutcomeTally forOutcomes(final List<TestOutcome> testOutcomes) {
+        return new OutcomeTally(testOutcomes);
+    }
+
+    public int getTestCount() {
+        return testCount;
+    }
+
+    public int getSuccessCount() {
+        return successCount;
+    }
+
+    public int getFailureCount() {
+        return failureCount;
+    }
+
+    /**
+     * Skipped and ignored tests.
+     */
+    public int getSkipCount() {
+        return skipCount;
+    }
+
+    /**
+     * Pending tests, including tests that have no steps yet.
+     */
+    public int getPendingCount() {
+        return pendingCount;
+    }
+
+    /**
+     * Tests that have at least one step.
+     */
+    public int getImplementedTestCount() {
+        return implementedTestCount;
+    }
+
+    public int getStepCount() {
+        return stepCount;
+    }
+
+    public int getStepsInSuccessfulTests() {
+        return stepsInSuccessfulTests;
+    }
+
+    public int getStepsInFailingTests() {
+        return stepsInFailingTests;
+    }
+
+    public int getStepsInSkippedTests() {
+        return stepsInSkippedTests;
+    }
+
+    public long getDuration() {
+        return duration;
+    }
+
+    public TestResult getOverallResult() {
+        return overallResult;
+    }
+
+    public Set<String> getIssues() {
+        return issues;
+    }
+}
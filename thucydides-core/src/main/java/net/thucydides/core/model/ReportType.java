@@ -11,7 +11,10 @@ public enum ReportType {
     XML("xml"),
 
     /** HTML reports. */
-    HTML("html");
+    HTML("html"),
+
+    /** Compact binary test outcomes. */
+    BINARY("bin");
 
     private String suffix;
 
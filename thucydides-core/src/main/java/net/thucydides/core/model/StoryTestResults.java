@@ -1,6 +1,5 @@
 package net.thucydides.core.model;
 
-import ch.lambdaj.function.convert.Converter;
 import com.google.common.collect.ImmutableList;
 import net.thucydides.core.guice.Injectors;
 import net.thucydides.core.issues.IssueTracking;
@@ -9,18 +8,11 @@ import net.thucydides.core.webdriver.Configuration;
 import org.apache.commons.lang3.StringUtils;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
-import static ch.lambdaj.Lambda.convert;
-import static ch.lambdaj.Lambda.extract;
-import static ch.lambdaj.Lambda.flatten;
-import static ch.lambdaj.Lambda.having;
-import static ch.lambdaj.Lambda.on;
-import static ch.lambdaj.Lambda.select;
-import static ch.lambdaj.Lambda.sort;
-import static ch.lambdaj.Lambda.sum;
 import static net.thucydides.core.model.ReportType.ROOT;
 import static org.apache.commons.lang3.StringUtils.capitalize;
 /**
@@ -41,6 +33,9 @@ public class StoryTestResults {
     private final Configuration configuration;
 
     private final Formatter formatter;
+
+    private OutcomeTally tally;
+
     /**
      * Create a new acceptance test run instance.
      */
@@ -64,7 +59,17 @@ public class StoryTestResults {
     }
 
     public long getDuration() {
-        return sum(testOutcomes, on(TestOutcome.class).getDuration());
+        return getTally().getDuration();
+    }
+
+    /**
+     * The numbers behind these test results, worked out once and kept until another test run is recorded.
+     */
+    private OutcomeTally getTally() {
+        if (tally == null) {
+            tally = OutcomeTally.forOutcomes(testOutcomes);
+        }
+        return tally;
     }
 
     public Story getStory() {
@@ -85,6 +90,7 @@ public class StoryTestResults {
      */
     public void recordTestRun(final TestOutcome testOutcome) {
         testOutcomes.add(testOutcome);
+        tally = null;
     }
 
     /**
@@ -99,53 +105,38 @@ public class StoryTestResults {
      * How many test cases contain at least one failing test.
      */
     public int getFailureCount() {
-        return select(testOutcomes, having(on(TestOutcome.class).isFailure())).size();
+        return getTally().getFailureCount();
     }
 
 
     public Integer getSkipCount() {
-        return select(testOutcomes, having(on(TestOutcome.class).isSkipped())).size();
+        return getTally().getSkipCount();
     }
 
     /**
      * How many test cases contain only successful or ignored tests.
      */
     public int getSuccessCount() {
-        return select(testOutcomes, having(on(TestOutcome.class).isSuccess())).size();
+        return getTally().getSuccessCount();
     }
 
     /**
      * How many steps make up the successful tests?
      */
     public int countStepsInSuccessfulTests() {
-        List<TestOutcome> successfulTests = select(testOutcomes, having(on(TestOutcome.class).isSuccess()));
-        try {
-            return (successfulTests.isEmpty()) ? 0 : sum(successfulTests, on(TestOutcome.class).getNestedStepCount());
-        } catch(Exception e) {
-            return 0;
-        }
+        return getTally().getStepsInSuccessfulTests();
     }
 
     public int countStepsInFailingTests() {
-        List<TestOutcome> tests = select(testOutcomes, having(on(TestOutcome.class).isFailure()));
-        try {
-            return (tests.isEmpty()) ? 0 : sum(tests, on(TestOutcome.class).getNestedStepCount());
-        } catch(Exception e) {
-            return 0;
-        }
+        return getTally().getStepsInFailingTests();
     }
 
     public int countStepsInSkippedTests() {
-        List<TestOutcome> tests = select(testOutcomes, having(on(TestOutcome.class).isSkipped()));
-        try {
-            return (tests.isEmpty()) ? 0 : sum(tests, on(TestOutcome.class).getNestedStepCount());
-        } catch(Exception e) {
-            return 0;
-        }
+        return getTally().getStepsInSkippedTests();
     }
 
     public int getPendingCount() {
-        return select(testOutcomes, having(on(TestOutcome.class).isPending())).size();
+        return getTally().getPendingCount();
     }
 
     public List<TestOutcome> getTestOutcomes() {
@@ -162,7 +153,8 @@ public class StoryTestResults {
 
     public String getFormattedIssues() {
         if (!getIssues().isEmpty()) {
-           List<String> orderedIssues =  sort(getIssues(), on(String.class));
+           List<String> orderedIssues = new ArrayList<String>(getIssues());
+           Collections.sort(orderedIssues);
            return "(" + getFormatter().addLinks(StringUtils.join(orderedIssues, ", ")) + ")";
         } else {
             return "";
@@ -170,8 +162,7 @@ public class StoryTestResults {
     }
 
     public Set<String> getIssues() {
-        List<String> allIssues = flatten(extract(testOutcomes, on(TestOutcome.class).getIssues()));
-        return new HashSet<String>(allIssues);
+        return new HashSet<String>(getTally().getIssues());
     }
 
     private Formatter getFormatter() {
@@ -179,7 +170,7 @@ public class StoryTestResults {
     }
 
     public int getStepCount() {
-        return sum(extract(testOutcomes, on(TestOutcome.class).getNestedStepCount())).intValue();
+        return getTally().getStepCount();
     }
 
     public Double getCoverage() {
@@ -235,29 +226,11 @@ public class StoryTestResults {
     }
 
     private int totalImplementedTests() {
-       int testCount = 0;
-       for(TestOutcome testOutcome : testOutcomes) {
-           if (!testOutcome.getTestSteps().isEmpty()) {
-               testCount++;
-           }
-       }
-       return testCount;
-    }
-
-    private static class ExtractTestResultsConverter implements Converter<TestOutcome, TestResult> {
-        public TestResult convert(final TestOutcome step) {
-            return step.getResult();
-        }
+       return getTally().getImplementedTestCount();
     }
 
-    private List<TestResult> getCurrentTestResults() {
-        return convert(getTestOutcomes(), new ExtractTestResultsConverter());
-    }
-
-    
     public TestResult getResult() {
-        TestResultList testResults = TestResultList.of(getCurrentTestResults());
-        return testResults.getOverallResult();
+        return getTally().getOverallResult();
     }
 
     /**
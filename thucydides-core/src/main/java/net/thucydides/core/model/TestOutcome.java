@@ -1,6 +1,5 @@
 package net.thucydides.core.model;
 
-import ch.lambdaj.function.convert.Converter;
 import com.google.common.collect.ImmutableList;
 import net.thucydides.core.ThucydidesSystemProperty;
 import net.thucydides.core.annotations.TestAnnotations;
@@ -21,18 +20,18 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.Stack;
+import java.util.concurrent.atomic.AtomicLong;
 
-import static ch.lambdaj.Lambda.convert;
 import static ch.lambdaj.Lambda.extract;
-import static ch.lambdaj.Lambda.filter;
-import static ch.lambdaj.Lambda.having;
 import static ch.lambdaj.Lambda.join;
 import static ch.lambdaj.Lambda.on;
-import static ch.lambdaj.Lambda.select;
 import static ch.lambdaj.Lambda.sort;
 import static ch.lambdaj.Lambda.sum;
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -109,6 +108,17 @@ public class TestOutcome {
 
     private LinkGenerator linkGenerator;
 
+    /**
+     * Step lists, results and screenshots worked out from the test steps. They are kept until this outcome
+     * or one of its steps is modified, so that reports can ask for them as often as they like.
+     */
+    private StepTree stepTree;
+
+    /**
+     * Incremented whenever a step is added to this test outcome, or one of its steps is modified.
+     */
+    private final AtomicLong stepVersion = new AtomicLong();
+
     /**
      * The title is immutable once set. For convenience, you can create a test
      * run directly with a title using this constructor.
@@ -256,72 +266,31 @@ public class TestOutcome {
      * acceptance test as a whole depends on the outcome of all of the steps.
      */
     public List<TestStep> getTestSteps() {
-        return ImmutableList.copyOf(testSteps);
+        return stepTree().getTestSteps();
     }
 
+    /**
+     * The screenshots taken during this test, in step order.
+     * Identical screenshots are stored in a single file, so several steps may refer to the same image.
+     */
     public List<Screenshot> getScreenshots() {
-        List<Screenshot> screenshots = new ArrayList<Screenshot>();
-
-        List<TestStep> testStepsWithScreenshots = select(getFlattenedTestSteps(),
-                                                         having(on(TestStep.class).needsScreenshots()));
-
-        for (TestStep currentStep : testStepsWithScreenshots) {
-            screenshots.addAll(screenshotsIn(currentStep));
-        }
-
-        return ImmutableList.copyOf(screenshots);
-    }
-
-    private List<Screenshot> screenshotsIn(TestStep currentStep) {
-        return convert(currentStep.getScreenshots(), toScreenshotsFor(currentStep));
-    }
-
-    private Converter<ScreenshotAndHtmlSource, Screenshot> toScreenshotsFor(final TestStep currentStep) {
-        return new Converter<ScreenshotAndHtmlSource, Screenshot>() {
-            @Override
-            public Screenshot convert(ScreenshotAndHtmlSource from) {
-                return new Screenshot(from.getScreenshotFile().getName(),
-                                      currentStep.getDescription(),
-                                      widthOf(from.getScreenshotFile()),
-                                      currentStep.getException());
-            }
-        };
-    }
-
-    private boolean weNeedAScreenshotFor(TestStep step) {
-        return (step.needsScreenshots());
-    }
-
-    private int widthOf(final File screenshot) {
-        try {
-            return new SimpleImageInfo(screenshot).getWidth();
-        } catch (IOException e) {
-            return ThucydidesSystemProperty.DEFAULT_WIDTH;
-        }
+        return stepTree().getScreenshots();
     }
 
     public List<TestStep> getFlattenedTestSteps() {
-        List<TestStep> flattenedTestSteps = new ArrayList<TestStep>();
-        for (TestStep step : getTestSteps()) {
-            flattenedTestSteps.add(step);
-            if (step.isAGroup()) {
-                flattenedTestSteps.addAll(step.getFlattenedSteps());
-            }
-        }
-        return ImmutableList.copyOf(flattenedTestSteps);
+        return stepTree().getFlattenedTestSteps();
     }
 
     public List<TestStep> getLeafTestSteps() {
-        List<TestStep> leafTestSteps = new ArrayList<TestStep>();
-        for (TestStep step : getTestSteps()) {
-            if (step.isAGroup()) {
-                leafTestSteps.addAll(step.getLeafTestSteps());
-            } else {
-                leafTestSteps.add(step);
-            }
+        return stepTree().getLeafTestSteps();
+    }
 
+    private StepTree stepTree() {
+        long currentStepVersion = stepVersion.get();
+        if ((stepTree == null) || !stepTree.isUpToDate(currentStepVersion)) {
+            stepTree = new StepTree(testSteps, currentStepVersion);
         }
-        return ImmutableList.copyOf(leafTestSteps);
+        return stepTree;
     }
 
     /**
@@ -341,8 +310,7 @@ public class TestOutcome {
             return annotatedResult;
         }
 
-        TestResultList testResults = TestResultList.of(getCurrentTestResults());
-        return testResults.getOverallResult();
+        return stepTree().getResult();
     }
 
     /**
@@ -355,6 +323,7 @@ public class TestOutcome {
             getCurrentStepGroup().addChildStep(step);
         } else {
             testSteps.add(step);
+            step.recordChangesIn(stepVersion);
         }
         return this;
     }
@@ -396,10 +365,6 @@ public class TestOutcome {
         this.storedTitle = title;
     }
 
-    private List<TestResult> getCurrentTestResults() {
-        return convert(testSteps, new ExtractTestResultsConverter());
-    }
-
     /**
      * Creates a new step with this name and immediately turns it into a step group.
      * TODO: Review where this is used, as it is mainly for backward compatibility.
@@ -567,12 +532,6 @@ public class TestOutcome {
         lastTestStep.failedWith(new StepFailureException(failure.getMessage(), failure.getException()));
     }
 
-    private static class ExtractTestResultsConverter implements Converter<TestStep, TestResult> {
-        public TestResult convert(final TestStep step) {
-            return step.getResult();
-        }
-    }
-
     public Integer getStepCount() {
         return testSteps.size();
     }
@@ -582,15 +541,15 @@ public class TestOutcome {
     }
 
     public Integer getSuccessCount() {
-        return count(successfulSteps()).in(getLeafTestSteps());
+        return stepTree().countLeafStepsWithResult(SUCCESS);
     }
 
     public Integer getFailureCount() {
-        return count(failingSteps()).in(getLeafTestSteps());
+        return stepTree().countLeafStepsWithResult(FAILURE);
     }
 
     public Integer getIgnoredCount() {
-        return count(ignoredSteps()).in(getLeafTestSteps());
+        return stepTree().countLeafStepsWithResult(IGNORED);
     }
 
     public Integer getSkippedOrIgnoredCount() {
@@ -598,12 +557,11 @@ public class TestOutcome {
     }
 
     public Integer getSkippedCount() {
-        return count(skippedSteps()).in(getLeafTestSteps());
+        return stepTree().countLeafStepsWithResult(SKIPPED);
     }
 
     public Integer getPendingCount() {
-        List<TestStep> allTestSteps = getLeafTestSteps();
-        return select(allTestSteps, having(on(TestStep.class).isPending())).size();
+        return stepTree().countLeafStepsWithResult(PENDING);
     }
 
     public Boolean isSuccess() {
@@ -659,29 +617,6 @@ public class TestOutcome {
         this.sessionId = sessionId;
     }
 
-    StepCountBuilder count(StepFilter filter) {
-        return new StepCountBuilder(filter);
-    }
-
-    public static class StepCountBuilder {
-        private final StepFilter filter;
-
-        public StepCountBuilder(StepFilter filter) {
-            this.filter = filter;
-        }
-
-        int in(List<TestStep> steps) {
-            int count = 0;
-            for (TestStep step : steps) {
-                if (filter.apply(step)) {
-                    count++;
-                }
-            }
-            return count;
-        }
-    }
-
-
     public Integer countTestSteps() {
         return countLeafStepsIn(testSteps);
     }
@@ -698,44 +633,126 @@ public class TestOutcome {
         return leafCount;
     }
 
-    abstract class StepFilter {
-        abstract boolean apply(TestStep step);
+    /**
+     * The views of the step tree used by the reports, worked out in a single walk over the steps.
+     * Screenshots, results and step counts are only worked out the first time they are needed.
+     */
+    private static class StepTree {
+        private final long stepVersion;
+        private final List<TestStep> testSteps;
+        private final List<TestStep> flattenedTestSteps;
+        private final List<TestStep> leafTestSteps;
+        private TestResult result;
+        private volatile Map<TestResult, Integer> leafStepResultCounts;
+        private List<Screenshot> screenshots;
+
+        StepTree(final List<TestStep> steps, final long stepVersion) {
+            this.stepVersion = stepVersion;
+            this.testSteps = ImmutableList.copyOf(steps);
+            List<TestStep> flattenedSteps = new ArrayList<TestStep>();
+            List<TestStep> leafSteps = new ArrayList<TestStep>();
+            addSteps(testSteps, flattenedSteps, leafSteps);
+            this.flattenedTestSteps = ImmutableList.copyOf(flattenedSteps);
+            this.leafTestSteps = ImmutableList.copyOf(leafSteps);
+        }
 
-    }
+        private void addSteps(final List<TestStep> steps,
+                              final List<TestStep> flattenedSteps,
+                              final List<TestStep> leafSteps) {
+            for (TestStep step : steps) {
+                flattenedSteps.add(step);
+                if (step.isAGroup()) {
+                    addSteps(step.getChildren(), flattenedSteps, leafSteps);
+                } else {
+                    leafSteps.add(step);
+                }
+            }
+        }
+
+        boolean isUpToDate(final long currentStepVersion) {
+            return (stepVersion == currentStepVersion);
+        }
+
+        List<TestStep> getTestSteps() {
+            return testSteps;
+        }
+
+        List<TestStep> getFlattenedTestSteps() {
+            return flattenedTestSteps;
+        }
+
+        List<TestStep> getLeafTestSteps() {
+            return leafTestSteps;
+        }
 
-    StepFilter successfulSteps() {
-        return new StepFilter() {
-            @Override
-            boolean apply(TestStep step) {
-                return step.isSuccessful();
+        TestResult getResult() {
+            if (result == null) {
+                List<TestResult> results = new ArrayList<TestResult>();
+                for (TestStep step : testSteps) {
+                    results.add(step.getResult());
+                }
+                result = TestResultList.of(results).getOverallResult();
             }
-        };
-    }
+            return result;
+        }
 
-    StepFilter failingSteps() {
-        return new StepFilter() {
-            @Override
-            boolean apply(TestStep step) {
-                return step.isFailure();
+        int countLeafStepsWithResult(final TestResult expectedResult) {
+            Map<TestResult, Integer> resultCounts = leafStepResultCounts;
+            if (resultCounts == null) {
+                resultCounts = new EnumMap<TestResult, Integer>(TestResult.class);
+                for (TestStep step : leafTestSteps) {
+                    TestResult stepResult = step.getResult();
+                    Integer count = resultCounts.get(stepResult);
+                    resultCounts.put(stepResult, (count == null) ? 1 : count + 1);
+                }
+                leafStepResultCounts = resultCounts;
             }
-        };
-    }
+            Integer count = resultCounts.get(expectedResult);
+            return (count == null) ? 0 : count;
+        }
 
-    StepFilter ignoredSteps() {
-        return new StepFilter() {
-            @Override
-            boolean apply(TestStep step) {
-                return step.isIgnored();
+        List<Screenshot> getScreenshots() {
+            if (screenshots == null) {
+                List<Screenshot> stepScreenshots = new ArrayList<Screenshot>();
+                Map<String, Integer> screenshotWidths = new HashMap<String, Integer>();
+                for (TestStep step : flattenedTestSteps) {
+                    if (step.needsScreenshots()) {
+                        for (ScreenshotAndHtmlSource screenshot : step.getScreenshots()) {
+                            stepScreenshots.add(new Screenshot(screenshot.getScreenshotFile().getName(),
+                                                               step.getDescription(),
+                                                               widthOf(screenshot, screenshotWidths),
+                                                               step.getException()));
+                        }
+                    }
+                }
+                screenshots = ImmutableList.copyOf(stepScreenshots);
             }
-        };
-    }
+            return screenshots;
+        }
 
-    StepFilter skippedSteps() {
-        return new StepFilter() {
-            @Override
-            boolean apply(TestStep step) {
-                return step.isSkipped();
+        /**
+         * Screenshots taken during this test run have their width recorded when they are taken;
+         * others, such as screenshots in reloaded reports from older versions, are read from disk once.
+         */
+        private int widthOf(final ScreenshotAndHtmlSource screenshot, final Map<String, Integer> screenshotWidths) {
+            if (screenshot.getWidth() != null) {
+                return screenshot.getWidth();
+            }
+            String screenshotName = screenshot.getScreenshotFile().getName();
+            Integer width = screenshotWidths.get(screenshotName);
+            if (width == null) {
+                width = widthOf(screenshot.getScreenshotFile());
+                screenshotWidths.put(screenshotName, width);
             }
-        };
+            return width;
+        }
+
+        private int widthOf(final File screenshot) {
+            try {
+                return new SimpleImageInfo(screenshot).getWidth();
+            } catch (IOException e) {
+                return ThucydidesSystemProperty.DEFAULT_WIDTH;
+            }
+        }
     }
 }
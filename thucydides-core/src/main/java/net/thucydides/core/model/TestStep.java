@@ -6,6 +6,7 @@ import net.thucydides.core.screenshots.ScreenshotAndHtmlSource;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static ch.lambdaj.Lambda.extract;
 import static ch.lambdaj.Lambda.join;
@@ -38,6 +39,12 @@ public class TestStep {
 
     private List<TestStep> children = new ArrayList<TestStep>();
 
+    /**
+     * Incremented whenever this step or one of its children is modified, so that the test outcome this step
+     * belongs to knows when the values it derives from its steps need to be worked out again.
+     */
+    private transient AtomicLong outcomeStepVersion;
+
     public TestStep() {
         startTime = System.currentTimeMillis();
     }
@@ -64,6 +71,7 @@ public class TestStep {
     
     public void setDescription(final String description) {
         this.description = description;
+        stepHasChanged();
     }
 
     public String getDescription() {
@@ -97,6 +105,7 @@ public class TestStep {
      */
     public void setResult(final TestResult result) {
         this.result = result;
+        stepHasChanged();
     }
 
     public TestResult getResult() {
@@ -154,6 +163,7 @@ public class TestStep {
 
     public void setDuration(final long duration) {
         this.duration = duration;
+        stepHasChanged();
     }
 
     public long getDuration() {
@@ -165,8 +175,8 @@ public class TestStep {
      * @param exception why the test failed.
      */
     public void failedWith(final Throwable exception) {
-        setResult(TestResult.FAILURE);
         this.cause = exception;
+        setResult(TestResult.FAILURE);
     }
 
     public String getErrorMessage() {
@@ -179,6 +189,7 @@ public class TestStep {
      */
     public void testAborted(final Throwable exception) {
         this.cause = exception;
+        stepHasChanged();
     }
 
     private String errorMessageFrom(final Throwable error) {
@@ -210,6 +221,10 @@ public class TestStep {
 
     public void addChildStep(final TestStep step) {
         children.add(step);
+        if (outcomeStepVersion != null) {
+            step.recordChangesIn(outcomeStepVersion);
+        }
+        stepHasChanged();
     }
 
     public boolean hasChildren() {
@@ -231,6 +246,7 @@ public class TestStep {
     public void addScreenshot(ScreenshotAndHtmlSource screenshotAndHtmlSource) {
         if (thisIsANew(screenshotAndHtmlSource)) {
             screenshots.add(screenshotAndHtmlSource);
+            stepHasChanged();
         }
     }
 
@@ -246,4 +262,22 @@ public class TestStep {
     public int getScreenshotCount() {
         return screenshots.size();
     }
+
+    private void stepHasChanged() {
+        if (outcomeStepVersion != null) {
+            outcomeStepVersion.incrementAndGet();
+        }
+    }
+
+    /**
+     * Changes to this step and to its children will be counted in the step version of the test outcome
+     * this step has been recorded in.
+     */
+    void recordChangesIn(final AtomicLong stepVersion) {
+        this.outcomeStepVersion = stepVersion;
+        for (TestStep child : children) {
+            child.recordChangesIn(stepVersion);
+        }
+        stepHasChanged();
+    }
 }
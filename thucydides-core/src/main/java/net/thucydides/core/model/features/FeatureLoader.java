@@ -7,7 +7,9 @@ import net.thucydides.core.model.userstories.UserStoryLoader;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Load a set of test results organized into stories and features, and return them as a list of features.
@@ -29,17 +31,23 @@ public class FeatureLoader {
     }
 
     public List<FeatureResults> loadFrom(final File resultsDirectory) throws IOException {
-        List<FeatureResults> results = new ArrayList<FeatureResults>();
+        return loadFrom(getUserStoriesLoader().loadFrom(resultsDirectory));
+    }
 
-        List<StoryTestResults> stories = getUserStoriesLoader().loadFrom(resultsDirectory);
+    /**
+     * Group stories that have already been loaded into features, so that the report files
+     * do not need to be read again.
+     */
+    public List<FeatureResults> loadFrom(final List<StoryTestResults> stories) {
+        Map<ApplicationFeature, FeatureResults> results = new LinkedHashMap<ApplicationFeature, FeatureResults>();
         for(StoryTestResults storyResult : stories) {
             updateFeatureResults(results, storyResult);
         }
-
-        return results;
+        return new ArrayList<FeatureResults>(results.values());
     }
 
-    private void updateFeatureResults(final List<FeatureResults> results, final StoryTestResults storyResult) {
+    private void updateFeatureResults(final Map<ApplicationFeature, FeatureResults> results,
+                                      final StoryTestResults storyResult) {
         ApplicationFeature feature = storyResult.getStory().getFeature();
         if (feature != null) {
             FeatureResults featureResults = featureResultsFor(feature, results);
@@ -47,17 +55,12 @@ public class FeatureLoader {
         }
     }
 
-    private FeatureResults featureResultsFor(final ApplicationFeature feature, final List<FeatureResults> results) {
-        FeatureResults matchingFeatureResults = null;
-        for (FeatureResults featureResult : results) {
-            if (featureResult.getFeature().equals(feature)) {
-                matchingFeatureResults = featureResult;
-                break;
-            }
-        }
+    private FeatureResults featureResultsFor(final ApplicationFeature feature,
+                                             final Map<ApplicationFeature, FeatureResults> results) {
+        FeatureResults matchingFeatureResults = results.get(feature);
         if (matchingFeatureResults == null) {
             matchingFeatureResults = new FeatureResults(feature);
-            results.add(matchingFeatureResults);
+            results.put(feature, matchingFeatureResults);
         }
         return matchingFeatureResults;
     }
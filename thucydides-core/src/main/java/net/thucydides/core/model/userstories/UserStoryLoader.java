@@ -1,10 +1,16 @@
 package net.thucydides.core.model.userstories;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.thucydides.core.ThucydidesSystemProperty;
+import net.thucydides.core.guice.Injectors;
+import net.thucydides.core.model.ReportType;
 import net.thucydides.core.model.Story;
 import net.thucydides.core.model.StoryTestResults;
 import net.thucydides.core.model.TestOutcome;
+import net.thucydides.core.reports.binary.BinaryTestOutcomeReporter;
 import net.thucydides.core.reports.xml.NotAThucydidesReportException;
 import net.thucydides.core.reports.xml.XMLTestOutcomeReporter;
+import net.thucydides.core.util.EnvironmentVariables;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -12,74 +18,253 @@ import java.io.File;
 import java.io.FilenameFilter;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Loads a list of user stories from a given directory.
- * 
+ * When a test outcome has been stored in both the binary and the XML formats, the binary report is used,
+ * as it is much faster to load. The XML report is only read if the binary one cannot be.
+ * The reports are parsed in parallel, but the test outcomes are always recorded in the order
+ * of the report files, so the results do not depend on the number of threads used.
  */
 public class UserStoryLoader {
 
-    private static final class XmlFilenameFilter implements FilenameFilter {
+    private static final String XML_SUFFIX = "." + ReportType.XML;
+    private static final String BINARY_SUFFIX = "." + ReportType.BINARY;
+
+    private static final class ReportFilenameFilter implements FilenameFilter {
         public boolean accept(final File file, final String filename) {
-            return filename.toLowerCase(Locale.getDefault()).endsWith(".xml");
+            String lowerCaseFilename = filename.toLowerCase(Locale.getDefault());
+            return lowerCaseFilename.endsWith(XML_SUFFIX) || lowerCaseFilename.endsWith(BINARY_SUFFIX);
         }
     }
 
     private static final Logger LOGGER = LoggerFactory.getLogger(UserStoryLoader.class);
 
+    private final EnvironmentVariables environmentVariables;
+
+    public UserStoryLoader() {
+        this(Injectors.getInjector().getInstance(EnvironmentVariables.class));
+    }
+
+    public UserStoryLoader(final EnvironmentVariables environmentVariables) {
+        this.environmentVariables = environmentVariables;
+    }
+
     /**
      * Load the user stories from the XML test results in a specified directory.
      * Test results will be split across user stories if the user stories are specified in the 
      * test run XML files.
      */
     public List<StoryTestResults> loadFrom(final File reportDirectory) throws IOException {
+        return storiesFor(loadTestOutcomesFrom(reportFilesIn(reportDirectory)));
+    }
 
-        List<StoryTestResults> stories = new ArrayList<StoryTestResults>();
-        
-        XMLTestOutcomeReporter testOutcomeReporter = new XMLTestOutcomeReporter();
-
-        File[] reportFiles = getAllXMLFilesFrom(reportDirectory);
+    /**
+     * The report files to be loaded from a directory, using the binary version of each report where there is one.
+     */
+    public List<File> reportFilesIn(final File reportDirectory) {
+        File[] reportFiles = getAllReportFilesFrom(reportDirectory);
 
         if (reportFiles == null) {
             LOGGER.error("Could not find any Thucydides reports");
-            return stories;
+            return new ArrayList<File>();
+        }
+        return preferredReportsAmong(reportFiles);
+    }
+
+    /**
+     * Group test outcomes by user story. Null entries, and outcomes without a user story, are ignored.
+     */
+    public List<StoryTestResults> storiesFor(final List<TestOutcome> testOutcomes) {
+        Map<Story, StoryTestResults> stories = new LinkedHashMap<Story, StoryTestResults>();
+        for (TestOutcome testOutcome : testOutcomes) {
+            if ((testOutcome != null) && (testOutcome.getUserStory() != null)) {
+                StoryTestResults storyResults = userStoryResultsFor(testOutcome, stories);
+                storyResults.recordTestRun(testOutcome);
+            }
+        }
+        
+        return new ArrayList<StoryTestResults>(stories.values());
+    }
+
+    /**
+     * Use the binary version of each report where there is one, and the XML version otherwise.
+     * A binary report that is older than its XML report is out of date, so the XML report is used instead.
+     */
+    private List<File> preferredReportsAmong(final File[] reportFiles) {
+        Map<String, File> reportsByName = new HashMap<String, File>();
+        for (File reportFile : reportFiles) {
+            reportsByName.put(reportFile.getName(), reportFile);
         }
 
+        List<File> preferredReports = new ArrayList<File>();
         for (File reportFile : reportFiles) {
+            String filename = reportFile.getName();
+            if (isBinary(reportFile)) {
+                if (!reportsByName.containsKey(withSuffix(filename, XML_SUFFIX))) {
+                    preferredReports.add(reportFile);
+                }
+            } else {
+                File binaryReport = reportsByName.get(withSuffix(filename, BINARY_SUFFIX));
+                if ((binaryReport != null) && (binaryReport.lastModified() >= reportFile.lastModified())) {
+                    preferredReports.add(binaryReport);
+                } else {
+                    preferredReports.add(reportFile);
+                }
+            }
+        }
+        return preferredReports;
+    }
+
+    private static boolean isBinary(final File reportFile) {
+        return reportFile.getName().toLowerCase(Locale.getDefault()).endsWith(BINARY_SUFFIX);
+    }
+
+    private static String withSuffix(final String filename, final String suffix) {
+        return filename.substring(0, filename.lastIndexOf('.')) + suffix;
+    }
+
+    /**
+     * Load the test outcomes stored in the given report files.
+     * The returned list has one entry for each file, in the same order, with null entries for any files
+     * that turn out not to be Thucydides reports.
+     */
+    public List<TestOutcome> loadTestOutcomesFrom(final List<File> reportFiles) throws IOException {
+        ReportReaders readers = new ReportReaders();
+
+        int threadCount = Math.min(getLoaderThreadCount(), reportFiles.size());
+        if (threadCount <= 1) {
+            List<TestOutcome> testOutcomes = new ArrayList<TestOutcome>();
+            for (File reportFile : reportFiles) {
+                testOutcomes.add(new TestOutcomeLoader(readers, reportFile).call());
+            }
+            return testOutcomes;
+        } else {
+            return loadTestOutcomesInParallel(readers, reportFiles, threadCount);
+        }
+    }
+
+    private List<TestOutcome> loadTestOutcomesInParallel(final ReportReaders readers,
+                                                         final List<File> reportFiles,
+                                                         final int threadCount) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount,
+                                                                new ThreadFactoryBuilder().setDaemon(true)
+                                                                        .setNameFormat("thucydides-report-loader-%d")
+                                                                        .build());
+        try {
+            List<Future<TestOutcome>> loadedReports = new ArrayList<Future<TestOutcome>>();
+            for (File reportFile : reportFiles) {
+                loadedReports.add(executor.submit(new TestOutcomeLoader(readers, reportFile)));
+            }
+
+            List<TestOutcome> testOutcomes = new ArrayList<TestOutcome>();
+            for (Future<TestOutcome> loadedReport : loadedReports) {
+                testOutcomes.add(waitFor(loadedReport));
+            }
+            return testOutcomes;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Loading the test reports was interrupted");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private TestOutcome waitFor(final Future<TestOutcome> loadedReport) throws IOException, InterruptedException {
+        try {
+            return loadedReport.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException("Failed to load test report", cause);
+        }
+    }
+
+    /**
+     * The readers for each report format. Both readers can be shared between threads.
+     */
+    private static final class ReportReaders {
+        private final XMLTestOutcomeReporter xmlReader = new XMLTestOutcomeReporter();
+        private final BinaryTestOutcomeReporter binaryReader = new BinaryTestOutcomeReporter();
+    }
+
+    /**
+     * Loads a single test outcome, or returns null if the file is not a Thucydides report.
+     */
+    private static final class TestOutcomeLoader implements Callable<TestOutcome> {
+        private final ReportReaders readers;
+        private final File reportFile;
+
+        private TestOutcomeLoader(final ReportReaders readers, final File reportFile) {
+            this.readers = readers;
+            this.reportFile = reportFile;
+        }
+
+        public TestOutcome call() throws IOException {
+            if (isBinary(reportFile)) {
+                return loadBinaryReport();
+            } else {
+                return loadXmlReport(reportFile);
+            }
+        }
+
+        private TestOutcome loadBinaryReport() throws IOException {
             try {
-                TestOutcome testOutcome = testOutcomeReporter.loadReportFrom(reportFile);
-                if (testOutcome.getUserStory() != null) {
-                    StoryTestResults storyResults = userStoryResultsFor(testOutcome, stories);
-                    storyResults.recordTestRun(testOutcome);
+                return readers.binaryReader.loadReportFrom(reportFile);
+            } catch (NotAThucydidesReportException e) {
+                File xmlReport = new File(reportFile.getParentFile(), withSuffix(reportFile.getName(), XML_SUFFIX));
+                if (xmlReport.exists()) {
+                    LOGGER.debug("Could not read binary report {}, using the XML report instead", reportFile);
+                    return loadXmlReport(xmlReport);
                 }
+                LOGGER.info("Skipping binary file - not a readable Thucydides report: " + reportFile);
+                return null;
+            }
+        }
+
+        private TestOutcome loadXmlReport(final File xmlReport) throws IOException {
+            try {
+                return readers.xmlReader.loadReportFrom(xmlReport);
             } catch (NotAThucydidesReportException e) {
-                LOGGER.info("Skipping XML file - not a Thucydides report: " + reportFile);
+                LOGGER.info("Skipping XML file - not a Thucydides report: " + xmlReport);
+                return null;
             }
         }
-        
-        return stories;
     }
 
-    
+    private int getLoaderThreadCount() {
+        return environmentVariables.getPropertyAsInteger(ThucydidesSystemProperty.REPORT_THREADS.getPropertyName(),
+                                                         Runtime.getRuntime().availableProcessors());
+    }
+
     private StoryTestResults userStoryResultsFor(final TestOutcome testOutcome,
-                                                 final List<StoryTestResults> storyResults) {
+                                                 final Map<Story, StoryTestResults> storyResults) {
         Story userStory = testOutcome.getUserStory();
-        for (StoryTestResults storyResult : storyResults) {
-            if (storyResult.containsResultsFor(userStory)) {
-                return storyResult;
-            }
+        StoryTestResults storyTestResults = storyResults.get(userStory);
+        if (storyTestResults == null) {
+            storyTestResults = new StoryTestResults(userStory);
+            storyResults.put(userStory, storyTestResults);
         }
-        StoryTestResults storyTestResults = new StoryTestResults(userStory);
-        storyResults.add(storyTestResults);
         return storyTestResults;
     }
 
-
-
-
-    private File[] getAllXMLFilesFrom(final File reportsDirectory) {
-        return reportsDirectory.listFiles(new XmlFilenameFilter());
+    private File[] getAllReportFilesFrom(final File reportsDirectory) {
+        return reportsDirectory.listFiles(new ReportFilenameFilter());
     }
 }
@@ -0,0 +1,236 @@
+package net.thucydides.core.pages;
+
+import net.thucydides.core.webdriver.javascript.JavascriptExecutorFacade;
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.ExpectedCondition;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static net.thucydides.core.webdriver.javascript.JavascriptSupport.javascriptIsSupportedIn;
+
+/**
+ * A condition made up of several texts that should appear on the page and elements that should be displayed,
+ * all of which (or any of which) must hold.
+ * When the driver supports Javascript, the sub-conditions are compiled into a single script that checks all of
+ * them in one call to the browser, rather than one call per text or element. Elements the script finds displayed
+ * are then checked again with WebDriver, so the result is the same as with WebDriver alone.
+ * The condition also keeps track of which sub-conditions held the last time it was checked, to explain timeouts.
+ */
+class CompoundPageCondition implements ExpectedCondition<Boolean> {
+
+    private static final String PROBE
+            = "var textCount = arguments[0], results = [];"
+            + "var texts = Array.prototype.slice.call(arguments, 1, textCount + 1);"
+            + "var locators = Array.prototype.slice.call(arguments, textCount + 1);"
+            + "var bodyText = document.body ? (document.body.textContent || document.body.innerText || '') : '';"
+            + "for (var i = 0; i < texts.length; i++) { results.push(bodyText.indexOf(texts[i]) >= 0); }"
+            + "function firstMatch(locator) {"
+            + "  var type = locator.substring(0, locator.indexOf(':')), value = locator.substring(locator.indexOf(':') + 1);"
+            + "  if (type == 'id') { return document.getElementById(value); }"
+            + "  if (type == 'name') { return document.getElementsByName(value)[0]; }"
+            + "  if (type == 'tagName') { return document.getElementsByTagName(value)[0]; }"
+            + "  if (type == 'className') { return document.querySelector('.' + value); }"
+            + "  if (type == 'css') { return document.querySelector(value); }"
+            + "  if (type == 'xpath') {"
+            + "    return document.evaluate(value, document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null)"
+            + "                   .singleNodeValue;"
+            + "  }"
+            + "  throw 'unsupported locator';"
+            + "}"
+            + ElementScripts.IS_DISPLAYED
+            + "for (var j = 0; j < locators.length; j++) {"
+            + "  try { results.push(isDisplayed(firstMatch(locators[j]))); } catch (e) { results.push(null); }"
+            + "}"
+            + "return results;";
+
+    private static final String[][] LOCATOR_TYPES = {{"By.id: ", "id"}, {"By.name: ", "name"},
+                                                      {"By.tagName: ", "tagName"}, {"By.className: ", "className"},
+                                                      {"By.selector: ", "css"}, {"By.xpath: ", "xpath"}};
+
+    private final WebDriver driver;
+    private final boolean allMustHold;
+    private final List<String> texts = new ArrayList<String>();
+    private final List<By> elements = new ArrayList<By>();
+
+    private List<String> unmetConditions = new ArrayList<String>();
+
+    private CompoundPageCondition(final WebDriver driver, final boolean allMustHold) {
+        this.driver = driver;
+        this.allMustHold = allMustHold;
+    }
+
+    public static CompoundPageCondition allOf(final WebDriver driver) {
+        return new CompoundPageCondition(driver, true);
+    }
+
+    public static CompoundPageCondition anyOf(final WebDriver driver) {
+        return new CompoundPageCondition(driver, false);
+    }
+
+    public CompoundPageCondition withTexts(final String... expectedTexts) {
+        for (String expectedText : expectedTexts) {
+            texts.add(expectedText);
+        }
+        return this;
+    }
+
+    public CompoundPageCondition withDisplayedElements(final By... expectedElements) {
+        for (By expectedElement : expectedElements) {
+            elements.add(expectedElement);
+        }
+        return this;
+    }
+
+    /**
+     * Sub-conditions the probe found false are not checked again with WebDriver: when all of them must hold,
+     * WebDriver is only used once the probe says that they may all hold.
+     */
+    public Boolean apply(final WebDriver driver) {
+        List<Boolean> probeResults = probe();
+        List<String> unmet = new ArrayList<String>();
+        if (allMustHold) {
+            for (int i = 0; i < probeResults.size(); i++) {
+                if (Boolean.FALSE.equals(probeResults.get(i))) {
+                    unmet.add(descriptionOf(i));
+                }
+            }
+            if (unmet.isEmpty()) {
+                for (int i = 0; i < probeResults.size(); i++) {
+                    if (!confirm(i, probeResults.get(i))) {
+                        unmet.add(descriptionOf(i));
+                    }
+                }
+            }
+            unmetConditions = unmet;
+            return unmet.isEmpty();
+        } else {
+            for (int i = 0; i < probeResults.size(); i++) {
+                if (!Boolean.FALSE.equals(probeResults.get(i)) && confirm(i, probeResults.get(i))) {
+                    unmetConditions = unmet;
+                    return true;
+                }
+                unmet.add(descriptionOf(i));
+            }
+            unmetConditions = unmet;
+            return false;
+        }
+    }
+
+    private boolean confirm(final int condition, final Boolean probeResult) {
+        if (condition < texts.size()) {
+            return (probeResult != null) ? probeResult : pageContains(texts.get(condition));
+        } else {
+            return elementIsDisplayed(elements.get(condition - texts.size()));
+        }
+    }
+
+    private String descriptionOf(final int condition) {
+        if (condition < texts.size()) {
+            return textDescription(texts.get(condition));
+        } else {
+            return elementDescription(elements.get(condition - texts.size()));
+        }
+    }
+
+    /**
+     * Check every sub-condition in a single Javascript call if possible.
+     * A null result means the sub-condition has to be checked with WebDriver.
+     */
+    @SuppressWarnings("unchecked")
+    private List<Boolean> probe() {
+        int conditionCount = texts.size() + elements.size();
+        if (javascriptIsSupportedIn(driver)) {
+            try {
+                Object results = new JavascriptExecutorFacade(driver).executeScript(PROBE, probeArguments());
+                if ((results instanceof List) && (((List<Object>) results).size() == conditionCount)) {
+                    return booleansIn((List<Object>) results);
+                }
+            } catch (RuntimeException e) {
+                // Script errors are not always reported as WebDriverExceptions - fall back on WebDriver lookups
+            }
+        }
+        List<Boolean> unknownResults = new ArrayList<Boolean>();
+        for (int i = 0; i < conditionCount; i++) {
+            unknownResults.add(null);
+        }
+        return unknownResults;
+    }
+
+    private List<Boolean> booleansIn(final List<Object> results) {
+        List<Boolean> booleans = new ArrayList<Boolean>();
+        for (Object result : results) {
+            booleans.add((result instanceof Boolean) ? (Boolean) result : null);
+        }
+        return booleans;
+    }
+
+    private Object[] probeArguments() {
+        List<Object> arguments = new ArrayList<Object>();
+        arguments.add(texts.size());
+        arguments.addAll(texts);
+        for (By element : elements) {
+            arguments.add(compiledLocatorFor(element));
+        }
+        return arguments.toArray();
+    }
+
+    private String compiledLocatorFor(final By element) {
+        String locator = element.toString();
+        for (String[] locatorType : LOCATOR_TYPES) {
+            if (locator.startsWith(locatorType[0])) {
+                return locatorType[1] + ":" + locator.substring(locatorType[0].length());
+            }
+        }
+        return "unsupported:" + locator;
+    }
+
+    private boolean pageContains(final String text) {
+        String textInBody = String.format("//body[contains(.,\"%s\")]", text);
+        List<WebElement> elements = driver.findElements(By.xpath(textInBody));
+        return (elements != null) && (!elements.isEmpty());
+    }
+
+    private boolean elementIsDisplayed(final By element) {
+        try {
+            List<WebElement> matchingElements = driver.findElements(element);
+            return (matchingElements != null) && (!matchingElements.isEmpty())
+                   && matchingElements.get(0).isDisplayed();
+        } catch (NoSuchElementException noSuchElement) {
+            return false;
+        } catch (StaleElementReferenceException se) {
+            return false;
+        }
+    }
+
+    private String textDescription(final String text) {
+        return "text '" + text + "'";
+    }
+
+    private String elementDescription(final By element) {
+        return "element " + element;
+    }
+
+    /**
+     * The sub-conditions that did not hold the last time the condition was checked.
+     */
+    public List<String> getUnmetConditions() {
+        return unmetConditions;
+    }
+
+    @Override
+    public String toString() {
+        List<String> conditions = new ArrayList<String>();
+        for (String text : texts) {
+            conditions.add(textDescription(text));
+        }
+        for (By element : elements) {
+            conditions.add(elementDescription(element));
+        }
+        return (allMustHold ? "all of " : "any of ") + conditions;
+    }
+}
@@ -0,0 +1,44 @@
+package net.thucydides.core.pages;
+
+/**
+ * Javascript functions shared by the scripts that read the state of page elements in a single call.
+ */
+final class ElementScripts {
+
+    private ElementScripts() {}
+
+    /**
+     * Defines <code>isDisplayed(e)</code>, which works out the visibility of an element from the styles of
+     * the element and its ancestors. This is close to (but not quite as thorough as) what WebDriver does.
+     * Missing elements are not displayed.
+     */
+    static final String IS_DISPLAYED
+            = "function styleOf(n) {"
+            + "  return window.getComputedStyle ? window.getComputedStyle(n, null) : n.currentStyle;"
+            + "}"
+            + "function isDisplayed(e) {"
+            + "  if (!e || (e.tagName.toLowerCase() == 'input' && e.type == 'hidden')) { return false; }"
+            + "  if (styleOf(e) && styleOf(e).visibility == 'hidden') { return false; }"
+            + "  for (var n = e; n && n.nodeType == 1; n = n.parentNode) {"
+            + "    if (styleOf(n) && styleOf(n).display == 'none') { return false; }"
+            + "  }"
+            + "  return true;"
+            + "}";
+
+    /**
+     * Defines <code>textOf(e)</code>, which reads the visible text of an element and normalizes it line by line
+     * like WebElement.getText(): non-breaking spaces become spaces, runs of spaces and tabs are collapsed,
+     * lines are trimmed and empty lines are left out.
+     */
+    static final String TEXT_OF
+            = "function textOf(e) {"
+            + "  var text = (e.innerText !== undefined) ? e.innerText : e.textContent;"
+            + "  var lines = (text || '').replace(/\\u00a0/g, ' ').split(/\\r?\\n/);"
+            + "  var texts = [];"
+            + "  for (var i = 0; i < lines.length; i++) {"
+            + "    var line = lines[i].replace(/[ \\t\\f\\v]+/g, ' ').replace(/^ +| +$/g, '');"
+            + "    if (line.length > 0) { texts.push(line); }"
+            + "  }"
+            + "  return texts.join('\\n');"
+            + "}";
+}
@@ -24,11 +24,15 @@ public class MatchingPageExpressions {
     private static final String OPTIONAL_PARAMS = "/?(\\?.*)?";
 
     public MatchingPageExpressions(final PageObject pageObject) {
-        buildMatchingExpressionsList(pageObject);
+        this(pageObject.getClass());
     }
 
-    private void buildMatchingExpressionsList(final PageObject pageObject) {
-        At compatibleWithAnnotation = pageObject.getClass().getAnnotation(At.class);
+    public MatchingPageExpressions(final Class<?> pageObjectClass) {
+        buildMatchingExpressionsList(pageObjectClass);
+    }
+
+    private void buildMatchingExpressionsList(final Class<?> pageObjectClass) {
+        At compatibleWithAnnotation = pageObjectClass.getAnnotation(At.class);
         if (compatibleWithAnnotation != null) {
             if (valueIsDefinedFor(compatibleWithAnnotation)) {
                 worksWithUrlPattern(compatibleWithAnnotation.value());
@@ -1,15 +1,17 @@
 package net.thucydides.core.pages;
 
-import net.thucydides.core.annotations.WhenPageOpens;
 import net.thucydides.core.guice.Injectors;
 import net.thucydides.core.pages.components.Dropdown;
 import net.thucydides.core.pages.components.FileToUpload;
 import net.thucydides.core.pages.jquery.JQueryEnabledPage;
 import net.thucydides.core.scheduling.FluentWaitWithRefresh;
 import net.thucydides.core.scheduling.NormalFluentWait;
+import net.thucydides.core.scheduling.PollingStrategies;
+import net.thucydides.core.scheduling.PollingStrategy;
 import net.thucydides.core.scheduling.ThucydidesFluentWait;
 import net.thucydides.core.steps.StepDelayer;
 import net.thucydides.core.steps.StepEventBus;
+import net.thucydides.core.util.EnvironmentVariables;
 import net.thucydides.core.webdriver.WebDriverFacade;
 import net.thucydides.core.webdriver.WebDriverFactory;
 import net.thucydides.core.webdriver.javascript.JavascriptExecutorFacade;
@@ -33,7 +35,6 @@ import javax.xml.xpath.XPathFactory;
 import java.lang.reflect.Method;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
@@ -74,6 +75,8 @@ public abstract class PageObject {
 
     private boolean jquerySupportActivated = false;
 
+    private PollingStrategy pollingStrategy;
+
     public PageObject(final WebDriver driver, final int ajaxTimeout) {
         this.driver = driver;
         this.waitForTimeout = ajaxTimeout;
@@ -135,7 +138,7 @@ public abstract class PageObject {
 
     private MatchingPageExpressions getMatchingPageExpressions() {
         if (matchingPageExpressions == null) {
-            matchingPageExpressions = new MatchingPageExpressions(this);
+            matchingPageExpressions = PageObjectMetadata.forClass(getClass()).getMatchingPageExpressions();
         }
         return matchingPageExpressions;
     }
@@ -529,9 +532,8 @@ public abstract class PageObject {
      * Override this method
      */
     public void callWhenPageOpensMethods() {
-        for (Method annotatedMethod : methodsAnnotatedWithWhenPageOpens()) {
+        for (Method annotatedMethod : PageObjectMetadata.forClass(getClass()).getWhenPageOpensMethods()) {
             try {
-                annotatedMethod.setAccessible(true);
                 annotatedMethod.invoke(this);
             } catch (Exception e) {
                 LOGGER.error("Could not execute @WhenPageOpens annotated method: " + e.getMessage());
@@ -542,27 +544,14 @@ public abstract class PageObject {
 
     }
 
-    private List<Method> methodsAnnotatedWithWhenPageOpens() {
-        Method[] methods = this.getClass().getDeclaredMethods();
-        List<Method> annotatedMethods = new ArrayList<Method>();
-        for (Method method : methods) {
-            if (method.getAnnotation(WhenPageOpens.class) != null) {
-                if (method.getParameterTypes().length == 0) {
-                    annotatedMethods.add(method);
-                } else {
-                    throw new UnableToInvokeWhenPageOpensMethods("Could not execute @WhenPageOpens annotated method: WhenPageOpens method cannot have parameters: " + method);
-                }
-            }
-        }
-        return annotatedMethods;
-    }
-
     public static String[] withParameters(final String... parameterValues) {
         return parameterValues;
     }
 
     private void openPageAtUrl(final String startingUrl) {
         getDriver().get(startingUrl);
+        StepEventBus.getEventBus().pageStateMayHaveChanged();
+        jquerySupportActivated = false;
         addJQuerySupport();
     }
 
@@ -638,18 +627,13 @@ public abstract class PageObject {
     public Object evaluateJavascript(final String script) {
         addJQuerySupport();
         JavascriptExecutorFacade js = new JavascriptExecutorFacade(driver);
+        StepEventBus.getEventBus().pageStateMayHaveChanged();
         return js.executeScript(script);
     }
 
     public void addJQuerySupport() {
         if (!jquerySupportActivated && driverIsEnabled() && !isHeadlessDriver(getDriver()))  {
-            JQueryEnabledPage jQueryEnabledPage = JQueryEnabledPage.withDriver(getDriver());
-            if (!jQueryEnabledPage.isJQueryEnabled()) {
-                jQueryEnabledPage.injectJQuery();
-            }
-            if (jQueryEnabledPage.isJQueryEnabled()) {
-                jQueryEnabledPage.injectJQueryPlugins();
-            }
+            JQueryEnabledPage.withDriver(getDriver()).activateJQuery();
             jquerySupportActivated = true;
         }
     }
@@ -664,10 +648,18 @@ public abstract class PageObject {
         return true;
     }
 
+    private PollingStrategy getPollingStrategy() {
+        if (pollingStrategy == null) {
+            pollingStrategy = PollingStrategies.configuredIn(Injectors.getInjector().getInstance(EnvironmentVariables.class));
+        }
+        return pollingStrategy;
+    }
+
     public ThucydidesFluentWait<WebDriver> waitForWithRefresh() {
         return new FluentWaitWithRefresh<WebDriver>(driver, webdriverClock, sleeper)
                 .withTimeout(waitForTimeout, TimeUnit.MILLISECONDS)
                 .pollingEvery(WAIT_FOR_ELEMENT_PAUSE_LENGTH, TimeUnit.MILLISECONDS)
+                .pollingWith(getPollingStrategy())
                 .ignoring(NoSuchElementException.class, NoSuchFrameException.class);
     }
 
@@ -675,6 +667,7 @@ public abstract class PageObject {
         return new NormalFluentWait<WebDriver>(driver, webdriverClock, sleeper)
                 .withTimeout(waitForTimeout, TimeUnit.MILLISECONDS)
                 .pollingEvery(WAIT_FOR_ELEMENT_PAUSE_LENGTH, TimeUnit.MILLISECONDS)
+                .pollingWith(getPollingStrategy())
                 .ignoring(NoSuchElementException.class, NoSuchFrameException.class);
     }
 
@@ -0,0 +1,137 @@
+package net.thucydides.core.pages;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import net.thucydides.core.annotations.DefaultUrl;
+import net.thucydides.core.annotations.NamedUrl;
+import net.thucydides.core.annotations.NamedUrls;
+import net.thucydides.core.annotations.WhenPageOpens;
+import org.openqa.selenium.WebDriver;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What Thucydides needs to know about a page object class: its @WhenPageOpens methods, the URL patterns
+ * it works with, its declared URLs and the constructor used to create it.
+ * This information is worked out with reflection the first time a page object class is used,
+ * and then shared by all the instances of this class, in all threads.
+ * The page object classes are weakly referenced so that they can still be unloaded with their class loader.
+ * The metadata refers to the methods and constructor of its class, so it is only softly referenced:
+ * otherwise it would keep its own key alive.
+ */
+public class PageObjectMetadata {
+
+    private static final LoadingCache<Class<?>, PageObjectMetadata> METADATA
+            = CacheBuilder.newBuilder().weakKeys().softValues().build(new CacheLoader<Class<?>, PageObjectMetadata>() {
+                @Override
+                public PageObjectMetadata load(final Class<?> pageObjectClass) {
+                    return new PageObjectMetadata(pageObjectClass);
+                }
+            });
+
+    private final List<Method> whenPageOpensMethods = new ArrayList<Method>();
+    private Method invalidWhenPageOpensMethod;
+    private final MatchingPageExpressions matchingPageExpressions;
+    private final String declaredDefaultUrl;
+    private final Map<String, String> namedUrls = new HashMap<String, String>();
+    private final Constructor<?> webdriverConstructor;
+
+    private PageObjectMetadata(final Class<?> pageObjectClass) {
+        findWhenPageOpensMethodsIn(pageObjectClass);
+        matchingPageExpressions = new MatchingPageExpressions(pageObjectClass);
+        declaredDefaultUrl = findDeclaredDefaultUrlIn(pageObjectClass);
+        findNamedUrlsIn(pageObjectClass);
+        webdriverConstructor = findWebDriverConstructorIn(pageObjectClass);
+    }
+
+    public static PageObjectMetadata forClass(final Class<?> pageObjectClass) {
+        try {
+            return METADATA.getUnchecked(pageObjectClass);
+        } catch (UncheckedExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    private void findWhenPageOpensMethodsIn(final Class<?> pageObjectClass) {
+        for (Method method : pageObjectClass.getDeclaredMethods()) {
+            if (method.getAnnotation(WhenPageOpens.class) != null) {
+                if (method.getParameterTypes().length == 0) {
+                    method.setAccessible(true);
+                    whenPageOpensMethods.add(method);
+                } else if (invalidWhenPageOpensMethod == null) {
+                    invalidWhenPageOpensMethod = method;
+                }
+            }
+        }
+    }
+
+    private String findDeclaredDefaultUrlIn(final Class<?> pageObjectClass) {
+        DefaultUrl urlAnnotation = pageObjectClass.getAnnotation(DefaultUrl.class);
+        return (urlAnnotation != null) ? urlAnnotation.value() : null;
+    }
+
+    private void findNamedUrlsIn(final Class<?> pageObjectClass) {
+        NamedUrls urlAnnotation = pageObjectClass.getAnnotation(NamedUrls.class);
+        if (urlAnnotation != null) {
+            for (NamedUrl namedUrl : urlAnnotation.value()) {
+                if (!namedUrls.containsKey(namedUrl.name())) {
+                    namedUrls.put(namedUrl.name(), namedUrl.url());
+                }
+            }
+        }
+    }
+
+    private Constructor<?> findWebDriverConstructorIn(final Class<?> pageObjectClass) {
+        try {
+            return pageObjectClass.getConstructor(WebDriver.class);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The methods annotated with @WhenPageOpens, ready to be invoked.
+     * @throws UnableToInvokeWhenPageOpensMethods if one of these methods has parameters.
+     */
+    public List<Method> getWhenPageOpensMethods() {
+        if (invalidWhenPageOpensMethod != null) {
+            throw new UnableToInvokeWhenPageOpensMethods("Could not execute @WhenPageOpens annotated method: "
+                    + "WhenPageOpens method cannot have parameters: " + invalidWhenPageOpensMethod);
+        }
+        return Collections.unmodifiableList(whenPageOpensMethods);
+    }
+
+    public MatchingPageExpressions getMatchingPageExpressions() {
+        return matchingPageExpressions;
+    }
+
+    /**
+     * The value of the @DefaultUrl annotation, or null if there is none.
+     */
+    public String getDeclaredDefaultUrl() {
+        return declaredDefaultUrl;
+    }
+
+    /**
+     * The URL declared with this name in the @NamedUrls annotation, or null if there is none.
+     */
+    public String getNamedUrl(final String name) {
+        return namedUrls.get(name);
+    }
+
+    /**
+     * The public constructor taking a WebDriver parameter, or null if there is none.
+     */
+    public Constructor<?> getWebDriverConstructor() {
+        return webdriverConstructor;
+    }
+}
@@ -1,8 +1,5 @@
 package net.thucydides.core.pages;
 
-import net.thucydides.core.annotations.DefaultUrl;
-import net.thucydides.core.annotations.NamedUrl;
-import net.thucydides.core.annotations.NamedUrls;
 import net.thucydides.core.guice.Injectors;
 import net.thucydides.core.webdriver.Configuration;
 
@@ -33,10 +30,13 @@ public class PageUrls {
         this(pageObject, Injectors.getInjector().getInstance(Configuration.class));
     }
 
+    private PageObjectMetadata getMetadata() {
+        return PageObjectMetadata.forClass(pageObject.getClass());
+    }
+
     public String getStartingUrl() {
-        DefaultUrl urlAnnotation = pageObject.getClass().getAnnotation(DefaultUrl.class);
-        if (urlAnnotation != null) {
-            String annotatedBaseUrl = urlAnnotation.value();
+        String annotatedBaseUrl = getDeclaredDefaultUrl();
+        if (annotatedBaseUrl != null) {
             String startingUrl = getUrlFrom(annotatedBaseUrl);
             return addDefaultBaseUrlIfRelative(startingUrl);
         } else {
@@ -45,12 +45,7 @@ public class PageUrls {
     }
 
     public String getDeclaredDefaultUrl() {
-        String annotatedBaseUrl = null;
-        DefaultUrl urlAnnotation = pageObject.getClass().getAnnotation(DefaultUrl.class);
-        if (urlAnnotation != null) {
-            annotatedBaseUrl = urlAnnotation.value();
-        }
-        return annotatedBaseUrl;
+        return getMetadata().getDeclaredDefaultUrl();
     }
 
     public static String getUrlFrom(final String annotatedBaseUrl) {
@@ -95,14 +90,9 @@ public class PageUrls {
     }
 
     public String getNamedUrl(final String name) {
-        NamedUrls urlAnnotation = pageObject.getClass().getAnnotation(NamedUrls.class);
-        if (urlAnnotation != null) {
-            NamedUrl[] namedUrlList = urlAnnotation.value();
-            for (NamedUrl namedUrl : namedUrlList) {
-                if (namedUrl.name().equals(name)) {
-                    return namedUrl.url();
-                }
-            }
+        String namedUrl = getMetadata().getNamedUrl(name);
+        if (namedUrl != null) {
+            return namedUrl;
         }
         throw new IllegalArgumentException("No URL named " + name
                 + " was found in this class");
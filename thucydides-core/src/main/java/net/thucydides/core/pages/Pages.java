@@ -160,15 +160,14 @@ public class Pages implements Serializable {
     @SuppressWarnings("unchecked")
     private <T extends PageObject> T getCurrentPageOfType(final Class<T> pageObjectClass) {
         T currentPage = null;
-        try {
-            Class[] constructorArgs = new Class[1];
-            constructorArgs[0] = WebDriver.class;
-            Constructor<? extends PageObject> constructor = pageObjectClass.getConstructor(constructorArgs);
-            currentPage = (T) constructor.newInstance(driver);
-        } catch (NoSuchMethodException e) {
+        Constructor<?> constructor = PageObjectMetadata.forClass(pageObjectClass).getWebDriverConstructor();
+        if (constructor == null) {
             LOGGER.info("This page object does not appear have a constructor that takes a WebDriver parameter: "
-                    + pageObjectClass, e);
+                    + pageObjectClass);
             thisIsNotThePageYourLookingFor(pageObjectClass);
+        }
+        try {
+            currentPage = (T) constructor.newInstance(driver);
         } catch (Exception e) {
             LOGGER.info("Failed to instantiate page of type " + pageObjectClass, e);
             thisIsNotThePageYourLookingFor(pageObjectClass);
@@ -1,12 +1,19 @@
 package net.thucydides.core.pages;
 
+import net.thucydides.core.ThucydidesSystemProperty;
+import net.thucydides.core.guice.Injectors;
 import net.thucydides.core.scheduling.FluentWaitWithRefresh;
 import net.thucydides.core.scheduling.NormalFluentWait;
+import net.thucydides.core.scheduling.PageChangeFluentWait;
+import net.thucydides.core.scheduling.PollingStrategies;
+import net.thucydides.core.scheduling.PollingStrategy;
 import net.thucydides.core.scheduling.ThucydidesFluentWait;
+import net.thucydides.core.util.EnvironmentVariables;
 import org.openqa.selenium.By;
 import org.openqa.selenium.NoSuchElementException;
 import org.openqa.selenium.NoSuchFrameException;
 import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.Clock;
@@ -28,24 +35,79 @@ class RenderedPageObjectView {
     private transient long waitForTimeout;
     private final Clock webdriverClock;
     private final Sleeper sleeper;
+    private final boolean javascriptWaits;
+    private final long scriptTimeout;
+    private final PollingStrategy pollingStrategy;
 
     private static final int WAIT_FOR_ELEMENT_PAUSE_LENGTH = 50;
 
+    private static final String PAGE_CONTAINS_ANY_TEXT
+            = "var text = document.body ? document.body.textContent : '';"
+            + "for (var i = 0; i < values.length; i++) { if (text.indexOf(values[i]) >= 0) { return true; } }"
+            + "return false;";
+
+    private static final String PAGE_CONTAINS_ALL_TEXT
+            = "var text = document.body ? document.body.textContent : '';"
+            + "for (var i = 0; i < values.length; i++) { if (text.indexOf(values[i]) < 0) { return false; } }"
+            + "return true;";
+
+    private static final String PAGE_DOES_NOT_CONTAIN_TEXT
+            = "var text = document.body ? document.body.textContent : '';"
+            + "return text.indexOf(values[0]) < 0;";
+
+    private static final String TITLE_IS = "return document.title == values[0];";
+
+    private static final String TITLE_IS_NOT = "return document.title != values[0];";
+
     private static final Logger LOGGER = LoggerFactory
             .getLogger(RenderedPageObjectView.class);
 
     public RenderedPageObjectView(final WebDriver driver, final long waitForTimeout) {
+        this(driver, waitForTimeout, Injectors.getInjector().getInstance(EnvironmentVariables.class));
+    }
+
+    public RenderedPageObjectView(final WebDriver driver, final long waitForTimeout,
+                                  final EnvironmentVariables environmentVariables) {
         this.driver = driver;
         this.waitForTimeout = waitForTimeout;
         this.webdriverClock = new SystemClock();
         this.sleeper = Sleeper.SYSTEM_SLEEPER;
+        this.javascriptWaits = javascriptWaitsAreActivatedIn(environmentVariables);
+        this.scriptTimeout = scriptTimeoutConfiguredIn(environmentVariables);
+        this.pollingStrategy = PollingStrategies.configuredIn(environmentVariables);
+    }
+
+    private static boolean javascriptWaitsAreActivatedIn(final EnvironmentVariables environmentVariables) {
+        return environmentVariables.getPropertyAsBoolean(ThucydidesSystemProperty.JAVASCRIPT_WAITS.getPropertyName(),
+                                                         false);
+    }
+
+    private static long scriptTimeoutConfiguredIn(final EnvironmentVariables environmentVariables) {
+        return environmentVariables.getPropertyAsInteger(
+                ThucydidesSystemProperty.JAVASCRIPT_WAITS_SCRIPT_TIMEOUT.getPropertyName(), 0);
     }
 
     public ThucydidesFluentWait<WebDriver> waitForCondition() {
-        return new NormalFluentWait<WebDriver>(driver, webdriverClock, sleeper)
-                .withTimeout(waitForTimeout, TimeUnit.MILLISECONDS)
-                .pollingEvery(WAIT_FOR_ELEMENT_PAUSE_LENGTH, TimeUnit.MILLISECONDS)
-                .ignoring(NoSuchElementException.class, NoSuchFrameException.class);
+        return waitForCondition(null);
+    }
+
+    /**
+     * @param javascriptCondition when waiting for the page to change, a Javascript condition that must hold
+     *                            before the actual condition is checked again.
+     */
+    private ThucydidesFluentWait<WebDriver> waitForCondition(final String javascriptCondition,
+                                                             final String... values) {
+        ThucydidesFluentWait<WebDriver> wait;
+        if (javascriptWaits) {
+            wait = new PageChangeFluentWait(driver, webdriverClock, sleeper, javascriptCondition, values)
+                           .restoringScriptTimeoutTo(scriptTimeout, TimeUnit.MILLISECONDS);
+        } else {
+            wait = new NormalFluentWait<WebDriver>(driver, webdriverClock, sleeper);
+        }
+        return wait.withTimeout(waitForTimeout, TimeUnit.MILLISECONDS)
+                   .pollingEvery(WAIT_FOR_ELEMENT_PAUSE_LENGTH, TimeUnit.MILLISECONDS)
+                   .pollingWith(pollingStrategy)
+                   .ignoring(NoSuchElementException.class, NoSuchFrameException.class);
     }
 
     private ExpectedCondition<Boolean> elementDisplayed(final By byElementCriteria) {
@@ -117,7 +179,7 @@ class RenderedPageObjectView {
     }
 
     public void waitForText(final String expectedText) {
-        waitForCondition().until(textPresent(expectedText));
+        waitForCondition(PAGE_CONTAINS_ANY_TEXT, expectedText).until(textPresent(expectedText));
     }
 
     private ExpectedCondition<Boolean> textPresentInElement(final WebElement element, final String expectedText) {
@@ -141,7 +203,7 @@ class RenderedPageObjectView {
     }
 
     public void waitForTitle(final String expectedTitle) {
-        waitForCondition().until(titlePresent(expectedTitle));
+        waitForCondition(TITLE_IS, expectedTitle).until(titlePresent(expectedTitle));
     }
 
     private boolean titleIs(final String expectedTitle) {
@@ -180,7 +242,7 @@ class RenderedPageObjectView {
     }
 
     public void waitForTextToDisappear(final String expectedText, final long timeout) {
-        waitForCondition()
+        waitForCondition(PAGE_DOES_NOT_CONTAIN_TEXT, expectedText)
                 .withTimeout(timeout, TimeUnit.MILLISECONDS)
                 .until(textNotPresent(expectedText));
     }
@@ -194,19 +256,12 @@ class RenderedPageObjectView {
     }
 
     public void waitForTitleToDisappear(final String expectedTitle) {
-        waitForCondition().until(titleNotPresent(expectedTitle));
-    }
-
-    private ExpectedCondition<Boolean> anyTextPresent(final String... expectedTexts) {
-        return new ExpectedCondition<Boolean>() {
-            public Boolean apply(WebDriver driver) {
-                return pageContainsAny(expectedTexts);
-            }
-        };
+        waitForCondition(TITLE_IS_NOT, expectedTitle).until(titleNotPresent(expectedTitle));
     }
 
     public void waitForAnyTextToAppear(final String... expectedTexts) {
-        waitForCondition().until(anyTextPresent(expectedTexts));
+        waitUntil(waitForCondition(PAGE_CONTAINS_ANY_TEXT, expectedTexts),
+                  CompoundPageCondition.anyOf(driver).withTexts(expectedTexts));
     }
 
     private ExpectedCondition<Boolean> anyTextPresentInElement(final WebElement element, final String... expectedTexts) {
@@ -230,30 +285,9 @@ class RenderedPageObjectView {
         return false;
     }
 
-    private boolean pageContainsAny(final String... expectedTexts) {
-        for (String expectedText : expectedTexts) {
-            if (containsText(expectedText)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    private ExpectedCondition<Boolean> allTextPresent(final String... expectedTexts) {
-        return new ExpectedCondition<Boolean>() {
-            public Boolean apply(WebDriver driver) {
-                for(String expectedText : expectedTexts) {
-                    if (!containsText(expectedText)) {
-                        return false;
-                    }
-                }
-                return true;
-            }
-        };
-    }
-
     public void waitForAllTextToAppear(final String... expectedTexts) {
-        waitForCondition().until(allTextPresent(expectedTexts));
+        waitUntil(waitForCondition(PAGE_CONTAINS_ALL_TEXT, expectedTexts),
+                  CompoundPageCondition.allOf(driver).withTexts(expectedTexts));
     }
 
     private ExpectedCondition<Boolean> elementNotDisplayed(final By byElementCriteria) {
@@ -268,20 +302,20 @@ class RenderedPageObjectView {
         waitForCondition().until(elementNotDisplayed(byElementCriteria));
     }
 
-    private ExpectedCondition<Boolean> anyElementPresent(final By... expectedElements) {
-        return new ExpectedCondition<Boolean>() {
-            public Boolean apply(WebDriver driver) {
-                for(By expectedElement : expectedElements) {
-                    if (elementIsDisplayed(expectedElement)) {
-                        return true;
-                    }
-                }
-                return false;
-            }
-        };
-    }
     public void waitForAnyRenderedElementOf(final By[] expectedElements) {
-        waitForCondition().until(anyElementPresent(expectedElements));
+        waitUntil(waitForCondition(), CompoundPageCondition.anyOf(driver).withDisplayedElements(expectedElements));
+    }
+
+    /**
+     * Wait for a compound condition, reporting the sub-conditions that still did not hold if it times out.
+     */
+    private void waitUntil(final ThucydidesFluentWait<WebDriver> wait, final CompoundPageCondition condition) {
+        try {
+            wait.until(condition);
+        } catch (TimeoutException timeout) {
+            throw new TimeoutException("Timed out waiting for " + condition
+                                       + " - still missing " + condition.getUnmetConditions(), timeout);
+        }
     }
 
     public void setWaitForTimeout(long waitForTimeout) {
@@ -4,6 +4,7 @@ import ch.lambdaj.function.convert.Converter;
 import com.google.common.collect.ImmutableList;
 import net.thucydides.core.pages.jquery.JQueryEnabledPage;
 import net.thucydides.core.steps.StepEventBus;
+import net.thucydides.core.webdriver.ImmediateElementLookup;
 import net.thucydides.core.webdriver.javascript.JavascriptExecutorFacade;
 import org.apache.commons.lang3.StringUtils;
 import org.openqa.selenium.By;
@@ -14,6 +15,7 @@ import org.openqa.selenium.NoSuchFrameException;
 import org.openqa.selenium.StaleElementReferenceException;
 import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.remote.Augmenter;
 import org.openqa.selenium.remote.RemoteWebElement;
@@ -27,12 +29,14 @@ import org.openqa.selenium.support.ui.Wait;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import static ch.lambdaj.Lambda.convert;
+import static net.thucydides.core.webdriver.WrappedElements.unwrapped;
 
 
 /**
@@ -51,6 +55,29 @@ public class WebElementFacade {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(WebElementFacade.class);
 
+    /**
+     * Reads the state of an element in a single call. Visibility is worked out from the styles of the element
+     * and its ancestors, which is close to (but not quite as thorough as) what WebDriver does.
+     * Like the WebDriver lookup, the options are all the option elements inside the element, whatever its tag.
+     */
+    private static final String READ_ELEMENT_STATE
+            = "var e = arguments[0];"
+            + ElementScripts.IS_DISPLAYED
+            + ElementScripts.TEXT_OF
+            + "var options = [], selected = [];"
+            + "var optionElements = e.getElementsByTagName('option');"
+            + "var isSelect = (e.tagName.toLowerCase() == 'select');"
+            + "for (var i = 0; i < optionElements.length; i++) {"
+            + "  options.push(textOf(optionElements[i]));"
+            + "  if (isSelect && optionElements[i].selected) { selected.push(textOf(optionElements[i])); }"
+            + "}"
+            + "var displayed = isDisplayed(e);"
+            + "return [displayed, !e.disabled, displayed ? textOf(e) : '',"
+            + "        (e.value === undefined) ? null : String(e.value), e.tagName, options, selected];";
+
+    private WebElementState cachedState;
+    private long cachedStateVersion;
+
     public WebElementFacade(final WebDriver driver,
                             final WebElement webElement,
                             final long timeoutInMilliseconds) {
@@ -123,20 +150,28 @@ public class WebElementFacade {
      * Is this web element present and visible on the screen
      * This method will not throw an exception if the element is not on the screen at all.
      * The method will fail immediately if the element is not visible on the screen.
-     * There is a little black magic going on here - the web element class will detect if it is being called
-     * by a method called "isCurrently*" and, if so, fail immediately without waiting as it would normally do.
+     * The element is looked up as an immediate lookup, so the locator fails straight away rather than
+     * waiting for the element as it would normally do.
      */
     public boolean isCurrentlyVisible() {
-        return isVisible();
+        ImmediateElementLookup.start();
+        try {
+            return isVisible();
+        } finally {
+            ImmediateElementLookup.end();
+        }
     }
 
     public boolean isCurrentlyEnabled() {
+        ImmediateElementLookup.start();
         try {
             return webElement.isEnabled();
         } catch (NoSuchElementException e) {
             return false;
         } catch (StaleElementReferenceException se) {
             return false;
+        } finally {
+            ImmediateElementLookup.end();
         }
     }
 
@@ -165,8 +200,13 @@ public class WebElementFacade {
      * Throws an AssertionError if the element is not rendered.
      */
     public void shouldNotBeVisible() {
-        if (isVisible()) {
-            throw new AssertionError("Element should not be visible");
+        ImmediateElementLookup.start();
+        try {
+            if (isVisible()) {
+                throw new AssertionError("Element should not be visible");
+            }
+        } finally {
+            ImmediateElementLookup.end();
         }
     }
 
@@ -204,11 +244,83 @@ public class WebElementFacade {
     }
 
     public List<String> getSelectOptions() {
-        List<WebElement> results = Collections.emptyList();
-        if (webElement != null) {
-            results = webElement.findElements(By.tagName("option"));
+        if (webElement == null) {
+            return Collections.emptyList();
         }
-        return convert(results, new ExtractText());
+        WebElementState state = stateReadWithJavascript();
+        if (state != null) {
+            keepState(state);
+            return state.getSelectOptions();
+        }
+        return convert(webElement.findElements(By.tagName("option")), new ExtractText());
+    }
+
+    /**
+     * A snapshot of the current state of this element (visibility, text, value, dropdown options and so on),
+     * read from the browser in a single call.
+     * The snapshot is reused until the current step finishes or the page changes through a Thucydides
+     * action (typing, clicking, selecting, opening a page or running some Javascript), so a series of checks
+     * on the same element only costs one call to the browser. Changes the application makes to the page
+     * on its own (e.g. via AJAX) are only seen in a new snapshot - use the wait methods for these.
+     */
+    public WebElementState getState() {
+        if ((cachedState == null) || (cachedStateVersion != StepEventBus.getEventBus().getPageStateVersion())) {
+            WebElementState state = stateReadWithJavascript();
+            keepState((state != null) ? state : stateReadWithWebDriver());
+        }
+        return cachedState;
+    }
+
+    private void keepState(final WebElementState state) {
+        cachedState = state;
+        cachedStateVersion = StepEventBus.getEventBus().getPageStateVersion();
+    }
+
+    private WebElementState stateReadWithJavascript() {
+        WebElement element = unwrapped(webElement);
+        try {
+            Object result = getJavascriptExecutorFacade().executeScript(READ_ELEMENT_STATE, element);
+            if ((result instanceof List) && (((List<?>) result).size() == 7)) {
+                List<?> values = (List<?>) result;
+                return new WebElementState(Boolean.TRUE.equals(values.get(0)),
+                                           Boolean.TRUE.equals(values.get(1)),
+                                           (String) values.get(2),
+                                           (String) values.get(3),
+                                           (String) values.get(4),
+                                           stringsIn(values.get(5)),
+                                           stringsIn(values.get(6)));
+            }
+        } catch (WebDriverException e) {
+            LOGGER.debug("Could not read the element state with Javascript", e);
+        }
+        return null;
+    }
+
+    private List<String> stringsIn(final Object values) {
+        List<String> strings = new ArrayList<String>();
+        if (values instanceof List) {
+            for (Object value : (List<?>) values) {
+                strings.add((value != null) ? value.toString() : "");
+            }
+        }
+        return strings;
+    }
+
+    private WebElementState stateReadWithWebDriver() {
+        boolean displayed = isVisible();
+        String tagName = webElement.getTagName();
+        List<String> options = convert(webElement.findElements(By.tagName("option")), new ExtractText());
+        List<String> selectedOptions = Collections.emptyList();
+        if ("select".equalsIgnoreCase(tagName)) {
+            selectedOptions = convert(new Select(webElement).getAllSelectedOptions(), new ExtractText());
+        }
+        return new WebElementState(displayed,
+                                   webElement.isEnabled(),
+                                   displayed ? webElement.getText() : "",
+                                   webElement.getAttribute("value"),
+                                   tagName,
+                                   options,
+                                   selectedOptions);
     }
 
     class ExtractText implements Converter<WebElement, String> {
@@ -391,11 +503,14 @@ public class WebElementFacade {
     }
 
     public WebElementFacade waitUntilVisible() {
+        ImmediateElementLookup.start();
         try {
             waitForCondition().until(elementIsDisplayed());
         } catch (Throwable error) {
             error.printStackTrace();
             throwErrorWithCauseIfPresent(error, error.getMessage());
+        } finally {
+            ImmediateElementLookup.end();
         }
         return this;
     }
@@ -516,12 +631,15 @@ public class WebElementFacade {
     }
 
     public WebElementFacade waitUntilEnabled() {
+        ImmediateElementLookup.start();
         try {
             waitForCondition().until(elementIsEnabled());
             notifyScreenChange();
             return this;
         } catch (TimeoutException timeout) {
             throw new ElementNotVisibleException("Expected enabled element was not enabled" , timeout);
+        } finally {
+            ImmediateElementLookup.end();
         }
     }
 
@@ -585,13 +703,11 @@ public class WebElementFacade {
     public void clear() {
         webElement.sendKeys(Keys.chord(Keys.CONTROL,"a"), Keys.DELETE);
         webElement.clear();
+        cachedState = null;
     }
 
     private void enableHighlightingIfRequired() {
-        JQueryEnabledPage jQueryEnabledPage = JQueryEnabledPage.withDriver(driver);
-        if (jQueryEnabledPage.isJQueryEnabled()) {
-            jQueryEnabledPage.injectJQueryPlugins();
-        }
+        JQueryEnabledPage.withDriver(driver).activateHighlightingIfRequired();
     }
     private void notifyScreenChange() {
         StepEventBus.getEventBus().notifyScreenChange();
@@ -0,0 +1,89 @@
+package net.thucydides.core.pages;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The state of a web element at a given point in time: whether it is displayed and enabled, its text and value,
+ * its tag name, the labels of the options it contains and, for dropdown lists, the labels of the selected options.
+ * A snapshot is read from the browser in one go, so that several checks on the same element only need
+ * a single call to the browser.
+ */
+public class WebElementState {
+
+    private final boolean displayed;
+    private final boolean enabled;
+    private final String text;
+    private final String value;
+    private final String tagName;
+    private final List<String> selectOptions;
+    private final List<String> selectedOptions;
+
+    public WebElementState(final boolean displayed,
+                           final boolean enabled,
+                           final String text,
+                           final String value,
+                           final String tagName,
+                           final List<String> selectOptions,
+                           final List<String> selectedOptions) {
+        this.displayed = displayed;
+        this.enabled = enabled;
+        this.text = (text != null) ? text : "";
+        this.value = value;
+        this.tagName = (tagName != null) ? tagName.toLowerCase() : "";
+        this.selectOptions = Collections.unmodifiableList(selectOptions);
+        this.selectedOptions = Collections.unmodifiableList(selectedOptions);
+    }
+
+    public boolean isDisplayed() {
+        return displayed;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * The value attribute of the element, or null if it has none.
+     */
+    public String getValue() {
+        return value;
+    }
+
+    public String getTagName() {
+        return tagName;
+    }
+
+    /**
+     * The labels of the options of a dropdown list, or an empty list for other elements.
+     */
+    public List<String> getSelectOptions() {
+        return selectOptions;
+    }
+
+    /**
+     * The labels of the selected options of a dropdown list, or an empty list for other elements.
+     */
+    public List<String> getSelectedOptions() {
+        return selectedOptions;
+    }
+
+    public boolean containsText(final String expectedText) {
+        return text.contains(expectedText);
+    }
+
+    public boolean containsSelectOption(final String label) {
+        return selectOptions.contains(label);
+    }
+
+    @Override
+    public String toString() {
+        return "<" + tagName + "> displayed=" + displayed + ", enabled=" + enabled
+               + ", text='" + text + "', value='" + value + "', options=" + selectOptions
+               + ", selected=" + selectedOptions;
+    }
+}
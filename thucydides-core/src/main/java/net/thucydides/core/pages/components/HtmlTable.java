@@ -4,7 +4,11 @@ import ch.lambdaj.function.convert.Converter;
 import net.thucydides.core.matchers.BeanMatcher;
 import org.apache.commons.lang3.StringUtils;
 import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.WebElement;
+import org.openqa.selenium.internal.WrapsDriver;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -14,17 +18,89 @@ import java.util.Map;
 
 import static ch.lambdaj.Lambda.by;
 import static ch.lambdaj.Lambda.convert;
+import static net.thucydides.core.webdriver.WrappedElements.unwrapped;
 
 /**
  * Class designed to make it easier reading from and reasoning about data in HTML tables.
+ * When the browser supports Javascript, the headings and cell values of the table are read with a single
+ * script call rather than one call per row and per cell; row elements are only looked up for matching rows.
  */
 public class HtmlTable {
+
+    /**
+     * Returns the headings and the cell values of each data row, following the same rules as the
+     * element-by-element lookups: th cells (or else the first row) for the headings, and rows with at least
+     * one td cell per heading, without the first row if it just repeats the headings.
+     * Cell text is read from innerText and normalized line by line like WebElement.getText(), so hidden text is
+     * left out and line breaks are kept. Returns null if the browser does not support innerText.
+     * If the second argument is true, the row elements of the data rows are returned as well, so that rows
+     * matched on their cell values can be returned without looking them up again.
+     */
+    private static final String READ_TABLE_CONTENTS =
+              "var table = arguments[0];"
+            + "if (table.innerText === undefined) { return null; }"
+            + "function textOf(e) {"
+            + "  var lines = (e.innerText || '').replace(/\\u00a0/g, ' ').split(/\\r?\\n/);"
+            + "  var texts = [];"
+            + "  for (var i = 0; i < lines.length; i++) {"
+            + "    var line = lines[i].replace(/[ \\t\\f\\v]+/g, ' ').replace(/^ +| +$/g, '');"
+            + "    if (line.length > 0) { texts.push(line); }"
+            + "  }"
+            + "  return texts.join('\\n');"
+            + "}"
+            + "function textsOf(elements, count) {"
+            + "  var texts = [];"
+            + "  for (var i = 0; i < Math.min(count, elements.length); i++) { texts.push(textOf(elements[i])); }"
+            + "  return texts;"
+            + "}"
+            + "function cellsIn(row) {"
+            + "  var cells = [];"
+            + "  for (var i = 0; i < row.childNodes.length; i++) {"
+            + "    var node = row.childNodes[i];"
+            + "    if (node.nodeType == 1 && node.tagName.toLowerCase() == 'td') { cells.push(node); }"
+            + "  }"
+            + "  return cells;"
+            + "}"
+            + "var rows = table.getElementsByTagName('tr');"
+            + "var th = table.getElementsByTagName('th');"
+            + "var headings = textsOf(th, th.length);"
+            + "if (headings.length == 0) {"
+            + "  if (rows.length == 0) { return [[], [], []]; }"
+            + "  var firstRowCells = rows[0].getElementsByTagName('td');"
+            + "  headings = textsOf(firstRowCells, firstRowCells.length);"
+            + "}"
+            + "var data = [];"
+            + "var dataRows = [];"
+            + "for (var r = 0; r < rows.length; r++) {"
+            + "  var cells = cellsIn(rows[r]);"
+            + "  if (cells.length > 0 && cells.length >= headings.length) {"
+            + "    data.push(textsOf(cells, headings.length));"
+            + "    dataRows.push(rows[r]);"
+            + "  }"
+            + "}"
+            + "if (data.length > 0 && data[0].join('\\n') == headings.join('\\n')) { data.shift(); dataRows.shift(); }"
+            + "return [headings, data, arguments[1] ? dataRows : []];";
+
     private final WebElement tableElement;
+    private WebDriver driver;
+    private boolean driverIsKnown;
+    private List<String> headings;
+    private boolean javascriptUnavailable;
 
     public HtmlTable(final WebElement tableElement) {
         this.tableElement = tableElement;
     }
 
+    /**
+     * @param driver the driver used to read the table contents with Javascript, or null to only read them
+     *               element by element.
+     */
+    public HtmlTable(final WebElement tableElement, final WebDriver driver) {
+        this.tableElement = tableElement;
+        this.driver = driver;
+        this.driverIsKnown = true;
+    }
+
     public static HtmlTable inTable(final WebElement table) {
         return new HtmlTable(table);
     }
@@ -33,11 +109,10 @@ public class HtmlTable {
 
         List<Map<Object, String>> results = new ArrayList<Map<Object, String>>();
 
+        List<List<String>> rows = getRowValues();
         List<String> headings = getHeadings();
-        List<WebElement> rows = getRowElementsFor(headings);
 
-        for (WebElement row : rows) {
-            List<WebElement> cells = cellsIn(row);
+        for (List<String> cells : rows) {
             if (enoughCellsFor(headings).in(cells)) {
                 results.add(rowDataFrom(cells, headings));
             }
@@ -54,19 +129,19 @@ public class HtmlTable {
     }
 
     public boolean containsRowElementsWhere(BeanMatcher... matchers) {
-        List<WebElement> rows = getRowElementsWhere(matchers);
+        List<Integer> rows = findMatchingIndexesIn(getRowValues(), matchers);
         return (!rows.isEmpty());
     }
 
     public void shouldHaveRowElementsWhere(BeanMatcher... matchers) {
-        List<WebElement> rows = getRowElementsWhere(matchers);
+        List<Integer> rows = findMatchingIndexesIn(getRowValues(), matchers);
         if (rows.isEmpty()) {
             throw new AssertionError("Expecting a table with at least one row where: " + Arrays.deepToString(matchers));
         }
     }
 
     public void shouldNotHaveRowElementsWhere(BeanMatcher... matchers) {
-        List<WebElement> rows = getRowElementsWhere(matchers);
+        List<Integer> rows = findMatchingIndexesIn(getRowValues(), matchers);
         if (!rows.isEmpty()) {
             throw new AssertionError("Expecting a table with no rows where: " + Arrays.deepToString(matchers));
         }
@@ -79,7 +154,7 @@ public class HtmlTable {
             this.minimumNumberOfCells = headings.size();
         }
         
-        public boolean in(List<WebElement> cells) {
+        public boolean in(List<String> cells) {
             return (cells.size() >= minimumNumberOfCells);
         }
     }
@@ -88,7 +163,18 @@ public class HtmlTable {
         return new EnoughCellsCheck(headings);
     }
 
+    /**
+     * The table headings are only read once for a given table.
+     */
     public List<String> getHeadings() {
+        if (headings == null) {
+            TableContents contents = readContentsWithJavascript(false);
+            headings = (contents != null) ? contents.headings : readHeadings();
+        }
+        return headings;
+    }
+
+    private List<String> readHeadings() {
         List<String> thHeadings = convert(headingElements(), toTextValues());
         if (thHeadings.isEmpty()) {
             return convert(firstRowElements(), toTextValues());
@@ -137,26 +223,38 @@ public class HtmlTable {
         return true;
     }
 
+    /**
+     * The row values and the row elements come from the same lookup, either a single Javascript call
+     * or the element-by-element one, so that the index of a matching row always refers to the right element.
+     */
     public List<WebElement> getRowElementsWhere(BeanMatcher... matchers) {
 
-        List<WebElement> rowElements = getRowElementsFor(getHeadings());
-        List<Integer> matchingRowIndexes = findMatchingIndexesFor(rowElements, matchers);
+        List<List<String>> rows;
+        List<WebElement> rowElements;
+        TableContents contents = readContentsWithJavascript(true);
+        if (contents != null) {
+            headings = contents.headings;
+            rows = contents.rows;
+            rowElements = contents.rowElements;
+        } else {
+            List<String> headings = getHeadings();
+            rowElements = getRowElementsFor(headings);
+            rows = cellValuesIn(rowElements, headings.size());
+        }
 
         List<WebElement> matchingElements = new ArrayList<WebElement>();
-        for(Integer index : matchingRowIndexes) {
+        for(Integer index : findMatchingIndexesIn(rows, matchers)) {
             matchingElements.add(rowElements.get(index));
         }
         return matchingElements;
     }
 
-    private List<Integer> findMatchingIndexesFor(List<WebElement> rowElements,
-                                                 BeanMatcher[] matchers) {
+    private List<Integer> findMatchingIndexesIn(List<List<String>> rows, BeanMatcher[] matchers) {
         List<Integer> indexes = new ArrayList<Integer>();
         List<String> headings = getHeadings();
 
         int index = 0;
-        for(WebElement row : rowElements) {
-            List<WebElement> cells = cellsIn(row);
+        for(List<String> cells : rows) {
             Map<Object, String> rowData = rowDataFrom(cells, headings);
             if (matches(rowData, matchers)) {
                 indexes.add(index);
@@ -177,7 +275,7 @@ public class HtmlTable {
     }
 
 
-    private Map<Object,String> rowDataFrom(List<WebElement> cells, List<String> headings) {
+    private Map<Object,String> rowDataFrom(List<String> cells, List<String> headings) {
         Map<Object,String> rowData = new HashMap<Object, String>();
 
         int column = 0;
@@ -195,8 +293,113 @@ public class HtmlTable {
         return row.findElements(By.tagName("td"));
     }
 
-    private String cellValueAt(final int column, final List<WebElement> cells) {
-        return cells.get(column).getText();
+    private String cellValueAt(final int column, final List<String> cells) {
+        return cells.get(column);
+    }
+
+    /**
+     * The cell values of each row, read with a single Javascript call if possible,
+     * or element by element otherwise.
+     */
+    private List<List<String>> getRowValues() {
+        TableContents contents = readContentsWithJavascript(false);
+        if (contents != null) {
+            headings = contents.headings;
+            return contents.rows;
+        }
+        List<String> headings = getHeadings();
+        return cellValuesIn(getRowElementsFor(headings), headings.size());
+    }
+
+    private List<List<String>> cellValuesIn(List<WebElement> rowElements, int columns) {
+        List<List<String>> rows = new ArrayList<List<String>>();
+        for (WebElement row : rowElements) {
+            rows.add(cellValuesIn(cellsIn(row), columns));
+        }
+        return rows;
+    }
+
+    private List<String> cellValuesIn(List<WebElement> cells, int columns) {
+        List<String> values = new ArrayList<String>();
+        for (WebElement cell : cells.subList(0, Math.min(columns, cells.size()))) {
+            values.add(cell.getText());
+        }
+        return values;
+    }
+
+    private static class TableContents {
+        private final List<String> headings;
+        private final List<List<String>> rows;
+        private final List<WebElement> rowElements;
+
+        private TableContents(List<String> headings, List<List<String>> rows, List<WebElement> rowElements) {
+            this.headings = headings;
+            this.rows = rows;
+            this.rowElements = rowElements;
+        }
+    }
+
+    private TableContents readContentsWithJavascript(boolean withRowElements) {
+        WebDriver driver = getDriver();
+        if (!(driver instanceof JavascriptExecutor) || javascriptUnavailable) {
+            return null;
+        }
+        try {
+            Object result = ((JavascriptExecutor) driver).executeScript(READ_TABLE_CONTENTS,
+                                                                          unwrapped(tableElement),
+                                                                          withRowElements);
+            TableContents contents = tableContentsFrom(result);
+            if (contents == null) {
+                javascriptUnavailable = true;
+            }
+            return contents;
+        } catch (WebDriverException e) {
+            javascriptUnavailable = true;
+        } catch (UnsupportedOperationException e) {
+            javascriptUnavailable = true;
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private TableContents tableContentsFrom(Object result) {
+        if (!(result instanceof List) || (((List<Object>) result).size() != 3)) {
+            return null;
+        }
+        List<Object> contents = (List<Object>) result;
+        List<List<String>> rows = new ArrayList<List<String>>();
+        for (Object row : (List<Object>) contents.get(1)) {
+            rows.add(stringsIn((List<Object>) row));
+        }
+        List<WebElement> rowElements = new ArrayList<WebElement>();
+        for (Object rowElement : (List<Object>) contents.get(2)) {
+            rowElements.add((WebElement) rowElement);
+        }
+        return new TableContents(stringsIn((List<Object>) contents.get(0)), rows, rowElements);
+    }
+
+    private List<String> stringsIn(List<Object> values) {
+        List<String> strings = new ArrayList<String>();
+        for (Object value : values) {
+            strings.add((value == null) ? "" : value.toString());
+        }
+        return strings;
+    }
+
+    private WebDriver getDriver() {
+        if (!driverIsKnown) {
+            driver = driverFor(tableElement);
+            driverIsKnown = true;
+        }
+        return driver;
+    }
+
+    private static WebDriver driverFor(WebElement element) {
+        WebElement unwrappedElement = unwrapped(element);
+        if (unwrappedElement instanceof WrapsDriver) {
+            return ((WrapsDriver) unwrappedElement).getWrappedDriver();
+        }
+        return null;
     }
 
     private Converter<WebElement, String> toTextValues() {
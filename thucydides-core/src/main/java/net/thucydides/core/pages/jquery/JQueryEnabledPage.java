@@ -1,19 +1,40 @@
 package net.thucydides.core.pages.jquery;
 
-import com.google.common.base.Charsets;
-import com.google.common.io.Resources;
 import net.thucydides.core.ThucydidesSystemProperty;
 import net.thucydides.core.guice.Injectors;
 import net.thucydides.core.util.EnvironmentVariables;
 import net.thucydides.core.webdriver.javascript.JavascriptExecutorFacade;
 import org.openqa.selenium.WebDriver;
 
-import java.net.URL;
-
+import static net.thucydides.core.webdriver.javascript.JavascriptResources.scriptFrom;
 import static net.thucydides.core.webdriver.javascript.JavascriptSupport.javascriptIsSupportedIn;
 
 public class JQueryEnabledPage {
 
+    private static final String JQUERY_LIBRARY = "jquery/jquery.min.js";
+    private static final String HIGHLIGHTING_PLUGIN = "jquery/jquery-thucydides-plugin.js";
+
+    /**
+     * What the current document already has: 0 for nothing, 1 for jQuery alone, 2 for jQuery and our plugins.
+     * The injected scripts disappear when the browser moves to a new document, so this also tells us whether
+     * the browser has navigated since they were last injected.
+     */
+    private static final String JQUERY_STATE = "if (typeof jQuery !== 'function') { return 0; }"
+                                             + "return (jQuery.thucydidesHighlighter === undefined) ? 1 : 2;";
+
+    /**
+     * The injected scripts are read from the classpath the first time they are needed, and then kept for the life of the JVM.
+     */
+    private static final class InjectedScripts {
+        static final String JQUERY = scriptFrom(JQUERY_LIBRARY);
+        static final String PLUGINS = scriptFrom(HIGHLIGHTING_PLUGIN);
+        static final String JQUERY_AND_PLUGINS = JQUERY + "\nif (typeof jQuery === 'function') {\n" + PLUGINS + "\n}";
+    }
+
+    private static final int NO_JQUERY = 0;
+    private static final int JQUERY_WITHOUT_PLUGINS = 1;
+    private static final int JQUERY_WITH_PLUGINS = 2;
+
     private final WebDriver driver;
     private final EnvironmentVariables environmentVariables;
 
@@ -32,41 +53,72 @@ public class JQueryEnabledPage {
     }
 
     public boolean isJQueryEnabled() {
+        return jQueryState() != NO_JQUERY;
+    }
+
+    private int jQueryState() {
         if (javascriptIsSupportedIn(driver)) {
             JavascriptExecutorFacade js = new JavascriptExecutorFacade(driver);
-            Boolean result = (Boolean) js.executeScript("return (typeof jQuery === 'function')");
-            return ((result != null) && (result));
+            Object result = js.executeScript(JQUERY_STATE);
+            return (result instanceof Number) ? ((Number) result).intValue() : NO_JQUERY;
         }
-        return false;
+        return NO_JQUERY;
     }
 
+    /**
+     * Make jQuery, and the highlighting plugin if highlighting is activated, available in the current page.
+     * Nothing is sent to the browser apart from a quick check if the page already has them;
+     * otherwise whatever is missing is injected in a single call.
+     */
+    public void activateJQuery() {
+        if (!javascriptIsSupportedIn(driver)) {
+            return;
+        }
+        int state = jQueryState();
+        boolean pluginsMissing = highlightingIsActivated() && (state != JQUERY_WITH_PLUGINS);
+        if ((state == NO_JQUERY) && pluginsMissing) {
+            new JavascriptExecutorFacade(driver).executeScript(InjectedScripts.JQUERY_AND_PLUGINS);
+        } else if (state == NO_JQUERY) {
+            injectJQuery();
+        } else if (pluginsMissing) {
+            injectJQueryPlugins();
+        }
+    }
+
+    /**
+     * Inject the highlighting plugin into pages where jQuery is available, if highlighting is activated
+     * and the plugin is not already there.
+     */
+    public void activateHighlightingIfRequired() {
+        if (highlightingIsActivated() && (jQueryState() == JQUERY_WITHOUT_PLUGINS)) {
+            injectJQueryPlugins();
+        }
+    }
 
     public void injectJQuery() {
-        executeScriptFrom("jquery/jquery.min.js");
+        executeScript(InjectedScripts.JQUERY);
     }
 
     protected void executeScriptFrom(String scriptSource) {
         if (javascriptIsSupportedIn(driver)) {
-            String script = getFileAsString(scriptSource);
-            JavascriptExecutorFacade js = new JavascriptExecutorFacade(driver);
-            js.executeScript(script);
+            executeScript(scriptFrom(scriptSource));
         }
     }
 
-    private String getFileAsString(final String resourcePath) {
-        String content = "";
-        try {
-            URL fileUrl = getClass().getClassLoader().getResource(resourcePath);
-            content = Resources.toString(fileUrl, Charsets.UTF_8);
-        } catch (Exception e) {
-            throw new RuntimeException(e);
+    private void executeScript(String script) {
+        if (javascriptIsSupportedIn(driver)) {
+            JavascriptExecutorFacade js = new JavascriptExecutorFacade(driver);
+            js.executeScript(script);
         }
-        return content;
     }
 
     public void injectJQueryPlugins() {
-        if (environmentVariables.getPropertyAsBoolean(ThucydidesSystemProperty.ACTIVTE_HIGHLIGHTING.getPropertyName(), false)) {
-            executeScriptFrom("jquery/jquery-thucydides-plugin.js");
+        if (highlightingIsActivated()) {
+            executeScript(InjectedScripts.PLUGINS);
         }
     }
+
+    private boolean highlightingIsActivated() {
+        return environmentVariables.getPropertyAsBoolean(ThucydidesSystemProperty.ACTIVTE_HIGHLIGHTING.getPropertyName(), false);
+    }
 }
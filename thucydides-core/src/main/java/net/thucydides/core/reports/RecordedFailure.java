@@ -0,0 +1,43 @@
+package net.thucydides.core.reports;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+
+/**
+ * Stands in for the exception that caused a step to fail when a test outcome is reloaded from an XML or binary report.
+ * The original exception class may not be available when the reports are aggregated, so only the error message
+ * and the printed stack trace are kept.
+ */
+public class RecordedFailure extends Throwable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String stackTrace;
+
+    public RecordedFailure(final String errorMessage, final String stackTrace) {
+        super(errorMessage);
+        this.stackTrace = stackTrace;
+    }
+
+    /**
+     * The stack trace is the one that was recorded, so there is no point in capturing a new one.
+     */
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+
+    @Override
+    public void printStackTrace(final PrintWriter writer) {
+        writer.print(stackTraceOrMessage());
+    }
+
+    @Override
+    public void printStackTrace(final PrintStream stream) {
+        stream.print(stackTraceOrMessage());
+    }
+
+    private String stackTraceOrMessage() {
+        return (stackTrace != null) ? stackTrace : String.valueOf(getMessage());
+    }
+}
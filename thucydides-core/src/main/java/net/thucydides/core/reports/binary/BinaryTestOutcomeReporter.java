@@ -0,0 +1,83 @@
+package net.thucydides.core.reports.binary;
+
+import com.google.common.base.Preconditions;
+import net.thucydides.core.model.TestOutcome;
+import net.thucydides.core.reports.AcceptanceTestReporter;
+import net.thucydides.core.reports.xml.NotAThucydidesReportException;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static net.thucydides.core.model.ReportType.BINARY;
+
+/**
+ * Stores test outcomes in a compact binary form alongside the XML reports.
+ * Binary reports are much faster to load than the XML ones when the aggregate reports are generated.
+ */
+public class BinaryTestOutcomeReporter implements AcceptanceTestReporter {
+
+    private File outputDirectory;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BinaryTestOutcomeReporter.class);
+
+    private transient String qualifier;
+
+    public void setQualifier(final String qualifier) {
+        this.qualifier = qualifier;
+    }
+
+    /**
+     * We don't need any resources for binary reports.
+     */
+    public void setResourceDirectory(final String resourceDirectoryPath) {
+    }
+
+    public String getName() {
+        return "binary";
+    }
+
+    /**
+     * Generate a binary report for a given test run.
+     */
+    public File generateReportFor(final TestOutcome testOutcome) throws IOException {
+        Preconditions.checkNotNull(outputDirectory);
+
+        byte[] report = new TestOutcomeBinaryFormat(qualifier).encode(testOutcome);
+
+        File reportFile = new File(getOutputDirectory(), reportFor(testOutcome));
+        LOGGER.debug("Writing binary report to {}", reportFile.getAbsolutePath());
+        FileUtils.writeByteArrayToFile(reportFile, report);
+
+        return reportFile;
+    }
+
+    private String reportFor(final TestOutcome testOutcome) {
+        if (qualifier == null) {
+            return testOutcome.getReportName(BINARY);
+        } else {
+            return testOutcome.getReportName(BINARY, qualifier);
+        }
+    }
+
+    /**
+     * Load a test outcome from a binary report.
+     * Reports written by a different version of the format, or that were not completely written,
+     * are rejected with a NotAThucydidesReportException, so that the XML report can be used instead.
+     */
+    public TestOutcome loadReportFrom(final File reportFile) throws NotAThucydidesReportException, IOException {
+        ByteBuffer contents = ByteBuffer.wrap(FileUtils.readFileToByteArray(reportFile));
+        return new TestOutcomeBinaryFormat(qualifier).decode(contents);
+    }
+
+    public File getOutputDirectory() {
+        return outputDirectory;
+    }
+
+    public void setOutputDirectory(final File outputDirectory) {
+        this.outputDirectory = outputDirectory;
+    }
+}
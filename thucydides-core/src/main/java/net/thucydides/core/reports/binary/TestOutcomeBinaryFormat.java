@@ -0,0 +1,301 @@
+package net.thucydides.core.reports.binary;
+
+import net.thucydides.core.model.Story;
+import net.thucydides.core.model.TestOutcome;
+import net.thucydides.core.model.TestResult;
+import net.thucydides.core.model.TestStep;
+import net.thucydides.core.model.features.ApplicationFeature;
+import net.thucydides.core.reports.RecordedFailure;
+import net.thucydides.core.reports.xml.NotAThucydidesReportException;
+import net.thucydides.core.screenshots.ScreenshotAndHtmlSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Encodes and decodes test outcomes in a compact binary form.
+ * A report starts with a magic number, a format version and the length of the rest of the report,
+ * so that files written by another version, or truncated files, can be detected before they are decoded.
+ * Strings are stored as a length followed by their UTF-8 bytes, with a length of -1 for null values.
+ * Each screenshot has room for the width of the image, with -1 when the width is not known.
+ * It records the same information as the XML reports.
+ */
+public class TestOutcomeBinaryFormat {
+
+    static final int MAGIC_NUMBER = 0x54484f52;
+    static final short FORMAT_VERSION = 1;
+
+    private static final int HEADER_SIZE = 4 + 2 + 4;
+
+    private static final byte TEST_STEP = 0;
+    private static final byte TEST_GROUP = 1;
+
+    private static final int UNKNOWN_WIDTH = -1;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final String qualifier;
+
+    public TestOutcomeBinaryFormat() {
+        this(null);
+    }
+
+    public TestOutcomeBinaryFormat(final String qualifier) {
+        this.qualifier = qualifier;
+    }
+
+    public byte[] encode(final TestOutcome testOutcome) throws IOException {
+        ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream();
+        DataOutputStream payload = new DataOutputStream(payloadBytes);
+        writeTestOutcome(payload, testOutcome);
+        payload.flush();
+
+        ByteArrayOutputStream reportBytes = new ByteArrayOutputStream(HEADER_SIZE + payloadBytes.size());
+        DataOutputStream report = new DataOutputStream(reportBytes);
+        report.writeInt(MAGIC_NUMBER);
+        report.writeShort(FORMAT_VERSION);
+        report.writeInt(payloadBytes.size());
+        payloadBytes.writeTo(report);
+        report.flush();
+        return reportBytes.toByteArray();
+    }
+
+    /**
+     * Returns the decoded test outcome.
+     * @throws NotAThucydidesReportException if the data is not a complete binary report in this version of the format.
+     */
+    public TestOutcome decode(final ByteBuffer report) throws NotAThucydidesReportException {
+        if (report.remaining() < HEADER_SIZE) {
+            throw new NotAThucydidesReportException("File is too short to be a binary test outcome report", null);
+        }
+        if (report.getInt() != MAGIC_NUMBER) {
+            throw new NotAThucydidesReportException("File is not a binary test outcome report", null);
+        }
+        short version = report.getShort();
+        if (version != FORMAT_VERSION) {
+            throw new NotAThucydidesReportException("Unsupported binary report version: " + version, null);
+        }
+        int payloadLength = report.getInt();
+        if (payloadLength != report.remaining()) {
+            throw new NotAThucydidesReportException("Binary report is incomplete", null);
+        }
+        try {
+            return readTestOutcome(report);
+        } catch (RuntimeException e) {
+            throw new NotAThucydidesReportException("Binary report is corrupted", e);
+        }
+    }
+
+    private void writeTestOutcome(final DataOutputStream output, final TestOutcome testOutcome) throws IOException {
+        writeString(output, titleFrom(testOutcome));
+        writeString(output, nameFrom(testOutcome));
+        output.writeLong(testOutcome.getDuration());
+        writeString(output, testOutcome.getSessionId());
+        writeUserStory(output, testOutcome.getUserStory());
+        writeIssues(output, testOutcome.getIssues());
+
+        List<TestStep> steps = testOutcome.getTestSteps();
+        output.writeInt(steps.size());
+        for (TestStep step : steps) {
+            writeStep(output, step);
+        }
+    }
+
+    private String titleFrom(final TestOutcome testOutcome) {
+        if (qualifier == null) {
+            return testOutcome.getTitle();
+        } else {
+            return testOutcome.getTitle() + " [" + qualifier.replaceAll("_", "/") + "]";
+        }
+    }
+
+    private String nameFrom(final TestOutcome testOutcome) {
+        String baseName = (testOutcome.getMethodName() != null) ? testOutcome.getMethodName() : testOutcome.getTitle();
+        if (qualifier == null) {
+            return baseName;
+        } else {
+            return baseName + "_" + qualifier.replaceAll(" ", "_");
+        }
+    }
+
+    private void writeUserStory(final DataOutputStream output, final Story userStory) throws IOException {
+        output.writeBoolean(userStory != null);
+        if (userStory != null) {
+            writeString(output, userStory.getId());
+            writeString(output, userStory.getName());
+            ApplicationFeature feature = userStory.getFeature();
+            output.writeBoolean(feature != null);
+            if (feature != null) {
+                writeString(output, feature.getId());
+                writeString(output, feature.getName());
+            }
+        }
+    }
+
+    private void writeIssues(final DataOutputStream output, final Set<String> issues) throws IOException {
+        output.writeInt(issues.size());
+        for (String issue : issues) {
+            writeString(output, issue);
+        }
+    }
+
+    private void writeStep(final DataOutputStream output, final TestStep step) throws IOException {
+        output.writeByte(step.isAGroup() ? TEST_GROUP : TEST_STEP);
+        writeString(output, step.getDescription());
+        writeString(output, step.getResult().name());
+        output.writeLong(step.getDuration());
+        writeScreenshots(output, step.getScreenshots());
+        writeFailure(output, step);
+
+        if (step.isAGroup()) {
+            List<TestStep> children = step.getChildren();
+            output.writeInt(children.size());
+            for (TestStep child : children) {
+                writeStep(output, child);
+            }
+        }
+    }
+
+    private void writeScreenshots(final DataOutputStream output,
+                                  final List<ScreenshotAndHtmlSource> screenshots) throws IOException {
+        output.writeInt(screenshots.size());
+        for (ScreenshotAndHtmlSource screenshot : screenshots) {
+            writeString(output, nameOf(screenshot.getScreenshotFile()));
+            writeString(output, nameOf(screenshot.getSourcecode()));
+            output.writeInt((screenshot.getWidth() != null) ? screenshot.getWidth() : UNKNOWN_WIDTH);
+        }
+    }
+
+    private String nameOf(final File file) {
+        return (file != null) ? file.getName() : null;
+    }
+
+    private void writeFailure(final DataOutputStream output, final TestStep step) throws IOException {
+        Throwable cause = step.getException();
+        output.writeBoolean(cause != null);
+        if (cause != null) {
+            writeString(output, step.getErrorMessage());
+            writeString(output, stackTraceOf(cause));
+        }
+    }
+
+    private String stackTraceOf(final Throwable cause) {
+        StringWriter stringWriter = new StringWriter();
+        cause.printStackTrace(new PrintWriter(stringWriter));
+        return stringWriter.toString();
+    }
+
+    private void writeString(final DataOutputStream output, final String value) throws IOException {
+        if (value == null) {
+            output.writeInt(-1);
+        } else {
+            byte[] bytes = value.getBytes(UTF_8);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+    }
+
+    private TestOutcome readTestOutcome(final ByteBuffer input) {
+        String title = readString(input);
+        String methodName = readString(input);
+        TestOutcome testOutcome = new TestOutcome(methodName);
+        testOutcome.setTitle(title);
+        testOutcome.setDuration(input.getLong());
+        testOutcome.setSessionId(readString(input));
+        readUserStory(input, testOutcome);
+        readIssues(input, testOutcome);
+
+        int stepCount = input.getInt();
+        for (int i = 0; i < stepCount; i++) {
+            testOutcome.recordStep(readStep(input));
+        }
+        return testOutcome;
+    }
+
+    private void readUserStory(final ByteBuffer input, final TestOutcome testOutcome) {
+        if (readBoolean(input)) {
+            String storyId = readString(input);
+            String storyName = readString(input);
+            if (readBoolean(input)) {
+                String featureId = readString(input);
+                String featureName = readString(input);
+                testOutcome.setUserStory(Story.withId(storyId, storyName, featureId, featureName));
+            } else {
+                testOutcome.setUserStory(Story.withId(storyId, storyName));
+            }
+        }
+    }
+
+    private void readIssues(final ByteBuffer input, final TestOutcome testOutcome) {
+        int issueCount = input.getInt();
+        for (int i = 0; i < issueCount; i++) {
+            testOutcome.isRelatedToIssue(readString(input));
+        }
+    }
+
+    private TestStep readStep(final ByteBuffer input) {
+        byte stepType = input.get();
+        TestStep step = new TestStep(readString(input));
+        TestResult result = TestResult.valueOf(readString(input));
+        step.setResult(result);
+        step.setDuration(input.getLong());
+        readScreenshots(input, step);
+        readFailure(input, step, result);
+
+        if (stepType == TEST_GROUP) {
+            int childCount = input.getInt();
+            for (int i = 0; i < childCount; i++) {
+                step.addChildStep(readStep(input));
+            }
+        }
+        return step;
+    }
+
+    private void readScreenshots(final ByteBuffer input, final TestStep step) {
+        int screenshotCount = input.getInt();
+        for (int i = 0; i < screenshotCount; i++) {
+            File screenshot = fileCalled(readString(input));
+            File source = fileCalled(readString(input));
+            int width = input.getInt();
+            step.addScreenshot(new ScreenshotAndHtmlSource(screenshot, source,
+                                                           (width != UNKNOWN_WIDTH) ? width : null));
+        }
+    }
+
+    private File fileCalled(final String name) {
+        return (name != null) ? new File(name) : null;
+    }
+
+    private void readFailure(final ByteBuffer input, final TestStep step, final TestResult result) {
+        if (readBoolean(input)) {
+            RecordedFailure failure = new RecordedFailure(readString(input), readString(input));
+            if (result == TestResult.FAILURE) {
+                step.failedWith(failure);
+            } else {
+                step.testAborted(failure);
+            }
+        }
+    }
+
+    private boolean readBoolean(final ByteBuffer input) {
+        return input.get() != 0;
+    }
+
+    private String readString(final ByteBuffer input) {
+        int length = input.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        input.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+}
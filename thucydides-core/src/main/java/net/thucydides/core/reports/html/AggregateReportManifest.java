@@ -0,0 +1,256 @@
+package net.thucydides.core.reports.html;
+
+import net.thucydides.core.model.Story;
+import net.thucydides.core.model.TestOutcome;
+import net.thucydides.core.model.userstories.UserStoryLoader;
+import net.thucydides.core.reports.binary.TestOutcomeBinaryFormat;
+import net.thucydides.core.reports.xml.NotAThucydidesReportException;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Records the test outcomes used for the last aggregate report, so that the next aggregate report only needs
+ * to load the report files that have changed since, and only needs to regenerate the pages of the stories
+ * affected by these changes.
+ * Each report file is identified by its name, size and modification time, and the test outcome it contained
+ * is kept in the binary test outcome format, so that all the unchanged outcomes are read from a single file.
+ * The story of each outcome is also kept apart, so that changed or removed reports can be traced back to their
+ * story without decoding the outcome: only the outcomes that go into the new report are decoded.
+ */
+public class AggregateReportManifest {
+
+    public static final String MANIFEST_FILE = "thucydides-aggregate.manifest";
+
+    private static final int MAGIC_NUMBER = 0x54484d46;
+    private static final short FORMAT_VERSION = 2;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AggregateReportManifest.class);
+
+    private final File sourceDirectory;
+    private final Map<String, Entry> previousEntries;
+    private final Map<String, Entry> currentEntries = new LinkedHashMap<String, Entry>();
+    private final Set<Story> changedStories = new HashSet<Story>();
+
+    private final TestOutcomeBinaryFormat binaryFormat = new TestOutcomeBinaryFormat();
+
+    private AggregateReportManifest(final File sourceDirectory, final Map<String, Entry> previousEntries) {
+        this.sourceDirectory = sourceDirectory;
+        this.previousEntries = previousEntries;
+    }
+
+    private static final class Entry {
+        private final long length;
+        private final long lastModified;
+        private final Story story;
+        private final byte[] testOutcome;
+
+        private Entry(final long length, final long lastModified, final Story story, final byte[] testOutcome) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.story = story;
+            this.testOutcome = testOutcome;
+        }
+
+        private boolean isUpToDateFor(final File reportFile) {
+            return (reportFile.length() == length) && (reportFile.lastModified() == lastModified);
+        }
+
+        private boolean isAThucydidesReport() {
+            return testOutcome.length > 0;
+        }
+    }
+
+    /**
+     * Read the manifest left by the previous aggregate report for the same source directory.
+     * If there is none, or it cannot be read, every report file will be considered to have changed.
+     */
+    public static AggregateReportManifest readFrom(final File manifestFile, final File sourceDirectory) {
+        Map<String, Entry> entries = new HashMap<String, Entry>();
+        if (manifestFile.exists()) {
+            try {
+                readEntries(manifestFile, sourceDirectory, entries);
+            } catch (IOException e) {
+                LOGGER.info("Could not read the aggregate report manifest - all the reports will be regenerated", e);
+                entries.clear();
+            }
+        }
+        return new AggregateReportManifest(sourceDirectory, entries);
+    }
+
+    private static void readEntries(final File manifestFile,
+                                    final File sourceDirectory,
+                                    final Map<String, Entry> entries) throws IOException {
+        DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(manifestFile)));
+        try {
+            if ((input.readInt() != MAGIC_NUMBER) || (input.readShort() != FORMAT_VERSION)) {
+                return;
+            }
+            if (!input.readUTF().equals(sourceDirectory.getAbsolutePath())) {
+                return;
+            }
+            int entryCount = input.readInt();
+            for (int i = 0; i < entryCount; i++) {
+                String filename = input.readUTF();
+                long length = input.readLong();
+                long lastModified = input.readLong();
+                Story story = readStory(input);
+                byte[] testOutcome = new byte[input.readInt()];
+                input.readFully(testOutcome);
+                entries.put(filename, new Entry(length, lastModified, story, testOutcome));
+            }
+        } finally {
+            IOUtils.closeQuietly(input);
+        }
+    }
+
+    /**
+     * Load the test outcomes from the given report files. Outcomes of unchanged files are taken from the manifest,
+     * and the others are loaded from disk. The returned list has the same layout as
+     * {@link UserStoryLoader#loadTestOutcomesFrom(java.util.List)}.
+     */
+    public List<TestOutcome> loadTestOutcomesFrom(final List<File> reportFiles,
+                                                  final UserStoryLoader loader) throws IOException {
+        List<TestOutcome> testOutcomes = new ArrayList<TestOutcome>();
+        List<File> changedReportFiles = new ArrayList<File>();
+        List<Integer> changedReportPositions = new ArrayList<Integer>();
+
+        for (File reportFile : reportFiles) {
+            Entry previousEntry = previousEntries.get(reportFile.getName());
+            boolean upToDate = (previousEntry != null) && previousEntry.isUpToDateFor(reportFile);
+            TestOutcome previousOutcome = upToDate ? decode(previousEntry) : null;
+            if (upToDate && (previousOutcome != null || !previousEntry.isAThucydidesReport())) {
+                testOutcomes.add(previousOutcome);
+                currentEntries.put(reportFile.getName(), previousEntry);
+            } else {
+                recordChangeTo(previousEntry);
+                changedReportPositions.add(testOutcomes.size());
+                changedReportFiles.add(reportFile);
+                testOutcomes.add(null);
+            }
+        }
+
+        LOGGER.info("Loading {} new or changed test reports out of {}", changedReportFiles.size(), reportFiles.size());
+        List<TestOutcome> changedOutcomes = loader.loadTestOutcomesFrom(changedReportFiles);
+        for (int i = 0; i < changedReportFiles.size(); i++) {
+            File reportFile = changedReportFiles.get(i);
+            TestOutcome testOutcome = changedOutcomes.get(i);
+            testOutcomes.set(changedReportPositions.get(i), testOutcome);
+            Entry entry = new Entry(reportFile.length(), reportFile.lastModified(),
+                                    storyOf(testOutcome), encode(testOutcome));
+            recordChangeTo(entry);
+            currentEntries.put(reportFile.getName(), entry);
+        }
+
+        recordRemovedReports();
+        return testOutcomes;
+    }
+
+    private void recordRemovedReports() {
+        for (Map.Entry<String, Entry> previousEntry : previousEntries.entrySet()) {
+            if (!currentEntries.containsKey(previousEntry.getKey())) {
+                recordChangeTo(previousEntry.getValue());
+            }
+        }
+    }
+
+    private void recordChangeTo(final Entry entry) {
+        if ((entry != null) && (entry.story != null)) {
+            changedStories.add(entry.story);
+        }
+    }
+
+    private Story storyOf(final TestOutcome testOutcome) {
+        return (testOutcome != null) ? testOutcome.getUserStory() : null;
+    }
+
+    /**
+     * The stories with test outcomes that were added, changed or removed since the previous aggregate report.
+     */
+    public Set<Story> getChangedStories() {
+        return changedStories;
+    }
+
+    public void saveTo(final File manifestFile) throws IOException {
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(manifestFile)));
+        try {
+            output.writeInt(MAGIC_NUMBER);
+            output.writeShort(FORMAT_VERSION);
+            output.writeUTF(sourceDirectory.getAbsolutePath());
+            output.writeInt(currentEntries.size());
+            for (Map.Entry<String, Entry> entry : currentEntries.entrySet()) {
+                output.writeUTF(entry.getKey());
+                output.writeLong(entry.getValue().length);
+                output.writeLong(entry.getValue().lastModified);
+                writeStory(output, entry.getValue().story);
+                output.writeInt(entry.getValue().testOutcome.length);
+                output.write(entry.getValue().testOutcome);
+            }
+            output.flush();
+        } finally {
+            IOUtils.closeQuietly(output);
+        }
+    }
+
+    private static Story readStory(final DataInputStream input) throws IOException {
+        if (!input.readBoolean()) {
+            return null;
+        }
+        return Story.withId(readOptionalUTF(input), readOptionalUTF(input),
+                            readOptionalUTF(input), readOptionalUTF(input));
+    }
+
+    private static void writeStory(final DataOutputStream output, final Story story) throws IOException {
+        output.writeBoolean(story != null);
+        if (story != null) {
+            writeOptionalUTF(output, story.getId());
+            writeOptionalUTF(output, story.getName());
+            writeOptionalUTF(output, story.getFeatureId());
+            writeOptionalUTF(output, story.getFeatureName());
+        }
+    }
+
+    private static String readOptionalUTF(final DataInputStream input) throws IOException {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+
+    private static void writeOptionalUTF(final DataOutputStream output, final String value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeUTF(value);
+        }
+    }
+
+    private TestOutcome decode(final Entry entry) {
+        if (!entry.isAThucydidesReport()) {
+            return null;
+        }
+        try {
+            return binaryFormat.decode(ByteBuffer.wrap(entry.testOutcome));
+        } catch (NotAThucydidesReportException e) {
+            LOGGER.debug("Ignoring unreadable manifest entry", e);
+            return null;
+        }
+    }
+
+    private byte[] encode(final TestOutcome testOutcome) throws IOException {
+        return (testOutcome != null) ? binaryFormat.encode(testOutcome) : new byte[0];
+    }
+}
@@ -19,8 +19,10 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static ch.lambdaj.Lambda.convert;
 import static com.google.common.collect.Iterables.any;
@@ -73,8 +75,6 @@ public class HtmlAcceptanceTestReporter extends HtmlReporter implements Acceptan
         Map<String,Object> context = new HashMap<String,Object>();
         addTestOutcomeToContext(testOutcome, context);
         addFormattersToContext(context);
-        String htmlContents = mergeTemplate(DEFAULT_ACCEPTANCE_TEST_REPORT).usingContext(context);
-
         copyResourcesToOutputDirectory();
 
         if (containsScreenshots(testOutcome)) {
@@ -82,7 +82,7 @@ public class HtmlAcceptanceTestReporter extends HtmlReporter implements Acceptan
         }
 
         String reportFilename = reportFor(testOutcome);
-        return writeReportToOutputDirectory(reportFilename, htmlContents);
+        return mergeTemplate(DEFAULT_ACCEPTANCE_TEST_REPORT).toReport(reportFilename, context);
     }
 
     private boolean containsScreenshots(TestOutcome testOutcome) {
@@ -118,8 +118,7 @@ public class HtmlAcceptanceTestReporter extends HtmlReporter implements Acceptan
         Map<String,Object> context = new HashMap<String,Object>();
         context.put("screenshots", screenshots);
         context.put("testOutcome", testOutcome);
-        String htmlContents = mergeTemplate(DEFAULT_ACCEPTANCE_TEST_SCREENSHOT).usingContext(context);
-        writeReportToOutputDirectory(screenshotReport, htmlContents);
+        mergeTemplate(DEFAULT_ACCEPTANCE_TEST_SCREENSHOT).toReport(screenshotReport, context);
 
     }
 
@@ -127,8 +126,12 @@ public class HtmlAcceptanceTestReporter extends HtmlReporter implements Acceptan
         return convert(screenshots, new ExpandedScreenshotConverter(maxScreenshotHeightIn(screenshots)));
     }
 
+    /**
+     * Several steps can share the same screenshot file, so each file is only rescaled once per report.
+     */
     private class ExpandedScreenshotConverter implements Converter<Screenshot, Screenshot> {
         private final int maxHeight;
+        private final Map<String, String> expandedScreenshotNames = new HashMap<String, String>();
 
         public ExpandedScreenshotConverter(int maxHeight) {
             this.maxHeight = maxHeight;
@@ -136,9 +139,18 @@ public class HtmlAcceptanceTestReporter extends HtmlReporter implements Acceptan
 
         public Screenshot convert(Screenshot screenshot) {
             try {
-                return ScreenshotFormatter.forScreenshot(screenshot)
-                                          .inDirectory(getOutputDirectory())
-                                          .expandToHeight(maxHeight);
+                String expandedName = expandedScreenshotNames.get(screenshot.getFilename());
+                if (expandedName != null) {
+                    return new Screenshot(expandedName,
+                                          screenshot.getDescription(),
+                                          screenshot.getWidth(),
+                                          screenshot.getError());
+                }
+                Screenshot expandedScreenshot = ScreenshotFormatter.forScreenshot(screenshot)
+                                                                   .inDirectory(getOutputDirectory())
+                                                                   .expandToHeight(maxHeight);
+                expandedScreenshotNames.put(screenshot.getFilename(), expandedScreenshot.getFilename());
+                return expandedScreenshot;
             } catch (IOException e) {
                 LOGGER.error("Failed to write scaled screenshot for {}: {}", screenshot, e);
                 throw new ScreenshotException("Failed to write scaled screenshot", e);
@@ -148,8 +160,8 @@ public class HtmlAcceptanceTestReporter extends HtmlReporter implements Acceptan
 
     private int maxScreenshotHeightIn(List<Screenshot> screenshots) throws IOException {
         int maxHeight = 0;
-        for (Screenshot screenshot : screenshots) {
-            File screenshotFile = new File(getOutputDirectory(),screenshot.getFilename());
+        for (String screenshotName : distinctFilenamesOf(screenshots)) {
+            File screenshotFile = new File(getOutputDirectory(), screenshotName);
             if (screenshotFile.exists()) {
                 maxHeight = maxHeightOf(maxHeight, screenshotFile);
             }
@@ -157,9 +169,18 @@ public class HtmlAcceptanceTestReporter extends HtmlReporter implements Acceptan
         return maxHeight;
     }
 
+    private Set<String> distinctFilenamesOf(List<Screenshot> screenshots) {
+        Set<String> filenames = new LinkedHashSet<String>();
+        for (Screenshot screenshot : screenshots) {
+            filenames.add(screenshot.getFilename());
+        }
+        return filenames;
+    }
+
     private int maxHeightOf(int maxHeight, File screenshotFile) throws IOException {
-        int height = ResizableImage.loadFrom(screenshotFile).getHeight();
-        int width = ResizableImage.loadFrom(screenshotFile).getWitdh();
+        ResizableImage image = ResizableImage.loadFrom(screenshotFile);
+        int height = image.getHeight();
+        int width = image.getWitdh();
         if (width > MAXIMUM_SCREENSHOT_WIDTH) {
             height = (int) ((height * 1.0) * (MAXIMUM_SCREENSHOT_WIDTH * 1.0 / width));
         }
@@ -1,13 +1,16 @@
 package net.thucydides.core.reports.html;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import net.thucydides.core.ThucydidesSystemProperties;
 import net.thucydides.core.ThucydidesSystemProperty;
 import net.thucydides.core.guice.Injectors;
 import net.thucydides.core.issues.IssueTracking;
 import net.thucydides.core.model.FeatureResults;
 import net.thucydides.core.model.NumericalFormatter;
+import net.thucydides.core.model.Story;
 import net.thucydides.core.model.StoryTestResults;
 import net.thucydides.core.model.UserStoriesResultSet;
+import net.thucydides.core.model.features.ApplicationFeature;
 import net.thucydides.core.model.features.FeatureLoader;
 import net.thucydides.core.model.userstories.UserStoryLoader;
 import net.thucydides.core.reports.ThucydidesReportData;
@@ -16,14 +19,23 @@ import net.thucydides.core.reports.history.TestHistory;
 import net.thucydides.core.reports.html.history.TestResultSnapshot;
 import net.thucydides.core.reports.json.JSONProgressResultTree;
 import net.thucydides.core.reports.json.JSONResultTree;
+import net.thucydides.core.util.EnvironmentVariables;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static net.thucydides.core.model.ReportType.HTML;
 
@@ -49,6 +61,7 @@ public class HtmlAggregateStoryReporter extends HtmlReporter implements UserStor
     private UserStoryLoader storyLoader;
     private TestHistory testHistory;
     private String projectName;
+    private boolean incremental;
 
     private final IssueTracking issueTracking;
 
@@ -57,7 +70,14 @@ public class HtmlAggregateStoryReporter extends HtmlReporter implements UserStor
     }
 
     public HtmlAggregateStoryReporter(final String projectName, final IssueTracking issueTracking) {
-        storyLoader = new UserStoryLoader();
+        this(projectName, issueTracking, Injectors.getInjector().getInstance(EnvironmentVariables.class));
+    }
+
+    public HtmlAggregateStoryReporter(final String projectName,
+                                      final IssueTracking issueTracking,
+                                      final EnvironmentVariables environmentVariables) {
+        super(environmentVariables);
+        storyLoader = new UserStoryLoader(environmentVariables);
         featureLoader = new FeatureLoader();
         this.projectName = projectName;
         this.issueTracking = issueTracking;
@@ -81,15 +101,9 @@ public class HtmlAggregateStoryReporter extends HtmlReporter implements UserStor
 
         LOGGER.info("Generating report for user story {} to {}",storyTestResults.getTitle(), getOutputDirectory());
 
-        Map<String, Object> context = new HashMap<String, Object>();
-        context.put("story", storyTestResults);
-        addFormattersToContext(context);
-        String htmlContents = mergeTemplate(DEFAULT_USER_STORY_TEMPLATE).usingContext(context);
-
         copyResourcesToOutputDirectory();
 
-        String reportFilename = storyTestResults.getReportName(HTML);
-        return writeReportToOutputDirectory(reportFilename, htmlContents);
+        return storyPageFor(storyTestResults).generate();
     }
 
     private void addFormattersToContext(final Map<String, Object> context) {
@@ -98,56 +112,243 @@ public class HtmlAggregateStoryReporter extends HtmlReporter implements UserStor
         context.put("formatted", new NumericalFormatter());
     }
 
+    /**
+     * In incremental mode, only the pages of stories whose test outcomes have changed since the previous
+     * aggregate report are regenerated, along with the summary pages. A manifest in the output directory
+     * records the test outcomes used for each report, so that unchanged report files are not loaded again.
+     */
+    public void setIncremental(final boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    /**
+     * Generate the story, feature and summary pages for the test outcomes in the source directory.
+     * The pages are independent of each other, so their templates are merged in parallel using up to
+     * <code>thucydides.report.threads</code> threads, while the merged pages are written to disk one by one,
+     * in the same order as with a single thread. Each page is always written to the same file
+     * from the same template and context, so the result does not depend on the number of threads.
+     */
     public ThucydidesReportData generateReportsForStoriesFrom(final File sourceDirectory) throws IOException {
+        if (incremental) {
+            return generateReportsIncrementallyFrom(sourceDirectory);
+        }
         List<StoryTestResults> storyResults = loadStoryResultsFrom(sourceDirectory);
-        List<FeatureResults> featureResults = loadFeatureResultsFrom(sourceDirectory);
+        return generateReportsFor(storyResults, storiesIn(storyResults));
+    }
+
+    private ThucydidesReportData generateReportsIncrementallyFrom(final File sourceDirectory) throws IOException {
+        File manifestFile = new File(getOutputDirectory(), AggregateReportManifest.MANIFEST_FILE);
+        AggregateReportManifest manifest = AggregateReportManifest.readFrom(manifestFile, sourceDirectory);
+
+        List<File> reportFiles = storyLoader.reportFilesIn(sourceDirectory);
+        List<StoryTestResults> storyResults = storyLoader.storiesFor(manifest.loadTestOutcomesFrom(reportFiles,
+                                                                                                  storyLoader));
+        ThucydidesReportData reportData = generateReportsFor(storyResults, manifest.getChangedStories());
+
+        manifest.saveTo(manifestFile);
+        return reportData;
+    }
+
+    private Set<Story> storiesIn(final List<StoryTestResults> storyResults) {
+        Set<Story> stories = new HashSet<Story>();
+        for (StoryTestResults storyTestResults : storyResults) {
+            stories.add(storyTestResults.getStory());
+        }
+        return stories;
+    }
+
+    private ThucydidesReportData generateReportsFor(final List<StoryTestResults> storyResults,
+                                                    final Set<Story> changedStories) throws IOException {
+        List<FeatureResults> featureResults = featureLoader.loadFrom(storyResults);
 
         copyResourcesToOutputDirectory();
 
+        List<ReportPage> reportPages = new ArrayList<ReportPage>();
         for(StoryTestResults storyTestResults : storyResults) {
-            generateReportFor(storyTestResults);
+            if (storyPageNeedsUpdating(storyTestResults, changedStories)) {
+                reportPages.add(storyPageFor(storyTestResults));
+            }
         }
+        reportPages.addAll(aggregatePagesFor(storyResults, featureResults, featuresOf(changedStories)));
 
-        generateAggregateReportFor(storyResults, featureResults);
+        LOGGER.info("Generating {} report pages to {}", reportPages.size(), getOutputDirectory());
+        generateReportPages(reportPages);
+
+        updateHistoryFor(featureResults);
+        generateHistoryReport();
 
         return new ThucydidesReportData(featureResults, storyResults);
     }
 
+    private boolean storyPageNeedsUpdating(final StoryTestResults storyTestResults, final Set<Story> changedStories) {
+        return changedStories.contains(storyTestResults.getStory())
+                || !reportExists(storyTestResults.getReportName(HTML));
+    }
+
+    private boolean featurePageNeedsUpdating(final FeatureResults feature, final Set<ApplicationFeature> changedFeatures) {
+        return changedFeatures.contains(feature.getFeature())
+                || !reportExists(feature.getStoryReportName());
+    }
+
+    private Set<ApplicationFeature> featuresOf(final Set<Story> stories) {
+        Set<ApplicationFeature> features = new HashSet<ApplicationFeature>();
+        for (Story story : stories) {
+            if (story.getFeature() != null) {
+                features.add(story.getFeature());
+            }
+        }
+        return features;
+    }
+
+    private boolean reportExists(final String reportName) {
+        return new File(getOutputDirectory(), reportName).exists();
+    }
+
     private List<StoryTestResults> loadStoryResultsFrom(final File sourceDirectory) throws IOException {
         return storyLoader.loadFrom(sourceDirectory);
     }
 
-    private List<FeatureResults> loadFeatureResultsFrom(final File sourceDirectory) throws IOException {
-        return featureLoader.loadFrom(sourceDirectory);
+    /**
+     * A report page to be generated from a template. The context is only built when the page is merged,
+     * so that any expensive preparation (such as building the JSON coverage data) is also done in parallel.
+     */
+    private abstract class ReportPage implements Callable<String> {
+        private final String template;
+        private final String outputFile;
+
+        protected ReportPage(final String template, final String outputFile) {
+            this.template = template;
+            this.outputFile = outputFile;
+        }
+
+        protected abstract Map<String, Object> buildContext();
+
+        /**
+         * Merge the page in memory, to be written later with {@link #write(String)}.
+         */
+        public String call() {
+            return mergeTemplate(template).toText(buildContext());
+        }
+
+        public File write(final String mergedPage) throws IOException {
+            return writeReport(outputFile, mergedPage);
+        }
+
+        /**
+         * Merge the page straight into its report file.
+         */
+        public File generate() throws IOException {
+            return mergeTemplate(template).toReport(outputFile, buildContext());
+        }
     }
 
-    private void generateAggregateReportFor(final List<StoryTestResults> storyResults,
-                                            final List<FeatureResults> featureResults) throws IOException {
-        LOGGER.info("Generating summary report for user stories to "+ getOutputDirectory());
+    private void generateReportPages(final List<ReportPage> reportPages) throws IOException {
+        int threadCount = Math.min(getReportThreadCount(), reportPages.size());
+        if (threadCount <= 1) {
+            for(ReportPage reportPage : reportPages) {
+                reportPage.generate();
+            }
+        } else {
+            generateReportPagesInParallel(reportPages, threadCount);
+        }
+    }
 
-        copyResourcesToOutputDirectory();
+    /**
+     * The pages are all independent and of about the same size, so they are simply shared out between the
+     * threads of a fixed pool. The pages are written by the calling thread, in order, as soon as they are merged.
+     */
+    private void generateReportPagesInParallel(final List<ReportPage> reportPages,
+                                               final int threadCount) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount,
+                                                                new ThreadFactoryBuilder().setDaemon(true)
+                                                                        .setNameFormat("thucydides-reports-%d")
+                                                                        .build());
+        try {
+            List<Future<String>> mergedPages = new ArrayList<Future<String>>();
+            for(ReportPage reportPage : reportPages) {
+                mergedPages.add(executor.submit(reportPage));
+            }
+            for(int i = 0; i < reportPages.size(); i++) {
+                reportPages.get(i).write(waitFor(mergedPages.get(i)));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Report generation was interrupted");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 
-        Map<String, Object> storyContext = new HashMap<String, Object>();
-        storyContext.put("stories", storyResults);
-        storyContext.put("storyContext", "All stories");
-        addFormattersToContext(storyContext);
-        writeReportToOutputDirectory("stories.html",
-                                     mergeTemplate(STORIES_TEMPLATE_PATH).usingContext(storyContext));
+    private String waitFor(final Future<String> mergedPage) throws IOException, InterruptedException {
+        try {
+            return mergedPage.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException("Failed to generate report", cause);
+        }
+    }
 
-        Map<String, Object> featureContext = new HashMap<String, Object>();
-        addFormattersToContext(featureContext);
-        featureContext.put("features", featureResults);
-        writeReportToOutputDirectory("features.html",
-                                     mergeTemplate(FEATURES_TEMPLATE_PATH).usingContext(featureContext));
+    private int getReportThreadCount() {
+        return getEnvironmentVariables().getPropertyAsInteger(ThucydidesSystemProperty.REPORT_THREADS.getPropertyName(),
+                                                              Runtime.getRuntime().availableProcessors());
+    }
+
+    private ReportPage storyPageFor(final StoryTestResults storyTestResults) {
+        return new ReportPage(DEFAULT_USER_STORY_TEMPLATE, storyTestResults.getReportName(HTML)) {
+            protected Map<String, Object> buildContext() {
+                Map<String, Object> context = new HashMap<String, Object>();
+                context.put("story", storyTestResults);
+                addFormattersToContext(context);
+                return context;
+            }
+        };
+    }
+
+    private List<ReportPage> aggregatePagesFor(final List<StoryTestResults> storyResults,
+                                               final List<FeatureResults> featureResults,
+                                               final Set<ApplicationFeature> changedFeatures) {
+        List<ReportPage> reportPages = new ArrayList<ReportPage>();
+
+        reportPages.add(new ReportPage(STORIES_TEMPLATE_PATH, "stories.html") {
+            protected Map<String, Object> buildContext() {
+                Map<String, Object> storyContext = new HashMap<String, Object>();
+                storyContext.put("stories", storyResults);
+                storyContext.put("storyContext", "All stories");
+                addFormattersToContext(storyContext);
+                return storyContext;
+            }
+        });
+
+        reportPages.add(new ReportPage(FEATURES_TEMPLATE_PATH, "features.html") {
+            protected Map<String, Object> buildContext() {
+                Map<String, Object> featureContext = new HashMap<String, Object>();
+                addFormattersToContext(featureContext);
+                featureContext.put("features", featureResults);
+                return featureContext;
+            }
+        });
 
         for(FeatureResults feature : featureResults) {
-            generateStoryReportForFeature(feature);
+            if (featurePageNeedsUpdating(feature, changedFeatures)) {
+                reportPages.add(storyPageForFeature(feature));
+            }
         }
 
-        generateReportHomePage(storyResults, featureResults);
+        reportPages.add(homePage(HOME_TEMPLATE_PATH, "index.html", storyResults, featureResults));
+        reportPages.add(homePage(TREEMAP_TEMPLATE_PATH, "treemap.html", storyResults, featureResults));
+        reportPages.add(homePage(DASHBOARD_TEMPLATE_PATH, "dashboard.html", storyResults, featureResults));
 
-        updateHistoryFor(featureResults);
-        generateHistoryReport();
+        reportPages.add(coverageData(featureResults));
+        reportPages.add(progressData(featureResults));
+
+        return reportPages;
     }
 
     private void updateHistoryFor(final List<FeatureResults> featureResults) {
@@ -160,77 +361,70 @@ public class HtmlAggregateStoryReporter extends HtmlReporter implements UserStor
         context.put("history", history);
         context.put("rowcount", history.size());
         addFormattersToContext(context);
-        String htmlContents = mergeTemplate(HISTORY_TEMPLATE_PATH).usingContext(context);
         LOGGER.debug("Writing history page");
-        writeReportToOutputDirectory("history.html", htmlContents);
+        mergeTemplate(HISTORY_TEMPLATE_PATH).toReport("history.html", context);
 
     }
 
-    private void generateStoryReportForFeature(FeatureResults feature) throws IOException {
-        Map<String, Object> context = new HashMap<String, Object>();
-
-        context.put("stories", feature.getStoryResults());
-        context.put("storyContext", feature.getFeature().getName() );
-        addFormattersToContext(context);
-        LOGGER.debug("Generating stories page");
-        String htmlContents = mergeTemplate(STORIES_TEMPLATE_PATH).usingContext(context);
-        LOGGER.debug("Writing stories page");
-        String filename = feature.getStoryReportName();
-        writeReportToOutputDirectory(filename, htmlContents);
+    private ReportPage storyPageForFeature(final FeatureResults feature) {
+        return new ReportPage(STORIES_TEMPLATE_PATH, feature.getStoryReportName()) {
+            protected Map<String, Object> buildContext() {
+                Map<String, Object> context = new HashMap<String, Object>();
+                context.put("stories", feature.getStoryResults());
+                context.put("storyContext", feature.getFeature().getName() );
+                addFormattersToContext(context);
+                return context;
+            }
+        };
     }
 
-    private void generateReportHomePage(final List<StoryTestResults> storyResults,
-                                        final List<FeatureResults> featureResults) throws IOException {
-        Map<String, Object> context = new HashMap<String, Object>();
-        context.put("stories", new UserStoriesResultSet(storyResults));
-        context.put("features", featureResults);
-        addFormattersToContext(context);
-
-        LOGGER.debug("Generating report pages");
-        generateReportPage(context, HOME_TEMPLATE_PATH, "index.html");
-        generateReportPage(context, TREEMAP_TEMPLATE_PATH, "treemap.html");
-        generateReportPage(context, DASHBOARD_TEMPLATE_PATH, "dashboard.html");
-
-        LOGGER.debug("Generating coverage data");
-        generateCoverageData(featureResults);
-        generateProgressData(featureResults);
-    }
-
-    private void generateReportPage(final Map<String, Object> context,
-                                    final String template,
-                                    final String outputFile) throws IOException {
-        String htmlContents = mergeTemplate(template).usingContext(context);
-        writeReportToOutputDirectory(outputFile, htmlContents);
+    private ReportPage homePage(final String template,
+                                final String outputFile,
+                                final List<StoryTestResults> storyResults,
+                                final List<FeatureResults> featureResults) {
+        return new ReportPage(template, outputFile) {
+            protected Map<String, Object> buildContext() {
+                Map<String, Object> context = new HashMap<String, Object>();
+                context.put("stories", new UserStoriesResultSet(storyResults));
+                context.put("features", featureResults);
+                addFormattersToContext(context);
+                return context;
+            }
+        };
     }
 
-    private void generateCoverageData(final List<FeatureResults> featureResults) throws IOException {
-        Map<String, Object> context = new HashMap<String, Object>();
-
-        JSONResultTree resultTree = new JSONResultTree();
-        for(FeatureResults feature : featureResults) {
-            resultTree.addFeature(feature);
-        }
-
-        context.put("coverageData", resultTree.toJSON());
-        addFormattersToContext(context);
-
-        String javascriptCoverageData = mergeTemplate(COVERAGE_DATA_TEMPLATE_PATH).usingContext(context);
-        writeReportToOutputDirectory("coverage.js", javascriptCoverageData);
+    private ReportPage coverageData(final List<FeatureResults> featureResults) {
+        return new ReportPage(COVERAGE_DATA_TEMPLATE_PATH, "coverage.js") {
+            protected Map<String, Object> buildContext() {
+                Map<String, Object> context = new HashMap<String, Object>();
+
+                JSONResultTree resultTree = new JSONResultTree();
+                for(FeatureResults feature : featureResults) {
+                    resultTree.addFeature(feature);
+                }
+
+                context.put("coverageData", resultTree.toJSON());
+                addFormattersToContext(context);
+                return context;
+            }
+        };
     }
 
-    private void generateProgressData(final List<FeatureResults> featureResults) throws IOException {
-        Map<String, Object> context = new HashMap<String, Object>();
-
-        JSONProgressResultTree resultTree = new JSONProgressResultTree();
-        for(FeatureResults feature : featureResults) {
-            resultTree.addFeature(feature);
-        }
-
-        context.put("progressData", resultTree.toJSON());
-        addFormattersToContext(context);
-
-        String javascriptCoverageData = mergeTemplate(PROGRESS_DATA_TEMPLATE_PATH).usingContext(context);
-        writeReportToOutputDirectory("progress.js", javascriptCoverageData);
+    private ReportPage progressData(final List<FeatureResults> featureResults) {
+        return new ReportPage(PROGRESS_DATA_TEMPLATE_PATH, "progress.js") {
+            protected Map<String, Object> buildContext() {
+                Map<String, Object> context = new HashMap<String, Object>();
+
+                JSONProgressResultTree resultTree = new JSONProgressResultTree();
+                for(FeatureResults feature : featureResults) {
+                    resultTree.addFeature(feature);
+                }
+
+                context.put("progressData", resultTree.toJSON());
+                addFormattersToContext(context);
+                return context;
+            }
+        };
     }
 
     public void clearHistory() {
@@ -6,12 +6,16 @@ import net.thucydides.core.reports.templates.ReportTemplate;
 import net.thucydides.core.reports.templates.TemplateManager;
 import net.thucydides.core.util.EnvironmentVariables;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.util.Map;
 
 /**
@@ -86,13 +90,12 @@ public abstract class HtmlReporter {
     }
 
     /**
-     * Write the actual HTML report to a file with the specified name in the output directory.
+     * Write a page that has already been merged to a report file in the output directory.
      */
-    protected File writeReportToOutputDirectory(final String reportFilename,
-                                                final String htmlContents) throws IOException {
+    protected File writeReport(final String reportFilename, final String content) throws IOException {
         File report = new File(getOutputDirectory(), reportFilename);
-        FileUtils.writeStringToFile(report, htmlContents);
         LOGGER.debug("Writing HTML report to {}", report.getAbsolutePath());
+        FileUtils.writeStringToFile(report, content);
         return report;
     }
 
@@ -107,12 +110,41 @@ public abstract class HtmlReporter {
             this.templateFile = templateFile;
         }
 
-        public String usingContext(final Map<String, Object> context) {
+        /**
+         * Merge the template straight into a report file in the output directory,
+         * rather than building the whole page in memory first.
+         */
+        public File toReport(final String reportFilename, final Map<String, Object> context) throws IOException {
+            File report = new File(getOutputDirectory(), reportFilename);
+            LOGGER.debug("Writing HTML report to {}", report.getAbsolutePath());
+            Writer writer = new BufferedWriter(new OutputStreamWriter(FileUtils.openOutputStream(report)));
+            boolean merged = false;
+            try {
+                mergeInto(writer, context);
+                writer.flush();
+                merged = true;
+            } finally {
+                IOUtils.closeQuietly(writer);
+                if (!merged) {
+                    FileUtils.deleteQuietly(report);
+                }
+            }
+            return report;
+        }
+
+        /**
+         * Merge the template in memory, so that the page can be written to disk separately.
+         */
+        public String toText(final Map<String, Object> context) {
+            StringWriter writer = new StringWriter();
+            mergeInto(writer, context);
+            return writer.toString();
+        }
+
+        private void mergeInto(final Writer writer, final Map<String, Object> context) {
             try {
                 ReportTemplate template = getTemplateManager().getTemplateFrom(templateFile);
-                StringWriter sw = new StringWriter();
-                template.merge(context, sw);
-                return sw.toString();
+                template.merge(context, writer);
             } catch (Exception e) {
                 throw new RuntimeException("Failed to merge template", e);
             }
@@ -1,18 +1,44 @@
 package net.thucydides.core.reports.html;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import net.thucydides.core.resources.ClasspathResourceIndex;
 import net.thucydides.core.resources.FileResources;
-import net.thucydides.core.resources.ResourceList;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Collection;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Pattern;
 
 /**
  * Utility class that copies HTML resource files (images, stylesheets...) from a JAR to a target directory.
+ * The classpath is only scanned once per process, and the checksums of the resources copied to a directory
+ * are recorded in a manifest in that directory, so that resources are only copied when they are missing
+ * or have changed. Each manifest is read once and kept in memory, and copies to different directories
+ * can run at the same time.
  */
 public class HtmlResourceCopier {
 
+    public static final String RESOURCE_MANIFEST = "thucydides-resources.manifest";
+
+    private static final int MAX_CACHED_MANIFESTS = 32;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HtmlResourceCopier.class);
+
+    private static final Cache<File, InstalledResources> INSTALLED_RESOURCES
+            = CacheBuilder.newBuilder().maximumSize(MAX_CACHED_MANIFESTS).build();
+
     private String resourceDirectory;
 
     public HtmlResourceCopier(final String resourceDirectory) {
@@ -30,15 +56,107 @@ public class HtmlResourceCopier {
         Pattern resourcePattern = allFilesInDirectory(resourceDirectory);
         FileResources fileResource = FileResources.from(resourceDirectory);
 
-        Collection<String> reportResources = ResourceList.forResources(resourcePattern).list();
+        Collection<String> reportResources = ClasspathResourceIndex.resourcesMatching(resourcePattern);
+
+        InstalledResources installedResources = installedResourcesIn(targetDirectory);
+        synchronized (installedResources) {
+            Properties installedChecksums = installedResources.getChecksums();
+            int copiedResources = 0;
+            for (String resourcePath : reportResources) {
+                if (fileResourceFromAJar(resourcePath) || fileResourceFromPath(resourcePath)) {
+                    File targetFile = fileResource.targetFileFor(resourcePath, targetDirectory);
+                    String installedName = relativePathOf(targetFile, targetDirectory);
+                    String checksum = ClasspathResourceIndex.checksumOf(resourcePath);
+                    if (!targetFile.exists() || !checksum.equals(installedChecksums.getProperty(installedName))) {
+                        fileResource.copyResourceTo(resourcePath, targetDirectory);
+                        installedChecksums.setProperty(installedName, checksum);
+                        copiedResources++;
+                    }
+                }
+            }
+            if (copiedResources > 0) {
+                LOGGER.debug("Copied {} report resources to {}", copiedResources, targetDirectory);
+                installedResources.save();
+            }
+        }
+    }
+
+    private static InstalledResources installedResourcesIn(final File targetDirectory) {
+        File directory = targetDirectory.getAbsoluteFile();
+        ConcurrentMap<File, InstalledResources> manifests = INSTALLED_RESOURCES.asMap();
+        InstalledResources installedResources = manifests.get(directory);
+        if (installedResources == null) {
+            InstalledResources newInstalledResources = new InstalledResources(new File(directory, RESOURCE_MANIFEST));
+            installedResources = manifests.putIfAbsent(directory, newInstalledResources);
+            if (installedResources == null) {
+                installedResources = newInstalledResources;
+            }
+        }
+        return installedResources;
+    }
+
+    private String relativePathOf(final File targetFile, final File targetDirectory) {
+        return targetFile.getPath().substring(targetDirectory.getPath().length() + 1).replace('\\', '/');
+    }
+
+    /**
+     * The checksums recorded in the manifest of one output directory.
+     * The manifest is only read again if the file has changed since it was last read or written.
+     * Copies to the same directory are serialized on this object.
+     */
+    private static class InstalledResources {
+        private final File manifestFile;
+        private Properties checksums;
+        private long manifestTimestamp;
+        private long manifestLength;
+
+        private InstalledResources(final File manifestFile) {
+            this.manifestFile = manifestFile;
+        }
+
+        public Properties getChecksums() {
+            if ((checksums == null) || manifestHasChanged()) {
+                checksums = loadManifest();
+                recordManifestState();
+            }
+            return checksums;
+        }
+
+        public void save() throws IOException {
+            manifestFile.getParentFile().mkdirs();
+            OutputStream out = new BufferedOutputStream(new FileOutputStream(manifestFile));
+            try {
+                checksums.store(out, "Thucydides report resources");
+            } finally {
+                IOUtils.closeQuietly(out);
+            }
+            recordManifestState();
+        }
+
+        private boolean manifestHasChanged() {
+            return (manifestFile.lastModified() != manifestTimestamp) || (manifestFile.length() != manifestLength);
+        }
+
+        private void recordManifestState() {
+            manifestTimestamp = manifestFile.lastModified();
+            manifestLength = manifestFile.length();
+        }
 
-        for (String resourcePath : reportResources) {
-            if (fileResourceFromAJar(resourcePath)) {
-                fileResource.copyResourceTo(resourcePath, targetDirectory);
-            } else if (fileResourceFromPath(resourcePath)) {
-                fileResource.copyResourceTo(resourcePath,
-                                            targetDirectory);
+        private Properties loadManifest() {
+            Properties installedResources = new Properties();
+            if (manifestFile.exists()) {
+                InputStream in = null;
+                try {
+                    in = new BufferedInputStream(new FileInputStream(manifestFile));
+                    installedResources.load(in);
+                } catch (IOException e) {
+                    LOGGER.debug("Could not read the report resource manifest - all resources will be copied", e);
+                    installedResources.clear();
+                } finally {
+                    IOUtils.closeQuietly(in);
+                }
             }
+            return installedResources;
         }
     }
 
@@ -40,11 +40,27 @@ public class ScreenshotFormatter {
         }
     }
 
+    /**
+     * Several tests can share a screenshot file, and each test report scales it to its own height,
+     * so the scaled file is named after the target height as well. A scaled file that already exists
+     * is left alone, and new ones are written to a temporary file first, so that reports written at the
+     * same time never see a partly written image.
+     */
     private File resizedImage(File screenshotFile, int maxHeight) throws IOException {
+        File scaledFile = new File(sourceDirectory, "scaled_" + maxHeight + "_" + screenshotFile.getName());
+        if (scaledFile.exists()) {
+            return scaledFile;
+        }
         ResizableImage scaledImage = ResizableImage.loadFrom(screenshotFile).rescaleCanvas(maxHeight);
-        File scaledFile = new File(sourceDirectory, "scaled_" + screenshotFile.getName());
-        scaledImage.saveTo(scaledFile);
+        File temporaryFile = File.createTempFile("scaled_", ".tmp", sourceDirectory);
+        try {
+            scaledImage.saveTo(temporaryFile);
+            if (!temporaryFile.renameTo(scaledFile) && !scaledFile.exists()) {
+                throw new IOException("Could not write scaled screenshot " + scaledFile);
+            }
+        } finally {
+            temporaryFile.delete();
+        }
         return scaledFile;
     }
 }
-
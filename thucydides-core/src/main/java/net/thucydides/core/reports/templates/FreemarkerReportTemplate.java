@@ -5,7 +5,7 @@ import freemarker.template.Configuration;
 import freemarker.template.Template;
 
 import java.io.IOException;
-import java.io.StringWriter;
+import java.io.Writer;
 import java.util.Map;
 
 public class FreemarkerReportTemplate implements ReportTemplate {
@@ -21,7 +21,7 @@ public class FreemarkerReportTemplate implements ReportTemplate {
         }
     }
 
-    public void merge(Map<String, Object> context, StringWriter writer) throws TemplateMergeException {
+    public void merge(Map<String, Object> context, Writer writer) throws TemplateMergeException {
 
         try {
             template.process(context, writer);
@@ -1,8 +1,8 @@
 package net.thucydides.core.reports.templates;
 
-import java.io.StringWriter;
+import java.io.Writer;
 import java.util.Map;
 
 public interface ReportTemplate {
-    void merge(Map<String,Object> context, StringWriter sw) throws TemplateMergeException;
+    void merge(Map<String,Object> context, Writer writer) throws TemplateMergeException;
 }
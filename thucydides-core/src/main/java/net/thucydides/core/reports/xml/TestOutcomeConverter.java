@@ -11,6 +11,7 @@ import net.thucydides.core.model.TestOutcome;
 import net.thucydides.core.model.TestResult;
 import net.thucydides.core.model.TestStep;
 import net.thucydides.core.model.features.ApplicationFeature;
+import net.thucydides.core.reports.RecordedFailure;
 import net.thucydides.core.screenshots.ScreenshotAndHtmlSource;
 import org.apache.commons.lang3.StringUtils;
 
@@ -24,6 +25,8 @@ import static org.apache.commons.lang3.StringUtils.isNotEmpty;
 
 /**
  * XStream converter used to generate the XML acceptance test report.
+ * The report holds the same information as the binary report format, including the durations of step groups,
+ * and the error message and stack trace of any step that failed or was aborted because of an exception.
  *
  * @author johnsmart
  */
@@ -51,10 +54,16 @@ public class TestOutcomeConverter implements Converter {
     private static final String SCREENSHOT_FIELD = "screenshot";
     private static final String SCREENSHOT_IMAGE = "image";
     private static final String SCREENSHOT_SOURCE = "source";
+    private static final String SCREENSHOT_WIDTH = "width";
     private static final String DESCRIPTION = "description";
     private static final String DURATION = "duration";
     private static final String SESSION_ID = "session-id";
 
+    /**
+     * The key under which a report qualifier can be passed to the converter in the marshalling context.
+     */
+    public static final String QUALIFIER = "qualifier";
+
     private transient String qualifier;
 
     public TestOutcomeConverter() {
@@ -81,8 +90,9 @@ public class TestOutcomeConverter implements Converter {
         TestOutcome testOutcome = (TestOutcome) value;
         Preconditions.checkNotNull(testOutcome, "The test run was null - WTF?");
 
-        writer.addAttribute(TITLE_FIELD, titleFrom(testOutcome));
-        writer.addAttribute(NAME_FIELD, nameFrom(testOutcome));
+        String reportQualifier = qualifierFrom(context);
+        writer.addAttribute(TITLE_FIELD, titleFrom(testOutcome, reportQualifier));
+        writer.addAttribute(NAME_FIELD, nameFrom(testOutcome, reportQualifier));
         writer.addAttribute(STEPS_FIELD, Integer.toString(testOutcome.countTestSteps()));
         writer.addAttribute(SUCCESSFUL_FIELD, Integer.toString(testOutcome.getSuccessCount()));
         writer.addAttribute(FAILURES_FIELD, Integer.toString(testOutcome.getFailureCount()));
@@ -104,11 +114,16 @@ public class TestOutcomeConverter implements Converter {
     }
 
 
-    private String titleFrom(final TestOutcome testOutcome) {
-        if (qualifier == null) {
+    private String qualifierFrom(final MarshallingContext context) {
+        Object contextQualifier = context.get(QUALIFIER);
+        return (contextQualifier != null) ? contextQualifier.toString() : qualifier;
+    }
+
+    private String titleFrom(final TestOutcome testOutcome, final String reportQualifier) {
+        if (reportQualifier == null) {
             return testOutcome.getTitle();
         } else {
-            return testOutcome.getTitle() + " [" + humanized(qualifier) + "]";
+            return testOutcome.getTitle() + " [" + humanized(reportQualifier) + "]";
         }
     }
 
@@ -116,7 +131,7 @@ public class TestOutcomeConverter implements Converter {
         return text.replaceAll("_", "/");
     }
 
-    private String nameFrom(final TestOutcome testOutcome) {
+    private String nameFrom(final TestOutcome testOutcome, final String reportQualifier) {
         String baseName;
         if (testOutcome.getMethodName() != null) {
             baseName = testOutcome.getMethodName();
@@ -124,10 +139,10 @@ public class TestOutcomeConverter implements Converter {
             baseName = testOutcome.getTitle();
         }
         String testRunName;
-        if (qualifier == null) {
+        if (reportQualifier == null) {
             testRunName = baseName;
         } else {
-            String qualifierWithoutSpaces = qualifier.replaceAll(" ", "_");
+            String qualifierWithoutSpaces = reportQualifier.replaceAll(" ", "_");
             testRunName = baseName + "_" + qualifierWithoutSpaces;
         }
         return testRunName;
@@ -139,7 +154,9 @@ public class TestOutcomeConverter implements Converter {
             writer.startNode(TEST_GROUP);
             writer.addAttribute(NAME_FIELD, step.getDescription());
             writeResult(writer, step);
+            writer.addAttribute(DURATION, Long.toString(step.getDuration()));
             writeScreenshotIfPresent(writer, step);
+            writeErrorMessageAndException(writer, step);
 
             List<TestStep> nestedSteps = step.getChildren();
             for (TestStep nestedStep : nestedSteps) {
@@ -153,7 +170,7 @@ public class TestOutcomeConverter implements Converter {
             writeScreenshotIfPresent(writer, step);
             //addIssuesTo(writer, step.getTestedIssues());
             writeDescription(writer, step);
-            writeErrorForFailingTest(writer, step);
+            writeErrorMessageAndException(writer, step);
             writer.endNode();
         }
     }
@@ -163,15 +180,14 @@ public class TestOutcomeConverter implements Converter {
             writer.startNode(USER_STORY);
             writer.addAttribute(ID_FIELD, userStory.getId());
             writer.addAttribute(NAME_FIELD, userStory.getName());
-            if (userStory.getFeatureClass() != null) {
-                writeFeatureNode(writer, userStory);
+            if (userStory.getFeature() != null) {
+                writeFeatureNode(writer, userStory.getFeature());
             }
             writer.endNode();
         }
     }
 
-    private void writeFeatureNode(HierarchicalStreamWriter writer, Story userStory) {
-        ApplicationFeature feature = ApplicationFeature.from(userStory.getFeatureClass());
+    private void writeFeatureNode(HierarchicalStreamWriter writer, ApplicationFeature feature) {
         writer.startNode(FEATURE);
         writer.addAttribute(ID_FIELD, feature.getId());
         writer.addAttribute(NAME_FIELD, feature.getName());
@@ -190,20 +206,13 @@ public class TestOutcomeConverter implements Converter {
         }
     }
 
-    private void writeErrorForFailingTest(final HierarchicalStreamWriter writer, final TestStep step) {
-        if (step.isFailure()) {
-            writeErrorMessageAndException(writer, step);
-        }
-
-    }
-
     private void writeErrorMessageAndException(final HierarchicalStreamWriter writer,
                                                final TestStep step) {
-        if ((step.getErrorMessage() != null) && (!StringUtils.isEmpty(step.getErrorMessage()))) {
-            writeErrorMessageNode(writer, step.getErrorMessage());
-            if (step.getException() != null) {
-                writeExceptionNode(writer, step.getException());
+        if (step.getException() != null) {
+            if (step.getErrorMessage() != null) {
+                writeErrorMessageNode(writer, step.getErrorMessage());
             }
+            writeExceptionNode(writer, step.getException());
         }
     }
 
@@ -229,7 +238,12 @@ public class TestOutcomeConverter implements Converter {
             for(ScreenshotAndHtmlSource screenshotAndHtmlSource : step.getScreenshots()) {
                 writer.startNode(SCREENSHOT_FIELD);
                 writer.addAttribute(SCREENSHOT_IMAGE, screenshotAndHtmlSource.getScreenshotFile().getName());
-                writer.addAttribute(SCREENSHOT_SOURCE, screenshotAndHtmlSource.getSourcecode().getName());
+                if (screenshotAndHtmlSource.getSourcecode() != null) {
+                    writer.addAttribute(SCREENSHOT_SOURCE, screenshotAndHtmlSource.getSourcecode().getName());
+                }
+                if (screenshotAndHtmlSource.getWidth() != null) {
+                    writer.addAttribute(SCREENSHOT_WIDTH, screenshotAndHtmlSource.getWidth().toString());
+                }
                 writer.endNode();
             }
             writer.endNode();
@@ -264,6 +278,17 @@ public class TestOutcomeConverter implements Converter {
     }
 
     private void readChildren(final HierarchicalStreamReader reader, final TestOutcome testOutcome) {
+        readChildren(reader, testOutcome, null, null);
+    }
+
+    /**
+     * The children of the test outcome, or of a group of steps if one is given.
+     * The screenshots and error of a group are read into the group and its recorded error.
+     */
+    private void readChildren(final HierarchicalStreamReader reader,
+                              final TestOutcome testOutcome,
+                              final TestStep group,
+                              final RecordedError groupError) {
         while (reader.hasMoreChildren()) {
             reader.moveDown();
             String childNode = reader.getNodeName();
@@ -275,6 +300,10 @@ public class TestOutcomeConverter implements Converter {
                 readTestRunIssues(reader, testOutcome);
             } else if (childNode.equals(USER_STORY)) {
                 readUserStory(reader, testOutcome);
+            } else if ((group != null) && childNode.equals(SCREENSHOT_LIST_FIELD)) {
+                readScreenshots(reader, group);
+            } else if (group != null) {
+                groupError.readFrom(reader);
             }
             reader.moveUp();
         }
@@ -359,14 +388,19 @@ public class TestOutcomeConverter implements Converter {
         String name = reader.getAttribute(NAME_FIELD);
         String testResultValue = reader.getAttribute(RESULT_FIELD);
         TestResult result = TestResult.valueOf(testResultValue);
-        testOutcome.recordStep(new TestStep(name));
+        TestStep group = new TestStep(name);
+        group.setDuration(readDuration(reader));
+        testOutcome.recordStep(group);
         testOutcome.startGroup();
         testOutcome.getCurrentGroup().setResult(result);
-        readChildren(reader, testOutcome);
+        RecordedError error = new RecordedError();
+        readChildren(reader, testOutcome, group, error);
+        error.recordIn(group, result);
         testOutcome.endGroup();
     }
 
     private void readTestStepChildren(final HierarchicalStreamReader reader, final TestStep step) {
+        RecordedError error = new RecordedError();
         while (reader.hasMoreChildren()) {
             reader.moveDown();
             String childNode = reader.getNodeName();
@@ -374,9 +408,42 @@ public class TestOutcomeConverter implements Converter {
                 step.setDescription(reader.getValue());
             } else if (childNode.equals(SCREENSHOT_LIST_FIELD)) {
                 readScreenshots(reader, step);
+            } else {
+                error.readFrom(reader);
             }
             reader.moveUp();
         }
+        error.recordIn(step, step.getResult());
+    }
+
+    /**
+     * The error message and stack trace of a step, which are read from separate nodes.
+     */
+    private static class RecordedError {
+        private String errorMessage;
+        private String stackTrace;
+        private boolean found;
+
+        void readFrom(final HierarchicalStreamReader reader) {
+            if (reader.getNodeName().equals(ERROR)) {
+                errorMessage = reader.getValue();
+                found = true;
+            } else if (reader.getNodeName().equals(EXCEPTION)) {
+                stackTrace = reader.getValue();
+                found = true;
+            }
+        }
+
+        void recordIn(final TestStep step, final TestResult result) {
+            if (found) {
+                RecordedFailure failure = new RecordedFailure(errorMessage, stackTrace);
+                if (result == TestResult.FAILURE) {
+                    step.failedWith(failure);
+                } else {
+                    step.testAborted(failure);
+                }
+            }
+        }
     }
 
     private void readScreenshots(HierarchicalStreamReader reader, TestStep step) {
@@ -387,7 +454,10 @@ public class TestOutcomeConverter implements Converter {
                 if (childNode.equals(SCREENSHOT_FIELD)) {
                     String screenshot = reader.getAttribute(SCREENSHOT_IMAGE);
                     String source = reader.getAttribute(SCREENSHOT_SOURCE);
-                    step.addScreenshot(new ScreenshotAndHtmlSource(new File(screenshot), new File(source)));
+                    String width = reader.getAttribute(SCREENSHOT_WIDTH);
+                    step.addScreenshot(new ScreenshotAndHtmlSource(new File(screenshot),
+                                                                   (source != null) ? new File(source) : null,
+                                                                   (width != null) ? Integer.valueOf(width) : null));
                 }
                 reader.moveUp();
             }
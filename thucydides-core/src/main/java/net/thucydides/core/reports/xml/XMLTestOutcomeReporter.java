@@ -2,17 +2,24 @@ package net.thucydides.core.reports.xml;
 
 import com.google.common.base.Preconditions;
 import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.converters.DataHolder;
+import com.thoughtworks.xstream.io.xml.PrettyPrintWriter;
 import com.thoughtworks.xstream.mapper.CannotResolveClassException;
 import net.thucydides.core.model.TestOutcome;
 import net.thucydides.core.reports.AcceptanceTestReporter;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 
 import static net.thucydides.core.model.ReportType.XML;
 
@@ -26,8 +33,22 @@ public class XMLTestOutcomeReporter implements AcceptanceTestReporter {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(XMLTestOutcomeReporter.class);
 
+    /**
+     * Configured XStream instances are expensive to create but thread-safe once configured,
+     * so all reporters share a single instance and reports can be loaded concurrently.
+     * The qualifier of each report is passed to the converter along with the test outcome.
+     */
+    private static final XStream XSTREAM = configuredXStream();
+
     private transient String qualifier;
 
+    private static XStream configuredXStream() {
+        XStream xstream = new XStream();
+        xstream.alias("acceptance-test-run", TestOutcome.class);
+        xstream.registerConverter(new TestOutcomeConverter());
+        return xstream;
+    }
+
     public void setQualifier(final String qualifier) {
         this.qualifier = qualifier;
     }
@@ -54,30 +75,41 @@ public class XMLTestOutcomeReporter implements AcceptanceTestReporter {
 
         Preconditions.checkNotNull(outputDirectory);
 
-        XStream xstream = new XStream();
-        xstream.alias("acceptance-test-run", TestOutcome.class);
-        xstream.registerConverter(usingXmlConverter());
-        String xmlContents = xstream.toXML(testOutcome);
-
         String reportFilename = reportFor(testOutcome);
         LOGGER.debug("Calculated report filename: {}", reportFilename);
 
         File report = new File(getOutputDirectory(), reportFilename);
 
         LOGGER.debug("Writing XML report to {}", report.getAbsolutePath());
-        FileUtils.writeStringToFile(report, xmlContents);
+        writeReport(testOutcome, report);
 
         return report;
     }
 
-    private TestOutcomeConverter usingXmlConverter() {
-        if (qualifier == null) {
-            return new TestOutcomeConverter();
-        } else {
-            return new TestOutcomeConverter(qualifier);
+    private void writeReport(final TestOutcome testOutcome, final File report) throws IOException {
+        Writer writer = null;
+        boolean written = false;
+        try {
+            writer = new BufferedWriter(new OutputStreamWriter(FileUtils.openOutputStream(report)));
+            XSTREAM.marshal(testOutcome, new PrettyPrintWriter(writer), reportDataFor(qualifier));
+            writer.flush();
+            written = true;
+        } finally {
+            IOUtils.closeQuietly(writer);
+            if (!written) {
+                FileUtils.deleteQuietly(report);
+            }
         }
     }
 
+    private DataHolder reportDataFor(final String qualifier) {
+        DataHolder reportData = XSTREAM.newDataHolder();
+        if (qualifier != null) {
+            reportData.put(TestOutcomeConverter.QUALIFIER, qualifier);
+        }
+        return reportData;
+    }
+
     private String reportFor(final TestOutcome testOutcome) {
         if (qualifier == null) {
             return testOutcome.getReportName(XML);
@@ -86,19 +118,19 @@ public class XMLTestOutcomeReporter implements AcceptanceTestReporter {
         }
     }
 
+    /**
+     * Reading a report does not depend on the qualifier.
+     */
     public TestOutcome loadReportFrom(final File reportFile) throws NotAThucydidesReportException, IOException {
 
         InputStream input = null;
         try {
-            XStream xstream = new XStream();
-            xstream.alias("acceptance-test-run", TestOutcome.class);
-            xstream.registerConverter(usingXmlConverter());
-            input = new FileInputStream(reportFile);
-            return (TestOutcome) xstream.fromXML(input);
+            input = new BufferedInputStream(new FileInputStream(reportFile));
+            return (TestOutcome) XSTREAM.fromXML(input);
         } catch (CannotResolveClassException e) {
             throw new NotAThucydidesReportException("This file is not a thucydides report: " + reportFile, e);
         } finally {
-            input.close();
+            IOUtils.closeQuietly(input);
         }
     }
 
@@ -0,0 +1,75 @@
+package net.thucydides.core.resources;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Process-wide index of the resources found on the classpath.
+ * Scanning the classpath means opening every JAR file on it, so each resource pattern is only scanned once,
+ * and the checksum of each resource is only computed once.
+ */
+public final class ClasspathResourceIndex {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final ConcurrentMap<String, Collection<String>> RESOURCES_BY_PATTERN
+            = new ConcurrentHashMap<String, Collection<String>>();
+
+    private static final ConcurrentMap<String, String> CHECKSUMS = new ConcurrentHashMap<String, String>();
+
+    private ClasspathResourceIndex() {
+    }
+
+    /**
+     * The resources on the classpath matching a given pattern, as returned by {@link ResourceList#list()}.
+     */
+    public static Collection<String> resourcesMatching(final Pattern pattern) {
+        Collection<String> resources = RESOURCES_BY_PATTERN.get(pattern.pattern());
+        if (resources == null) {
+            Collection<String> matchingResources = ResourceList.forResources(pattern).list();
+            RESOURCES_BY_PATTERN.putIfAbsent(pattern.pattern(),
+                                             Collections.unmodifiableCollection(new ArrayList<String>(matchingResources)));
+            resources = RESOURCES_BY_PATTERN.get(pattern.pattern());
+        }
+        return resources;
+    }
+
+    /**
+     * A checksum of the contents of a resource, used to tell whether a copy of the resource is up to date.
+     */
+    public static String checksumOf(final String resourcePath) throws IOException {
+        String checksum = CHECKSUMS.get(resourcePath);
+        if (checksum == null) {
+            CHECKSUMS.putIfAbsent(resourcePath, computeChecksumOf(resourcePath));
+            checksum = CHECKSUMS.get(resourcePath);
+        }
+        return checksum;
+    }
+
+    private static String computeChecksumOf(final String resourcePath) throws IOException {
+        InputStream in = FileResources.openResource(resourcePath);
+        if (in == null) {
+            throw new ResourceCopyingError("Could not find the resource " + resourcePath, null);
+        }
+        try {
+            CRC32 crc = new CRC32();
+            long length = 0;
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int bytesRead;
+            while ((bytesRead = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, bytesRead);
+                length += bytesRead;
+            }
+            return Long.toHexString(crc.getValue()) + "-" + length;
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -8,13 +8,16 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 
 /**
  * Utility class used to copy resources from a classpath to a target directory.
  */
 public final class FileResources {
 
-    private static final int BUFFER_SIZE = 4096;
+    private static final int BUFFER_SIZE = 65536;
 
     private String resourceDirectoryRoot;
 
@@ -57,6 +60,19 @@ public final class FileResources {
     public void copyResourceTo(final String sourceResource, final File targetDirectory)
             throws IOException {
 
+        File targetFile = targetFileFor(sourceResource, targetDirectory);
+
+        if (new File(sourceResource).isDirectory()) {
+            targetFile.mkdirs();
+        } else {
+            copyFileFromClasspathTo(sourceResource, targetFile);
+        }
+    }
+
+    /**
+     * The file a resource will be copied to in the target directory.
+     */
+    public File targetFileFor(final String sourceResource, final File targetDirectory) {
         String targetFile = findTargetFileFrom(sourceResource);
         String targetRelativeDirectory = findTargetSubdirectoryFrom(sourceResource);
 
@@ -65,31 +81,28 @@ public final class FileResources {
         if (targetRelativeDirectory.length() > 0) {
             destinationDirectory = new File(targetDirectory, targetRelativeDirectory);
         }
+        return new File(destinationDirectory, targetFile);
+    }
 
-        if (new File(sourceResource).isDirectory()) {
-            File fullTargetDirectory = new File(destinationDirectory, targetFile);
-            fullTargetDirectory.mkdirs();
+    /**
+     * Open a resource either from the file system or, if it is not a file, from the classpath.
+     */
+    static InputStream openResource(final String resourcePath) throws IOException {
+        File resourceOnClasspath = new File(resourcePath);
+        if (resourceOnClasspath.exists()) {
+            return new FileInputStream(resourceOnClasspath);
         } else {
-            copyFileFromClasspathToTargetDirectory(sourceResource, destinationDirectory);
+            return FileResources.class.getClassLoader().getResourceAsStream(resourcePath);
         }
     }
 
-    private void copyFileFromClasspathToTargetDirectory(
-            final String resourcePath, final File targetDirectory)
+    private void copyFileFromClasspathTo(final String resourcePath, final File destinationFile)
             throws IOException {
 
         FileOutputStream out = null;
         InputStream in = null;
         try {
-            File resourceOnClasspath = new File(resourcePath);
-
-            if (resourceOnClasspath.exists()) {
-                in = new FileInputStream(resourceOnClasspath);
-            } else {
-                in = this.getClass().getClassLoader().getResourceAsStream(resourcePath);
-            }
-            File destinationFile = new File(targetDirectory,
-                    resourceOnClasspath.getName());
+            in = openResource(resourcePath);
             if (destinationFile.getParent() != null) {
                 new File(destinationFile.getParent()).mkdirs();
             }
@@ -102,12 +115,22 @@ public final class FileResources {
         }
     }
 
-    private void copyData(final InputStream in, final OutputStream out)
+    private void copyData(final InputStream in, final FileOutputStream out)
             throws IOException {
-        byte[] buffer = new byte[BUFFER_SIZE];
-        int bytesRead;
-        while ((bytesRead = in.read(buffer)) != -1) {
-            out.write(buffer, 0, bytesRead);
+        FileChannel target = out.getChannel();
+        long position = 0;
+        if (in instanceof FileInputStream) {
+            FileChannel source = ((FileInputStream) in).getChannel();
+            long size = source.size();
+            while (position < size) {
+                position += source.transferTo(position, size - position, target);
+            }
+        } else {
+            ReadableByteChannel source = Channels.newChannel(in);
+            long transferred;
+            while ((transferred = target.transferFrom(source, position, BUFFER_SIZE)) > 0) {
+                position += transferred;
+            }
         }
     }
 
@@ -0,0 +1,57 @@
+package net.thucydides.core.scheduling;
+
+import org.openqa.selenium.support.ui.Duration;
+
+import java.util.Random;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Retry immediately after the first failed attempt, then pause for the polling interval, doubling the pause
+ * after each failed attempt up to a maximum pause.
+ * Each pause is randomly shortened or lengthened by up to a given proportion (the jitter), so that tests running
+ * in parallel do not all poll the browser at the same time.
+ */
+public class BackoffPollingStrategy implements PollingStrategy {
+
+    private final long maxPause;
+    private final double jitter;
+    private final Random random;
+
+    /**
+     * @param maxPause the longest pause (in milliseconds) between two attempts.
+     * @param jitter how much each pause can vary, from 0 (not at all) to 1 (between 0 and twice the pause).
+     */
+    public BackoffPollingStrategy(final long maxPause, final double jitter) {
+        this(maxPause, jitter, new Random());
+    }
+
+    public BackoffPollingStrategy(final long maxPause, final double jitter, final Random random) {
+        this.maxPause = maxPause;
+        this.jitter = Math.max(0.0, Math.min(jitter, 1.0));
+        this.random = random;
+    }
+
+    public Duration pauseAfter(final int failedAttempts, final Duration interval) {
+        if (failedAttempts <= 1) {
+            return new Duration(0, MILLISECONDS);
+        }
+        long pause = Math.min(maxPause, exponentialPause(interval.in(MILLISECONDS), failedAttempts - 2));
+        return new Duration(Math.min(maxPause, withJitter(pause)), MILLISECONDS);
+    }
+
+    private long exponentialPause(final long interval, final int doublings) {
+        if (doublings >= 62 || interval > (Long.MAX_VALUE >> doublings)) {
+            return Long.MAX_VALUE;
+        }
+        return interval << doublings;
+    }
+
+    private long withJitter(final long pause) {
+        if (jitter == 0.0) {
+            return pause;
+        }
+        double variation = (random.nextDouble() * 2.0 - 1.0) * jitter;
+        return Math.max(0, Math.round(pause * (1.0 + variation)));
+    }
+}
@@ -0,0 +1,13 @@
+package net.thucydides.core.scheduling;
+
+import org.openqa.selenium.support.ui.Duration;
+
+/**
+ * Pause for the configured polling interval between two attempts.
+ */
+public class FixedPollingStrategy implements PollingStrategy {
+
+    public Duration pauseAfter(final int failedAttempts, final Duration interval) {
+        return interval;
+    }
+}
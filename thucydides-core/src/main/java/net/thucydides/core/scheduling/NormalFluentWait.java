@@ -16,6 +16,6 @@ public class NormalFluentWait<T> extends ThucydidesFluentWait<T> {
 
     @Override
     public void doWait() throws InterruptedException {
-        getSleeper().sleep(interval);
+        pause();
     }
 }
\ No newline at end of file
@@ -0,0 +1,202 @@
+package net.thucydides.core.scheduling;
+
+import com.google.common.base.Function;
+import net.thucydides.core.webdriver.WebDriverFacade;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.support.ui.Clock;
+import org.openqa.selenium.support.ui.Duration;
+import org.openqa.selenium.support.ui.Sleeper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * A wait that, rather than sleeping between two checks of the condition, waits in the browser until the page changes.
+ * The page is watched with a MutationObserver (or polled from within the page by older browsers) during a single
+ * asynchronous script call, which returns as soon as the page changes, or, if a Javascript condition is given,
+ * as soon as this condition holds. The condition itself is then checked again as usual.
+ * The script waits no longer than the polling interval, so the condition is still checked at least as often as
+ * with a normal wait, even if it depends on something that does not change the page.
+ * If the driver cannot run asynchronous scripts, the wait falls back to sleeping between checks.
+ * The script timeout is raised for the duration of the wait. WebDriver cannot report the script timeout
+ * that was in use before, so it is set back to the WebDriver default of 0 afterwards, unless another value is
+ * given with {@link #restoringScriptTimeoutTo(long, TimeUnit)}. This overrides any script timeout set by the
+ * test code through <code>manage().timeouts()</code>.
+ */
+public class PageChangeFluentWait extends ThucydidesFluentWait<WebDriver> {
+
+    private static final long SCRIPT_TIMEOUT_MARGIN = 1000;
+
+    private static final long DEFAULT_SCRIPT_TIMEOUT = 0;
+
+    private static final long MIN_POLLING_INTERVAL = 10;
+
+    private static final String ANY_CHANGE = "return true;";
+
+    private final String javascriptCondition;
+    private final List<String> values;
+
+    private long restoredScriptTimeout = DEFAULT_SCRIPT_TIMEOUT;
+
+    private boolean javascriptWaitsUnavailable;
+    private boolean scriptTimeoutIsSet;
+    private long lastWakeUp;
+
+    public PageChangeFluentWait(WebDriver driver, Clock clock, Sleeper sleeper) {
+        this(driver, clock, sleeper, null);
+    }
+
+    /**
+     * @param javascriptCondition the body of a Javascript function telling whether the condition may hold,
+     *                            using the values passed in the <code>values</code> array.
+     */
+    public PageChangeFluentWait(WebDriver driver, Clock clock, Sleeper sleeper,
+                                String javascriptCondition, String... values) {
+        super(driver, clock, sleeper);
+        this.javascriptCondition = javascriptCondition;
+        this.values = Arrays.asList(values);
+    }
+
+    /**
+     * The script timeout to set once the wait is over, for tests whose own scripts need a script timeout
+     * other than the WebDriver default.
+     */
+    public PageChangeFluentWait restoringScriptTimeoutTo(long duration, TimeUnit unit) {
+        this.restoredScriptTimeout = unit.toMillis(duration);
+        return this;
+    }
+
+    @Override
+    public <V> V until(Function<? super WebDriver, V> isTrue) {
+        try {
+            return super.until(isTrue);
+        } finally {
+            restoreScriptTimeout();
+        }
+    }
+
+    private void restoreScriptTimeout() {
+        if (scriptTimeoutIsSet) {
+            scriptTimeoutIsSet = false;
+            try {
+                getRealDriver().manage().timeouts().setScriptTimeout(restoredScriptTimeout, MILLISECONDS);
+            } catch (RuntimeException e) {
+                // The browser may have been closed while waiting
+            }
+        }
+    }
+
+    @Override
+    public void doWait() throws InterruptedException {
+        JavascriptExecutor javascriptExecutor = getJavascriptExecutor();
+        if (javascriptExecutor == null) {
+            pause();
+            return;
+        }
+        waitForTheEndOfThePollingIntervalSince(lastWakeUp);
+        try {
+            Object result = javascriptExecutor.executeAsyncScript(waitForPageChangeScript(), scriptArguments());
+            if (!(result instanceof Boolean)) {
+                javascriptWaitsUnavailable = true;
+                pause();
+            }
+        } catch (UnsupportedOperationException e) {
+            javascriptWaitsUnavailable = true;
+            pause();
+        } catch (WebDriverException e) {
+            // The page was probably unloaded while waiting
+            pause();
+        }
+        lastWakeUp = getClock().now();
+    }
+
+    private Object[] scriptArguments() {
+        List<Object> arguments = new ArrayList<Object>();
+        arguments.add(Math.max(Math.min(millisecondsLeft(), longestScriptWait()), 1));
+        arguments.addAll(values);
+        return arguments.toArray();
+    }
+
+    private long longestScriptWait() {
+        return Math.max(nextPause().in(MILLISECONDS), MIN_POLLING_INTERVAL);
+    }
+
+    /**
+     * If the page changed but the condition still does not hold, don't check it again more often than the
+     * polling strategy allows, so as not to flood the browser on pages that change all the time.
+     */
+    private void waitForTheEndOfThePollingIntervalSince(long lastWakeUp) throws InterruptedException {
+        if (lastWakeUp > 0) {
+            long pause = nextPause().in(MILLISECONDS) - (getClock().now() - lastWakeUp);
+            if (pause > 0) {
+                getSleeper().sleep(new Duration(pause, MILLISECONDS));
+            }
+        }
+    }
+
+    private JavascriptExecutor getJavascriptExecutor() {
+        if (javascriptWaitsUnavailable) {
+            return null;
+        }
+        WebDriver driver = getRealDriver();
+        if (!(driver instanceof JavascriptExecutor)) {
+            javascriptWaitsUnavailable = true;
+            return null;
+        }
+        if (!scriptTimeoutIsSet) {
+            try {
+                driver.manage().timeouts().setScriptTimeout(timeout.in(MILLISECONDS) + SCRIPT_TIMEOUT_MARGIN,
+                                                            MILLISECONDS);
+                scriptTimeoutIsSet = true;
+            } catch (RuntimeException e) {
+                javascriptWaitsUnavailable = true;
+                return null;
+            }
+        }
+        return (JavascriptExecutor) driver;
+    }
+
+    private WebDriver getRealDriver() {
+        WebDriver driver = getInput();
+        if (driver instanceof WebDriverFacade) {
+            return ((WebDriverFacade) driver).getProxiedDriver();
+        }
+        return driver;
+    }
+
+    private String waitForPageChangeScript() {
+        boolean hasCondition = (javascriptCondition != null);
+        return "var callback = arguments[arguments.length - 1];"
+             + "var maxWait = arguments[0];"
+             + "var values = Array.prototype.slice.call(arguments, 1, arguments.length - 1);"
+             + "function conditionHolds(values) {"
+             + "  try { " + (hasCondition ? javascriptCondition : ANY_CHANGE) + " } catch (e) { return true; }"
+             + "}"
+             + "if (" + hasCondition + " && conditionHolds(values)) { callback(true); return; }"
+             + "var done = false, observer = null, poller = null, timer = null;"
+             + "function finish(changed) {"
+             + "  if (done) { return; }"
+             + "  done = true;"
+             + "  if (observer) { observer.disconnect(); }"
+             + "  if (poller) { clearInterval(poller); }"
+             + "  if (timer) { clearTimeout(timer); }"
+             + "  callback(changed);"
+             + "}"
+             + "function pageChanged() { if (conditionHolds(values)) { finish(true); } }"
+             + "var Observer = window.MutationObserver || window.WebKitMutationObserver;"
+             + "if (Observer && document.documentElement) {"
+             + "  observer = new Observer(pageChanged);"
+             + "  observer.observe(document.documentElement,"
+             + "                   {childList: true, subtree: true, attributes: true, characterData: true});"
+             + "} else {"
+             + "  poller = setInterval(pageChanged, " + Math.max(interval.in(MILLISECONDS), MIN_POLLING_INTERVAL) + ");"
+             + "}"
+             + "timer = setTimeout(function() { finish(false); }, maxWait);";
+    }
+}
@@ -0,0 +1,32 @@
+package net.thucydides.core.scheduling;
+
+import net.thucydides.core.ThucydidesSystemProperty;
+import net.thucydides.core.util.EnvironmentVariables;
+
+/**
+ * The polling strategy used by the page object waits, configured with the thucydides.polling.strategy property:
+ * "fixed" (the default) pauses for the polling interval between attempts, and "backoff" uses a
+ * {@link BackoffPollingStrategy}, pausing for at most thucydides.polling.max.pause milliseconds.
+ */
+public final class PollingStrategies {
+
+    private static final String BACKOFF = "backoff";
+
+    private static final int DEFAULT_MAX_PAUSE = 1000;
+
+    private static final double DEFAULT_JITTER = 0.2;
+
+    private PollingStrategies() {
+    }
+
+    public static PollingStrategy configuredIn(final EnvironmentVariables environmentVariables) {
+        String strategy = environmentVariables.getProperty(ThucydidesSystemProperty.POLLING_STRATEGY.getPropertyName(),
+                                                           "fixed");
+        if (BACKOFF.equalsIgnoreCase(strategy.trim())) {
+            int maxPause = environmentVariables.getPropertyAsInteger(
+                    ThucydidesSystemProperty.POLLING_MAX_PAUSE.getPropertyName(), DEFAULT_MAX_PAUSE);
+            return new BackoffPollingStrategy(maxPause, DEFAULT_JITTER);
+        }
+        return new FixedPollingStrategy();
+    }
+}
@@ -0,0 +1,16 @@
+package net.thucydides.core.scheduling;
+
+import org.openqa.selenium.support.ui.Duration;
+
+/**
+ * Decides how long a fluent wait should pause before checking its condition again.
+ */
+public interface PollingStrategy {
+
+    /**
+     * @param failedAttempts how many times the condition has been checked without success so far (at least 1).
+     * @param interval the polling interval configured for the wait.
+     * @return how long to pause before the next attempt.
+     */
+    Duration pauseAfter(int failedAttempts, Duration interval);
+}
@@ -12,6 +12,7 @@ import org.openqa.selenium.support.ui.Wait;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -31,6 +32,13 @@ public abstract class ThucydidesFluentWait<T> implements Wait<T> {
     private final T input;
     private final Sleeper sleeper;
 
+    private long end;
+
+    private PollingStrategy pollingStrategy = new FixedPollingStrategy();
+    private int failedAttempts;
+
+    private static final List<WaitTimingListener> TIMING_LISTENERS = new CopyOnWriteArrayList<WaitTimingListener>();
+
     public ThucydidesFluentWait(T input, Clock clock, Sleeper sleeper) {
         this.input = checkNotNull(input);
         this.clock = checkNotNull(clock);
@@ -50,7 +58,9 @@ public abstract class ThucydidesFluentWait<T> implements Wait<T> {
     }
 
     public <V> V until(Function<? super T, V> isTrue) {
-        long end = getClock().laterBy(timeout.in(MILLISECONDS));
+        long start = getClock().now();
+        end = getClock().laterBy(timeout.in(MILLISECONDS));
+        failedAttempts = 0;
         RuntimeException lastException = null;
         while (true) {
             if (aPreviousStepHasFailed()) {
@@ -60,6 +70,7 @@ public abstract class ThucydidesFluentWait<T> implements Wait<T> {
                 V value = isTrue.apply(input);
                 if (value != null && Boolean.class.equals(value.getClass())) {
                     if (Boolean.TRUE.equals(value)) {
+                        notifyTimingListeners(isTrue, start, true);
                         return value;
                     }
                 }
@@ -69,8 +80,10 @@ public abstract class ThucydidesFluentWait<T> implements Wait<T> {
             } catch (RuntimeException e) {
                 lastException = propagateIfNotIngored(e);
             }
+            failedAttempts++;
 
             if (!getClock().isNowBefore(end)) {
+                notifyTimingListeners(isTrue, start, false);
                 throw timeoutException(String.format("Timed out after %d seconds",
                         timeout.in(SECONDS)), lastException);
             }
@@ -84,6 +97,52 @@ public abstract class ThucydidesFluentWait<T> implements Wait<T> {
         }
     }
 
+    /**
+     * Pause before the next attempt, for as long as the polling strategy says.
+     */
+    protected void pause() throws InterruptedException {
+        Duration pause = nextPause();
+        if (pause.in(MILLISECONDS) > 0) {
+            getSleeper().sleep(pause);
+        }
+    }
+
+    protected Duration nextPause() {
+        return pollingStrategy.pauseAfter(Math.max(failedAttempts, 1), interval);
+    }
+
+    private void notifyTimingListeners(final Function<?, ?> condition, final long start, final boolean successful) {
+        if (TIMING_LISTENERS.isEmpty()) {
+            return;
+        }
+        WaitTiming timing = new WaitTiming(descriptionOf(condition), failedAttempts + (successful ? 1 : 0),
+                                           getClock().now() - start, successful);
+        for (WaitTimingListener listener : TIMING_LISTENERS) {
+            listener.waitFinished(timing);
+        }
+    }
+
+    private String descriptionOf(final Function<?, ?> condition) {
+        String defaultDescription = condition.getClass().getName() + "@" + Integer.toHexString(condition.hashCode());
+        String description = condition.toString();
+        return defaultDescription.equals(description) ? condition.getClass().getName() : description;
+    }
+
+    public static void addTimingListener(final WaitTimingListener listener) {
+        TIMING_LISTENERS.add(listener);
+    }
+
+    public static void removeTimingListener(final WaitTimingListener listener) {
+        TIMING_LISTENERS.remove(listener);
+    }
+
+    /**
+     * How long (in milliseconds) the current wait can still go on for before timing out.
+     */
+    protected long millisecondsLeft() {
+        return Math.max(0, end - getClock().now());
+    }
+
     private boolean aPreviousStepHasFailed() {
         return StepEventBus.getEventBus().aStepInTheCurrentTestHasFailed();
     }
@@ -114,6 +173,11 @@ public abstract class ThucydidesFluentWait<T> implements Wait<T> {
         return this;
     }
 
+    public ThucydidesFluentWait<T> pollingWith(PollingStrategy pollingStrategy) {
+        this.pollingStrategy = pollingStrategy;
+        return this;
+    }
+
     protected RuntimeException timeoutException(String message, RuntimeException lastException) {
         throw new TimeoutException(message, lastException);
     }
@@ -0,0 +1,47 @@
+package net.thucydides.core.scheduling;
+
+/**
+ * How long a fluent wait took, and how many times it checked its condition.
+ */
+public class WaitTiming {
+
+    private final String condition;
+    private final int attempts;
+    private final long duration;
+    private final boolean successful;
+
+    public WaitTiming(final String condition, final int attempts, final long duration, final boolean successful) {
+        this.condition = condition;
+        this.attempts = attempts;
+        this.duration = duration;
+        this.successful = successful;
+    }
+
+    /**
+     * A description of the condition: its toString() value if it has one, or its class name otherwise.
+     */
+    public String getCondition() {
+        return condition;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * The time (in milliseconds) until the condition held, or until the wait timed out.
+     */
+    public long getDuration() {
+        return duration;
+    }
+
+    public boolean isSuccessful() {
+        return successful;
+    }
+
+    @Override
+    public String toString() {
+        return condition + (successful ? " held after " : " timed out after ")
+               + attempts + " attempt(s) in " + duration + " ms";
+    }
+}
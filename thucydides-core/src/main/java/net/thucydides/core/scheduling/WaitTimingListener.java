@@ -0,0 +1,10 @@
+package net.thucydides.core.scheduling;
+
+/**
+ * Notified each time a fluent wait finishes, either because its condition held or because it timed out.
+ * Listeners are registered with {@link ThucydidesFluentWait#addTimingListener(WaitTimingListener)}.
+ */
+public interface WaitTimingListener {
+
+    void waitFinished(WaitTiming timing);
+}
@@ -0,0 +1,208 @@
+package net.thucydides.core.screenshots;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import net.thucydides.core.ThucydidesSystemProperty;
+import net.thucydides.core.util.EnvironmentVariables;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes screenshots and their HTML source code to disk using a small pool of background threads.
+ * The work queue is bounded: when it is full, the test thread writes the screenshot itself,
+ * which stops a fast test from piling up screenshots in memory faster than they can be saved.
+ * Screenshots and page sources are named after their contents, so a file that has already been stored,
+ * either earlier in this run or by a previous run in the same directory, is not written again.
+ */
+public class MultithreadScreenshotProcessor implements ScreenshotProcessor {
+
+    private static final int DEFAULT_THREAD_COUNT = 2;
+    private static final int DEFAULT_QUEUE_SIZE = 16;
+    private static final long KEEP_ALIVE_SECONDS = 30;
+    private static final int MAX_REMEMBERED_FILES = 1000;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MultithreadScreenshotProcessor.class);
+
+    private final ThreadPoolExecutor executor;
+    private final Object lock = new Object();
+    private int pendingScreenshots = 0;
+    private final Cache<File, Boolean> queuedFiles = CacheBuilder.newBuilder().maximumSize(MAX_REMEMBERED_FILES).build();
+
+    @Inject
+    public MultithreadScreenshotProcessor(final EnvironmentVariables environmentVariables) {
+        this(environmentVariables.getPropertyAsInteger(
+                ThucydidesSystemProperty.SCREENSHOT_PROCESSING_THREADS.getPropertyName(), DEFAULT_THREAD_COUNT));
+    }
+
+    public MultithreadScreenshotProcessor(final int threadCount) {
+        int poolSize = Math.max(1, threadCount);
+        executor = new ThreadPoolExecutor(poolSize, poolSize,
+                                          KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                                          new ArrayBlockingQueue<Runnable>(DEFAULT_QUEUE_SIZE),
+                                          new ThreadFactoryBuilder().setDaemon(true)
+                                                                    .setNameFormat("thucydides-screenshots-%d")
+                                                                    .build(),
+                                          new WriteInCallingThread());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    public void queueScreenshot(final QueuedScreenshot queuedScreenshot) {
+        boolean newScreenshot = firstTimeQueued(queuedScreenshot.getDestinationFile());
+        boolean newPageSource = queuedScreenshot.hasPageSource()
+                                && firstTimeQueued(queuedScreenshot.getSourcecodeFile());
+        if (!newScreenshot && !newPageSource) {
+            return;
+        }
+        synchronized (lock) {
+            pendingScreenshots++;
+        }
+        executor.execute(new ScreenshotWriter(queuedScreenshot, newScreenshot, newPageSource));
+    }
+
+    /**
+     * Only the most recently queued files are remembered. An older file that is queued again
+     * is still not rewritten if it is already on disk.
+     */
+    private boolean firstTimeQueued(final File file) {
+        return (queuedFiles.asMap().putIfAbsent(file, Boolean.TRUE) == null);
+    }
+
+    public void waitUntilDone() {
+        synchronized (lock) {
+            while (pendingScreenshots > 0) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        synchronized (lock) {
+            return (pendingScreenshots == 0);
+        }
+    }
+
+    private void screenshotDone() {
+        synchronized (lock) {
+            pendingScreenshots--;
+            if (pendingScreenshots == 0) {
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Unlike CallerRunsPolicy, this also runs the task when the executor has been shut down,
+     * so a queued screenshot is always written and always counted as done.
+     */
+    private static class WriteInCallingThread implements RejectedExecutionHandler {
+        public void rejectedExecution(final Runnable screenshotWriter, final ThreadPoolExecutor executor) {
+            screenshotWriter.run();
+        }
+    }
+
+    private class ScreenshotWriter implements Runnable {
+        private final QueuedScreenshot queuedScreenshot;
+        private final boolean writeScreenshot;
+        private final boolean writePageSource;
+
+        private ScreenshotWriter(final QueuedScreenshot queuedScreenshot,
+                                 final boolean writeScreenshot,
+                                 final boolean writePageSource) {
+            this.queuedScreenshot = queuedScreenshot;
+            this.writeScreenshot = writeScreenshot;
+            this.writePageSource = writePageSource;
+        }
+
+        public void run() {
+            try {
+                if (writeScreenshot) {
+                    saveScreenshot();
+                }
+            } finally {
+                try {
+                    if (writePageSource) {
+                        savePageSource();
+                    }
+                } finally {
+                    screenshotDone();
+                }
+            }
+        }
+
+        /**
+         * A screenshot that could not be written is forgotten, so that it is written again
+         * the next time an identical screenshot is taken.
+         */
+        private void saveScreenshot() {
+            File destination = queuedScreenshot.getDestinationFile();
+            try {
+                if (!alreadyStored()) {
+                    writeAtomically(destination, queuedScreenshot.getScreenshotData());
+                }
+            } catch (IOException e) {
+                queuedFiles.invalidate(destination);
+                LOGGER.warn("Failed to write screenshot to " + destination, e);
+            }
+        }
+
+        private boolean alreadyStored() {
+            File destination = queuedScreenshot.getDestinationFile();
+            return destination.isFile() && (destination.length() == queuedScreenshot.getScreenshotData().length);
+        }
+
+        private void savePageSource() {
+            File destination = queuedScreenshot.getSourcecodeFile();
+            try {
+                if (!destination.exists()) {
+                    writeAtomically(destination, queuedScreenshot.getPageSource().getBytes());
+                }
+            } catch (IOException e) {
+                queuedFiles.invalidate(destination);
+                LOGGER.warn("Failed to write page source to " + destination, e);
+            }
+        }
+    }
+
+    /**
+     * Files are written under a temporary name and then renamed, so a file with the final name
+     * is always complete, even if the write fails part of the way through.
+     */
+    private void writeAtomically(final File destination, final byte[] data) throws IOException {
+        FileUtils.forceMkdir(destination.getParentFile());
+        File temporaryFile = File.createTempFile(destination.getName(), ".tmp", destination.getParentFile());
+        try {
+            OutputStream stream = null;
+            try {
+                stream = new BufferedOutputStream(new FileOutputStream(temporaryFile));
+                stream.write(data);
+                stream.close();
+            } finally {
+                IOUtils.closeQuietly(stream);
+            }
+            if (!temporaryFile.renameTo(destination) && !destination.isFile()) {
+                throw new IOException("Could not rename " + temporaryFile + " to " + destination);
+            }
+        } finally {
+            temporaryFile.delete();
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package net.thucydides.core.screenshots;
 
+import com.google.common.base.Charsets;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import net.thucydides.core.guice.Injectors;
+import net.thucydides.core.images.SimpleImageInfo;
 import net.thucydides.core.webdriver.WebDriverFacade;
-import org.apache.commons.io.FileUtils;
 import org.openqa.selenium.OutputType;
 import org.openqa.selenium.TakesScreenshot;
 import org.openqa.selenium.WebDriver;
@@ -10,29 +14,26 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.UUID;
 
 /**
  * The photographer takes and stores screenshots during the test.
  * The actual screenshots are taken using the specified web driver,
  * and are stored in the specified target directory. Screenshots
- * are numbered sequentially.
+ * are named after their contents, so identical screenshots share a file. Writing the files to disk is delegated
+ * to a {@link ScreenshotProcessor}, so that the test thread only needs to
+ * fetch the image data from the driver.
  *
  * @author johnsmart
  */
 public class Photographer {
 
-    private static final int MESSAGE_DIGEST_MASK = 0xFF;
-    private static final int PNG_SUFFIX_LENGTH = ".png".length();
+    private static final ScreenshotAndHtmlSource NO_SCREENSHOT = new ScreenshotAndHtmlSource(null, null);
+    private static final HashFunction SCREENSHOT_HASH = Hashing.murmur3_128();
     private final WebDriver driver;
     private final File targetDirectory;
-    private final ScreenshotSequence screenshotSequence;
-    private final MessageDigest digest;
+    private final ScreenshotProcessor screenshotProcessor;
+    private UnchangedScreenshotFilter unchangedScreenshotFilter;
 
     private final Logger logger = LoggerFactory.getLogger(Photographer.class);
 
@@ -40,85 +41,120 @@ public class Photographer {
         return logger;
     }
 
-    private static final ScreenshotSequence DEFAULT_SCREENSHOT_SEQUENCE = new ScreenshotSequence();
-
     public Photographer(final WebDriver driver, final File targetDirectory) {
+        this(driver, targetDirectory, Injectors.getInjector().getInstance(ScreenshotProcessor.class));
+    }
+
+    public Photographer(final WebDriver driver,
+                        final File targetDirectory,
+                        final ScreenshotProcessor screenshotProcessor) {
         this.driver = driver;
         this.targetDirectory = targetDirectory;
-        this.screenshotSequence = DEFAULT_SCREENSHOT_SEQUENCE;
-        this.digest = getMd5Digest();
+        this.screenshotProcessor = screenshotProcessor;
     }
 
-    private MessageDigest getMd5Digest() {
-        MessageDigest md = null;
-        try {
-            md = MessageDigest.getInstance("MD5");
-        } catch (NoSuchAlgorithmException e) {
-            getLogger().error("Failed to create digest for screenshot name.", e);
-        }
-        return md;
+    /**
+     * Don't store a new screenshot if it looks the same as the previous one taken by this photographer:
+     * return the previous screenshot instead.
+     * When both tolerances are 0, only a screenshot identical to the previous one is considered unchanged.
+     * @param similarityThreshold how many bits of the 64-bit image fingerprints can differ
+     * @param pixelTolerance how many pixels of the low resolution samples of the images can differ
+     */
+    public void skipUnchangedScreenshots(final int similarityThreshold, final int pixelTolerance) {
+        this.unchangedScreenshotFilter = new UnchangedScreenshotFilter(similarityThreshold, pixelTolerance);
     }
 
-    protected long nextScreenshotNumber() {
-        return screenshotSequence.next();
+    public WebDriver getDriver() {
+        return driver;
     }
 
-    private String nextScreenshotName(final String prefix) {
-        long nextScreenshotNumber = nextScreenshotNumber();
-        return "screenshot-" + getMD5DigestFrom(prefix) + nextScreenshotNumber + ".png";
+    /**
+     * Screenshots are named after a hash of their contents, so that identical
+     * screenshots are only stored once and are shared by every step that uses them.
+     */
+    protected String screenshotNameFor(final byte[] screenshotData) {
+        return "screenshot-" + SCREENSHOT_HASH.hashBytes(screenshotData) + ".png";
     }
 
-    private String getMD5DigestFrom(final String value) {
-        byte[] messageDigest = digest.digest(value.getBytes());
-        StringBuffer hexString = new StringBuffer();
-        for (int i = 0; i < messageDigest.length; i++) {
-            hexString.append(Integer.toHexString(MESSAGE_DIGEST_MASK & messageDigest[i]));
-        }
-        return hexString.toString();
+    /**
+     * Take a screenshot of the current browser and store it in the output directory.
+     * If an identical screenshot has already been stored there, the existing file is reused.
+     * The screenshot data is grabbed from the driver immediately, but the files are written
+     * by the screenshot processor, so they may only appear on disk once
+     * {@link ScreenshotProcessor#waitUntilDone()} has been called.
+     */
+    public File takeScreenshot() {
+        return takeScreenshotAndSource().getScreenshotFile();
     }
 
-    private String getTemporarySnapshotName() {
-        return UUID.randomUUID() + ".png";
+    /**
+     * Take a screenshot as for {@link #takeScreenshot()}, along with the HTML source of the page.
+     * The page source is stored under a name derived from its own contents, since pages that
+     * look the same can have different source code.
+     */
+    public ScreenshotAndHtmlSource takeScreenshotAndSource() {
+        return takeScreenshotAndSource(true);
     }
 
     /**
-     * Take a screenshot of the current browser and store it in the output directory.
+     * Take a screenshot that is stored even if it looks the same as the previous one.
+     * Screenshots of failing steps are taken this way, since they are the evidence of the failure.
      */
-    public File takeScreenshot(final String prefix) {
-        File screenshot = null;
+    public ScreenshotAndHtmlSource takeScreenshotAndSourceEvenIfUnchanged() {
+        return takeScreenshotAndSource(false);
+    }
+
+    private ScreenshotAndHtmlSource takeScreenshotAndSource(final boolean reuseUnchangedScreenshot) {
         if (driverCanTakeSnapshots()) {
-            OutputStream stream = null;
             try {
                 byte[] screenshotData = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
-                    if (screenshotData != null) {
-                    File temporaryFolder = FileUtils.getTempDirectory();
-                    String snapshotName = getTemporarySnapshotName();
-                    screenshot = new File(temporaryFolder, snapshotName);
-                    stream = new FileOutputStream(screenshot);
-                    stream.write(screenshotData);
-                }
-                if ((screenshot != null) && (screenshot.exists())) {
-                    return saveScreenshoot(prefix, screenshot);
+                if (screenshotData != null) {
+                    return saveScreenshot(screenshotData, reuseUnchangedScreenshot);
                 } else if (!isAMock(driver)){
                     getLogger().warn("Failed to write screenshot (possibly an out of memory error)");
                 }
             } catch (Throwable e) {
                 getLogger().warn("Failed to write screenshot (possibly an out of memory error)", e);
-            } finally {
-                if (stream != null)
-                    try {
-                        stream.close();
-                    } catch (IOException e) {} // Ignore any error on close
             }
         }
+        return NO_SCREENSHOT;
+    }
+
+    protected ScreenshotAndHtmlSource saveScreenshot(final byte[] screenshotData,
+                                                     final boolean reuseUnchangedScreenshot) throws IOException {
+        File savedScreenshot = new File(targetDirectory, screenshotNameFor(screenshotData));
+        if (unchangedScreenshotFilter != null) {
+            ScreenshotAndHtmlSource previousScreenshot
+                    = unchangedScreenshotFilter.previousScreenshotSimilarTo(screenshotData, savedScreenshot);
+            if ((previousScreenshot != null) && reuseUnchangedScreenshot) {
+                return previousScreenshot;
+            }
+        }
+        String pageSource = getPageSource();
+        File savedSource = sourceCodeFileFor(pageSource);
+        screenshotProcessor.queueScreenshot(new QueuedScreenshot(screenshotData, pageSource, savedScreenshot, savedSource));
+        ScreenshotAndHtmlSource screenshot = new ScreenshotAndHtmlSource(savedScreenshot, savedSource,
+                                                                         widthOf(savedScreenshot, screenshotData));
+        if (unchangedScreenshotFilter != null) {
+            unchangedScreenshotFilter.recordScreenshot(screenshot);
+        }
         return screenshot;
     }
 
-    protected File saveScreenshoot(final String prefix, final File screenshot) throws IOException {
-        File savedScreenshot = new File(targetDirectory, nextScreenshotName(prefix));
-        FileUtils.copyFile(screenshot, savedScreenshot);
-        savePageSourceFor(savedScreenshot.getAbsolutePath());
-        return savedScreenshot;
+    /**
+     * The width of a screenshot, as read from the image data when it is taken, or null if it cannot be read.
+     */
+    private Integer widthOf(final File screenshot, final byte[] screenshotData) {
+        try {
+            return new SimpleImageInfo(screenshotData).getWidth();
+        } catch (IOException e) {
+            getLogger().debug("Could not read the width of screenshot " + screenshot.getName(), e);
+            return null;
+        }
+    }
+
+    public ScreenshotProcessor getScreenshotProcessor() {
+        return screenshotProcessor;
     }
 
     private boolean driverCanTakeSnapshots() {
@@ -136,29 +172,18 @@ public class Photographer {
         return driver.getClass().getCanonicalName().contains("Mock");
     }
 
-    private void savePageSourceFor(final String screenshotFile) throws IOException {
-        if (WebDriver.class.isAssignableFrom(driver.getClass())) {
-            try {
-                WebDriver webdriver = driver;
-                String pageSource = webdriver.getPageSource();
-
-                File savedSource = new File(sourceCodeFileFor(screenshotFile));
-                FileUtils.writeStringToFile(savedSource, pageSource);
-            } catch (WebDriverException e) {
-                getLogger().warn("Failed to save screen source code", e);
-            }
+    private String getPageSource() {
+        try {
+            return driver.getPageSource();
+        } catch (WebDriverException e) {
+            getLogger().warn("Failed to save screen source code", e);
+            return null;
         }
     }
 
-
-    private String sourceCodeFileFor(final String screenshotFile) {
-        String rootFilename = screenshotFile.substring(0, screenshotFile.length() - PNG_SUFFIX_LENGTH);
-        return rootFilename + ".html";
-    }
-
-    public File getMatchingSourceCodeFor(final File screenshot) {
-        if (screenshot != null) {
-            return new File(sourceCodeFileFor(screenshot.getAbsolutePath()));
+    private File sourceCodeFileFor(final String pageSource) {
+        if (pageSource != null) {
+            return new File(targetDirectory, "source-" + SCREENSHOT_HASH.hashString(pageSource, Charsets.UTF_8) + ".html");
         } else {
             return null;
         }
@@ -0,0 +1,46 @@
+package net.thucydides.core.screenshots;
+
+import java.io.File;
+
+/**
+ * A screenshot that has been captured from the browser but not yet written to disk.
+ * The raw image data and page source are grabbed on the test thread; the files are
+ * written later by a {@link ScreenshotProcessor}.
+ */
+public class QueuedScreenshot {
+
+    private final byte[] screenshotData;
+    private final String pageSource;
+    private final File destinationFile;
+    private final File sourcecodeFile;
+
+    public QueuedScreenshot(final byte[] screenshotData,
+                            final String pageSource,
+                            final File destinationFile,
+                            final File sourcecodeFile) {
+        this.screenshotData = screenshotData;
+        this.pageSource = pageSource;
+        this.destinationFile = destinationFile;
+        this.sourcecodeFile = sourcecodeFile;
+    }
+
+    public byte[] getScreenshotData() {
+        return screenshotData;
+    }
+
+    public String getPageSource() {
+        return pageSource;
+    }
+
+    public File getDestinationFile() {
+        return destinationFile;
+    }
+
+    public File getSourcecodeFile() {
+        return sourcecodeFile;
+    }
+
+    public boolean hasPageSource() {
+        return (pageSource != null) && (sourcecodeFile != null);
+    }
+}
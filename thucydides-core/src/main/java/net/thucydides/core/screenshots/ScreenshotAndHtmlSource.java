@@ -1,9 +1,6 @@
 package net.thucydides.core.screenshots;
 
-import org.apache.commons.io.FileUtils;
-
 import java.io.File;
-import java.io.IOException;
 
 /**
  * A screenshot image and the corresponding HTML source code.
@@ -12,10 +9,20 @@ public class ScreenshotAndHtmlSource {
     
     private final File screenshot;
     private final File sourcecode;
+    private final Integer width;
 
     public ScreenshotAndHtmlSource(File screenshot, File sourcecode) {
+        this(screenshot, sourcecode, null);
+    }
+
+    /**
+     * A screenshot whose width is already known, typically because it was read from the image data
+     * when the screenshot was taken.
+     */
+    public ScreenshotAndHtmlSource(File screenshot, File sourcecode, Integer width) {
         this.screenshot = screenshot;
         this.sourcecode = sourcecode;
+        this.width = width;
     }
 
     public File getScreenshotFile() {
@@ -26,10 +33,22 @@ public class ScreenshotAndHtmlSource {
         return sourcecode;
     }
 
+    /**
+     * The width of the screenshot image in pixels, or null if it was not recorded.
+     */
+    public Integer getWidth() {
+        return width;
+    }
+
     public boolean wasTaken() {
         return (screenshot != null);
     }
 
+    /**
+     * Screenshots are stored under a name derived from the image contents,
+     * so two screenshots with the same file name hold identical images.
+     * The files may not have been written to disk yet, so they are compared by file name.
+     */
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -40,19 +59,14 @@ public class ScreenshotAndHtmlSource {
         if (screenshot == null) {
             return (that.screenshot == null);
         } else if (that.screenshot == null) {
-            return (this.screenshot == null);
+            return false;
         } else {
-            try {
-                return FileUtils.contentEquals(screenshot, that.screenshot);
-            } catch (IOException e) {
-                return false;
-            }
+            return screenshot.getName().equals(that.screenshot.getName());
         }
     }
 
-
     @Override
     public int hashCode() {
-        return screenshot != null ? screenshot.hashCode() : 0;
+        return screenshot != null ? screenshot.getName().hashCode() : 0;
     }
 }
@@ -0,0 +1,25 @@
+package net.thucydides.core.screenshots;
+
+/**
+ * Writes captured screenshots to disk, possibly in the background.
+ * Test code only needs to grab the screenshot data from the driver and queue it:
+ * the files are guaranteed to be on disk once <code>waitUntilDone()</code> returns.
+ */
+public interface ScreenshotProcessor {
+
+    /**
+     * Queue a screenshot for storage. If too many screenshots are already waiting to be
+     * written, this call may block or write the screenshot in the calling thread.
+     */
+    void queueScreenshot(QueuedScreenshot queuedScreenshot);
+
+    /**
+     * Block until every screenshot queued so far has been written to disk.
+     */
+    void waitUntilDone();
+
+    /**
+     * Are there any screenshots still waiting to be written?
+     */
+    boolean isEmpty();
+}
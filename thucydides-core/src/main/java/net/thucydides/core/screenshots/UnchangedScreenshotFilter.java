@@ -0,0 +1,118 @@
+package net.thucydides.core.screenshots;
+
+import net.thucydides.core.images.PerceptualHasher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Remembers the last screenshot taken with a given driver, so that a new screenshot
+ * that looks the same can reuse the earlier image instead of being stored again.
+ * Screenshots are named after a hash of their contents, so a screenshot stored under the same name
+ * as the previous one is always unchanged. When both tolerances are 0, this is the only match allowed.
+ * Otherwise, screenshots are also compared using a perceptual fingerprint: the similarity threshold is
+ * the number of bits (out of 64) by which two fingerprints may differ, and the pixel tolerance is
+ * the number of pixels that may differ in a low resolution sample of the images (about 64 by 64 pixels).
+ * Small changes that fall between the sampled pixels are not seen in this case.
+ */
+public class UnchangedScreenshotFilter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UnchangedScreenshotFilter.class);
+
+    private final int similarityThreshold;
+    private final int pixelTolerance;
+    private final PerceptualHasher hasher = new PerceptualHasher();
+
+    private ScreenshotAndHtmlSource previousScreenshot;
+    private long previousHash;
+    private byte[] previousLuminance;
+    private int previousWidth;
+    private int previousHeight;
+
+    private long latestHash;
+    private byte[] latestLuminance;
+    private int latestWidth;
+    private int latestHeight;
+    private boolean latestScreenshotCompared;
+    private boolean latestScreenshotHashed;
+
+    public UnchangedScreenshotFilter(final int similarityThreshold, final int pixelTolerance) {
+        this.similarityThreshold = similarityThreshold;
+        this.pixelTolerance = pixelTolerance;
+    }
+
+    /**
+     * Returns the previous screenshot if it looks the same as the new screenshot data, or null otherwise.
+     * The screenshot file is the one the new screenshot would be stored in.
+     * Screenshots that cannot be decoded are never considered similar.
+     */
+    public ScreenshotAndHtmlSource previousScreenshotSimilarTo(final byte[] screenshotData, final File screenshotFile) {
+        latestScreenshotHashed = false;
+        if (sameContentsAsPreviousScreenshot(screenshotFile)) {
+            latestScreenshotCompared = true;
+            return previousScreenshot;
+        }
+        if (onlyIdenticalScreenshotsMatch()) {
+            latestScreenshotCompared = true;
+            return null;
+        }
+        latestScreenshotHashed = hashLatestScreenshot(screenshotData);
+        latestScreenshotCompared = latestScreenshotHashed;
+        if (latestScreenshotHashed && sameSizeAsPreviousScreenshot() && similarToPreviousScreenshot()) {
+            return previousScreenshot;
+        }
+        return null;
+    }
+
+    private boolean onlyIdenticalScreenshotsMatch() {
+        return (similarityThreshold == 0) && (pixelTolerance == 0);
+    }
+
+    private boolean sameContentsAsPreviousScreenshot(final File screenshotFile) {
+        return (previousScreenshot != null)
+                && previousScreenshot.getScreenshotFile().getName().equals(screenshotFile.getName());
+    }
+
+    private boolean hashLatestScreenshot(final byte[] screenshotData) {
+        try {
+            latestHash = hasher.hashOf(screenshotData);
+            latestLuminance = hasher.sampledLuminanceInto(latestLuminance);
+            latestWidth = hasher.getWidth();
+            latestHeight = hasher.getHeight();
+            return true;
+        } catch (IOException e) {
+            LOGGER.debug("Could not compare screenshot with the previous one", e);
+            return false;
+        }
+    }
+
+    /**
+     * Record where the screenshot last passed to previousScreenshotSimilarTo() has been stored.
+     * The luminance buffers of the previous and latest screenshots are swapped rather than copied.
+     */
+    public void recordScreenshot(final ScreenshotAndHtmlSource screenshot) {
+        previousScreenshot = latestScreenshotCompared ? screenshot : null;
+        if (latestScreenshotHashed) {
+            byte[] reusableLuminance = previousLuminance;
+            previousHash = latestHash;
+            previousLuminance = latestLuminance;
+            previousWidth = latestWidth;
+            previousHeight = latestHeight;
+            latestLuminance = reusableLuminance;
+        }
+    }
+
+    private boolean sameSizeAsPreviousScreenshot() {
+        return (previousScreenshot != null)
+                && (previousLuminance != null)
+                && (previousWidth == latestWidth)
+                && (previousHeight == latestHeight);
+    }
+
+    private boolean similarToPreviousScreenshot() {
+        return (PerceptualHasher.distanceBetween(previousHash, latestHash) <= similarityThreshold)
+                && (PerceptualHasher.sampledPixelsThatDiffer(previousLuminance, latestLuminance) <= pixelTolerance);
+    }
+}
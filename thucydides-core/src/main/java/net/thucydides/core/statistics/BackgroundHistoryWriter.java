@@ -0,0 +1,139 @@
+package net.thucydides.core.statistics;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
+import net.thucydides.core.model.TestOutcome;
+import net.thucydides.core.statistics.dao.TestOutcomeHistoryDAO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stores test outcomes in the test history database using a single background thread,
+ * so that the tests can carry on while the results of the previous test class are being stored.
+ * The background thread uses its own entity manager, and the outcomes are stored in the order they were queued.
+ * Any outcomes still waiting to be stored when the JVM shuts down are stored before it exits,
+ * as long as this does not take more than a minute.
+ */
+@Singleton
+public class BackgroundHistoryWriter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BackgroundHistoryWriter.class);
+
+    private static final long SHUTDOWN_TIMEOUT_IN_SECONDS = 60;
+
+    private final Provider<TestOutcomeHistoryDAO> testOutcomeHistoryDAOProvider;
+    private final Object lock = new Object();
+    private ExecutorService executor;
+    private int pendingBatches = 0;
+
+    @Inject
+    public BackgroundHistoryWriter(final Provider<TestOutcomeHistoryDAO> testOutcomeHistoryDAOProvider) {
+        this.testOutcomeHistoryDAOProvider = testOutcomeHistoryDAOProvider;
+    }
+
+    /**
+     * Queue a copy of these test outcomes to be stored in the background.
+     * The list is locked while it is copied, so it may be a synchronized list that other threads add to.
+     */
+    public void storeTestOutcomes(final List<TestOutcome> testOutcomes) {
+        final List<TestOutcome> outcomesToStore;
+        synchronized (testOutcomes) {
+            outcomesToStore = ImmutableList.copyOf(testOutcomes);
+        }
+        synchronized (lock) {
+            pendingBatches++;
+            getExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        testOutcomeHistoryDAOProvider.get().storeTestOutcomes(outcomesToStore);
+                    } catch (RuntimeException e) {
+                        LOGGER.warn("Failed to store the test history", e);
+                    } finally {
+                        batchDone();
+                    }
+                }
+            });
+        }
+    }
+
+    private ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setDaemon(true)
+                                                                                   .setNameFormat("thucydides-history-%d")
+                                                                                   .build());
+            Runtime.getRuntime().addShutdownHook(new Thread() {
+                @Override
+                public void run() {
+                    if (!waitUntilDone(SHUTDOWN_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS)) {
+                        LOGGER.warn("Gave up waiting for the test history to be stored after "
+                                    + SHUTDOWN_TIMEOUT_IN_SECONDS + " seconds");
+                    }
+                }
+            });
+        }
+        return executor;
+    }
+
+    /**
+     * Wait until all of the queued test outcomes have been stored.
+     */
+    public void waitUntilDone() {
+        synchronized (lock) {
+            while (pendingBatches > 0) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Wait until all of the queued test outcomes have been stored, or until the timeout expires.
+     * @return true if all of the queued test outcomes have been stored.
+     */
+    public boolean waitUntilDone(final long timeout, final TimeUnit unit) {
+        long end = System.currentTimeMillis() + unit.toMillis(timeout);
+        synchronized (lock) {
+            while (pendingBatches > 0) {
+                long timeLeft = end - System.currentTimeMillis();
+                if (timeLeft <= 0) {
+                    return false;
+                }
+                try {
+                    lock.wait(timeLeft);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    public boolean isEmpty() {
+        synchronized (lock) {
+            return (pendingBatches == 0);
+        }
+    }
+
+    private void batchDone() {
+        synchronized (lock) {
+            pendingBatches--;
+            if (pendingBatches == 0) {
+                lock.notifyAll();
+            }
+        }
+    }
+}
@@ -20,13 +20,21 @@ public class StatisticsListener implements StepListener {
 
     private final TestOutcomeHistoryDAO testOutcomeHistoryDAO;
     private final EnvironmentVariables environmentVariables;
+    private final BackgroundHistoryWriter backgroundHistoryWriter;
     private final List<TestOutcome> testOutcomes;
 
-    @Inject
     public StatisticsListener(TestOutcomeHistoryDAO testOutcomeHistoryDAO,
                               EnvironmentVariables environmentVariables) {
+        this(testOutcomeHistoryDAO, environmentVariables, null);
+    }
+
+    @Inject
+    public StatisticsListener(TestOutcomeHistoryDAO testOutcomeHistoryDAO,
+                              EnvironmentVariables environmentVariables,
+                              BackgroundHistoryWriter backgroundHistoryWriter) {
         this.testOutcomeHistoryDAO = testOutcomeHistoryDAO;
         this.environmentVariables = environmentVariables;
+        this.backgroundHistoryWriter = backgroundHistoryWriter;
         testOutcomes = Collections.synchronizedList(new ArrayList<TestOutcome>());
     }
 
@@ -53,7 +61,11 @@ public class StatisticsListener implements StepListener {
     @Override
     public void testSuiteFinished() {
         if (historyActivated()) {
-            testOutcomeHistoryDAO.storeTestOutcomes(testOutcomes);
+            if (storeHistoryInBackground()) {
+                backgroundHistoryWriter.storeTestOutcomes(testOutcomes);
+            } else {
+                testOutcomeHistoryDAO.storeTestOutcomes(testOutcomes);
+            }
         }
     }
 
@@ -62,6 +74,11 @@ public class StatisticsListener implements StepListener {
                 ThucydidesSystemProperty.STORE_TEST_HISTORY.getPropertyName(), true);
     }
 
+    private boolean storeHistoryInBackground() {
+        return (backgroundHistoryWriter != null) && environmentVariables.getPropertyAsBoolean(
+                ThucydidesSystemProperty.STORE_TEST_HISTORY_IN_BACKGROUND.getPropertyName(), false);
+    }
+
     @Override
     public void stepStarted(ExecutedStepDescription description) {
     }
@@ -1,5 +1,6 @@
 package net.thucydides.core.statistics;
 
+import com.google.common.collect.Maps;
 import com.google.inject.Inject;
 import net.thucydides.core.Thucydides;
 import net.thucydides.core.model.TestResult;
@@ -8,7 +9,11 @@ import net.thucydides.core.statistics.model.TestRun;
 import net.thucydides.core.statistics.model.TestRunTag;
 import net.thucydides.core.statistics.model.TestStatistics;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+
+import static java.util.Collections.singletonList;
 
 /**
  * A description goes here.
@@ -18,6 +23,12 @@ import java.util.List;
  */
 public class TestStatisticsProvider {
 
+    /**
+     * Only the results of the most recent test runs are loaded to work out recent pass rates.
+     * Ask for a longer window of recent results to work out a pass rate over more test runs than this.
+     */
+    public static final int MAXIMUM_RECENT_RESULTS = 100;
+
     private final TestOutcomeHistoryDAO testOutcomeHistoryDAO;
     private final String projectKey;
 
@@ -44,43 +55,105 @@ public class TestStatisticsProvider {
 
 
     public TestStatistics statisticsForTests(With withCondition) {
+        return statisticsForTests(withCondition, MAXIMUM_RECENT_RESULTS);
+    }
+
+    /**
+     * The results of the given number of recent test runs are loaded, so that recent pass rates
+     * can be worked out over up to that many test runs.
+     */
+    public TestStatistics statisticsForTests(With withCondition, int recentTestRuns) {
         if (withCondition instanceof WithTitle) {
-            return testStatisticsForTitle((WithTitle) withCondition);
+            return testStatisticsForTitle((WithTitle) withCondition, recentTestRuns);
         } else if (withCondition instanceof WithTagNamed) {
-            return testStatisticsForTestsWithTag((WithTagNamed) withCondition);
+            return testStatisticsForTestsWithTag((WithTagNamed) withCondition, recentTestRuns);
         } else if (withCondition instanceof WithTagTypeNamed) {
-            return testStatisticsForTestsWithTagType((WithTagTypeNamed) withCondition);
+            return testStatisticsForTestsWithTagType((WithTagTypeNamed) withCondition, recentTestRuns);
         }
         return null;
     }
 
-    private TestStatistics testStatisticsForTestsWithTag(WithTagNamed withCondition) {
+    private TestStatistics testStatisticsForTestsWithTag(WithTagNamed withCondition, int recentTestRuns) {
         String tag = withCondition.getTag();
-        Long totalTests = testOutcomeHistoryDAO.countTestRunsByTag(tag);
-        Long passingTests = testOutcomeHistoryDAO.countTestRunsByTagAndResult(tag, TestResult.SUCCESS);
-        Long failingTests = testOutcomeHistoryDAO.countTestRunsByTagAndResult(tag, TestResult.FAILURE);
-        List<TestResult> results = testOutcomeHistoryDAO.getResultsForTestsWithTag(tag);
+        Map<TestResult, Long> resultCounts = testOutcomeHistoryDAO.countTestRunsByResultForTags(singletonList(tag)).get(tag);
+        List<TestResult> results = testOutcomeHistoryDAO.getRecentResultsForTestsWithTag(tag, recentTestRuns);
         List<TestRunTag> latestTags = testOutcomeHistoryDAO.getLatestTagsForTestsWithTag(tag);
-        return new TestStatistics(totalTests, passingTests, failingTests, results, latestTags);
+        return statisticsFrom(resultCounts, results, latestTags);
     }
 
-    private TestStatistics testStatisticsForTestsWithTagType(WithTagTypeNamed withCondition) {
+    private TestStatistics testStatisticsForTestsWithTagType(WithTagTypeNamed withCondition, int recentTestRuns) {
         String tagType = withCondition.getTagType();
-        Long totalTests = testOutcomeHistoryDAO.countTestRunsByTagType(tagType);
-        Long passingTests = testOutcomeHistoryDAO.countTestRunsByTagTypeAndResult(tagType, TestResult.SUCCESS);
-        Long failingTests = testOutcomeHistoryDAO.countTestRunsByTagTypeAndResult(tagType, TestResult.FAILURE);
-        List<TestResult> results = testOutcomeHistoryDAO.getResultsForTestsWithTagType(tagType);
+        Map<TestResult, Long> resultCounts = testOutcomeHistoryDAO.countTestRunsByResultForTagTypes(singletonList(tagType)).get(tagType);
+        List<TestResult> results = testOutcomeHistoryDAO.getRecentResultsForTestsWithTagType(tagType, recentTestRuns);
         List<TestRunTag> latestTags = testOutcomeHistoryDAO.getLatestTagsForTestsWithTagType(tagType);
-        return new TestStatistics(totalTests, passingTests, failingTests, results, latestTags);
+        return statisticsFrom(resultCounts, results, latestTags);
+    }
+
+    private TestStatistics testStatisticsForTitle(WithTitle withCondition, int recentTestRuns) {
+        String title = withCondition.getTitle();
+        Map<TestResult, Long> resultCounts = testOutcomeHistoryDAO.countTestRunsByResultForTitles(singletonList(title)).get(title);
+        List<TestResult> results = testOutcomeHistoryDAO.getRecentResultsForTestWithTitle(title, recentTestRuns);
+        List<TestRunTag> latestTags = testOutcomeHistoryDAO.getLatestTagsForTestWithTitleByTitle(title);
+        return statisticsFrom(resultCounts, results, latestTags);
+    }
+
+    public Map<String, TestStatistics> statisticsForTestsWithTitles(Collection<String> titles) {
+        return statisticsForTestsWithTitles(titles, MAXIMUM_RECENT_RESULTS);
+    }
+
+    /**
+     * Statistics for several tests at once, indexed by test title.
+     * The test run counts, the recent results and the latest tags of each batch of tests are each read in a single query.
+     */
+    public Map<String, TestStatistics> statisticsForTestsWithTitles(Collection<String> titles, int recentTestRuns) {
+        Map<String, Map<TestResult, Long>> resultCounts = testOutcomeHistoryDAO.countTestRunsByResultForTitles(titles);
+        Map<String, List<TestResult>> recentResults
+                = testOutcomeHistoryDAO.getRecentResultsForTestsWithTitles(titles, recentTestRuns);
+        Map<String, List<TestRunTag>> latestTags = testOutcomeHistoryDAO.getLatestTagsForTestsWithTitles(titles);
+        Map<String, TestStatistics> statistics = Maps.newHashMap();
+        for(String title : resultCounts.keySet()) {
+            statistics.put(title, statisticsFrom(resultCounts.get(title), recentResults.get(title), latestTags.get(title)));
+        }
+        return statistics;
+    }
+
+    public Map<String, TestStatistics> statisticsForTestsWithTags(Collection<String> tags) {
+        return statisticsForTestsWithTags(tags, MAXIMUM_RECENT_RESULTS);
+    }
+
+    /**
+     * Statistics for the tests with each of these tags, indexed by tag name.
+     * The test run counts and the recent results for each batch of tags are each read in a single query,
+     * and the latest tags in two.
+     */
+    public Map<String, TestStatistics> statisticsForTestsWithTags(Collection<String> tags, int recentTestRuns) {
+        Map<String, Map<TestResult, Long>> resultCounts = testOutcomeHistoryDAO.countTestRunsByResultForTags(tags);
+        Map<String, List<TestResult>> recentResults
+                = testOutcomeHistoryDAO.getRecentResultsForTestsWithTags(tags, recentTestRuns);
+        Map<String, List<TestRunTag>> latestTags = testOutcomeHistoryDAO.getLatestTagsForTestsWithTags(tags);
+        Map<String, TestStatistics> statistics = Maps.newHashMap();
+        for(String tag : resultCounts.keySet()) {
+            statistics.put(tag, statisticsFrom(resultCounts.get(tag), recentResults.get(tag), latestTags.get(tag)));
+        }
+        return statistics;
+    }
+
+    private TestStatistics statisticsFrom(Map<TestResult, Long> resultCounts,
+                                          List<TestResult> recentResults,
+                                          List<TestRunTag> latestTags) {
+        Long totalTests = 0L;
+        for(Long count : resultCounts.values()) {
+            totalTests += count;
+        }
+        return new TestStatistics(totalTests,
+                                  countOf(TestResult.SUCCESS, resultCounts),
+                                  countOf(TestResult.FAILURE, resultCounts),
+                                  recentResults,
+                                  latestTags);
     }
 
-    private TestStatistics testStatisticsForTitle(WithTitle withCondition) {
-        Long totalTests = testOutcomeHistoryDAO.countTestRunsByTitle(withCondition.getTitle());
-        Long passingTests = testOutcomeHistoryDAO.countTestRunsByTitleAndResult(withCondition.getTitle(), TestResult.SUCCESS);
-        Long failingTests = testOutcomeHistoryDAO.countTestRunsByTitleAndResult(withCondition.getTitle(), TestResult.FAILURE);
-        List<TestResult> results = testOutcomeHistoryDAO.getResultsTestWithTitle(withCondition.getTitle());
-        List<TestRunTag> latestTags = testOutcomeHistoryDAO.getLatestTagsForTestWithTitleByTitle(withCondition.getTitle());
-        return new TestStatistics(totalTests, passingTests, failingTests, results, latestTags);
+    private Long countOf(TestResult result, Map<TestResult, Long> resultCounts) {
+        return resultCounts.containsKey(result) ? resultCounts.get(result) : 0L;
     }
 
     public List<TestRunTag> findAllTags() {
@@ -1,113 +1,193 @@
 package net.thucydides.core.statistics.dao;
 
+import com.google.common.base.Predicates;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.google.inject.Inject;
 import net.thucydides.core.Thucydides;
 import net.thucydides.core.ThucydidesSystemProperty;
+import net.thucydides.core.guice.DatabaseConfig;
 import net.thucydides.core.model.TestOutcome;
 import net.thucydides.core.model.TestResult;
 import net.thucydides.core.pages.SystemClock;
+import net.thucydides.core.statistics.model.LatestTestRun;
 import net.thucydides.core.statistics.model.TestRun;
 import net.thucydides.core.statistics.model.TestRunTag;
 import net.thucydides.core.statistics.service.TagProvider;
 import net.thucydides.core.statistics.service.TagProviderService;
 import net.thucydides.core.util.EnvironmentVariables;
+import org.hibernate.exception.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public class HibernateTestOutcomeHistoryDAO implements TestOutcomeHistoryDAO {
 
     private static final String FIND_ALL_TEST_HISTORIES = "select t from TestRun t where t.projectKey = :projectKey order by t.executionDate";
     private static final String FIND_BY_NAME = "select t from TestRun t where t.title = :title and t.projectKey = :projectKey";
-    private static final String FIND_TAG_BY_NAME = "select t from TestRunTag t where t.name = :name and t.code = :code and t.projectKey = :projectKey";
+    private static final String FIND_TAGS_BY_NAME = "select t from TestRunTag t where t.name in (:names) and t.projectKey in (:projectKeys) order by t.id";
     private static final String FIND_ALL_TAGS  = "select t from TestRunTag t where t.projectKey = :projectKey order by t.name";
     private static final String FIND_ALL_TAG_TYPES = "select distinct t.type from TestRunTag t where t.projectKey = :projectKey order by t.type";
     private static final String COUNT_BY_NAME = "select count(t) from TestRun t where t.title = :title and t.projectKey = :projectKey";
     private static final String COUNT_TESTS_BY_NAME_AND_RESULT
             = "select count(t) from TestRun t where t.title = :title and t.projectKey = :projectKey and t.result = :result";
 
-    private static final String COUNT_LATEST_TESTS_BY_TAG_AND_RESULT
+    private static final String FIND_LATEST_RUNS_BY_TEST_NAME
+            = "select l from LatestTestRun l where l.projectKey = :projectKey and l.testName in (:testNames)";
+
+    private static final String COUNT_TESTS_BY_TAG_AND_RESULT
             = "select count(test) from TestRun test "+
-            " left outer join test.tags as tag " +
+            " join test.tags as tag " +
             "where tag.name = :name " +
             "and test.result = :result " +
-            "and test.projectKey = :projectKey " +
-            "and test.executionDate = "+
-            "(select max(tt.executionDate) from TestRun tt where tt.id = test.id)";
+            "and test.projectKey = :projectKey";
 
-    private static final String COUNT_LATEST_TESTS_BY_TAG_TYPE_AND_RESULT
+    private static final String COUNT_TESTS_BY_TAG_TYPE_AND_RESULT
             = "select count(test) from TestRun test "+
-            " left outer join test.tags as tag " +
+            " join test.tags as tag " +
             "where tag.type = :type " +
             "and test.result = :result " +
-            "and test.projectKey = :projectKey " +
-            "and test.executionDate = "+
-            "(select max(tt.executionDate) from TestRun tt where tt.id = test.id)";
+            "and test.projectKey = :projectKey";
 
     private static final String SELECT_LATEST_TEST_BY_TITLE
+            = "select latest.testRun from LatestTestRun latest "+
+            "where latest.title = :title " +
+            "and latest.projectKey = :projectKey " +
+            "order by latest.executionDate desc";
+
+    private static final String SELECT_MOST_RECENT_TEST_BY_TITLE
             = "select t from TestRun t "+
             "where t.title = :title " +
             "and t.projectKey = :projectKey " +
-            "and t.executionDate = "+
-            "     (select max(tt.executionDate) from TestRun tt where tt.id = t.id)";
+            "order by t.executionDate desc";
 
     private static final String SELECT_LATEST_TEST_BY_TAG
+            = "select test from LatestTestRun latest "+
+            " join latest.testRun as test " +
+            " join test.tags as tag " +
+            "where tag.name = :name " +
+            "and latest.projectKey = :projectKey " +
+            "order by latest.id";
+
+    private static final String SELECT_FIRST_TEST_BY_TAG
             = "select test from TestRun test "+
-            " left outer join test.tags as tag " +
+            " join test.tags as tag " +
             "where tag.name = :name " +
             "and test.projectKey = :projectKey " +
-            "and test.executionDate = "+
-            "(select max(tt.executionDate) from TestRun tt where tt.id = test.id)";
+            "order by test.id";
 
     private static final String SELECT_LATEST_TEST_BY_TAG_TYPE
+            = "select test from LatestTestRun latest "+
+            " join latest.testRun as test " +
+            " join test.tags as tag " +
+            "where tag.type = :type " +
+            "and latest.projectKey = :projectKey " +
+            "order by latest.id";
+
+    private static final String SELECT_FIRST_TEST_BY_TAG_TYPE
             = "select test from TestRun test "+
-            " left outer join test.tags as tag " +
+            " join test.tags as tag " +
             "where tag.type = :type " +
             "and test.projectKey = :projectKey " +
-            "and test.executionDate = "+
-            "(select max(tt.executionDate) from TestRun tt where tt.id = test.id)";
+            "order by test.id";
 
     private static final String SELECT_TEST_RESULTS_BY_TAG
             = "select test.result from TestRun test "+
-            " left outer join test.tags as tag " +
+            " join test.tags as tag " +
             "where tag.name = :name " +
             "and test.projectKey = :projectKey " +
-            "order by test.executionDate desc";
+            "order by test.executionDate desc, test.id desc";
 
     private static final String SELECT_TEST_RESULTS_BY_TAG_TYPE
             = "select test.result from TestRun test "+
-            " left outer join test.tags as tag " +
+            " join test.tags as tag " +
             "where tag.type = :type " +
             "and test.projectKey = :projectKey " +
-            "order by test.executionDate desc";
+            "order by test.executionDate desc, test.id desc";
 
-    private static final String COUNT_LATEST_TEST_BY_TAG
+    private static final String COUNT_TESTS_BY_TAG
             = "select count(test) from TestRun test "+
-            " left outer join test.tags as tag " +
+            " join test.tags as tag " +
             "where tag.name = :name " +
-            "and test.projectKey = :projectKey " +
-            "and test.executionDate = "+
-            "(select max(tt.executionDate) from TestRun tt where tt.id = test.id)";
+            "and test.projectKey = :projectKey";
 
-    private static final String COUNT_LATEST_TEST_BY_TAG_TYPE
+    private static final String COUNT_TESTS_BY_TAG_TYPE
             = "select count(test) from TestRun test "+
-            " left outer join test.tags as tag " +
+            " join test.tags as tag " +
             "where tag.type = :type " +
-            "and test.projectKey = :projectKey " +
-            "and test.executionDate = "+
-            "(select max(tt.executionDate) from TestRun tt where tt.id = test.id)";
+            "and test.projectKey = :projectKey";
 
     private static final String SELECT_TEST_RESULTS_BY_TITLE
             = "select test.result from TestRun test " +
               "where test.title = :title " +
               "and test.projectKey = :projectKey " +
-              "order by test.executionDate desc";
+              "order by test.executionDate desc, test.id desc";
+
+    private static final String SELECT_TEST_RESULTS_BY_TITLES
+            = "select test.title, test.result from TestRun test " +
+              "where test.title in (:keys) " +
+              "and test.projectKey = :projectKey " +
+              "order by test.executionDate desc, test.id desc";
+
+    private static final String SELECT_TEST_RESULTS_BY_TAGS
+            = "select tag.name, test.result from TestRun test " +
+              " join test.tags as tag " +
+              "where tag.name in (:keys) " +
+              "and test.projectKey = :projectKey " +
+              "order by test.executionDate desc, test.id desc";
+
+    private static final String COUNT_RESULTS_BY_TITLE
+            = "select test.title, test.result, count(test) from TestRun test " +
+              "where test.title in (:keys) " +
+              "and test.projectKey = :projectKey " +
+              "group by test.title, test.result";
+
+    private static final String COUNT_RESULTS_BY_TAG
+            = "select tag.name, test.result, count(test) from TestRun test " +
+              " join test.tags as tag " +
+              "where tag.name in (:keys) " +
+              "and test.projectKey = :projectKey " +
+              "group by tag.name, test.result";
+
+    private static final String COUNT_RESULTS_BY_TAG_TYPE
+            = "select tag.type, test.result, count(test) from TestRun test " +
+              " join test.tags as tag " +
+              "where tag.type in (:keys) " +
+              "and test.projectKey = :projectKey " +
+              "group by tag.type, test.result";
+
+    private static final String SELECT_LATEST_TESTS_BY_TITLE
+            = "select distinct latest from LatestTestRun latest " +
+              " join fetch latest.testRun as test " +
+              " left join fetch test.tags " +
+              "where latest.title in (:titles) " +
+              "and latest.projectKey = :projectKey " +
+              "order by latest.executionDate";
+
+    private static final String SELECT_LATEST_TEST_IDS_BY_TAGS
+            = "select tag.name, test.id from LatestTestRun latest " +
+              " join latest.testRun as test " +
+              " join test.tags as tag " +
+              "where tag.name in (:keys) " +
+              "and latest.projectKey = :projectKey " +
+              "order by latest.id";
+
+    private static final String SELECT_TESTS_WITH_TAGS_BY_ID
+            = "select distinct test from TestRun test " +
+              " left join fetch test.tags " +
+              "where test.id in (:ids)";
 
     private static final Logger LOGGER = LoggerFactory.getLogger(HibernateTestOutcomeHistoryDAO.class);
 
@@ -119,12 +199,15 @@ public class HibernateTestOutcomeHistoryDAO implements TestOutcomeHistoryDAO {
     
     private List<TagProvider> tagProviders;
 
+    private final int batchSize;
+
     @Inject
     public HibernateTestOutcomeHistoryDAO(EntityManager entityManager, EnvironmentVariables environmentVariables, SystemClock clock) {
         this.entityManager = entityManager;
         this.environmentVariables = environmentVariables;
         this.clock = clock;
         tagProviders = TagProviderService.getTagProviders();
+        batchSize = DatabaseConfig.usingPropertiesFrom(environmentVariables).getBatchSize();
     }
 
     @Override
@@ -142,20 +225,81 @@ public class HibernateTestOutcomeHistoryDAO implements TestOutcomeHistoryDAO {
                                             .getResultList();
     }
 
+    /**
+     * Store the outcomes of a test run in a single transaction.
+     * The tags of all the outcomes are looked up in one query, and each tag is only stored once.
+     * The session is flushed and cleared every few test runs so that the inserts can be sent in JDBC batches
+     * without keeping every stored test run in memory.
+     * The latest run of each test is also recorded in the LatestTestRun table.
+     * If another process stores the first run of the same test at the same time, the unique constraint
+     * on LatestTestRun rejects one of the inserts. The rejected transaction is then run once more,
+     * and this time it finds the row stored by the other process and updates it instead.
+     */
     @Override
     public void storeTestOutcomes(List<TestOutcome> testOutcomes) {
-        entityManager.getTransaction().begin();
-
+        List<Set<TestRunTag>> tagsForEachOutcome = Lists.newArrayList();
         for(TestOutcome testOutcome : testOutcomes) {
-            TestRun storedHistory = TestRun.from(testOutcome)
-                                           .inProject(getProjectKey())
-                                           .at(clock.getCurrentTime().toDate());
-            addTagsTo(testOutcome, storedHistory);
-            LOGGER.debug("Storing statistics for test result " + testOutcome.getTitle());
-            entityManager.persist(storedHistory);
+            tagsForEachOutcome.add(tagsFor(testOutcome));
+        }
+        try {
+            storeTestOutcomes(testOutcomes, tagsForEachOutcome);
+        } catch (PersistenceException e) {
+            if (!isConstraintViolation(e)) {
+                throw e;
+            }
+            LOGGER.debug("Test runs stored concurrently by another process, trying again", e);
+            entityManager.clear();
+            storeTestOutcomes(testOutcomes, tagsForEachOutcome);
+        }
+    }
+
+    private void storeTestOutcomes(List<TestOutcome> testOutcomes, List<Set<TestRunTag>> tagsForEachOutcome) {
+        entityManager.getTransaction().begin();
+        try {
+            Map<String, TestRunTag> storedTags = findStoredTagsMatching(tagsForEachOutcome);
+            List<TestRun> storedTestRuns = Lists.newArrayList();
+            List<String> testNames = Lists.newArrayList();
+            for(int i = 0; i < testOutcomes.size(); i++) {
+                TestOutcome testOutcome = testOutcomes.get(i);
+                TestRun storedHistory = TestRun.from(testOutcome)
+                                               .inProject(getProjectKey())
+                                               .at(clock.getCurrentTime().toDate());
+                addTagsTo(storedHistory, tagsForEachOutcome.get(i), storedTags);
+                LOGGER.debug("Storing statistics for test result " + testOutcome.getTitle());
+                entityManager.persist(storedHistory);
+                storedTestRuns.add(storedHistory);
+                testNames.add(qualifiedNameOf(testOutcome));
+                if (storedTestRuns.size() % batchSize == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+            recordLatestTestRuns(storedTestRuns, testNames);
+            entityManager.getTransaction().commit();
+        } catch (RuntimeException e) {
+            if (entityManager.getTransaction().isActive()) {
+                entityManager.getTransaction().rollback();
+            }
+            throw e;
         }
+    }
+
+    private boolean isConstraintViolation(PersistenceException e) {
+        return Iterables.any(Throwables.getCausalChain(e), Predicates.instanceOf(ConstraintViolationException.class));
+    }
 
-        entityManager.getTransaction().commit();
+    /**
+     * The test class and method name, or the story and test title for tests that are not written in Java.
+     */
+    private String qualifiedNameOf(TestOutcome testOutcome) {
+        String testName = (testOutcome.getMethodName() != null) ? testOutcome.getMethodName() : testOutcome.getTitle();
+        if (testOutcome.getTestCase() != null) {
+            return testOutcome.getTestCase().getName() + "." + testName;
+        } else if ((testOutcome.getUserStory() != null) && (testOutcome.getUserStory().getId() != null)) {
+            return testOutcome.getUserStory().getId() + "." + testName;
+        } else {
+            return testName;
+        }
     }
 
     private String getProjectKey() {
@@ -163,28 +307,80 @@ public class HibernateTestOutcomeHistoryDAO implements TestOutcomeHistoryDAO {
                                                          Thucydides.DEFAULT_PROJECT_KEY);
     }
 
-    private void addTagsTo(TestOutcome testResult, TestRun storedTestRun) {
+    private Set<TestRunTag> tagsFor(TestOutcome testOutcome) {
+        Set<TestRunTag> tags = Sets.newHashSet();
         for(TagProvider tagProvider : tagProviders) {
-            Set<TestRunTag> tags = tagProvider.getTagsFor(testResult);
-            List<TestRunTag> matchedTags = Lists.newArrayList();
+            tags.addAll(tagProvider.getTagsFor(testOutcome));
+        }
+        return tags;
+    }
+
+    private Map<String, TestRunTag> findStoredTagsMatching(List<Set<TestRunTag>> tagsForEachOutcome) {
+        Set<String> tagNames = Sets.newHashSet();
+        Set<String> projectKeys = Sets.newHashSet();
+        for(Set<TestRunTag> tags : tagsForEachOutcome) {
             for(TestRunTag tag : tags) {
-                List<TestRunTag> matchingStoredTags = entityManager.createQuery(FIND_TAG_BY_NAME)
-                        .setParameter("name", tag.getName())
-                        .setParameter("projectKey", tag.getProjectKey())
-                        .setParameter("code", tag.getCode())
-                        .getResultList();
-                if (!matchingStoredTags.isEmpty()) {
-                    TestRunTag firstMatchingTag = matchingStoredTags.get(0);
-                    storedTestRun.getTags().add(firstMatchingTag);
-                    firstMatchingTag.getTestRuns().add(storedTestRun);
-                    matchedTags.add(tag);
+                tagNames.add(tag.getName());
+                projectKeys.add(tag.getProjectKey());
+            }
+        }
+        Map<String, TestRunTag> storedTags = Maps.newHashMap();
+        if (!tagNames.isEmpty()) {
+            List<TestRunTag> matchingStoredTags = entityManager.createQuery(FIND_TAGS_BY_NAME)
+                                                               .setParameter("names", tagNames)
+                                                               .setParameter("projectKeys", projectKeys)
+                                                               .getResultList();
+            for(TestRunTag storedTag : matchingStoredTags) {
+                if (!storedTags.containsKey(keyFor(storedTag))) {
+                    storedTags.put(keyFor(storedTag), storedTag);
                 }
             }
+        }
+        return storedTags;
+    }
 
-            tags.removeAll(matchedTags);
+    private void recordLatestTestRuns(List<TestRun> storedTestRuns, List<String> testNames) {
+        Map<String, LatestTestRun> latestTestRuns = findLatestTestRunsFor(testNames);
+        for(int i = 0; i < storedTestRuns.size(); i++) {
+            TestRun storedTestRun = storedTestRuns.get(i);
+            String testName = testNames.get(i);
+            LatestTestRun latestTestRun = latestTestRuns.get(testName);
+            if (latestTestRun != null) {
+                latestTestRun.recordRun(storedTestRun);
+            } else {
+                latestTestRun = new LatestTestRun(testName, storedTestRun);
+                entityManager.persist(latestTestRun);
+                latestTestRuns.put(testName, latestTestRun);
+            }
+        }
+    }
 
-            for(TestRunTag tag : tags) {
+    private Map<String, LatestTestRun> findLatestTestRunsFor(List<String> testNames) {
+        Map<String, LatestTestRun> latestTestRuns = Maps.newHashMap();
+        for(List<String> someTestNames : Iterables.partition(Sets.newHashSet(testNames), batchSize)) {
+            List<LatestTestRun> matchingTestRuns = entityManager.createQuery(FIND_LATEST_RUNS_BY_TEST_NAME)
+                                                                .setParameter("projectKey", getProjectKey())
+                                                                .setParameter("testNames", someTestNames)
+                                                                .getResultList();
+            for(LatestTestRun latestTestRun : matchingTestRuns) {
+                latestTestRuns.put(latestTestRun.getTestName(), latestTestRun);
+            }
+        }
+        return latestTestRuns;
+    }
+
+    private String keyFor(TestRunTag tag) {
+        return tag.getProjectKey() + ":" + tag.getCode() + ":" + tag.getName();
+    }
+
+    private void addTagsTo(TestRun storedTestRun, Set<TestRunTag> tags, Map<String, TestRunTag> storedTags) {
+        for(TestRunTag tag : tags) {
+            TestRunTag storedTag = storedTags.get(keyFor(tag));
+            if (storedTag != null) {
+                storedTestRun.getTags().add(storedTag);
+            } else {
                 entityManager.persist(tag);
+                storedTags.put(keyFor(tag), tag);
                 storedTestRun.getTags().add(tag);
             }
         }
@@ -217,15 +413,36 @@ public class HibernateTestOutcomeHistoryDAO implements TestOutcomeHistoryDAO {
 
     @Override
     public List<TestRunTag> getLatestTagsForTestWithTitleByTitle(String title) {
-       List<TestRun> latestTestRuns = entityManager.createQuery(SELECT_LATEST_TEST_BY_TITLE)
-                                                   .setParameter("title", title)
-                                                   .setParameter("projectKey", getProjectKey())
-                                                   .getResultList();
-       if (latestTestRuns.isEmpty()) {
-           return Collections.emptyList();
-       } else {
-           return ImmutableList.copyOf(latestTestRuns.get(0).getTags());
-       }
+        return tagsOfLatestTestRun(SELECT_LATEST_TEST_BY_TITLE, SELECT_MOST_RECENT_TEST_BY_TITLE, "title", title);
+    }
+
+    /**
+     * For a tag or tag type, this is the latest run of the first test recorded with that tag.
+     * Test runs stored before the LatestTestRun table was introduced are not recorded there,
+     * so the test history itself is searched if no matching latest test run is found.
+     */
+    private List<TestRunTag> tagsOfLatestTestRun(String latestTestRunQuery,
+                                                 String testHistoryQuery,
+                                                 String parameterName,
+                                                 String value) {
+        TestRun latestTestRun = firstTestRunFoundBy(latestTestRunQuery, parameterName, value);
+        if (latestTestRun == null) {
+            latestTestRun = firstTestRunFoundBy(testHistoryQuery, parameterName, value);
+        }
+        if (latestTestRun == null) {
+            return Collections.emptyList();
+        } else {
+            return ImmutableList.copyOf(latestTestRun.getTags());
+        }
+    }
+
+    private TestRun firstTestRunFoundBy(String query, String parameterName, String value) {
+        List<TestRun> testRuns = entityManager.createQuery(query)
+                                              .setParameter(parameterName, value)
+                                              .setParameter("projectKey", getProjectKey())
+                                              .setMaxResults(1)
+                                              .getResultList();
+        return testRuns.isEmpty() ? null : testRuns.get(0);
     }
 
     @Override
@@ -254,7 +471,7 @@ public class HibernateTestOutcomeHistoryDAO implements TestOutcomeHistoryDAO {
 
     @Override
     public Long countTestRunsByTag(String tag) {
-        return (Long) entityManager.createQuery(COUNT_LATEST_TEST_BY_TAG)
+        return (Long) entityManager.createQuery(COUNT_TESTS_BY_TAG)
                                    .setParameter("name", tag)
                                    .setParameter("projectKey", getProjectKey())
                                    .getSingleResult();
@@ -262,7 +479,7 @@ public class HibernateTestOutcomeHistoryDAO implements TestOutcomeHistoryDAO {
 
     @Override
     public Long countTestRunsByTagType(String tagType) {
-        return (Long) entityManager.createQuery(COUNT_LATEST_TEST_BY_TAG_TYPE)
+        return (Long) entityManager.createQuery(COUNT_TESTS_BY_TAG_TYPE)
                 .setParameter("type", tagType)
                 .setParameter("projectKey", getProjectKey())
                 .getSingleResult();
@@ -270,7 +487,7 @@ public class HibernateTestOutcomeHistoryDAO implements TestOutcomeHistoryDAO {
 
     @Override
     public Long countTestRunsByTagAndResult(String tag, TestResult result) {
-        return (Long) entityManager.createQuery(COUNT_LATEST_TESTS_BY_TAG_AND_RESULT)
+        return (Long) entityManager.createQuery(COUNT_TESTS_BY_TAG_AND_RESULT)
                 .setParameter("name", tag)
                 .setParameter("result",result)
                 .setParameter("projectKey", getProjectKey())
@@ -279,7 +496,7 @@ public class HibernateTestOutcomeHistoryDAO implements TestOutcomeHistoryDAO {
 
     @Override
     public Long countTestRunsByTagTypeAndResult(String tagType, TestResult result) {
-        return (Long) entityManager.createQuery(COUNT_LATEST_TESTS_BY_TAG_TYPE_AND_RESULT)
+        return (Long) entityManager.createQuery(COUNT_TESTS_BY_TAG_TYPE_AND_RESULT)
                 .setParameter("type", tagType)
                 .setParameter("result",result)
                 .setParameter("projectKey", getProjectKey())
@@ -288,28 +505,181 @@ public class HibernateTestOutcomeHistoryDAO implements TestOutcomeHistoryDAO {
 
     @Override
     public List<TestRunTag> getLatestTagsForTestsWithTag(String tag) {
-        List<TestRun> latestTestRuns = entityManager.createQuery(SELECT_LATEST_TEST_BY_TAG)
-                                                    .setParameter("name", tag)
-                                                    .setParameter("projectKey", getProjectKey())
-                                                    .getResultList();
-        if (latestTestRuns.isEmpty()) {
-            return Collections.emptyList();
-        } else {
-            return ImmutableList.copyOf(latestTestRuns.get(0).getTags());
-        }
+        return tagsOfLatestTestRun(SELECT_LATEST_TEST_BY_TAG, SELECT_FIRST_TEST_BY_TAG, "name", tag);
     }
 
     @Override
     public List<TestRunTag> getLatestTagsForTestsWithTagType(String tagType) {
-        List<TestRun> latestTestRuns = entityManager.createQuery(SELECT_LATEST_TEST_BY_TAG_TYPE)
-                                                    .setParameter("type", tagType)
-                                                    .setParameter("projectKey", getProjectKey())
-                                                    .getResultList();
-        if (latestTestRuns.isEmpty()) {
-            return Collections.emptyList();
-        } else {
-            return ImmutableList.copyOf(latestTestRuns.get(0).getTags());
+        return tagsOfLatestTestRun(SELECT_LATEST_TEST_BY_TAG_TYPE, SELECT_FIRST_TEST_BY_TAG_TYPE, "type", tagType);
+    }
+
+    @Override
+    public Map<String, Map<TestResult, Long>> countTestRunsByResultForTitles(Collection<String> titles) {
+        return countTestRunsByResult(COUNT_RESULTS_BY_TITLE, titles);
+    }
+
+    @Override
+    public Map<String, Map<TestResult, Long>> countTestRunsByResultForTags(Collection<String> tags) {
+        return countTestRunsByResult(COUNT_RESULTS_BY_TAG, tags);
+    }
+
+    @Override
+    public Map<String, Map<TestResult, Long>> countTestRunsByResultForTagTypes(Collection<String> tagTypes) {
+        return countTestRunsByResult(COUNT_RESULTS_BY_TAG_TYPE, tagTypes);
+    }
+
+    /**
+     * Every key is present in the returned map, with no counts if there are no matching test runs.
+     */
+    private Map<String, Map<TestResult, Long>> countTestRunsByResult(String query, Collection<String> keys) {
+        Map<String, Map<TestResult, Long>> counts = Maps.newHashMap();
+        for(String key : keys) {
+            counts.put(key, new EnumMap<TestResult, Long>(TestResult.class));
+        }
+        for(List<String> someKeys : Iterables.partition(counts.keySet(), batchSize)) {
+            List<Object[]> rows = entityManager.createQuery(query)
+                                               .setParameter("keys", someKeys)
+                                               .setParameter("projectKey", getProjectKey())
+                                               .getResultList();
+            for(Object[] row : rows) {
+                counts.get((String) row[0]).put((TestResult) row[1], (Long) row[2]);
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public List<TestResult> getRecentResultsForTestWithTitle(String title, int maxResults) {
+        return recentResults(SELECT_TEST_RESULTS_BY_TITLE, "title", title, maxResults);
+    }
+
+    @Override
+    public List<TestResult> getRecentResultsForTestsWithTag(String tag, int maxResults) {
+        return recentResults(SELECT_TEST_RESULTS_BY_TAG, "name", tag, maxResults);
+    }
+
+    @Override
+    public List<TestResult> getRecentResultsForTestsWithTagType(String tagType, int maxResults) {
+        return recentResults(SELECT_TEST_RESULTS_BY_TAG_TYPE, "type", tagType, maxResults);
+    }
+
+    private List<TestResult> recentResults(String query, String parameterName, String value, int maxResults) {
+        return entityManager.createQuery(query)
+                            .setParameter(parameterName, value)
+                            .setParameter("projectKey", getProjectKey())
+                            .setMaxResults(maxResults)
+                            .getResultList();
+    }
+
+    @Override
+    public Map<String, List<TestResult>> getRecentResultsForTestsWithTitles(Collection<String> titles, int maxResults) {
+        return recentResults(SELECT_TEST_RESULTS_BY_TITLES, titles, maxResults);
+    }
+
+    @Override
+    public Map<String, List<TestResult>> getRecentResultsForTestsWithTags(Collection<String> tags, int maxResults) {
+        return recentResults(SELECT_TEST_RESULTS_BY_TAGS, tags, maxResults);
+    }
+
+    /**
+     * The results of each batch of keys are read by the same query, most recent first, and only the first
+     * maxResults results of each key are kept. HQL has no window functions to apply this limit in the database,
+     * so the rows are read in pages of maxResults rows per key, and no more pages are read
+     * once every key in the batch has all the results it needs.
+     * Every key is present in the returned map, with no results if there are no matching test runs.
+     */
+    private Map<String, List<TestResult>> recentResults(String query, Collection<String> keys, int maxResults) {
+        Map<String, List<TestResult>> results = Maps.newHashMap();
+        for(String key : keys) {
+            results.put(key, Lists.<TestResult>newArrayList());
+        }
+        for(List<String> someKeys : Iterables.partition(results.keySet(), batchSize)) {
+            int pageSize = someKeys.size() * maxResults;
+            int incompleteKeys = (maxResults > 0) ? someKeys.size() : 0;
+            int firstRow = 0;
+            while (incompleteKeys > 0) {
+                List<Object[]> rows = entityManager.createQuery(query)
+                                                   .setParameter("keys", someKeys)
+                                                   .setParameter("projectKey", getProjectKey())
+                                                   .setFirstResult(firstRow)
+                                                   .setMaxResults(pageSize)
+                                                   .getResultList();
+                for(Object[] row : rows) {
+                    List<TestResult> resultsForKey = results.get((String) row[0]);
+                    if (resultsForKey.size() < maxResults) {
+                        resultsForKey.add((TestResult) row[1]);
+                        if (resultsForKey.size() == maxResults) {
+                            incompleteKeys--;
+                        }
+                    }
+                }
+                if (rows.size() < pageSize) {
+                    break;
+                }
+                firstRow += pageSize;
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public Map<String, List<TestRunTag>> getLatestTagsForTestsWithTitles(Collection<String> titles) {
+        Map<String, List<TestRunTag>> latestTags = Maps.newHashMap();
+        for(List<String> someTitles : Iterables.partition(Sets.newHashSet(titles), batchSize)) {
+            List<LatestTestRun> latestTestRuns = entityManager.createQuery(SELECT_LATEST_TESTS_BY_TITLE)
+                                                              .setParameter("titles", someTitles)
+                                                              .setParameter("projectKey", getProjectKey())
+                                                              .getResultList();
+            for(LatestTestRun latestTestRun : latestTestRuns) {
+                latestTags.put(latestTestRun.getTitle(),
+                               ImmutableList.copyOf(latestTestRun.getTestRun().getTags()));
+            }
+        }
+        for(String title : titles) {
+            if (!latestTags.containsKey(title)) {
+                latestTags.put(title, getLatestTagsForTestWithTitleByTitle(title));
+            }
+        }
+        return latestTags;
+    }
+
+    /**
+     * The ids of the latest run of the first test recorded with each tag are read in one query,
+     * and these test runs are then loaded with their tags in another one.
+     */
+    @Override
+    public Map<String, List<TestRunTag>> getLatestTagsForTestsWithTags(Collection<String> tags) {
+        Map<String, Long> latestTestRunIds = Maps.newHashMap();
+        for(List<String> someTags : Iterables.partition(Sets.newHashSet(tags), batchSize)) {
+            List<Object[]> rows = entityManager.createQuery(SELECT_LATEST_TEST_IDS_BY_TAGS)
+                                               .setParameter("keys", someTags)
+                                               .setParameter("projectKey", getProjectKey())
+                                               .getResultList();
+            for(Object[] row : rows) {
+                if (!latestTestRunIds.containsKey((String) row[0])) {
+                    latestTestRunIds.put((String) row[0], (Long) row[1]);
+                }
+            }
+        }
+        Map<Long, TestRun> latestTestRuns = Maps.newHashMap();
+        for(List<Long> someIds : Iterables.partition(Sets.newHashSet(latestTestRunIds.values()), batchSize)) {
+            List<TestRun> testRuns = entityManager.createQuery(SELECT_TESTS_WITH_TAGS_BY_ID)
+                                                  .setParameter("ids", someIds)
+                                                  .getResultList();
+            for(TestRun testRun : testRuns) {
+                latestTestRuns.put(testRun.getId(), testRun);
+            }
+        }
+        Map<String, List<TestRunTag>> latestTags = Maps.newHashMap();
+        for(String tag : tags) {
+            TestRun latestTestRun = latestTestRuns.get(latestTestRunIds.get(tag));
+            if (latestTestRun != null) {
+                latestTags.put(tag, ImmutableList.copyOf(latestTestRun.getTags()));
+            } else {
+                latestTags.put(tag, getLatestTagsForTestsWithTag(tag));
+            }
         }
+        return latestTags;
     }
 
     @Override
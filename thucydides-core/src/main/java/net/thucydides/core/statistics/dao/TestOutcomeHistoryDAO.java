@@ -5,7 +5,9 @@ import net.thucydides.core.model.TestResult;
 import net.thucydides.core.statistics.model.TestRun;
 import net.thucydides.core.statistics.model.TestRunTag;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface TestOutcomeHistoryDAO {
     List<TestRun> findAll();
@@ -41,4 +43,37 @@ public interface TestOutcomeHistoryDAO {
     List<TestRunTag> getLatestTagsForTestsWithTagType(String tagType);
 
     List<String> findAllTagTypes();
+
+    /**
+     * How many times each of these tests has been run, for each test result, worked out in a single query.
+     */
+    Map<String, Map<TestResult, Long>> countTestRunsByResultForTitles(Collection<String> titles);
+
+    Map<String, Map<TestResult, Long>> countTestRunsByResultForTags(Collection<String> tags);
+
+    Map<String, Map<TestResult, Long>> countTestRunsByResultForTagTypes(Collection<String> tagTypes);
+
+    /**
+     * The results of the most recent runs of a test, starting with the latest one.
+     */
+    List<TestResult> getRecentResultsForTestWithTitle(String title, int maxResults);
+
+    List<TestResult> getRecentResultsForTestsWithTag(String tag, int maxResults);
+
+    List<TestResult> getRecentResultsForTestsWithTagType(String tagType, int maxResults);
+
+    /**
+     * The results of the most recent runs of each of these tests, starting with the latest one.
+     * No more than maxResults results are returned for each test.
+     */
+    Map<String, List<TestResult>> getRecentResultsForTestsWithTitles(Collection<String> titles, int maxResults);
+
+    Map<String, List<TestResult>> getRecentResultsForTestsWithTags(Collection<String> tags, int maxResults);
+
+    /**
+     * The tags of the latest run of each of these tests.
+     */
+    Map<String, List<TestRunTag>> getLatestTagsForTestsWithTitles(Collection<String> titles);
+
+    Map<String, List<TestRunTag>> getLatestTagsForTestsWithTags(Collection<String> tags);
 }
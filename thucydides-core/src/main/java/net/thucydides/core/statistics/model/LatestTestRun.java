@@ -0,0 +1,88 @@
+package net.thucydides.core.statistics.model;
+
+import net.thucydides.core.model.TestResult;
+import org.hibernate.annotations.Index;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+import java.util.Date;
+
+/**
+ * The most recent run of each test in a project.
+ * There is one row per test, which is updated whenever a new run of the test is stored, so that the latest
+ * result of a test can be found without searching through the whole test history.
+ * Tests are identified by their qualified name (the test class and method), as different tests may share a title.
+ */
+@Entity
+@Table(uniqueConstraints = {@UniqueConstraint(columnNames = {"projectKey", "testName"})})
+@org.hibernate.annotations.Table(appliesTo = "LatestTestRun",
+                                 indexes = {@Index(name = "latest_run_by_date_idx",
+                                                   columnNames = {"projectKey", "executionDate"})})
+public class LatestTestRun {
+
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    private String testName;
+    private String title;
+    private String projectKey;
+    private TestResult result;
+    private Date executionDate;
+
+    @ManyToOne
+    private TestRun testRun;
+
+    public LatestTestRun() {}
+
+    public LatestTestRun(final String testName, final TestRun testRun) {
+        this.testName = testName;
+        this.title = testRun.getTitle();
+        this.projectKey = testRun.getProjectKey();
+        recordRun(testRun);
+    }
+
+    /**
+     * Record a new run of this test, unless it is older than the run already recorded.
+     */
+    public void recordRun(final TestRun newTestRun) {
+        if ((testRun == null) || !isOlderThanCurrentRun(newTestRun)) {
+            this.testRun = newTestRun;
+            this.result = newTestRun.getResult();
+            this.executionDate = newTestRun.getExecutionDate();
+        }
+    }
+
+    private boolean isOlderThanCurrentRun(final TestRun newTestRun) {
+        return (executionDate != null) && (newTestRun.getExecutionDate() != null)
+               && newTestRun.getExecutionDate().before(executionDate);
+    }
+
+    public String getTestName() {
+        return testName;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getProjectKey() {
+        return projectKey;
+    }
+
+    public TestResult getResult() {
+        return result;
+    }
+
+    public Date getExecutionDate() {
+        return (executionDate == null) ? null : new Date(executionDate.getTime());
+    }
+
+    public TestRun getTestRun() {
+        return testRun;
+    }
+}
@@ -4,6 +4,7 @@ import com.google.common.collect.ImmutableSet;
 import net.thucydides.core.model.TestOutcome;
 import net.thucydides.core.model.TestResult;
 import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Index;
 
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
@@ -17,6 +18,11 @@ import java.util.Set;
 
 @Entity
 @Immutable
+@org.hibernate.annotations.Table(appliesTo = "TestRun",
+                                 indexes = {@Index(name = "testrun_by_title_idx",
+                                                   columnNames = {"projectKey", "title", "executionDate"}),
+                                            @Index(name = "testrun_by_date_idx",
+                                                   columnNames = {"projectKey", "executionDate"})})
 public class TestRun {
 
     @Id
@@ -47,6 +53,10 @@ public class TestRun {
         this.duration = duration;
     }
 
+    public Long getId() {
+        return id;
+    }
+
     public String getTitle() {
         return title;
     }
@@ -1,6 +1,7 @@
 package net.thucydides.core.statistics.model;
 
 import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Index;
 
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
@@ -11,6 +12,9 @@ import java.util.Set;
 
 @Entity
 @Immutable
+@org.hibernate.annotations.Table(appliesTo = "TestRunTag",
+                                 indexes = {@Index(name = "tag_by_name_idx", columnNames = {"name"}),
+                                            @Index(name = "tag_by_type_idx", columnNames = {"type"})})
 public class TestRunTag {
 
     @Id
@@ -21,6 +21,10 @@ public class TestStatistics {
     private final List<TestRunTag> tags;
     private static final int OVERALL = Integer.MAX_VALUE;
 
+    /**
+     * The test results passed in may only be the most recent ones, starting with the latest:
+     * recent pass rates can be worked out over no more test runs than this.
+     */
     public TestStatistics(Long totalTestRuns,
                           Long passingTestRuns,
                           Long failingTestRuns,
@@ -73,12 +77,24 @@ public class TestStatistics {
             return new PassRateBuilder(number);
         }
 
+        /**
+         * Only the most recent test results may be kept, so a pass rate over the whole test history
+         * is worked out from the test run counts instead. Over a shorter period, the pass rate covers
+         * no more than the recent results that were kept.
+         */
         public Double testRuns() {
+            if (coversAllTestRuns() && (testResults.size() < totalTestRuns)) {
+                return getOverallPassRate();
+            }
             int successfulRecentTestRuns = countSuccessfulTestRunsInLast(testRunsOverPeriod, testResults);
             int eligableTestRunCount = (testResults.size() < testRunsOverPeriod) ? testResults.size() : testRunsOverPeriod;
             return (successfulRecentTestRuns * 1.0) / (eligableTestRunCount * 1.0);
         }
 
+        private boolean coversAllTestRuns() {
+            return (totalTestRuns != null) && (totalTestRuns > 0) && (testRunsOverPeriod >= totalTestRuns);
+        }
+
         private int countSuccessfulTestRunsInLast(int testRunCount, List<TestResult> testResults) {
             List<TestResult> eligableTestResults = mostRecent(testRunCount, testResults);
             List<TestResult> successfulTestResults = select(eligableTestResults, is(TestResult.SUCCESS));
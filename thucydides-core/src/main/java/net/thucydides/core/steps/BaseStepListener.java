@@ -16,6 +16,7 @@ import net.thucydides.core.pages.SystemClock;
 import net.thucydides.core.screenshots.Photographer;
 import net.thucydides.core.screenshots.ScreenshotAndHtmlSource;
 import net.thucydides.core.screenshots.ScreenshotException;
+import net.thucydides.core.screenshots.ScreenshotProcessor;
 import net.thucydides.core.webdriver.Configuration;
 import net.thucydides.core.webdriver.WebDriverFacade;
 import net.thucydides.core.webdriver.WebdriverProxyFactory;
@@ -35,7 +36,6 @@ import static net.thucydides.core.model.TestResult.IGNORED;
 import static net.thucydides.core.model.TestResult.PENDING;
 import static net.thucydides.core.model.TestResult.SKIPPED;
 import static net.thucydides.core.model.TestResult.SUCCESS;
-import static net.thucydides.core.util.NameConverter.underscore;
 
 /**
  * Observes the test run and stores test run details for later reporting.
@@ -83,7 +83,17 @@ public class BaseStepListener implements StepListener, StepPublisher {
     private Configuration configuration;
     
     private boolean inFluentStepSequence;
-    
+
+    /**
+     * Writes the screenshots to disk in the background.
+     */
+    private ScreenshotProcessor screenshotProcessor;
+
+    /**
+     * Takes the screenshots for the current driver, and remembers the previous screenshot.
+     */
+    private Photographer photographer;
+
     public BaseStepListener(final File outputDirectory) {
         this.proxyFactory = WebdriverProxyFactory.getFactory();
         this.testOutcomes = new ArrayList<TestOutcome>();
@@ -92,6 +102,7 @@ public class BaseStepListener implements StepListener, StepPublisher {
         this.outputDirectory = outputDirectory;
         this.clock = Injectors.getInjector().getInstance(SystemClock.class);
         this.configuration = Injectors.getInjector().getInstance(Configuration.class);
+        this.screenshotProcessor = Injectors.getInjector().getInstance(ScreenshotProcessor.class);
         this.inFluentStepSequence = false;
     }
 
@@ -178,6 +189,7 @@ public class BaseStepListener implements StepListener, StepPublisher {
 
     @Override
     public void testSuiteFinished() {
+        screenshotProcessor.waitUntilDone();
     }
 
 
@@ -214,6 +226,7 @@ public class BaseStepListener implements StepListener, StepPublisher {
     public void testFinished(final TestOutcome result) {
         recordTestDuration();
         currentStepStack.clear();
+        screenshotProcessor.waitUntilDone();
     }
 
     private void recordTestDuration() {
@@ -415,15 +428,20 @@ public class BaseStepListener implements StepListener, StepPublisher {
 
     private void takeScreenshotFor(TestResult result) {
         if (shouldTakeScreenshotFor(result)) {
-            takeScreenshot();
+            takeScreenshot(result == FAILURE);
         }
     }
 
     private void takeScreenshot() {
+        takeScreenshot(false);
+    }
+
+    private void takeScreenshot(final boolean evenIfUnchanged) {
         if (currentStepExists() && browserIsOpen()) {
             try {
-                String stepDescription = getCurrentTestOutcome().getCurrentStep().getDescription();
-                ScreenshotAndHtmlSource screenshotAndHtmlSource = grabScreenshotFor(stepDescription);
+                ScreenshotAndHtmlSource screenshotAndHtmlSource
+                        = evenIfUnchanged ? getPhotographer().takeScreenshotAndSourceEvenIfUnchanged()
+                                          : getPhotographer().takeScreenshotAndSource();
                 if (screenshotAndHtmlSource.wasTaken()) {
                     getCurrentStep().addScreenshot(screenshotAndHtmlSource);
                 }
@@ -450,16 +468,15 @@ public class BaseStepListener implements StepListener, StepPublisher {
         }
     }
 
-    private ScreenshotAndHtmlSource grabScreenshotFor(final String testName) {
-        String snapshotName = underscore(testName);
-        File screenshot = getPhotographer().takeScreenshot(snapshotName);
-        File sourcecode = getPhotographer().getMatchingSourceCodeFor(screenshot);
-        return new ScreenshotAndHtmlSource(screenshot, sourcecode);
-    }
-
     public Photographer getPhotographer() {
-        return new Photographer(driver, outputDirectory);
-
+        if ((photographer == null) || (photographer.getDriver() != driver)) {
+            photographer = new Photographer(driver, outputDirectory, screenshotProcessor);
+            if (configuration.skipUnchangedScreenshots()) {
+                photographer.skipUnchangedScreenshots(configuration.getScreenshotSimilarityThreshold(),
+                                                      configuration.getScreenshotPixelTolerance());
+            }
+        }
+        return photographer;
     }
 
     private boolean shouldTakeScreenshotFor(final TestResult result) {
@@ -60,6 +60,8 @@ public class StepEventBus {
     private Class<?> classUnderTest;
     private Story storyUnderTest;
 
+    private long pageStateVersion;
+
     /**
      * Register a listener to receive notification at different points during a test's execution.
      * If you are writing your own listener, you shouldn't need to call this method - just set up your
@@ -163,6 +165,7 @@ public class StepEventBus {
         classUnderTest = null;
         storyUnderTest = null;
         webdriverSuspensions.clear();
+        pageStateMayHaveChanged();
     }
 
     private void currentTestIsNotPending() {
@@ -185,6 +188,7 @@ public class StepEventBus {
 
     private void pushStep(String stepName) {
         stepStack.push(stepName);
+        pageStateMayHaveChanged();
     }
 
     private void popStep() {
@@ -241,6 +245,7 @@ public class StepEventBus {
         if (!stepStack.empty()) {
             popStep();
         }
+        pageStateMayHaveChanged();
     }
 
     public void stepFailed(final StepFailure failure) {
@@ -350,11 +355,28 @@ public class StepEventBus {
     }
 
     public void notifyScreenChange() {
+        pageStateMayHaveChanged();
         for(StepListener stepListener : getAllListeners()) {
             stepListener.notifyScreenChange();
         }
     }
 
+    /**
+     * Something may have changed in the page (e.g. some Javascript was executed), without any need to
+     * record a new screenshot.
+     */
+    public void pageStateMayHaveChanged() {
+        pageStateVersion++;
+    }
+
+    /**
+     * Changes whenever a step starts or finishes or the page may have changed, so that state read
+     * from the page can be reused as long as it stays the same.
+     */
+    public long getPageStateVersion() {
+        return pageStateVersion;
+    }
+
     public void testSuiteFinished() {
         for(StepListener stepListener : getAllListeners()) {
             stepListener.testSuiteFinished();
@@ -21,6 +21,12 @@ public interface Configuration {
 
     boolean onlySaveFailingScreenshots();
 
+    boolean skipUnchangedScreenshots();
+
+    int getScreenshotSimilarityThreshold();
+
+    int getScreenshotPixelTolerance();
+
     public void setDefaultBaseUrl(final String defaultBaseUrl);
 
     public int getRestartFrequency();
@@ -1,6 +1,5 @@
 package net.thucydides.core.webdriver;
 
-import net.thucydides.core.pages.WebElementFacade;
 import net.thucydides.core.steps.StepEventBus;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
@@ -9,21 +8,12 @@ import org.openqa.selenium.support.pagefactory.AjaxElementLocator;
 import org.openqa.selenium.support.pagefactory.Annotations;
 
 import java.lang.reflect.Field;
-import java.util.Arrays;
-import java.util.List;
 
 class DisplayedElementLocator extends AjaxElementLocator {
 
-    private static final List<String> QUICK_METHODS = Arrays.asList("isCurrentlyVisible",
-                                                                    "isCurrentlyEnabled",
-                                                                    "waitUntilVisible",
-                                                                    "waitUntilEnabled",
-                                                                    "shouldNotBeVisible");
-
-    private static final List<String> QUICK_CLASSES = Arrays.asList(WebElementFacade.class.getName());
-
     private final Field field;
     private final WebDriver driver;
+    private By by;
 
     DisplayedElementLocator(WebDriver driver, Field field, int timeOutInSeconds) {
         super(driver, field, timeOutInSeconds);
@@ -44,26 +34,24 @@ class DisplayedElementLocator extends AjaxElementLocator {
         if (StepEventBus.getEventBus().aStepInTheCurrentTestHasFailed()) {
             return true;
         }
-        if (calledFromAQuickMethod()) {
+        if (ImmediateElementLookup.inProgress()) {
             return true;
         }
         return false;
     }
 
-    private boolean calledFromAQuickMethod() {
-        for(StackTraceElement elt : Thread.currentThread().getStackTrace()){
-            if (QUICK_METHODS.contains(elt.getMethodName())
-                &&  QUICK_CLASSES.contains(elt.getClassName())) {
-                return true;
-            }
-        }
-        return false;
+    public WebElement findElementImmediately() {
+        return driver.findElement(getBy());
     }
 
-    public WebElement findElementImmediately() {
-        Annotations annotations = new Annotations(field);
-        By by = annotations.buildBy();
-        return driver.findElement(by);
+    /**
+     * The locator is built from the field annotations once, and then reused for every lookup.
+     */
+    private By getBy() {
+        if (by == null) {
+            by = new Annotations(field).buildBy();
+        }
+        return by;
     }
 
     @Override
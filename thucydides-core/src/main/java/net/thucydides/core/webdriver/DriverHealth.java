@@ -0,0 +1,81 @@
+package net.thucydides.core.webdriver;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps track of whether a driver is likely to be usable, based on the outcome of the commands sent to it.
+ * The driver is only checked (with an extra round trip to the browser) after a command has failed, or,
+ * if a liveness check interval is configured, when it has not been checked for longer than this interval.
+ */
+public class DriverHealth {
+
+    private static final AtomicLong TOTAL_LIVENESS_CHECKS = new AtomicLong();
+    private static final AtomicLong TOTAL_RECOVERIES = new AtomicLong();
+
+    private final long livenessCheckInterval;
+
+    private volatile boolean suspect;
+    private volatile long lastCheckedAt;
+
+    private final AtomicLong livenessChecks = new AtomicLong();
+    private final AtomicLong recoveries = new AtomicLong();
+
+    /**
+     * @param livenessCheckInterval the maximum time (in milliseconds) between two liveness checks,
+     *                              or 0 to only check the driver after a command has failed.
+     */
+    public DriverHealth(final long livenessCheckInterval) {
+        this.livenessCheckInterval = livenessCheckInterval;
+        this.lastCheckedAt = System.currentTimeMillis();
+    }
+
+    public boolean needsCheck() {
+        return suspect || livenessCheckIsDue();
+    }
+
+    private boolean livenessCheckIsDue() {
+        return (livenessCheckInterval > 0)
+                && (System.currentTimeMillis() - lastCheckedAt >= livenessCheckInterval);
+    }
+
+    /**
+     * A command sent to the driver failed, so the driver may need to be recovered before the next one.
+     */
+    public void commandFailed() {
+        suspect = true;
+    }
+
+    public void driverWasChecked() {
+        suspect = false;
+        lastCheckedAt = System.currentTimeMillis();
+        livenessChecks.incrementAndGet();
+        TOTAL_LIVENESS_CHECKS.incrementAndGet();
+    }
+
+    public void driverWasRecovered() {
+        recoveries.incrementAndGet();
+        TOTAL_RECOVERIES.incrementAndGet();
+    }
+
+    public long getLivenessCheckCount() {
+        return livenessChecks.get();
+    }
+
+    public long getRecoveryCount() {
+        return recoveries.get();
+    }
+
+    /**
+     * The number of liveness checks done on all the drivers in this process.
+     */
+    public static long getTotalLivenessCheckCount() {
+        return TOTAL_LIVENESS_CHECKS.get();
+    }
+
+    /**
+     * The number of times a driver had to be recovered in this process.
+     */
+    public static long getTotalRecoveryCount() {
+        return TOTAL_RECOVERIES.get();
+    }
+}
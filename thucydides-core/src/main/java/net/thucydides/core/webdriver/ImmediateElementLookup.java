@@ -0,0 +1,36 @@
+package net.thucydides.core.webdriver;
+
+/**
+ * Marks the code that should look up page elements without waiting for them to appear.
+ * Web element facade methods such as isCurrentlyVisible() start an immediate lookup before using the element,
+ * and end it afterwards; while it is in progress, the element locators of the current thread
+ * fail straight away rather than wait for the element.
+ * Lookups can be nested.
+ */
+public final class ImmediateElementLookup {
+
+    private static final ThreadLocal<int[]> DEPTH = new ThreadLocal<int[]>() {
+        @Override
+        protected int[] initialValue() {
+            return new int[1];
+        }
+    };
+
+    private ImmediateElementLookup() {
+    }
+
+    public static void start() {
+        DEPTH.get()[0]++;
+    }
+
+    public static void end() {
+        int[] depth = DEPTH.get();
+        if (depth[0] > 0) {
+            depth[0]--;
+        }
+    }
+
+    public static boolean inProgress() {
+        return DEPTH.get()[0] > 0;
+    }
+}
@@ -36,6 +36,13 @@ public class SystemPropertiesConfiguration implements Configuration {
 
     public final Integer DEFAULT_ESTIMATED_AVERAGE_STEP_COUNT = 5;
 
+    /**
+     * By default, only identical screenshots are considered unchanged.
+     */
+    public static final int DEFAULT_SCREENSHOT_SIMILARITY_THRESHOLD = 0;
+
+    public static final int DEFAULT_SCREENSHOT_PIXEL_TOLERANCE = 0;
+
     private String defaultBaseUrl;
 
     /**
@@ -156,6 +163,20 @@ public class SystemPropertiesConfiguration implements Configuration {
         return getEnvironmentVariables().getPropertyAsBoolean(ThucydidesSystemProperty.ONLY_SAVE_FAILING_SCREENSHOTS.getPropertyName(), false);
     }
 
+    public boolean skipUnchangedScreenshots() {
+        return getEnvironmentVariables().getPropertyAsBoolean(ThucydidesSystemProperty.SKIP_UNCHANGED_SCREENSHOTS.getPropertyName(), false);
+    }
+
+    public int getScreenshotSimilarityThreshold() {
+        return getEnvironmentVariables().getPropertyAsInteger(ThucydidesSystemProperty.SCREENSHOT_SIMILARITY_THRESHOLD.getPropertyName(),
+                DEFAULT_SCREENSHOT_SIMILARITY_THRESHOLD);
+    }
+
+    public int getScreenshotPixelTolerance() {
+        return getEnvironmentVariables().getPropertyAsInteger(ThucydidesSystemProperty.SCREENSHOT_PIXEL_TOLERANCE.getPropertyName(),
+                DEFAULT_SCREENSHOT_PIXEL_TOLERANCE);
+    }
+
     /**
      * Override the default base URL manually.
      * Normally only needed for testing.
@@ -15,6 +15,7 @@ import org.slf4j.LoggerFactory;
  * duration of the tests.
  * A webdriver manager needs to be thread-safe. Tests can potentially be run in parallel, and different
  * tests can use different drivers.
+ * If a driver pool is configured, browsers are kept open between test classes rather than closed.
  *                                                  ˜
  * @author johnsmart
  *
@@ -27,12 +28,24 @@ public class ThucydidesWebdriverManager implements WebdriverManager {
 
     private final Configuration configuration;
 
+    private final WebDriverPool driverPool;
+
     private static final Logger LOGGER = LoggerFactory.getLogger(ThucydidesWebdriverManager.class);
 
-    @Inject
+    /**
+     * A webdriver manager that does not pool its browsers.
+     */
     public ThucydidesWebdriverManager(final WebDriverFactory webDriverFactory, final Configuration configuration) {
+        this(webDriverFactory, configuration, WebDriverPool.disabled());
+    }
+
+    @Inject
+    public ThucydidesWebdriverManager(final WebDriverFactory webDriverFactory,
+                                      final Configuration configuration,
+                                      final WebDriverPool driverPool) {
         this.webDriverFactory = webDriverFactory;
         this.configuration = configuration;
+        this.driverPool = driverPool;
     }
 
     /**
@@ -45,9 +58,14 @@ public class ThucydidesWebdriverManager implements WebdriverManager {
      */
     private static WebDriver newDriver(final Configuration configuration,
                                        final WebDriverFactory webDriverFactory,
+                                       final WebDriverPool driverPool,
                                        final String driver) {
         SupportedWebDriver supportedDriverType = getConfiguredWebDriverWithOverride(configuration, driver);
         Class<? extends WebDriver> webDriverType = webDriverFactory.getClassFor(supportedDriverType);
+        if (driverPool.isEnabled()) {
+            driverPool.prewarm(webDriverType, webDriverFactory);
+            return WebdriverProxyFactory.getFactory().proxyFor(webDriverType, webDriverFactory, driverPool);
+        }
         return WebdriverProxyFactory.getFactory().proxyFor(webDriverType, webDriverFactory);
     }
 
@@ -74,11 +92,11 @@ public class ThucydidesWebdriverManager implements WebdriverManager {
     }
 
     public WebDriver getWebdriver() {
-        return getThreadLocalWebDriver(configuration, webDriverFactory, inThisTestThread().getCurrentDriverName());
+        return getThreadLocalWebDriver(configuration, webDriverFactory, driverPool, inThisTestThread().getCurrentDriverName());
     }
 
     public SessionId getSessionId() {
-        WebDriver driver = getThreadLocalWebDriver(configuration, webDriverFactory,
+        WebDriver driver = getThreadLocalWebDriver(configuration, webDriverFactory, driverPool,
                                                    inThisTestThread().getCurrentDriverName());
         if (driver instanceof RemoteWebDriver) {
             return ((RemoteWebDriver) driver).getSessionId();
@@ -87,17 +105,18 @@ public class ThucydidesWebdriverManager implements WebdriverManager {
     }
 
     public WebDriver getWebdriver(final String driver) {
-       return getThreadLocalWebDriver(configuration, webDriverFactory, driver);
+       return getThreadLocalWebDriver(configuration, webDriverFactory, driverPool, driver);
     }
 
     private static WebDriver getThreadLocalWebDriver(final Configuration configuration,
                                                      final WebDriverFactory webDriverFactory,
+                                                     final WebDriverPool driverPool,
                                                      final String driver) {
 
 
         if (!inThisTestThread().driverIsRegisteredFor(driver)) {
             inThisTestThread().registerDriverCalled(driver)
-                              .forDriver(newDriver(configuration, webDriverFactory, driver));
+                              .forDriver(newDriver(configuration, webDriverFactory, driverPool, driver));
         }
 
         return inThisTestThread().useDriver(driver);
@@ -1,14 +1,20 @@
 package net.thucydides.core.webdriver;
 
+import net.thucydides.core.ThucydidesSystemProperty;
 import net.thucydides.core.steps.StepEventBus;
+import net.thucydides.core.util.EnvironmentVariables;
 import net.thucydides.core.webdriver.stubs.NavigationStub;
 import net.thucydides.core.webdriver.stubs.OptionsStub;
 import net.thucydides.core.webdriver.stubs.TargetLocatorStub;
 import org.apache.commons.lang3.StringUtils;
+import org.openqa.selenium.Alert;
 import org.openqa.selenium.By;
 import org.openqa.selenium.ElementNotVisibleException;
+import org.openqa.selenium.NoSuchElementException;
 import org.openqa.selenium.OutputType;
+import org.openqa.selenium.StaleElementReferenceException;
 import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.WebElement;
@@ -32,12 +38,39 @@ public class WebDriverFacade implements WebDriver, TakesScreenshot {
 
     protected WebDriver proxiedWebDriver;
 
+    private final DriverHealth driverHealth;
+
+    private final WebDriverPool driverPool;
+
+    private volatile boolean frameSelected;
+
     private static final Logger LOGGER = LoggerFactory.getLogger(WebDriverFacade.class);
 
     public WebDriverFacade(final Class<? extends WebDriver> driverClass,
                            final WebDriverFactory webDriverFactory) {
+        this(driverClass, webDriverFactory, null);
+    }
+
+    /**
+     * A proxy that takes its browser from a driver pool, and gives it back to the pool when it is released.
+     */
+    public WebDriverFacade(final Class<? extends WebDriver> driverClass,
+                           final WebDriverFactory webDriverFactory,
+                           final WebDriverPool driverPool) {
         this.driverClass = driverClass;
         this.webDriverFactory = webDriverFactory;
+        this.driverHealth = new DriverHealth(livenessCheckIntervalFrom(webDriverFactory));
+        this.driverPool = driverPool;
+    }
+
+    private static long livenessCheckIntervalFrom(final WebDriverFactory webDriverFactory) {
+        EnvironmentVariables environmentVariables
+                = (webDriverFactory != null) ? webDriverFactory.getEnvironmentVariables() : null;
+        if (environmentVariables == null) {
+            return 0;
+        }
+        return environmentVariables.getPropertyAsInteger(
+                ThucydidesSystemProperty.DRIVER_LIVENESS_CHECK_INTERVAL.getPropertyName(), 0);
     }
 
     public Class<? extends WebDriver>  getDriverClass() {
@@ -49,21 +82,82 @@ public class WebDriverFacade implements WebDriver, TakesScreenshot {
             proxiedWebDriver = newProxyDriver();
             WebdriverProxyFactory.getFactory().notifyListenersOfWebdriverCreationIn(this);
         }
-        ensureValidDriver();
+        if (driverHealth.needsCheck()) {
+            ensureValidDriver();
+        }
         return proxiedWebDriver;
     }
 
+    /**
+     * Keeps track of the liveness checks and recoveries done on this driver.
+     */
+    public DriverHealth getDriverHealth() {
+        return driverHealth;
+    }
+
     public boolean isEnabled() {
         return !StepEventBus.getEventBus().webdriverCallsAreSuspended();
     }
     /**
      * Workaround for Webdriver issue 1438 (http://code.google.com/p/selenium/issues/detail?id=1438)
+     * This costs a round trip to the browser, so it is only done after a command has failed,
+     * or when a periodic liveness check is due.
+     * @return true if the driver had to be recovered
      */
-    private void ensureValidDriver() {
+    private boolean ensureValidDriver() {
+        boolean recovered = false;
         try {
             proxiedWebDriver.getCurrentUrl();
         } catch (WebDriverException e) {
             proxiedWebDriver.switchTo().defaultContent();
+            frameSelected = false;
+            driverHealth.driverWasRecovered();
+            recovered = true;
+        }
+        driverHealth.driverWasChecked();
+        return recovered;
+    }
+
+    /**
+     * A command sent to the proxied driver.
+     */
+    private interface DriverCommand<T> {
+        T executeOn(WebDriver driver);
+    }
+
+    /**
+     * Run a command on the proxied driver. If it fails, the driver is marked as suspect, so that it is checked
+     * before the next command. Missing or stale elements and timeouts are a normal outcome of a command,
+     * and say nothing about the state of the driver.
+     */
+    private <T> T execute(final DriverCommand<T> command) {
+        return execute(command, false);
+    }
+
+    /**
+     * Run a read-only command that can safely be sent twice. If it fails, the driver is checked straight away,
+     * and if it had to be recovered the command is tried once more. Recovering the driver switches back to the
+     * top-level document, so the command is not retried if a frame was selected.
+     */
+    private <T> T executeLookup(final DriverCommand<T> command) {
+        return execute(command, true);
+    }
+
+    private <T> T execute(final DriverCommand<T> command, final boolean retryIfRecovered) {
+        try {
+            return command.executeOn(getProxiedDriver());
+        } catch (NoSuchElementException e) {
+            throw e;
+        } catch (StaleElementReferenceException e) {
+            throw e;
+        } catch (TimeoutException e) {
+            throw e;
+        } catch (WebDriverException e) {
+            driverHealth.commandFailed();
+            if (!retryIfRecovered || frameSelected || !ensureValidDriver()) {
+                throw e;
+            }
+            return command.executeOn(proxiedWebDriver);
         }
     }
 
@@ -76,6 +170,9 @@ public class WebDriverFacade implements WebDriver, TakesScreenshot {
     }
 
     private void forcedQuit() {
+        if (isPooled()) {
+            driverPool.forget(getDriverInstance());
+        }
         try {
             getDriverInstance().quit();
             proxiedWebDriver = null;
@@ -90,6 +187,9 @@ public class WebDriverFacade implements WebDriver, TakesScreenshot {
 
     private WebDriver newDriverInstance() {
         try {
+            if (isPooled()) {
+                return driverPool.acquire(driverClass, webDriverFactory);
+            }
             return webDriverFactory.newWebdriverInstance(driverClass);
         } catch (Exception e) {
             LOGGER.error("FAILED TO CREATE NEW DRIVER INSTANCE " + driverClass, e);
@@ -100,7 +200,11 @@ public class WebDriverFacade implements WebDriver, TakesScreenshot {
     public <X> X getScreenshotAs(final OutputType<X> target) {
         if (proxyInstanciated() && driverCanTakeScreenshots()) {
             try {
-                return ((TakesScreenshot) getProxiedDriver()).getScreenshotAs(target);
+                return executeLookup(new DriverCommand<X>() {
+                    public X executeOn(final WebDriver driver) {
+                        return ((TakesScreenshot) driver).getScreenshotAs(target);
+                    }
+                });
             } catch (WebDriverException e) {
                 LOGGER.warn("Failed to take screenshot - driver closed already?", e);
             } catch (OutOfMemoryError outOfMemoryError) {
@@ -121,7 +225,15 @@ public class WebDriverFacade implements WebDriver, TakesScreenshot {
             return;
         }
 
-        getProxiedDriver().get(url);
+        execute(new DriverCommand<Void>() {
+            public Void executeOn(final WebDriver driver) {
+                driver.get(url);
+                return null;
+            }
+        });
+        if (isPooled()) {
+            driverPool.visited(proxiedWebDriver, url);
+        }
     }
 
     public String getCurrentUrl() {
@@ -129,7 +241,11 @@ public class WebDriverFacade implements WebDriver, TakesScreenshot {
             return StringUtils.EMPTY;
         }
 
-        return getProxiedDriver().getCurrentUrl();
+        return executeLookup(new DriverCommand<String>() {
+            public String executeOn(final WebDriver driver) {
+                return driver.getCurrentUrl();
+            }
+        });
     }
 
     public String getTitle() {
@@ -137,7 +253,11 @@ public class WebDriverFacade implements WebDriver, TakesScreenshot {
             return StringUtils.EMPTY;
         }
 
-        return getProxiedDriver().getTitle();
+        return executeLookup(new DriverCommand<String>() {
+            public String executeOn(final WebDriver driver) {
+                return driver.getTitle();
+            }
+        });
     }
 
     public List<WebElement> findElements(final By by) {
@@ -145,7 +265,11 @@ public class WebDriverFacade implements WebDriver, TakesScreenshot {
             return Collections.emptyList();
         }
 
-        return getProxiedDriver().findElements(by);
+        return executeLookup(new DriverCommand<List<WebElement>>() {
+            public List<WebElement> executeOn(final WebDriver driver) {
+                return driver.findElements(by);
+            }
+        });
     }
 
     public WebElement findElement(final By by) {
@@ -153,7 +277,11 @@ public class WebDriverFacade implements WebDriver, TakesScreenshot {
             throw new ElementNotVisibleException("No element found for " + by.toString() + " (a previous step has failed)");
         }
 
-        return getProxiedDriver().findElement(by);
+        return executeLookup(new DriverCommand<WebElement>() {
+            public WebElement executeOn(final WebDriver driver) {
+                return driver.findElement(by);
+            }
+        });
     }
 
     public String getPageSource() {
@@ -161,7 +289,11 @@ public class WebDriverFacade implements WebDriver, TakesScreenshot {
             return StringUtils.EMPTY;
         }
 
-        return getProxiedDriver().getPageSource();
+        return executeLookup(new DriverCommand<String>() {
+            public String executeOn(final WebDriver driver) {
+                return driver.getPageSource();
+            }
+        });
     }
 
     protected WebDriver getDriverInstance() {
@@ -174,8 +306,29 @@ public class WebDriverFacade implements WebDriver, TakesScreenshot {
         }
     }
 
+    public boolean isPooled() {
+        return (driverPool != null);
+    }
+
+    /**
+     * Give the browser back to the driver pool, rather than closing it.
+     * Drivers that do not come from a pool are simply closed.
+     */
+    public void release() {
+        if (!isPooled()) {
+            close();
+            quit();
+        } else if (proxyInstanciated()) {
+            driverPool.release(driverClass, getDriverInstance());
+            proxiedWebDriver = null;
+        }
+    }
+
     public void quit() {
         if (proxyInstanciated()) {
+            if (isPooled()) {
+                driverPool.forget(getDriverInstance());
+            }
             try {
                 getDriverInstance().quit();
             } catch (WebDriverException e) {
@@ -194,7 +347,11 @@ public class WebDriverFacade implements WebDriver, TakesScreenshot {
             return new HashSet<String>();
         }
 
-        return getProxiedDriver().getWindowHandles();
+        return executeLookup(new DriverCommand<Set<String>>() {
+            public Set<String> executeOn(final WebDriver driver) {
+                return driver.getWindowHandles();
+            }
+        });
     }
 
     public String getWindowHandle() {
@@ -202,7 +359,11 @@ public class WebDriverFacade implements WebDriver, TakesScreenshot {
             return StringUtils.EMPTY;
         }
 
-        return getProxiedDriver().getWindowHandle();
+        return executeLookup(new DriverCommand<String>() {
+            public String executeOn(final WebDriver driver) {
+                return driver.getWindowHandle();
+            }
+        });
     }
 
     public TargetLocator switchTo() {
@@ -210,7 +371,57 @@ public class WebDriverFacade implements WebDriver, TakesScreenshot {
             return new TargetLocatorStub(this);
         }
 
-        return getProxiedDriver().switchTo();
+        return new FrameTrackingTargetLocator(getProxiedDriver().switchTo());
+    }
+
+    /**
+     * Keeps track of whether a frame is selected, since failed lookups are not retried inside a frame.
+     */
+    private class FrameTrackingTargetLocator implements TargetLocator {
+
+        private final TargetLocator targetLocator;
+
+        private FrameTrackingTargetLocator(final TargetLocator targetLocator) {
+            this.targetLocator = targetLocator;
+        }
+
+        public WebDriver frame(final int index) {
+            WebDriver driver = targetLocator.frame(index);
+            frameSelected = true;
+            return driver;
+        }
+
+        public WebDriver frame(final String nameOrId) {
+            WebDriver driver = targetLocator.frame(nameOrId);
+            frameSelected = true;
+            return driver;
+        }
+
+        public WebDriver frame(final WebElement frameElement) {
+            WebDriver driver = targetLocator.frame(frameElement);
+            frameSelected = true;
+            return driver;
+        }
+
+        public WebDriver window(final String nameOrHandle) {
+            WebDriver driver = targetLocator.window(nameOrHandle);
+            frameSelected = false;
+            return driver;
+        }
+
+        public WebDriver defaultContent() {
+            WebDriver driver = targetLocator.defaultContent();
+            frameSelected = false;
+            return driver;
+        }
+
+        public WebElement activeElement() {
+            return targetLocator.activeElement();
+        }
+
+        public Alert alert() {
+            return targetLocator.alert();
+        }
     }
 
     public Navigation navigate() {
@@ -80,6 +80,10 @@ public class WebDriverFactory {
         this.firefoxProfileEnhancer = firefoxProfileEnhancer;
     }
 
+    protected EnvironmentVariables getEnvironmentVariables() {
+        return environmentVariables;
+    }
+
     protected ProfilesIni getAllProfiles() {
         if (allProfiles == null) {
             allProfiles = new ProfilesIni();
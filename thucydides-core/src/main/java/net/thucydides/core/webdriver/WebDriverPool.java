@@ -0,0 +1,407 @@
+package net.thucydides.core.webdriver;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import net.thucydides.core.ThucydidesSystemProperty;
+import net.thucydides.core.util.EnvironmentVariables;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Keeps browsers open between test classes, so that the next test class does not need to start a new one.
+ * When a test class is finished, its browsers are reset (cookies and storage cleared, extra windows closed,
+ * and the browser sent to a blank page) and kept in an idle queue for their driver type, rather than closed.
+ * Browsers can only clear the cookies and storage of the page they are showing, so a browser is only reused
+ * if every page it was sent to, and the page it ends up on, belong to the same host.
+ * Browsers are retired once they have been used too many times or are too old, or if they no longer respond.
+ * The pool is disabled unless thucydides.driver.pool.size is set to a positive value.
+ */
+public class WebDriverPool {
+
+    private static final String CLEAR_STORAGE
+            = "try { if (window.localStorage) { window.localStorage.clear(); } "
+            + "if (window.sessionStorage) { window.sessionStorage.clear(); } } catch (e) {}";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WebDriverPool.class);
+
+    private final int maxIdleDrivers;
+    private final int prewarmedDrivers;
+    private final int maxUses;
+    private final long maxAge;
+
+    private final Map<Class<? extends WebDriver>, Queue<PooledDriver>> idleDrivers
+            = new HashMap<Class<? extends WebDriver>, Queue<PooledDriver>>();
+    private final Map<WebDriver, PooledDriver> driversInUse
+            = Collections.synchronizedMap(new IdentityHashMap<WebDriver, PooledDriver>());
+    private final Set<Class<? extends WebDriver>> prewarmedDriverTypes
+            = Collections.newSetFromMap(new ConcurrentHashMap<Class<? extends WebDriver>, Boolean>());
+
+    private final AtomicLong createdDrivers = new AtomicLong();
+    private final AtomicLong reusedDrivers = new AtomicLong();
+    private final AtomicLong retiredDrivers = new AtomicLong();
+
+    private ExecutorService prewarmingExecutor;
+    private boolean shutdownHookRegistered;
+
+    private static final class PooledDriver {
+        private final WebDriver driver;
+        private final String mainWindow;
+        private final long createdAt;
+        private final Set<String> visitedHosts = new HashSet<String>();
+        private int uses;
+
+        private PooledDriver(final WebDriver driver, final String mainWindow) {
+            this.driver = driver;
+            this.mainWindow = mainWindow;
+            this.createdAt = System.currentTimeMillis();
+        }
+    }
+
+    @Inject
+    public WebDriverPool(final EnvironmentVariables environmentVariables) {
+        this(integerProperty(environmentVariables, ThucydidesSystemProperty.DRIVER_POOL_SIZE),
+             integerProperty(environmentVariables, ThucydidesSystemProperty.DRIVER_POOL_PREWARM),
+             integerProperty(environmentVariables, ThucydidesSystemProperty.DRIVER_POOL_MAX_USES),
+             integerProperty(environmentVariables, ThucydidesSystemProperty.DRIVER_POOL_MAX_AGE) * 1000L);
+    }
+
+    /**
+     * @param maxIdleDrivers how many idle browsers can be kept for each driver type - 0 disables the pool.
+     * @param prewarmedDrivers how many browsers of each driver type to start in the background ahead of time.
+     * @param maxUses how many test classes can use the same browser, or 0 for no limit.
+     * @param maxAge how long (in milliseconds) a browser can be kept open, or 0 for no limit.
+     */
+    public WebDriverPool(final int maxIdleDrivers, final int prewarmedDrivers, final int maxUses, final long maxAge) {
+        this.maxIdleDrivers = maxIdleDrivers;
+        this.prewarmedDrivers = Math.min(prewarmedDrivers, maxIdleDrivers);
+        this.maxUses = maxUses;
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * A pool that never keeps any browsers.
+     */
+    public static WebDriverPool disabled() {
+        return new WebDriverPool(0, 0, 0, 0);
+    }
+
+    private static int integerProperty(final EnvironmentVariables environmentVariables,
+                                       final ThucydidesSystemProperty property) {
+        return environmentVariables.getPropertyAsInteger(property.getPropertyName(), 0);
+    }
+
+    public boolean isEnabled() {
+        return maxIdleDrivers > 0;
+    }
+
+    /**
+     * Return an idle browser of the requested type if a healthy one is available,
+     * or a new browser created by the driver factory otherwise.
+     */
+    public WebDriver acquire(final Class<? extends WebDriver> driverClass, final WebDriverFactory webDriverFactory) {
+        PooledDriver pooledDriver;
+        while ((pooledDriver = nextIdleDriver(driverClass)) != null) {
+            if (isHealthy(pooledDriver)) {
+                reusedDrivers.incrementAndGet();
+                return markInUse(pooledDriver);
+            }
+            retire(pooledDriver);
+        }
+        return markInUse(newPooledDriver(driverClass, webDriverFactory));
+    }
+
+    /**
+     * Reset a browser and keep it for the next test class, or quit it if it cannot be reused.
+     */
+    public void release(final Class<? extends WebDriver> driverClass, final WebDriver driver) {
+        PooledDriver pooledDriver = driversInUse.remove(driver);
+        checkArgument(pooledDriver != null, "This browser was not acquired from the driver pool");
+        if (isWornOut(pooledDriver) || !reset(pooledDriver) || !makeIdle(driverClass, pooledDriver)) {
+            retire(pooledDriver);
+        }
+    }
+
+    /**
+     * Record that a browser from this pool has been sent to a URL.
+     */
+    public void visited(final WebDriver driver, final String url) {
+        PooledDriver pooledDriver = driversInUse.get(driver);
+        String host = hostOf(url);
+        if ((pooledDriver != null) && (host != null)) {
+            pooledDriver.visitedHosts.add(host);
+        }
+    }
+
+    /**
+     * Stop tracking a browser that has been closed by its user.
+     */
+    public void forget(final WebDriver driver) {
+        driversInUse.remove(driver);
+    }
+
+    /**
+     * Start a few browsers of this type in the background, the first time this type of driver is requested.
+     */
+    public void prewarm(final Class<? extends WebDriver> driverClass, final WebDriverFactory webDriverFactory) {
+        if ((prewarmedDrivers <= 0) || !prewarmedDriverTypes.add(driverClass)) {
+            return;
+        }
+        for (int i = 0; i < prewarmedDrivers; i++) {
+            getPrewarmingExecutor().execute(new Runnable() {
+                public void run() {
+                    try {
+                        PooledDriver pooledDriver = newPooledDriver(driverClass, webDriverFactory);
+                        if (!makeIdle(driverClass, pooledDriver)) {
+                            retire(pooledDriver);
+                        }
+                    } catch (RuntimeException e) {
+                        LOGGER.warn("Could not start a browser in the background", e);
+                    }
+                }
+            });
+        }
+    }
+
+    private synchronized ExecutorService getPrewarmingExecutor() {
+        if (prewarmingExecutor == null) {
+            prewarmingExecutor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+                                                                           .setDaemon(true)
+                                                                           .setNameFormat("thucydides-driver-pool-%d")
+                                                                           .build());
+        }
+        return prewarmingExecutor;
+    }
+
+    /**
+     * Quit all the idle browsers.
+     */
+    public void quitAll() {
+        List<Queue<PooledDriver>> queues;
+        synchronized (idleDrivers) {
+            queues = new ArrayList<Queue<PooledDriver>>(idleDrivers.values());
+        }
+        List<PooledDriver> allIdleDrivers = new ArrayList<PooledDriver>();
+        for (Queue<PooledDriver> queue : queues) {
+            synchronized (queue) {
+                allIdleDrivers.addAll(queue);
+                queue.clear();
+            }
+        }
+        for (PooledDriver pooledDriver : allIdleDrivers) {
+            retire(pooledDriver);
+        }
+    }
+
+    public int getIdleDriverCount(final Class<? extends WebDriver> driverClass) {
+        Queue<PooledDriver> queue = idleDriversFor(driverClass);
+        synchronized (queue) {
+            return queue.size();
+        }
+    }
+
+    public long getCreatedDriverCount() {
+        return createdDrivers.get();
+    }
+
+    public long getReusedDriverCount() {
+        return reusedDrivers.get();
+    }
+
+    public long getRetiredDriverCount() {
+        return retiredDrivers.get();
+    }
+
+    private PooledDriver newPooledDriver(final Class<? extends WebDriver> driverClass,
+                                         final WebDriverFactory webDriverFactory) {
+        WebDriver driver = webDriverFactory.newWebdriverInstance(driverClass);
+        createdDrivers.incrementAndGet();
+        return new PooledDriver(driver, mainWindowOf(driver));
+    }
+
+    private String mainWindowOf(final WebDriver driver) {
+        try {
+            return driver.getWindowHandle();
+        } catch (WebDriverException e) {
+            LOGGER.debug("Could not find the main window of a new browser - it will not be reused", e);
+            return null;
+        }
+    }
+
+    private WebDriver markInUse(final PooledDriver pooledDriver) {
+        pooledDriver.uses++;
+        driversInUse.put(pooledDriver.driver, pooledDriver);
+        return pooledDriver.driver;
+    }
+
+    private PooledDriver nextIdleDriver(final Class<? extends WebDriver> driverClass) {
+        Queue<PooledDriver> queue = idleDriversFor(driverClass);
+        synchronized (queue) {
+            return queue.poll();
+        }
+    }
+
+    private boolean makeIdle(final Class<? extends WebDriver> driverClass, final PooledDriver pooledDriver) {
+        Queue<PooledDriver> queue = idleDriversFor(driverClass);
+        synchronized (queue) {
+            if (queue.size() >= maxIdleDrivers) {
+                return false;
+            }
+            queue.offer(pooledDriver);
+        }
+        registerShutdownHookOnce();
+        return true;
+    }
+
+    /**
+     * Idle browsers are quit when the JVM shuts down. The hook is only needed once a browser has been kept.
+     */
+    private synchronized void registerShutdownHookOnce() {
+        if (!shutdownHookRegistered) {
+            Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+                public void run() {
+                    quitAll();
+                }
+            }, "thucydides-driver-pool-shutdown"));
+            shutdownHookRegistered = true;
+        }
+    }
+
+    private Queue<PooledDriver> idleDriversFor(final Class<? extends WebDriver> driverClass) {
+        synchronized (idleDrivers) {
+            Queue<PooledDriver> queue = idleDrivers.get(driverClass);
+            if (queue == null) {
+                queue = new LinkedList<PooledDriver>();
+                idleDrivers.put(driverClass, queue);
+            }
+            return queue;
+        }
+    }
+
+    private boolean isWornOut(final PooledDriver pooledDriver) {
+        return ((maxUses > 0) && (pooledDriver.uses >= maxUses)) || isTooOld(pooledDriver);
+    }
+
+    private boolean isTooOld(final PooledDriver pooledDriver) {
+        return (maxAge > 0) && (System.currentTimeMillis() - pooledDriver.createdAt >= maxAge);
+    }
+
+    private boolean isHealthy(final PooledDriver pooledDriver) {
+        if (isTooOld(pooledDriver)) {
+            return false;
+        }
+        try {
+            pooledDriver.driver.getWindowHandle();
+            return true;
+        } catch (WebDriverException e) {
+            LOGGER.debug("Discarding a pooled browser that no longer responds", e);
+            return false;
+        }
+    }
+
+    private boolean reset(final PooledDriver pooledDriver) {
+        WebDriver driver = pooledDriver.driver;
+        try {
+            if (!closeExtraWindowsIn(pooledDriver) || !onlyVisitedTheCurrentHost(pooledDriver)) {
+                return false;
+            }
+            if (driver instanceof JavascriptExecutor) {
+                ((JavascriptExecutor) driver).executeScript(CLEAR_STORAGE);
+            }
+            driver.manage().deleteAllCookies();
+            driver.get("about:blank");
+            pooledDriver.visitedHosts.clear();
+            return true;
+        } catch (WebDriverException e) {
+            LOGGER.debug("Could not reset a browser - it will not be reused", e);
+            return false;
+        }
+    }
+
+    /**
+     * Close every window except the one the browser was created with.
+     * If that window has been closed, the browser cannot be reset.
+     */
+    private boolean closeExtraWindowsIn(final PooledDriver pooledDriver) {
+        WebDriver driver = pooledDriver.driver;
+        Set<String> windowHandles = driver.getWindowHandles();
+        if ((pooledDriver.mainWindow == null) || !windowHandles.contains(pooledDriver.mainWindow)) {
+            LOGGER.debug("The main window of a pooled browser has been closed - it will not be reused");
+            return false;
+        }
+        if (windowHandles.size() > 1) {
+            for (String window : windowHandles) {
+                if (!window.equals(pooledDriver.mainWindow)) {
+                    driver.switchTo().window(window);
+                    driver.close();
+                }
+            }
+            driver.switchTo().window(pooledDriver.mainWindow);
+        }
+        return true;
+    }
+
+    /**
+     * Cookies and storage can only be cleared for the host of the current page, so a browser that has been used
+     * on several hosts, or that is no longer on the host it was used on, cannot be safely reused.
+     */
+    private boolean onlyVisitedTheCurrentHost(final PooledDriver pooledDriver) {
+        String currentHost = hostOf(pooledDriver.driver.getCurrentUrl());
+        Set<String> hosts = new HashSet<String>(pooledDriver.visitedHosts);
+        if (currentHost != null) {
+            hosts.add(currentHost);
+        }
+        boolean onlyUsedOnTheCurrentHost = hosts.isEmpty() || ((hosts.size() == 1) && (currentHost != null));
+        if (!onlyUsedOnTheCurrentHost) {
+            LOGGER.debug("A pooled browser has been used on several hosts ({}) - it will not be reused", hosts);
+        }
+        return onlyUsedOnTheCurrentHost;
+    }
+
+    /**
+     * The host of a URL, or null for pages such as about:blank that have no host.
+     * A URL that cannot be parsed is treated as a host of its own.
+     */
+    private static String hostOf(final String url) {
+        if (url == null) {
+            return null;
+        }
+        try {
+            String host = new URI(url).getHost();
+            return (host != null) ? host.toLowerCase(Locale.ENGLISH) : null;
+        } catch (URISyntaxException e) {
+            return url;
+        }
+    }
+
+    private void retire(final PooledDriver pooledDriver) {
+        retiredDrivers.incrementAndGet();
+        try {
+            pooledDriver.driver.quit();
+        } catch (WebDriverException e) {
+            LOGGER.warn("Error while quitting a pooled browser", e);
+        }
+    }
+}
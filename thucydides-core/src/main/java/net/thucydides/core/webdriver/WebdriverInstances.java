@@ -33,14 +33,24 @@ public class WebdriverInstances {
 
     public void closeCurrentDriver() {
         if (getCurrentDriver() != null) {
-            WebDriver driver = getCurrentDriver();
-            driver.close();
-            driver.quit();
+            closeOrRelease(getCurrentDriver());
             driverMap.remove(currentDriver);
             currentDriver  = null;
         }
     }
 
+    /**
+     * Pooled browsers are given back to their pool rather than closed.
+     */
+    private void closeOrRelease(final WebDriver driver) {
+        if ((driver instanceof WebDriverFacade) && ((WebDriverFacade) driver).isPooled()) {
+            ((WebDriverFacade) driver).release();
+        } else {
+            driver.close();
+            driver.quit();
+        }
+    }
+
     public void resetCurrentDriver() {
         if (getCurrentDriver() != null) {
             WebDriver driver = getCurrentDriver();
@@ -63,8 +73,7 @@ public class WebdriverInstances {
     public void closeAllDrivers() {
         Collection<WebDriver> openDrivers = driverMap.values();
         for(WebDriver driver : openDrivers) {
-            driver.close();
-            driver.quit();
+            closeOrRelease(driver);
         }
         driverMap.clear();
         currentDriver = null;
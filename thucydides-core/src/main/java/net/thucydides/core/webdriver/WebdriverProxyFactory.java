@@ -48,10 +48,19 @@ public class WebdriverProxyFactory implements Serializable {
 
     public WebDriver proxyFor(final Class<? extends WebDriver> driverClass,
                               final WebDriverFactory webDriverFactory) {
+        return proxyFor(driverClass, webDriverFactory, null);
+    }
+
+    /**
+     * A proxy whose browser will come from, and be returned to, the given driver pool.
+     */
+    public WebDriver proxyFor(final Class<? extends WebDriver> driverClass,
+                              final WebDriverFactory webDriverFactory,
+                              final WebDriverPool driverPool) {
         if (mockDriver != null) {
             return mockDriver;
         } else {
-            return new WebDriverFacade(driverClass, webDriverFactory);
+            return new WebDriverFacade(driverClass, webDriverFactory, driverPool);
         }
     }
 
@@ -0,0 +1,28 @@
+package net.thucydides.core.webdriver;
+
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.internal.WrapsElement;
+
+/**
+ * Utility class to find the browser element behind the facades and proxies that wrap it.
+ * Elements must be unwrapped before they are passed as arguments to a Javascript call.
+ */
+public final class WrappedElements {
+
+    private WrappedElements() {}
+
+    /**
+     * Returns the innermost element wrapped by the given element, or the element itself if it wraps nothing.
+     */
+    public static WebElement unwrapped(final WebElement element) {
+        WebElement unwrappedElement = element;
+        while (unwrappedElement instanceof WrapsElement) {
+            WebElement wrappedElement = ((WrapsElement) unwrappedElement).getWrappedElement();
+            if ((wrappedElement == null) || (wrappedElement == unwrappedElement)) {
+                break;
+            }
+            unwrappedElement = wrappedElement;
+        }
+        return unwrappedElement;
+    }
+}
@@ -30,6 +30,18 @@ public class JavascriptExecutorFacade {
         }
     }
 
+    /**
+     * Execute some Javascript in the underlying WebDriver driver, passing it the given arguments.
+     */
+    public Object executeScript(final String script, final Object... params) {
+        if (javascriptIsSupportedIn(driver)) {
+            JavascriptExecutor js = getJavascriptEnabledDriver();
+            return js.executeScript(script, params);
+        } else {
+            return null;
+        }
+    }
+
     private WebDriver getRealDriver() {
         if (WebDriverFacade.class.isAssignableFrom(driver.getClass())) {
             WebDriverFacade driverFacade = (WebDriverFacade) driver;
@@ -0,0 +1,28 @@
+package net.thucydides.core.webdriver.javascript;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Resources;
+
+import java.net.URL;
+
+/**
+ * Javascript files that are injected into web pages, such as the jQuery library.
+ * Classes that inject the same script many times should read it once and keep it in a static field.
+ */
+public class JavascriptResources {
+
+    /**
+     * The contents of a script on the classpath.
+     */
+    public static String scriptFrom(final String resourcePath) {
+        URL fileUrl = JavascriptResources.class.getClassLoader().getResource(resourcePath);
+        if (fileUrl == null) {
+            throw new IllegalArgumentException("No script could be found on the classpath at " + resourcePath);
+        }
+        try {
+            return Resources.toString(fileUrl, Charsets.UTF_8);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -1,18 +1,33 @@
 package net.thucydides.core.webdriver.jquery;
 
 
+import net.thucydides.core.pages.jquery.JQueryEnabledPage;
 import org.openqa.selenium.By;
 import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.NoSuchElementException;
 import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 
 import java.util.List;
 
+/**
+ * Find elements using a jQuery selector.
+ * The check that jQuery is available and the query itself are done in a single call to the browser;
+ * jQuery is only injected if the page does not have it yet.
+ */
 public class ByJQuerySelector extends By {
 
-    private static final char DOUBLE_QUOTE = '"';
-    private static final String SINGLE_QUOTE = "'";
+    private static final String NO_JQUERY = "jQuery is not available";
+
+    private static final String ALL_MATCHING_ELEMENTS
+            = "if (typeof jQuery !== 'function') { return '" + NO_JQUERY + "'; }"
+            + "return jQuery(arguments[0]).get();";
+
+    private static final String FIRST_MATCHING_ELEMENT
+            = "if (typeof jQuery !== 'function') { return '" + NO_JQUERY + "'; }"
+            + "return jQuery(arguments[0]).get(0);";
+
     private final String jQuerySelector;
 
     public ByJQuerySelector(final String selector) {
@@ -21,14 +36,12 @@ public class ByJQuerySelector extends By {
 
     @Override
     public List findElements(SearchContext context) {
-        String jquery = "return $(" + quoted(jQuerySelector) + ").get();";
-        return (List) ((JavascriptExecutor) context).executeScript(jquery);
+        return (List) executeQuery(context, ALL_MATCHING_ELEMENTS);
     }
 
     @Override
     public WebElement findElement(SearchContext context) {
-        String jquery = "return $(" + quoted(jQuerySelector) + ").get(0);";
-        WebElement element = (WebElement) ((JavascriptExecutor) context).executeScript(jquery);
+        WebElement element = (WebElement) executeQuery(context, FIRST_MATCHING_ELEMENT);
         if (element == null) {
             throw new NoSuchElementException("No element found matching JQuery selector " + jQuerySelector);
         } else {
@@ -37,12 +50,17 @@ public class ByJQuerySelector extends By {
 
     }
 
-    private String quoted(final String jQuerySelector) {
-        if (jQuerySelector.contains("'")) {
-            return DOUBLE_QUOTE + jQuerySelector + '"';
-        } else {
-            return  "'" + jQuerySelector + SINGLE_QUOTE;
+    private Object executeQuery(final SearchContext context, final String query) {
+        JavascriptExecutor js = (JavascriptExecutor) context;
+        Object result = js.executeScript(query, jQuerySelector);
+        if (NO_JQUERY.equals(result) && (context instanceof WebDriver)) {
+            JQueryEnabledPage.withDriver((WebDriver) context).activateJQuery();
+            result = js.executeScript(query, jQuerySelector);
+        }
+        if (NO_JQUERY.equals(result)) {
+            throw new NoSuchElementException("jQuery is not available to find elements matching " + jQuerySelector);
         }
+        return result;
     }
 
     @Override
@@ -51,4 +69,4 @@ public class ByJQuerySelector extends By {
     }
 
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,142 @@
+package net.thucydides.core.images;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class WhenComparingScreenshotFingerprints {
+
+    PerceptualHasher hasher = new PerceptualHasher();
+
+    @Test
+    public void identical_images_should_have_identical_fingerprints() throws IOException {
+        byte[] screenshot = screenshotResource("/screenshots/google_page_1.png");
+
+        assertThat(hasher.hashOf(screenshot), is(hasher.hashOf(screenshot)));
+    }
+
+    @Test
+    public void the_hasher_should_record_the_dimensions_of_the_image() throws IOException {
+        hasher.hashOf(pageWithBanner(Color.BLUE, 800, 600));
+
+        assertThat(hasher.getWidth(), is(800));
+        assertThat(hasher.getHeight(), is(600));
+    }
+
+    @Test
+    public void images_with_a_tiny_difference_should_have_similar_fingerprints() throws IOException {
+        long hash = hasher.hashOf(pageWithBanner(Color.BLUE, 800, 600));
+        long nearlyIdenticalHash = hasher.hashOf(withOnePixelChanged(pageWithBanner(Color.BLUE, 800, 600)));
+
+        assertThat(PerceptualHasher.distanceBetween(hash, nearlyIdenticalHash), is(lessThanOrEqualTo(1)));
+    }
+
+    @Test
+    public void different_images_should_have_different_fingerprints() throws IOException {
+        long hash = hasher.hashOf(screenshotResource("/screenshots/google_page_1.png"));
+        long otherHash = hasher.hashOf(screenshotResource("/screenshots/amazon.png"));
+
+        assertThat(PerceptualHasher.distanceBetween(hash, otherHash), is(greaterThan(4)));
+    }
+
+    @Test
+    public void a_page_with_different_content_should_have_a_different_fingerprint() throws IOException {
+        long hash = hasher.hashOf(pageWithBanner(Color.BLUE, 800, 600));
+        long otherHash = hasher.hashOf(blankPage(800, 600));
+
+        assertThat(PerceptualHasher.distanceBetween(hash, otherHash), is(greaterThan(4)));
+    }
+
+    @Test
+    public void a_small_change_with_the_same_fingerprint_should_still_show_in_the_sampled_pixels() throws IOException {
+        long hash = hasher.hashOf(pageWithBanner(Color.BLUE, 800, 600));
+        byte[] luminance = hasher.sampledLuminanceInto(null);
+        long sameHash = hasher.hashOf(withASmallMark(pageWithBanner(Color.BLUE, 800, 600)));
+        byte[] changedLuminance = hasher.sampledLuminanceInto(null);
+
+        assertThat(PerceptualHasher.distanceBetween(hash, sameHash), is(0));
+        assertThat(PerceptualHasher.sampledPixelsThatDiffer(luminance, changedLuminance), is(greaterThan(0)));
+    }
+
+    @Test
+    public void the_sampled_luminance_should_be_copied_into_a_buffer_of_the_right_size() throws IOException {
+        hasher.hashOf(pageWithBanner(Color.BLUE, 800, 600));
+        byte[] buffer = hasher.sampledLuminanceInto(null);
+        hasher.hashOf(blankPage(800, 600));
+
+        assertThat(hasher.sampledLuminanceInto(buffer), is(sameInstance(buffer)));
+    }
+
+    @Test
+    public void images_of_different_sizes_can_be_hashed_with_the_same_hasher() throws IOException {
+        long hash = hasher.hashOf(pageWithBanner(Color.BLUE, 800, 600));
+        hasher.hashOf(pageWithBanner(Color.BLUE, 1024, 768));
+        long sameHash = hasher.hashOf(pageWithBanner(Color.BLUE, 800, 600));
+
+        assertThat(sameHash, is(hash));
+    }
+
+    private byte[] screenshotResource(String path) throws IOException {
+        InputStream stream = getClass().getResourceAsStream(path);
+        try {
+            return IOUtils.toByteArray(stream);
+        } finally {
+            stream.close();
+        }
+    }
+
+    public static byte[] pageWithBanner(Color bannerColor, int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, width, height);
+        graphics.setColor(bannerColor);
+        graphics.fillRect(0, 0, width, height / 4);
+        graphics.fillRect(0, height / 2, width / 3, height / 2);
+        graphics.dispose();
+        return asPng(image);
+    }
+
+    public static byte[] blankPage(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, width, height);
+        graphics.dispose();
+        return asPng(image);
+    }
+
+    public static byte[] withOnePixelChanged(byte[] png) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        image.setRGB(image.getWidth() - 1, image.getHeight() - 1, Color.RED.getRGB());
+        return asPng(image);
+    }
+
+    public static byte[] withASmallMark(byte[] png) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.BLACK);
+        graphics.fillRect(image.getWidth() * 3 / 4, image.getHeight() * 3 / 8, 20, 20);
+        graphics.dispose();
+        return asPng(image);
+    }
+
+    private static byte[] asPng(BufferedImage image) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", output);
+        return output.toByteArray();
+    }
+}
@@ -7,12 +7,14 @@ import net.thucydides.core.annotations.Title;
 import net.thucydides.core.issues.IssueTracking;
 import net.thucydides.core.issues.SystemPropertiesIssueTracking;
 import net.thucydides.core.pages.Pages;
+import net.thucydides.core.screenshots.ScreenshotAndHtmlSource;
 import net.thucydides.core.steps.ScenarioSteps;
 import net.thucydides.core.util.MockEnvironmentVariables;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.File;
 import java.util.Arrays;
 import java.util.List;
 
@@ -34,6 +36,7 @@ import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 
@@ -479,6 +482,73 @@ public class WhenRecordingNewTestOutcomes {
                 "step_2.1.2.png", "step_2.2.png", "step_3.png"));
     }
 
+    @Test
+    public void the_step_lists_should_be_reused_until_the_test_outcome_changes() {
+        testOutcome.recordStep(forASuccessfulTestStepCalled("step_1"));
+        testOutcome.recordStep(forASuccessfulTestStepCalled("step_2"));
+
+        List<TestStep> flattenedSteps = testOutcome.getFlattenedTestSteps();
+        assertThat(testOutcome.getFlattenedTestSteps(), is(sameInstance(flattenedSteps)));
+        assertThat(testOutcome.getScreenshots(), is(sameInstance(testOutcome.getScreenshots())));
+
+        testOutcome.recordStep(forASuccessfulTestStepCalled("step_3"));
+
+        assertThat(testOutcome.getFlattenedTestSteps().size(), is(3));
+        assertThat(testOutcome.getScreenshots(), hasFilenames("step_1.png", "step_2.png", "step_3.png"));
+    }
+
+    @Test
+    public void the_results_should_reflect_changes_made_to_steps_after_they_were_recorded() {
+        TestStep step = forASuccessfulTestStepCalled("step_1");
+        testOutcome.recordStep(step);
+        assertThat(testOutcome.getResult(), is(SUCCESS));
+        assertThat(testOutcome.getSuccessCount(), is(1));
+
+        step.failedWith(new AssertionError("Oh bother!"));
+
+        assertThat(testOutcome.getResult(), is(FAILURE));
+        assertThat(testOutcome.getSuccessCount(), is(0));
+        assertThat(testOutcome.getFailureCount(), is(1));
+    }
+
+    @Test
+    public void the_results_should_reflect_changes_made_to_nested_steps_after_they_were_recorded() {
+        testOutcome.recordStep(forASuccessfulTestStepCalled("step_1"));
+        testOutcome.startGroup();
+        TestStep nestedStep = forASuccessfulTestStepCalled("step_1.1");
+        testOutcome.recordStep(nestedStep);
+        testOutcome.endGroup();
+        assertThat(testOutcome.getSuccessCount(), is(1));
+
+        nestedStep.failedWith(new AssertionError("Oh bother!"));
+
+        assertThat(testOutcome.getResult(), is(FAILURE));
+        assertThat(testOutcome.getFailureCount(), is(1));
+    }
+
+    @Test
+    public void changes_to_the_steps_of_another_test_outcome_should_not_affect_this_one() {
+        testOutcome.recordStep(forASuccessfulTestStepCalled("step_1"));
+        List<TestStep> flattenedSteps = testOutcome.getFlattenedTestSteps();
+
+        TestOutcome otherOutcome = TestOutcome.forTest("another_test", SomeTestScenario.class);
+        TestStep otherStep = forASuccessfulTestStepCalled("other_step");
+        otherOutcome.recordStep(otherStep);
+        otherStep.failedWith(new AssertionError("Oh bother!"));
+
+        assertThat(testOutcome.getFlattenedTestSteps(), is(sameInstance(flattenedSteps)));
+    }
+
+    @Test
+    public void screenshots_should_use_the_width_recorded_when_they_were_taken() {
+        TestStep step = new TestStep("step_1");
+        step.setResult(SUCCESS);
+        step.addScreenshot(new ScreenshotAndHtmlSource(new File("step_1.png"), new File("step_1.html"), 1024));
+        testOutcome.recordStep(step);
+
+        assertThat(testOutcome.getScreenshots().get(0).getWidth(), is(1024));
+    }
+
     @Test
     public void a_screenshot_without_an_error_message__returns_an_empty_string() {
         Screenshot screenshot = new Screenshot("step_1.png", "Step 1", 800);
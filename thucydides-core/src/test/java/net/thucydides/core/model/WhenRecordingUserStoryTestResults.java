@@ -15,6 +15,9 @@ import static org.hamcrest.Matchers.allOf;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 public class WhenRecordingUserStoryTestResults {
 
@@ -160,6 +163,30 @@ public class WhenRecordingUserStoryTestResults {
         assertThat(storyTestResults.getSuccessCount(), is(1));
     }
 
+    @Test
+    public void the_result_of_each_test_run_should_only_be_worked_out_once() {
+        TestOutcome failingTest = spy(thatFailsFor(userStory));
+        storyTestResults.recordTestRun(failingTest);
+
+        storyTestResults.getFailureCount();
+        storyTestResults.getSuccessCount();
+        storyTestResults.countStepsInFailingTests();
+        storyTestResults.getResult();
+
+        verify(failingTest, times(1)).getResult();
+    }
+
+    @Test
+    public void the_counts_should_be_updated_when_another_test_run_is_recorded() {
+        storyTestResults.recordTestRun(thatFailsFor(userStory));
+        assertThat(storyTestResults.getSuccessCount(), is(0));
+
+        storyTestResults.recordTestRun(thatSucceedsFor(userStory));
+
+        assertThat(storyTestResults.getSuccessCount(), is(1));
+        assertThat(storyTestResults.getTotal(), is(2));
+    }
+
     @Test
     public void an_aggregate_test_result_should_count_the_number_of_pending_test_runs() {
 
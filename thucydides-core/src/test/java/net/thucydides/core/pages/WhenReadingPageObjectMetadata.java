@@ -0,0 +1,76 @@
+package net.thucydides.core.pages;
+
+import net.thucydides.core.annotations.At;
+import net.thucydides.core.annotations.DefaultUrl;
+import net.thucydides.core.annotations.NamedUrl;
+import net.thucydides.core.annotations.NamedUrls;
+import net.thucydides.core.annotations.WhenPageOpens;
+import org.junit.Test;
+import org.openqa.selenium.WebDriver;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class WhenReadingPageObjectMetadata {
+
+    @DefaultUrl("http://www.google.com")
+    @NamedUrls({@NamedUrl(name = "search", url = "http://www.google.com/search?q={1}")})
+    @At("#HOST/search.*")
+    public static class AnnotatedPage extends PageObject {
+        public AnnotatedPage(WebDriver driver) {
+            super(driver);
+        }
+
+        @WhenPageOpens
+        private void waitUntilLoaded() {
+        }
+    }
+
+    public static class PageWithoutAWebDriverConstructor extends PageObject {
+        public PageWithoutAWebDriverConstructor() {
+            super(null);
+        }
+    }
+
+    @Test
+    public void metadata_should_be_computed_once_per_class() {
+        assertThat(PageObjectMetadata.forClass(AnnotatedPage.class),
+                   is(sameInstance(PageObjectMetadata.forClass(AnnotatedPage.class))));
+    }
+
+    @Test
+    public void metadata_should_describe_the_declared_urls() {
+        PageObjectMetadata metadata = PageObjectMetadata.forClass(AnnotatedPage.class);
+
+        assertThat(metadata.getDeclaredDefaultUrl(), is("http://www.google.com"));
+        assertThat(metadata.getNamedUrl("search"), is("http://www.google.com/search?q={1}"));
+        assertThat(metadata.getNamedUrl("unknown"), is(nullValue()));
+    }
+
+    @Test
+    public void metadata_should_hold_compiled_url_patterns() {
+        MatchingPageExpressions expressions = PageObjectMetadata.forClass(AnnotatedPage.class)
+                                                                .getMatchingPageExpressions();
+
+        assertThat(expressions.matchUrlAgainstEachPattern("http://www.google.com/search?q=thucydides"), is(true));
+        assertThat(expressions.matchUrlAgainstEachPattern("http://www.google.com/maps"), is(false));
+    }
+
+    @Test
+    public void metadata_should_list_the_accessible_when_page_opens_methods() {
+        PageObjectMetadata metadata = PageObjectMetadata.forClass(AnnotatedPage.class);
+
+        assertThat(metadata.getWhenPageOpensMethods().size(), is(1));
+        assertThat(metadata.getWhenPageOpensMethods().get(0).isAccessible(), is(true));
+    }
+
+    @Test
+    public void metadata_should_know_the_webdriver_constructor_if_there_is_one() {
+        assertThat(PageObjectMetadata.forClass(AnnotatedPage.class).getWebDriverConstructor(), is(notNullValue()));
+        assertThat(PageObjectMetadata.forClass(PageWithoutAWebDriverConstructor.class).getWebDriverConstructor(),
+                   is(nullValue()));
+    }
+}
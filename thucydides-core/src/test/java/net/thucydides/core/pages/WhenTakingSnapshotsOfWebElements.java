@@ -0,0 +1,152 @@
+package net.thucydides.core.pages;
+
+import net.thucydides.core.steps.StepEventBus;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.htmlunit.HtmlUnitDriver;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class WhenTakingSnapshotsOfWebElements {
+
+    static class ScriptCountingHtmlUnitDriver extends HtmlUnitDriver {
+        int scriptCalls = 0;
+
+        ScriptCountingHtmlUnitDriver() {
+            super(true);
+        }
+
+        @Override
+        public Object executeScript(String script, Object... args) {
+            scriptCalls++;
+            return super.executeScript(script, args);
+        }
+    }
+
+    ScriptCountingHtmlUnitDriver driver;
+
+    @Mock
+    WebDriver mockDriver;
+
+    @Mock
+    WebElement mockElement;
+
+    @Before
+    public void openStaticSite() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        StepEventBus.getEventBus().clear();
+        StepEventBus.getEventBus().dropAllListeners();
+        driver = new ScriptCountingHtmlUnitDriver();
+        File testSite = new File(getClass().getClassLoader().getResource("static-site/index.html").toURI());
+        driver.get("file://" + testSite.getAbsolutePath());
+    }
+
+    @After
+    public void closeDriver() {
+        driver.quit();
+    }
+
+    private WebElementFacade element(By locator) {
+        return new WebElementFacade(driver, driver.findElement(locator), 100);
+    }
+
+    @Test
+    public void should_read_the_state_of_a_field_in_a_single_call() {
+        driver.scriptCalls = 0;
+
+        WebElementState state = element(By.id("country")).getState();
+
+        assertThat(driver.scriptCalls, is(1));
+        assertThat(state.isDisplayed(), is(true));
+        assertThat(state.isEnabled(), is(true));
+        assertThat(state.getValue(), is("Australia"));
+        assertThat(state.getTagName(), is("input"));
+    }
+
+    @Test
+    public void should_read_the_options_of_a_dropdown_list_in_a_single_call() {
+        driver.scriptCalls = 0;
+
+        WebElementFacade multiselect = element(By.id("multiselect"));
+
+        assertThat(multiselect.getSelectOptions(), hasItems("Label 1", "Label 2", "Label 3"));
+        assertThat(multiselect.getState().containsSelectOption("Label 2"), is(true));
+        assertThat(driver.scriptCalls, is(1));
+    }
+
+    @Test
+    public void should_read_the_same_options_as_webdriver_whatever_the_tag_of_the_element() {
+        List<String> optionsReadByWebDriver = new ArrayList<String>();
+        for (WebElement option : driver.findElement(By.name("demo")).findElements(By.tagName("option"))) {
+            optionsReadByWebDriver.add(option.getText());
+        }
+
+        List<String> options = element(By.name("demo")).getSelectOptions();
+
+        assertThat(options, is(optionsReadByWebDriver));
+        assertThat(options, hasItems("Label 1", "Red"));
+    }
+
+    @Test
+    public void should_know_when_an_element_is_hidden_or_disabled() {
+        assertThat(element(By.name("csshiddenfield")).getState().isDisplayed(), is(false));
+        assertThat(element(By.name("hiddenfield")).getState().isDisplayed(), is(false));
+        assertThat(element(By.id("buttonThatIsInitiallyDisabled")).getState().isEnabled(), is(false));
+    }
+
+    @Test
+    public void should_reuse_the_snapshot_until_the_page_changes() {
+        WebElementFacade lastName = element(By.id("lastname"));
+
+        WebElementState state = lastName.getState();
+
+        assertThat(lastName.getState(), is(sameInstance(state)));
+
+        lastName.type("Smith");
+
+        assertThat(lastName.getState().getValue(), is("Smith"));
+    }
+
+    @Test
+    public void should_not_reuse_the_snapshot_in_the_next_step() {
+        WebElementFacade lastName = element(By.id("lastname"));
+        WebElementState state = lastName.getState();
+
+        StepEventBus.getEventBus().stepFinished();
+
+        assertThat(lastName.getState() == state, is(false));
+    }
+
+    @Test
+    public void should_read_the_state_with_webdriver_if_javascript_is_not_available() {
+        when(mockElement.isDisplayed()).thenReturn(true);
+        when(mockElement.isEnabled()).thenReturn(true);
+        when(mockElement.getTagName()).thenReturn("input");
+        when(mockElement.getText()).thenReturn("");
+        when(mockElement.getAttribute("value")).thenReturn("Australia");
+
+        WebElementFacade country = new WebElementFacade(mockDriver, mockElement, 100);
+        WebElementState state = country.getState();
+        country.getState();
+
+        assertThat(state.getValue(), is("Australia"));
+        assertThat(state.isDisplayed(), is(true));
+        verify(mockElement, times(1)).getAttribute("value");
+    }
+}
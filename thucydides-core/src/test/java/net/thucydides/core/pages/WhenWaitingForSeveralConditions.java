@@ -0,0 +1,114 @@
+package net.thucydides.core.pages;
+
+import net.thucydides.core.steps.StepEventBus;
+import net.thucydides.core.util.MockEnvironmentVariables;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.openqa.selenium.By;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.htmlunit.HtmlUnitDriver;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.when;
+
+public class WhenWaitingForSeveralConditions {
+
+    static class CountingHtmlUnitDriver extends HtmlUnitDriver {
+        int lookups = 0;
+
+        CountingHtmlUnitDriver() {
+            super(true);
+        }
+
+        @Override
+        public List<WebElement> findElements(By by) {
+            lookups++;
+            return super.findElements(by);
+        }
+    }
+
+    CountingHtmlUnitDriver driver;
+
+    RenderedPageObjectView view;
+
+    @Mock
+    WebDriver mockDriver;
+
+    @Mock
+    WebElement element;
+
+    @Before
+    public void openStaticSite() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        StepEventBus.getEventBus().clear();
+        driver = new CountingHtmlUnitDriver();
+        File testSite = new File(getClass().getClassLoader().getResource("static-site/index.html").toURI());
+        driver.get("file://" + testSite.getAbsolutePath());
+        view = new RenderedPageObjectView(driver, 200, new MockEnvironmentVariables());
+    }
+
+    @After
+    public void closeDriver() {
+        driver.quit();
+    }
+
+    @Test
+    public void should_check_all_the_texts_with_a_single_call_to_the_browser() {
+        view.waitForAllTextToAppear("Label 1", "Label 2", "Label 3");
+
+        assertThat(driver.lookups, is(0));
+    }
+
+    @Test
+    public void should_report_the_texts_that_did_not_appear() {
+        try {
+            view.waitForAllTextToAppear("Label 1", "Label that is not present");
+        } catch (TimeoutException timeout) {
+            assertThat(timeout.getMessage(), containsString("still missing [text 'Label that is not present']"));
+            assertThat(timeout.getMessage(), not(containsString("missing [text 'Label 1'")));
+            return;
+        }
+        throw new AssertionError("Should have timed out");
+    }
+
+    @Test
+    public void should_know_when_one_of_several_texts_appears() {
+        view.waitForAnyTextToAppear("Label that is not present", "Label 1");
+    }
+
+    @Test
+    public void should_know_when_one_of_several_elements_is_displayed() {
+        view.waitForAnyRenderedElementOf(new By[] {By.id("does-not-exist"), By.name("csshiddenfield"),
+                                                   By.id("country")});
+    }
+
+    @Test(expected = TimeoutException.class)
+    public void should_not_consider_hidden_elements_as_displayed() {
+        view.waitForAnyRenderedElementOf(new By[] {By.name("hiddenfield"), By.name("csshiddenfield"),
+                                                   By.cssSelector("#city")});
+    }
+
+    @Test
+    public void should_check_each_condition_with_webdriver_if_javascript_is_not_available() {
+        RenderedPageObjectView viewWithoutJavascript = new RenderedPageObjectView(mockDriver, 200,
+                                                                                  new MockEnvironmentVariables());
+        when(mockDriver.findElements(any(By.class))).thenReturn(Arrays.asList(element));
+        when(element.isDisplayed()).thenReturn(true);
+
+        viewWithoutJavascript.waitForAllTextToAppear("Label 1", "Label 2");
+        viewWithoutJavascript.waitForAnyRenderedElementOf(new By[] {By.id("city")});
+    }
+}
@@ -0,0 +1,150 @@
+package net.thucydides.core.pages.components;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.internal.WrapsDriver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static net.thucydides.core.matchers.BeanMatchers.the;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+public class WhenReadingHtmlTables {
+
+    WebElement tableElement;
+
+    WebDriver driver;
+
+    @Mock
+    WebElement firstRow;
+
+    @Mock
+    WebElement secondRow;
+
+    @Mock
+    WebElement firstCell;
+
+    @Mock
+    WebElement secondCell;
+
+    @Before
+    public void initMocks() {
+        MockitoAnnotations.initMocks(this);
+        driver = mock(WebDriver.class, withSettings().extraInterfaces(JavascriptExecutor.class));
+        tableElement = mock(WebElement.class, withSettings().extraInterfaces(WrapsDriver.class));
+        when(((WrapsDriver) tableElement).getWrappedDriver()).thenReturn(driver);
+
+        when(((JavascriptExecutor) driver).executeScript(anyString(), eq(tableElement), eq(false)))
+                .thenReturn(tableContentsWithRowElements());
+        when(((JavascriptExecutor) driver).executeScript(anyString(), eq(tableElement), eq(true)))
+                .thenReturn(tableContentsWithRowElements(secondRow, firstRow));
+        when(tableElement.findElements(any(By.class))).thenReturn(new ArrayList<WebElement>(Arrays.asList(firstRow, secondRow)));
+        when(firstRow.findElements(By.tagName("td"))).thenReturn(Arrays.asList(firstCell, secondCell));
+        when(firstCell.getText()).thenReturn("Tim");
+        when(secondCell.getText()).thenReturn("Brooke-Taylor");
+    }
+
+    @Test
+    public void should_read_the_whole_table_with_a_single_javascript_call() {
+        HtmlTable table = new HtmlTable(tableElement);
+
+        List<Map<Object, String>> rows = table.getRows();
+
+        assertThat(rows.size(), is(2));
+        assertThat(rows.get(1).get("Last Name"), is("Oddie"));
+        assertThat(table.getHeadings(), is(Arrays.asList("First Name", "Last Name")));
+        verify((JavascriptExecutor) driver, times(1)).executeScript(anyString(), eq(tableElement), eq(false));
+        verify(tableElement, never()).findElements(any(By.class));
+    }
+
+    @Test
+    public void should_return_the_row_elements_read_by_the_same_script_as_the_cell_values() {
+        HtmlTable table = new HtmlTable(tableElement);
+
+        List<WebElement> matchingRows = table.getRowElementsWhere(the("First Name", is("Bill")));
+
+        assertThat(matchingRows, is(Arrays.asList(firstRow)));
+        verify(tableElement, never()).findElements(any(By.class));
+    }
+
+    @Test
+    public void should_match_row_elements_with_the_cell_values_read_from_them_if_the_script_cannot_read_the_table() {
+        when(((JavascriptExecutor) driver).executeScript(anyString(), eq(tableElement), eq(true))).thenReturn(null);
+        when(tableElement.findElements(By.xpath(".//th"))).thenReturn(Arrays.asList(firstCell, secondCell));
+        when(tableElement.findElements(By.xpath(".//tr[td][count(td)>=2]")))
+                .thenReturn(new ArrayList<WebElement>(Arrays.asList(firstRow, secondRow)));
+        when(firstCell.getText()).thenReturn("First Name");
+        when(secondCell.getText()).thenReturn("Last Name");
+        List<WebElement> firstRowCells = Arrays.asList(cellContaining("Tim"), cellContaining("Brooke-Taylor"));
+        List<WebElement> secondRowCells = Arrays.asList(cellContaining("Bill"), cellContaining("Oddie"));
+        when(firstRow.findElements(By.tagName("td"))).thenReturn(firstRowCells);
+        when(secondRow.findElements(By.tagName("td"))).thenReturn(secondRowCells);
+        HtmlTable table = new HtmlTable(tableElement);
+
+        List<WebElement> matchingRows = table.getRowElementsWhere(the("First Name", is("Bill")));
+
+        assertThat(matchingRows, is(Arrays.asList(secondRow)));
+    }
+
+    @Test
+    public void should_not_look_up_row_elements_to_check_for_matching_rows() {
+        HtmlTable table = new HtmlTable(tableElement);
+
+        table.shouldHaveRowElementsWhere(the("First Name", is("Bill")));
+        table.shouldNotHaveRowElementsWhere(the("First Name", is("Graeme")));
+
+        verify(tableElement, never()).findElements(any(By.class));
+    }
+
+    @Test
+    public void should_read_the_table_element_by_element_if_the_script_cannot_read_it() {
+        when(((JavascriptExecutor) driver).executeScript(anyString(), eq(tableElement), eq(false))).thenReturn(null);
+        when(tableElement.findElements(By.xpath(".//th"))).thenReturn(Arrays.asList(firstCell, secondCell));
+        when(tableElement.findElements(By.xpath(".//tr[td][count(td)>=2]"))).thenReturn(Arrays.asList(firstRow));
+        when(firstCell.getText()).thenReturn("First Name");
+        when(secondCell.getText()).thenReturn("Last Name");
+        WebElement nameCell = mock(WebElement.class);
+        WebElement surnameCell = mock(WebElement.class);
+        when(nameCell.getText()).thenReturn("Tim");
+        when(surnameCell.getText()).thenReturn("Brooke-Taylor");
+        when(firstRow.findElements(By.tagName("td"))).thenReturn(Arrays.asList(nameCell, surnameCell));
+        HtmlTable table = new HtmlTable(tableElement);
+
+        List<Map<Object, String>> rows = table.getRows();
+
+        assertThat(rows.size(), is(1));
+        assertThat(rows.get(0).get("Last Name"), is("Brooke-Taylor"));
+    }
+
+    private List<Object> tableContentsWithRowElements(WebElement... rowElements) {
+        return Arrays.<Object>asList(Arrays.asList("First Name", "Last Name"),
+                                     Arrays.asList(Arrays.asList("Tim", "Brooke-Taylor"),
+                                                   Arrays.asList("Bill", "Oddie")),
+                                     Arrays.asList(rowElements));
+    }
+
+    private WebElement cellContaining(String text) {
+        WebElement cell = mock(WebElement.class);
+        when(cell.getText()).thenReturn(text);
+        return cell;
+    }
+}
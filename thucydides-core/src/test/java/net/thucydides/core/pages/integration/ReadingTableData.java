@@ -13,6 +13,7 @@ import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.htmlunit.HtmlUnitDriver;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -235,4 +236,19 @@ public class ReadingTableData extends FluentElementAPITestsBaseClass {
         assertThat(tableRows.get(2).get(5), is("Row 3, Cell 2"));
     }
 
+    @Test
+    public void should_read_the_same_table_data_with_or_without_javascript() {
+        List<WebElement> tables = Arrays.asList(page.clients, page.clients_with_extra_cells,
+                                                page.clients_with_missing_cells, page.table_with_merged_cells,
+                                                page.table_with_empty_headers, page.table_with_td_headers,
+                                                page.table_with_formatted_cells);
+        for (WebElement table : tables) {
+            HtmlTable tableReadWithJavascript = new HtmlTable(table);
+            HtmlTable tableReadElementByElement = new HtmlTable(table, null);
+
+            assertThat(tableReadWithJavascript.getHeadings(), is(tableReadElementByElement.getHeadings()));
+            assertThat(tableReadWithJavascript.getRows(), is(tableReadElementByElement.getRows()));
+        }
+    }
+
 }
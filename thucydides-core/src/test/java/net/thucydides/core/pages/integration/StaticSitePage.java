@@ -84,6 +84,8 @@ import org.openqa.selenium.support.ui.ExpectedCondition;
 
         protected WebElement table_with_td_headers;
 
+        protected WebElement table_with_formatted_cells;
+
         public StaticSitePage(WebDriver driver, int timeout) {
             super(driver, timeout);
         }
@@ -2,18 +2,23 @@ package net.thucydides.core.pages.jquery;
 
 import net.thucydides.core.util.EnvironmentVariables;
 import net.thucydides.core.util.MockEnvironmentVariables;
+import net.thucydides.core.webdriver.jquery.ByJQuery;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.htmlunit.HtmlUnitDriver;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 
 public class WhenAddingJQuerySupportToPageObjects {
@@ -73,5 +78,102 @@ public class WhenAddingJQuerySupportToPageObjects {
         assertThat(page.executedScripts, hasItem(containsString("jquery-thucydides-plugin.js")));
     }
 
+    static class ScriptRecordingHtmlUnitDriver extends HtmlUnitDriver {
+        List<String> executedScripts = new ArrayList<String>();
 
+        ScriptRecordingHtmlUnitDriver() {
+            super(true);
+        }
+
+        @Override
+        public Object executeScript(String script, Object... args) {
+            executedScripts.add(script);
+            return super.executeScript(script, args);
+        }
+
+        int largeScriptCount() {
+            int count = 0;
+            for (String script : executedScripts) {
+                if (script.length() > 10000) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        void openStaticSite() throws Exception {
+            File testSite = new File(getClass().getClassLoader().getResource("static-site/index.html").toURI());
+            get("file://" + testSite.getAbsolutePath());
+        }
+    }
+
+    @Test
+    public void should_only_inject_jquery_once_per_page() throws Exception {
+        ScriptRecordingHtmlUnitDriver htmlUnitDriver = new ScriptRecordingHtmlUnitDriver();
+        try {
+            htmlUnitDriver.openStaticSite();
+            JQueryEnabledPage jQueryEnabledPage = new JQueryEnabledPage(htmlUnitDriver, environmentVariables);
+
+            jQueryEnabledPage.activateJQuery();
+            jQueryEnabledPage.activateJQuery();
+
+            assertThat(jQueryEnabledPage.isJQueryEnabled(), is(true));
+            assertThat(htmlUnitDriver.largeScriptCount(), is(1));
+        } finally {
+            htmlUnitDriver.quit();
+        }
+    }
+
+    @Test
+    public void should_inject_jquery_again_after_moving_to_a_new_page() throws Exception {
+        ScriptRecordingHtmlUnitDriver htmlUnitDriver = new ScriptRecordingHtmlUnitDriver();
+        try {
+            htmlUnitDriver.openStaticSite();
+            JQueryEnabledPage jQueryEnabledPage = new JQueryEnabledPage(htmlUnitDriver, environmentVariables);
+
+            jQueryEnabledPage.activateJQuery();
+            htmlUnitDriver.openStaticSite();
+            jQueryEnabledPage.activateJQuery();
+
+            assertThat(htmlUnitDriver.largeScriptCount(), is(2));
+        } finally {
+            htmlUnitDriver.quit();
+        }
+    }
+
+    @Test
+    public void should_inject_jquery_and_the_highlighting_plugin_in_a_single_call() throws Exception {
+        environmentVariables.setProperty("thucydides.activate.highlighting", "true");
+        ScriptRecordingHtmlUnitDriver htmlUnitDriver = new ScriptRecordingHtmlUnitDriver();
+        try {
+            htmlUnitDriver.openStaticSite();
+            JQueryEnabledPage jQueryEnabledPage = new JQueryEnabledPage(htmlUnitDriver, environmentVariables);
+
+            jQueryEnabledPage.activateJQuery();
+            jQueryEnabledPage.activateHighlightingIfRequired();
+
+            assertThat(htmlUnitDriver.executedScripts.size(), is(3));
+            assertThat(htmlUnitDriver.largeScriptCount(), is(1));
+            assertThat(htmlUnitDriver.executedScripts.get(1), containsString("thucydidesHighlighter"));
+        } finally {
+            htmlUnitDriver.quit();
+        }
+    }
+
+    @Test
+    public void jquery_selectors_should_inject_jquery_if_the_page_does_not_have_it() throws Exception {
+        ScriptRecordingHtmlUnitDriver htmlUnitDriver = new ScriptRecordingHtmlUnitDriver();
+        try {
+            htmlUnitDriver.openStaticSite();
+
+            WebElement country = htmlUnitDriver.findElement(ByJQuery.selector("#country"));
+            List<WebElement> headings = htmlUnitDriver.findElements(ByJQuery.selector("h2"));
+
+            assertThat(country.getAttribute("value"), is("Australia"));
+            assertThat(headings.size(), is(2));
+            assertThat(htmlUnitDriver.largeScriptCount(), is(1));
+        } finally {
+            htmlUnitDriver.quit();
+        }
+    }
 }
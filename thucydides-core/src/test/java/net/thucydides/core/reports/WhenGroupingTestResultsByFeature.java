@@ -20,7 +20,10 @@ import java.util.List;
 import static net.thucydides.core.matchers.ThucydidesMatchers.containsApplicationFeature;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 
@@ -127,6 +130,17 @@ public class WhenGroupingTestResultsByFeature {
 
     }
 
+    @Test
+    public void features_can_be_grouped_from_stories_that_have_already_been_loaded() throws IOException {
+
+        List<FeatureResults> features = loader.loadFrom(stories);
+
+        assertThat(features.size(), is(2));
+        assertThat(features.get(0).getTotalStories(), is(3));
+        assertThat(features.get(1).getTotalStories(), is(1));
+        verify(mockUserStoryLoader, never()).loadFrom(any(File.class));
+    }
+
     @Test
     public void should_know_number_of_stories_of_a_feature() throws IOException {
         when(mockUserStoryLoader.loadFrom(reportDirectory)).thenReturn(stories);
@@ -82,13 +82,14 @@ public class WhenUsingAReportService {
     }
 
     @Test
-    public void default_reporters_should_include_xml_and_html() {
+    public void default_reporters_should_include_xml_binary_and_html() {
         List reporters = ReportService.getDefaultReporters();
-        assertThat(reporters.size(), is(2));
+        assertThat(reporters.size(), is(3));
 
         Matcher calledXml = hasProperty("name", is("xml"));
+        Matcher calledBinary = hasProperty("name", is("binary"));
         Matcher calledHtml = hasProperty("name", is("html"));
-        assertThat(reporters, allOf(hasItem(calledXml), hasItem(calledHtml)));
+        assertThat(reporters, allOf(hasItem(calledXml), hasItem(calledBinary), hasItem(calledHtml)));
     }
 
     @Test
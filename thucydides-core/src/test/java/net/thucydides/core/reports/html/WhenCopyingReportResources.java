@@ -0,0 +1,73 @@
+package net.thucydides.core.reports.html;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+
+public class WhenCopyingReportResources {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File outputDirectory;
+
+    private HtmlResourceCopier copier;
+
+    @Before
+    public void setupCopier() {
+        outputDirectory = temporaryFolder.newFolder("resources");
+        copier = new HtmlResourceCopier("localresourcelist");
+    }
+
+    @Test
+    public void should_copy_resources_and_record_them_in_a_manifest() throws Exception {
+        copier.copyHTMLResourcesTo(outputDirectory);
+
+        assertThat(new File(outputDirectory, "css/localsample.css").exists(), is(true));
+        String manifest = FileUtils.readFileToString(new File(outputDirectory, HtmlResourceCopier.RESOURCE_MANIFEST));
+        assertThat(manifest, containsString("css/localsample.css="));
+    }
+
+    @Test
+    public void should_not_copy_resources_again_if_they_are_up_to_date() throws Exception {
+        copier.copyHTMLResourcesTo(outputDirectory);
+        File copiedResource = new File(outputDirectory, "css/localsample.css");
+        copiedResource.setLastModified(0);
+
+        copier.copyHTMLResourcesTo(outputDirectory);
+
+        assertThat(copiedResource.lastModified(), is(0L));
+    }
+
+    @Test
+    public void should_copy_missing_resources_again() throws Exception {
+        copier.copyHTMLResourcesTo(outputDirectory);
+        File copiedResource = new File(outputDirectory, "css/localsample.css");
+        copiedResource.delete();
+
+        copier.copyHTMLResourcesTo(outputDirectory);
+
+        assertThat(copiedResource.exists(), is(true));
+    }
+
+    @Test
+    public void should_copy_resources_again_if_the_manifest_does_not_match() throws Exception {
+        copier.copyHTMLResourcesTo(outputDirectory);
+        File copiedResource = new File(outputDirectory, "css/localsample.css");
+        FileUtils.writeStringToFile(new File(outputDirectory, HtmlResourceCopier.RESOURCE_MANIFEST),
+                                    "css/localsample.css=out-of-date");
+        FileUtils.writeStringToFile(copiedResource, "");
+
+        copier.copyHTMLResourcesTo(outputDirectory);
+
+        assertThat(copiedResource.length() > 0, is(true));
+    }
+}
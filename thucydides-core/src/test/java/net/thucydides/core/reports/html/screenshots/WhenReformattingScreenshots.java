@@ -13,6 +13,7 @@ import java.io.IOException;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 
 public class WhenReformattingScreenshots {
 
@@ -42,6 +43,31 @@ public class WhenReformattingScreenshots {
         assertThat(expandedScreenshot.getWidth(), is(1200));
     }
 
+    @Test
+    public void should_keep_a_separate_scaled_image_for_each_target_height() throws IOException {
+
+        Screenshot screenshot = new Screenshot("google_page_1.png", "Google", 1200);
+        Screenshot expandedScreenshot = ScreenshotFormatter.forScreenshot(screenshot).inDirectory(screenshotDirectory).expandToHeight(1500);
+        Screenshot otherExpandedScreenshot = ScreenshotFormatter.forScreenshot(screenshot).inDirectory(screenshotDirectory).expandToHeight(2000);
+
+        assertThat(expandedScreenshot.getFilename(), is(not(otherExpandedScreenshot.getFilename())));
+        assertThat(new SimpleImageInfo(new File(screenshotDirectory, expandedScreenshot.getFilename())).getHeight(), is(1500));
+        assertThat(new SimpleImageInfo(new File(screenshotDirectory, otherExpandedScreenshot.getFilename())).getHeight(), is(2000));
+    }
+
+    @Test
+    public void should_reuse_a_scaled_image_that_already_exists() throws IOException {
+
+        Screenshot screenshot = new Screenshot("google_page_1.png", "Google", 1200);
+        Screenshot expandedScreenshot = ScreenshotFormatter.forScreenshot(screenshot).inDirectory(screenshotDirectory).expandToHeight(1500);
+        File scaledFile = new File(screenshotDirectory, expandedScreenshot.getFilename());
+        scaledFile.setLastModified(0);
+
+        ScreenshotFormatter.forScreenshot(screenshot).inDirectory(screenshotDirectory).expandToHeight(1500);
+
+        assertThat(scaledFile.lastModified(), is(0L));
+    }
+
     @Test
     public void should_limit_image_resize_to_the_maximum_supported_height() throws IOException {
 
@@ -4,7 +4,10 @@ import net.thucydides.core.ThucydidesSystemProperties;
 import net.thucydides.core.ThucydidesSystemProperty;
 import net.thucydides.core.reports.ThucydidesReportData;
 import net.thucydides.core.reports.history.TestHistory;
+import net.thucydides.core.reports.html.AggregateReportManifest;
 import net.thucydides.core.reports.html.HtmlAggregateStoryReporter;
+import net.thucydides.core.issues.SystemPropertiesIssueTracking;
+import net.thucydides.core.util.MockEnvironmentVariables;
 import org.apache.commons.io.FileUtils;
 import org.junit.Before;
 import org.junit.Rule;
@@ -15,6 +18,10 @@ import org.mockito.MockitoAnnotations;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
@@ -162,6 +169,92 @@ public class WhenGeneratingAnAggregateHtmlReport {
         assertThat(coverageData.exists(), is(true));
     }
 
+    @Test
+    public void should_generate_the_same_reports_whether_pages_are_rendered_in_parallel_or_not() throws Exception {
+
+        File sourceDirectory = new File("src/test/resources/featured-user-story-reports");
+        File sequentialOutputDirectory = temporaryDirectory.newFolder("sequential");
+        File parallelOutputDirectory = temporaryDirectory.newFolder("parallel");
+
+        reporterUsingThreads(1, sequentialOutputDirectory).generateReportsForStoriesFrom(sourceDirectory);
+        reporterUsingThreads(4, parallelOutputDirectory).generateReportsForStoriesFrom(sourceDirectory);
+
+        assertThat(sorted(parallelOutputDirectory.list()), is(sorted(sequentialOutputDirectory.list())));
+        assertThat(new File(parallelOutputDirectory, "stories_a_feature.html").exists(), is(true));
+        assertThat(new File(parallelOutputDirectory, "progress.js").exists(), is(true));
+    }
+
+    @Test
+    public void should_only_regenerate_the_pages_affected_by_changed_reports_in_incremental_mode() throws Exception {
+
+        File sourceDirectory = temporaryDirectory.newFolder("incremental-source");
+        FileUtils.copyDirectory(new File("src/test/resources/featured-user-story-reports"), sourceDirectory);
+        File incrementalOutputDirectory = temporaryDirectory.newFolder("incremental");
+        HtmlAggregateStoryReporter incrementalReporter = reporterUsingThreads(1, incrementalOutputDirectory);
+        incrementalReporter.setIncremental(true);
+
+        incrementalReporter.generateReportsForStoriesFrom(sourceDirectory);
+        File manifest = new File(incrementalOutputDirectory, AggregateReportManifest.MANIFEST_FILE);
+        assertThat(manifest.exists(), is(true));
+
+        List<File> pages = htmlPagesIn(incrementalOutputDirectory);
+        for (File page : pages) {
+            page.setLastModified(0);
+        }
+        File changedReport = new File(sourceDirectory, "sample-report-1.xml");
+        changedReport.setLastModified(changedReport.lastModified() + 10000);
+
+        incrementalReporter.generateReportsForStoriesFrom(sourceDirectory);
+
+        List<String> regeneratedPages = new ArrayList<String>();
+        for (File page : pages) {
+            if (page.lastModified() != 0) {
+                regeneratedPages.add(page.getName());
+            }
+        }
+        assertThat(sorted(regeneratedPages.toArray(new String[0])),
+                   is(Arrays.asList("a_user_story_in_a_feature.html",
+                                    "dashboard.html",
+                                    "features.html",
+                                    "history.html",
+                                    "index.html",
+                                    "stories.html",
+                                    "stories_a_feature.html",
+                                    "treemap.html")));
+    }
+
+    private List<File> htmlPagesIn(File directory) {
+        List<File> pages = new ArrayList<File>();
+        for (File file : directory.listFiles()) {
+            if (file.getName().endsWith(".html")) {
+                pages.add(file);
+            }
+        }
+        return pages;
+    }
+
+    private HtmlAggregateStoryReporter reporterUsingThreads(int threads, File outputDirectory) {
+        MockEnvironmentVariables environmentVariables = new MockEnvironmentVariables();
+        environmentVariables.setProperty("thucydides.report.threads", Integer.toString(threads));
+        HtmlAggregateStoryReporter reporter
+                = new HtmlAggregateStoryReporter("project",
+                                                 new SystemPropertiesIssueTracking(environmentVariables),
+                                                 environmentVariables) {
+            @Override
+            protected TestHistory getTestHistory() {
+                return testHistory;
+            }
+        };
+        reporter.setOutputDirectory(outputDirectory);
+        return reporter;
+    }
+
+    private List<String> sorted(String[] filenames) {
+        List<String> sortedFilenames = Arrays.asList(filenames);
+        Collections.sort(sortedFilenames);
+        return sortedFilenames;
+    }
+
     @Test
     public void should_be_able_to_clear_history() throws Exception {
 
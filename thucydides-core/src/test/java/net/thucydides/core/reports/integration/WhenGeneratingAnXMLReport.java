@@ -186,6 +186,23 @@ public class WhenGeneratingAnXMLReport {
         assertThat(generatedReportText, isSimilarTo(expectedReport));
     }
     
+    @Test
+    public void reporters_with_different_qualifiers_should_not_share_their_qualifier()
+            throws Exception {
+        TestOutcome testOutcome = TestOutcome.forTest("a_simple_test_case", SomeTestScenario.class);
+        testOutcome.recordStep(TestStepFactory.successfulTestStepCalled("step 1"));
+
+        XMLTestOutcomeReporter qualifiedReporter = new XMLTestOutcomeReporter();
+        qualifiedReporter.setOutputDirectory(outputDirectory);
+        qualifiedReporter.setQualifier("qualifier");
+
+        String qualifiedReportText = getStringFrom(qualifiedReporter.generateReportFor(testOutcome));
+        String unqualifiedReportText = getStringFrom(reporter.generateReportFor(testOutcome));
+
+        assertThat(qualifiedReportText, containsString("title=\"A simple test case [qualifier]\""));
+        assertThat(unqualifiedReportText, containsString("title=\"A simple test case\""));
+    }
+
     @Test
     public void should_generate_a_qualified_XML_report_with_formatted_parameters_if_the_qualifier_is_specified()
             throws Exception {
@@ -293,7 +310,7 @@ public class WhenGeneratingAnXMLReport {
         String expectedReport =
                   "<acceptance-test-run title='A nested test case' name='a_nested_test_case' steps='3' successful='3' failures='0' skipped='0' ignored='0' pending='0' result='SUCCESS' duration='0'>\n"
                 + "  <user-story id='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport.AUserStory' name='A user story' />\n"
-                + "  <test-group name='Group 1' result='SUCCESS'>\n"
+                + "  <test-group name='Group 1' result='SUCCESS' duration='0'>\n"
                 + "    <test-step result='SUCCESS' duration='0'>\n"
                 + "      <description>step 1</description>\n"
                 + "    </test-step>\n"
@@ -325,7 +342,7 @@ public class WhenGeneratingAnXMLReport {
         String expectedReport = 
                   "<acceptance-test-run title='A nested test case' name='a_nested_test_case' steps='5' successful='5' failures='0' skipped='0' ignored='0' pending='0' result='SUCCESS' duration='0'>\n"
                 + "  <user-story id='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport.AUserStory' name='A user story' />\n"
-                + "  <test-group name='Group 1' result='SUCCESS'>\n"
+                + "  <test-group name='Group 1' result='SUCCESS' duration='0'>\n"
                 + "    <test-step result='SUCCESS' duration='0'>\n"
                 + "      <description>step 1</description>\n"
                 + "    </test-step>\n"
@@ -335,7 +352,7 @@ public class WhenGeneratingAnXMLReport {
                 + "    <test-step result='SUCCESS' duration='0'>\n"
                 + "      <description>step 3</description>\n"
                 + "    </test-step>\n"
-                + "    <test-group name='Group 1.1' result='SUCCESS'>\n"
+                + "    <test-group name='Group 1.1' result='SUCCESS' duration='0'>\n"
                 + "      <test-step result='SUCCESS' duration='0'>\n"
                 + "        <description>step 4</description>\n"
                 + "      </test-step>\n"
@@ -369,9 +386,9 @@ public class WhenGeneratingAnXMLReport {
         String expectedReport = 
                   "<acceptance-test-run title='A nested test case' name='a_nested_test_case' steps='1' successful='1' failures='0' skipped='0' ignored='0' pending='0' result='SUCCESS' duration='0'>\n"
                 + "  <user-story id='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport.AUserStory' name='A user story' />\n"
-                + "  <test-group name='Group 1' result='SUCCESS'>\n"
-                + "    <test-group name='Group 1.1' result='SUCCESS'>\n"
-                + "      <test-group name='Group 1.1.1' result='SUCCESS'>\n"
+                + "  <test-group name='Group 1' result='SUCCESS' duration='0'>\n"
+                + "    <test-group name='Group 1.1' result='SUCCESS' duration='0'>\n"
+                + "      <test-group name='Group 1.1.1' result='SUCCESS' duration='0'>\n"
                 + "        <test-step result='SUCCESS' duration='0'>\n"
                 + "          <description>step 1</description>\n"
                 + "        </test-step>\n"
@@ -401,9 +418,9 @@ public class WhenGeneratingAnXMLReport {
         String expectedReport =
                   "<acceptance-test-run title='A nested test case' name='a_nested_test_case' steps='1' successful='1' failures='0' skipped='0' ignored='0' pending='0' result='SUCCESS' duration='0'>\n"
                 + "  <user-story id='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport.AUserStory' name='A user story' />\n"
-                + "  <test-group name='Group 1' result='SUCCESS'>\n"
-                + "    <test-group name='Group 1.1' result='SUCCESS'>\n"
-                + "      <test-group name='Group 1.1.1' result='SUCCESS'>\n"
+                + "  <test-group name='Group 1' result='SUCCESS' duration='0'>\n"
+                + "    <test-group name='Group 1.1' result='SUCCESS' duration='0'>\n"
+                + "      <test-group name='Group 1.1.1' result='SUCCESS' duration='0'>\n"
                 + "        <test-step result='SUCCESS' duration='0'>\n"
                 + "          <description>step 1</description>\n"
                 + "        </test-step>\n"
@@ -458,6 +475,33 @@ public class WhenGeneratingAnXMLReport {
     }
 
 
+    @Test
+    public void should_leave_out_the_source_of_screenshots_whose_page_source_could_not_be_read() throws Exception {
+        TestOutcome testOutcome = TestOutcome.forTest("a_simple_test_case", SomeTestScenario.class);
+        String expectedReport =
+                  "<acceptance-test-run title='A simple test case' name='a_simple_test_case' steps='1' successful='1' failures='0' skipped='0' ignored='0' pending='0' result='SUCCESS' duration='0'>\n"
+                + "  <user-story id='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport.AUserStory' name='A user story' />\n"
+                + "  <test-step result='SUCCESS' duration='0'>\n"
+                + "    <screenshots>\n"
+                + "      <screenshot image='step_1.png'/>\n"
+                + "    </screenshots>\n"
+                + "    <description>step 1</description>\n"
+                + "  </test-step>\n"
+                + "</acceptance-test-run>";
+
+        File screenshot = temporaryDirectory.newFile("step_1.png");
+
+        TestStep step1 = TestStepFactory.successfulTestStepCalled("step 1");
+        step1.addScreenshot(new ScreenshotAndHtmlSource(screenshot, null));
+        testOutcome.recordStep(step1);
+
+        File xmlReport = reporter.generateReportFor(testOutcome);
+        String generatedReportText = getStringFrom(xmlReport);
+
+        assertThat(generatedReportText, isSimilarTo(expectedReport));
+    }
+
+
     @Test
     public void should_have_a_meaningful_filename()  throws Exception {
         TestOutcome testOutcome = TestOutcome.forTest("a_simple_test_case", SomeTestScenario.class);
@@ -3,6 +3,7 @@ package net.thucydides.core.reports.integration;
 import net.thucydides.core.model.Story;
 import net.thucydides.core.model.StoryTestResults;
 import net.thucydides.core.model.userstories.UserStoryLoader;
+import net.thucydides.core.util.MockEnvironmentVariables;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -62,4 +63,25 @@ public class WhenLoadingTestRunResultsIntoAUserStoryTestResults {
         assertThat(stories.size(), is(2));
     }
 
+    @Test
+    public void should_load_the_same_user_stories_whether_reports_are_read_in_parallel_or_not() throws IOException {
+
+        File reportDirectory = new File("src/test/resources/multiple-user-story-reports");
+        List<StoryTestResults> sequentiallyLoadedStories = loaderUsingThreads(1).loadFrom(reportDirectory);
+        List<StoryTestResults> storiesLoadedInParallel = loaderUsingThreads(4).loadFrom(reportDirectory);
+
+        assertThat(storiesLoadedInParallel.size(), is(sequentiallyLoadedStories.size()));
+        for (int i = 0; i < sequentiallyLoadedStories.size(); i++) {
+            StoryTestResults expectedStory = sequentiallyLoadedStories.get(i);
+            StoryTestResults loadedStory = storiesLoadedInParallel.get(i);
+            assertThat(loadedStory.getStory(), is(expectedStory.getStory()));
+            assertThat(loadedStory.getTotal(), is(expectedStory.getTotal()));
+        }
+    }
+
+    private UserStoryLoader loaderUsingThreads(int threads) {
+        MockEnvironmentVariables environmentVariables = new MockEnvironmentVariables();
+        environmentVariables.setProperty("thucydides.report.threads", Integer.toString(threads));
+        return new UserStoryLoader(environmentVariables);
+    }
 }
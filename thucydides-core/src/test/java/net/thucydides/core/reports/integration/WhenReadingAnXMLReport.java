@@ -102,6 +102,29 @@ public class WhenReadingAnXMLReport {
         assertThat(testStep.getScreenshots().get(0).getSourcecode().getName(), is("step_1.html"));
     }
 
+    @Test
+    public void should_load_screenshots_without_a_page_source_from_xml_file() throws Exception {
+        String storedReportXML =
+            "<acceptance-test-run title='Should do this' name='should_do_this' steps='1' successful='1' failures='0' skipped='0' ignored='0' pending='0' result='SUCCESS'>\n"
+          + "  <user-story id='net.thucydides.core.reports.integration.WhenGeneratingAnXMLReport.AUserStory' name='A user story' />\n"
+          + "  <test-step result='SUCCESS'>\n"
+          + "    <screenshots>"
+          + "      <screenshot image='step_1.png' />"
+          + "    </screenshots>"
+          + "    <description>step 1</description>\n"
+          + "  </test-step>\n"
+          + "</acceptance-test-run>";
+
+        File report = temporaryDirectory.newFile("saved-report.xml");
+        FileUtils.writeStringToFile(report, storedReportXML);
+
+        TestOutcome testOutcome = outcomeReporter.loadReportFrom(report);
+
+        TestStep testStep = (TestStep) testOutcome.getTestSteps().get(0);
+        assertThat(testStep.getScreenshots().get(0).getScreenshotFile().getName(), is("step_1.png"));
+        assertThat(testStep.getScreenshots().get(0).getSourcecode(), is(nullValue()));
+    }
+
 
     @Test
     public void should_load_user_story_details_from_xml_file() throws Exception {
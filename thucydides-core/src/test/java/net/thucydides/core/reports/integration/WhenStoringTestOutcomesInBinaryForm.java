@@ -0,0 +1,286 @@
+package net.thucydides.core.reports.integration;
+
+import net.thucydides.core.annotations.Feature;
+import net.thucydides.core.annotations.Story;
+import net.thucydides.core.model.StoryTestResults;
+import net.thucydides.core.model.TestOutcome;
+import net.thucydides.core.model.TestResult;
+import net.thucydides.core.model.TestStep;
+import net.thucydides.core.model.userstories.UserStoryLoader;
+import net.thucydides.core.reports.binary.BinaryTestOutcomeReporter;
+import net.thucydides.core.reports.binary.TestOutcomeBinaryFormat;
+import net.thucydides.core.reports.xml.NotAThucydidesReportException;
+import net.thucydides.core.reports.xml.XMLTestOutcomeReporter;
+import net.thucydides.core.screenshots.ScreenshotAndHtmlSource;
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+
+public class WhenStoringTestOutcomesInBinaryForm {
+
+    @Rule
+    public TemporaryFolder temporaryDirectory = new TemporaryFolder();
+
+    private BinaryTestOutcomeReporter reporter;
+
+    private File outputDirectory;
+
+    @Before
+    public void setupTestReporter() {
+        reporter = new BinaryTestOutcomeReporter();
+        outputDirectory = temporaryDirectory.newFolder("binary");
+        reporter.setOutputDirectory(outputDirectory);
+    }
+
+    @Feature
+    class AFeature {
+        class AUserStoryInAFeature {};
+    }
+
+    @Story(AFeature.AUserStoryInAFeature.class)
+    class SomeTestScenarioInAFeature {
+        public void should_do_this() {};
+        public void should_do_that() {};
+    }
+
+    @Test
+    public void should_write_the_report_with_a_binary_suffix() throws Exception {
+        TestOutcome testOutcome = TestOutcome.forTest("should_do_this", SomeTestScenarioInAFeature.class);
+        testOutcome.recordStep(new TestStep("step 1"));
+
+        File binaryReport = reporter.generateReportFor(testOutcome);
+
+        assertThat(binaryReport.getName(), is("a_user_story_in_a_feature_should_do_this.bin"));
+    }
+
+    @Test
+    public void should_reload_the_test_outcome_with_its_user_story_and_feature() throws Exception {
+        TestOutcome testOutcome = TestOutcome.forTest("should_do_this", SomeTestScenarioInAFeature.class);
+        testOutcome.recordStep(successfulStep("step 1"));
+        testOutcome.setSessionId("1234");
+        testOutcome.setDuration(500);
+        testOutcome.isRelatedToIssue("#ISSUE-123");
+
+        TestOutcome reloadedOutcome = reporter.loadReportFrom(reporter.generateReportFor(testOutcome));
+
+        assertThat(reloadedOutcome.getTitle(), is("Should do this"));
+        assertThat(reloadedOutcome.getMethodName(), is("should_do_this"));
+        assertThat(reloadedOutcome.getSessionId(), is("1234"));
+        assertThat(reloadedOutcome.getDuration(), is(500L));
+        assertThat(reloadedOutcome.getIssues(), hasItem("#ISSUE-123"));
+        assertThat(reloadedOutcome.getUserStory(), is(testOutcome.getUserStory()));
+        assertThat(reloadedOutcome.getFeature().getName(), is("A feature"));
+    }
+
+    @Test
+    public void should_keep_the_feature_of_a_user_story_that_was_loaded_from_a_report() throws Exception {
+        TestOutcome testOutcome = new TestOutcome("should_do_this");
+        testOutcome.setUserStory(net.thucydides.core.model.Story.withId("some.Story", "Some story",
+                                                                         "some.Feature", "Some feature"));
+        testOutcome.recordStep(successfulStep("step 1"));
+
+        TestOutcome reloadedOutcome = reporter.loadReportFrom(reporter.generateReportFor(testOutcome));
+
+        assertThat(reloadedOutcome.getFeature().getId(), is("some.Feature"));
+        assertThat(reloadedOutcome.getFeature().getName(), is("Some feature"));
+    }
+
+    @Test
+    public void should_reload_nested_step_groups() throws Exception {
+        TestOutcome testOutcome = TestOutcome.forTest("should_do_this", SomeTestScenarioInAFeature.class);
+        testOutcome.recordStep(successfulStep("step 1"));
+        testOutcome.startGroup("Group 1");
+        testOutcome.recordStep(successfulStep("step 1.1"));
+        testOutcome.startGroup("Group 1.1");
+        testOutcome.recordStep(successfulStep("step 1.1.1"));
+        testOutcome.recordStep(skippedStep("step 1.1.2"));
+        testOutcome.endGroup();
+        testOutcome.endGroup();
+
+        TestOutcome reloadedOutcome = reporter.loadReportFrom(reporter.generateReportFor(testOutcome));
+
+        assertThat(reloadedOutcome.toString(), is(testOutcome.toString()));
+        assertThat(reloadedOutcome.getTestSteps().size(), is(2));
+        assertThat(reloadedOutcome.getNestedStepCount(), is(testOutcome.getNestedStepCount()));
+        assertThat(reloadedOutcome.getSkippedCount(), is(1));
+        assertThat(reloadedOutcome.getResult(), is(testOutcome.getResult()));
+    }
+
+    @Test
+    public void should_reload_screenshots_and_failures() throws Exception {
+        TestOutcome testOutcome = TestOutcome.forTest("should_do_this", SomeTestScenarioInAFeature.class);
+        TestStep step = new TestStep("step 1");
+        step.addScreenshot(new ScreenshotAndHtmlSource(new File("step_1.png"), new File("step_1.html")));
+        step.failedWith(new IllegalArgumentException("Oh nose!"));
+        testOutcome.recordStep(step);
+
+        TestOutcome reloadedOutcome = reporter.loadReportFrom(reporter.generateReportFor(testOutcome));
+
+        TestStep reloadedStep = reloadedOutcome.getTestSteps().get(0);
+        assertThat(reloadedStep.getResult(), is(TestResult.FAILURE));
+        assertThat(reloadedStep.getErrorMessage(), is("Oh nose!"));
+        assertThat(reloadedStep.getScreenshots().get(0).getScreenshotFile().getName(), is("step_1.png"));
+        assertThat(reloadedStep.getScreenshots().get(0).getSourcecode().getName(), is("step_1.html"));
+    }
+
+    @Test
+    public void should_include_the_qualifier_in_the_title_and_name() throws Exception {
+        TestOutcome testOutcome = TestOutcome.forTest("should_do_this", SomeTestScenarioInAFeature.class);
+        testOutcome.recordStep(successfulStep("step 1"));
+        reporter.setQualifier("qualifier");
+
+        File binaryReport = reporter.generateReportFor(testOutcome);
+        TestOutcome reloadedOutcome = reporter.loadReportFrom(binaryReport);
+
+        assertThat(binaryReport.getName(), is("a_user_story_in_a_feature_should_do_this_qualifier.bin"));
+        assertThat(reloadedOutcome.getTitle(), is("Should do this [qualifier]"));
+        assertThat(reloadedOutcome.getMethodName(), is("should_do_this_qualifier"));
+    }
+
+    @Test(expected = NotAThucydidesReportException.class)
+    public void should_reject_files_that_are_not_binary_reports() throws Exception {
+        File notAReport = temporaryDirectory.newFile("not_a_report.bin");
+        FileUtils.writeStringToFile(notAReport, "<acceptance-test-run/>");
+
+        reporter.loadReportFrom(notAReport);
+    }
+
+    @Test(expected = NotAThucydidesReportException.class)
+    public void should_reject_incomplete_reports() throws Exception {
+        TestOutcome testOutcome = TestOutcome.forTest("should_do_this", SomeTestScenarioInAFeature.class);
+        testOutcome.recordStep(successfulStep("step 1"));
+        File binaryReport = reporter.generateReportFor(testOutcome);
+
+        truncate(binaryReport);
+
+        reporter.loadReportFrom(binaryReport);
+    }
+
+    @Test
+    public void the_user_story_loader_should_prefer_binary_reports_to_xml_reports() throws Exception {
+        writeBinaryAndXmlReportsFor(TestOutcome.forTest("should_do_this", SomeTestScenarioInAFeature.class),
+                                    TestOutcome.forTest("should_do_that", SomeTestScenarioInAFeature.class));
+        new File(outputDirectory, "a_user_story_in_a_feature_should_do_that.xml").delete();
+
+        List<StoryTestResults> stories = new UserStoryLoader().loadFrom(outputDirectory);
+
+        assertThat(stories.size(), is(1));
+        assertThat(stories.get(0).getTotal(), is(2));
+        assertThat(stories.get(0).getTestOutcomes().get(0).getTestSteps().get(0).getErrorMessage(), is("Oh nose!"));
+        assertThat(stories.get(0).getTestOutcomes().get(0).getSessionId(), is("binary"));
+    }
+
+    @Test
+    public void the_user_story_loader_should_use_the_xml_report_if_the_binary_report_is_older() throws Exception {
+        writeBinaryAndXmlReportsFor(TestOutcome.forTest("should_do_this", SomeTestScenarioInAFeature.class));
+        File xmlReport = new File(outputDirectory, "a_user_story_in_a_feature_should_do_this.xml");
+        File binaryReport = new File(outputDirectory, "a_user_story_in_a_feature_should_do_this.bin");
+        binaryReport.setLastModified(xmlReport.lastModified() - 60000);
+
+        List<StoryTestResults> stories = new UserStoryLoader().loadFrom(outputDirectory);
+
+        assertThat(stories.size(), is(1));
+        assertThat(stories.get(0).getTestOutcomes().get(0).getSessionId(), is("xml"));
+    }
+
+    @Test
+    public void the_user_story_loader_should_use_the_xml_report_if_the_binary_report_cannot_be_read() throws Exception {
+        writeBinaryAndXmlReportsFor(TestOutcome.forTest("should_do_this", SomeTestScenarioInAFeature.class));
+        truncate(new File(outputDirectory, "a_user_story_in_a_feature_should_do_this.bin"));
+
+        List<StoryTestResults> stories = new UserStoryLoader().loadFrom(outputDirectory);
+
+        assertThat(stories.size(), is(1));
+        assertThat(stories.get(0).getTotal(), is(1));
+        assertThat(stories.get(0).getTestOutcomes().get(0).getSessionId(), is("xml"));
+    }
+
+    @Test
+    public void should_reload_the_same_test_outcome_from_xml_and_binary_reports() throws Exception {
+        TestOutcome testOutcome = TestOutcome.forTest("should_do_this", SomeTestScenarioInAFeature.class);
+        testOutcome.setSessionId("1234");
+        testOutcome.setDuration(500);
+        testOutcome.isRelatedToIssue("#ISSUE-123");
+        testOutcome.recordStep(successfulStep("step 1"));
+        testOutcome.startGroup("Group 1");
+        testOutcome.getCurrentGroup().setDuration(200);
+        testOutcome.getCurrentGroup().addScreenshot(new ScreenshotAndHtmlSource(new File("group_1.png"),
+                                                                                new File("group_1.html")));
+        TestStep failingStep = new TestStep("step 1.1");
+        failingStep.setDuration(100);
+        failingStep.failedWith(new IllegalArgumentException("Oh nose!"));
+        testOutcome.recordStep(failingStep);
+        TestStep pendingStep = new TestStep("step 1.2");
+        pendingStep.setResult(TestResult.PENDING);
+        pendingStep.testAborted(new IllegalStateException("Not implemented yet"));
+        testOutcome.recordStep(pendingStep);
+        testOutcome.endGroup();
+
+        XMLTestOutcomeReporter xmlReporter = new XMLTestOutcomeReporter();
+        xmlReporter.setOutputDirectory(outputDirectory);
+        TestOutcome outcomeFromXml = xmlReporter.loadReportFrom(xmlReporter.generateReportFor(testOutcome));
+        TestOutcome outcomeFromBinary = reporter.loadReportFrom(reporter.generateReportFor(testOutcome));
+
+        TestStep group = outcomeFromXml.getTestSteps().get(1);
+        assertThat(group.getDuration(), is(200L));
+        assertThat(group.getChildren().get(0).getException().getMessage(), is("Oh nose!"));
+        assertThat(stackTraceOf(group.getChildren().get(0)), containsString("IllegalArgumentException"));
+        assertThat(group.getChildren().get(1).getErrorMessage(), is("Not implemented yet"));
+        assertThat(outcomeFromXml.getFeature().getName(), is("A feature"));
+
+        TestOutcomeBinaryFormat format = new TestOutcomeBinaryFormat();
+        assertThat(format.encode(outcomeFromXml), is(format.encode(outcomeFromBinary)));
+    }
+
+    private String stackTraceOf(TestStep step) {
+        StringWriter stackTrace = new StringWriter();
+        step.getException().printStackTrace(new PrintWriter(stackTrace));
+        return stackTrace.toString();
+    }
+
+    private void writeBinaryAndXmlReportsFor(TestOutcome... testOutcomes) throws Exception {
+        XMLTestOutcomeReporter xmlReporter = new XMLTestOutcomeReporter();
+        xmlReporter.setOutputDirectory(outputDirectory);
+        for (TestOutcome testOutcome : Arrays.asList(testOutcomes)) {
+            TestStep step = new TestStep("step 1");
+            step.failedWith(new IllegalArgumentException("Oh nose!"));
+            testOutcome.recordStep(step);
+
+            testOutcome.setSessionId("xml");
+            File xmlReport = xmlReporter.generateReportFor(testOutcome);
+            assertThat(FileUtils.readFileToString(xmlReport), containsString("step 1"));
+            testOutcome.setSessionId("binary");
+            reporter.generateReportFor(testOutcome);
+        }
+    }
+
+    private void truncate(File binaryReport) throws Exception {
+        byte[] contents = FileUtils.readFileToByteArray(binaryReport);
+        FileUtils.writeByteArrayToFile(binaryReport, Arrays.copyOf(contents, contents.length - 4));
+    }
+
+    private TestStep successfulStep(String description) {
+        TestStep step = new TestStep(description);
+        step.setResult(TestResult.SUCCESS);
+        return step;
+    }
+
+    private TestStep skippedStep(String description) {
+        TestStep step = new TestStep(description);
+        step.setResult(TestResult.SKIPPED);
+        return step;
+    }
+}
@@ -0,0 +1,151 @@
+package net.thucydides.core.scheduling;
+
+import com.google.common.base.Function;
+import net.thucydides.core.steps.StepEventBus;
+import net.thucydides.core.util.MockEnvironmentVariables;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.Duration;
+import org.openqa.selenium.support.ui.Sleeper;
+import org.openqa.selenium.support.ui.SystemClock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class WhenPollingWithABackoffStrategy {
+
+    @Mock
+    WebDriver driver;
+
+    @Mock
+    Sleeper sleeper;
+
+    private static final String CONDITION_DESCRIPTION = "backoff test condition true after ";
+
+    final List<WaitTiming> timings = new ArrayList<WaitTiming>();
+
+    final WaitTimingListener timingListener = new WaitTimingListener() {
+        public void waitFinished(WaitTiming timing) {
+            if (timing.getCondition().startsWith(CONDITION_DESCRIPTION)) {
+                timings.add(timing);
+            }
+        }
+    };
+
+    @Before
+    public void initMocks() {
+        MockitoAnnotations.initMocks(this);
+        StepEventBus.getEventBus().clear();
+        ThucydidesFluentWait.addTimingListener(timingListener);
+    }
+
+    @After
+    public void removeListener() {
+        ThucydidesFluentWait.removeTimingListener(timingListener);
+    }
+
+    private Function<WebDriver, Boolean> trueAfter(final int attempts) {
+        return new Function<WebDriver, Boolean>() {
+            int attempt = 0;
+
+            public Boolean apply(WebDriver driver) {
+                return (++attempt > attempts);
+            }
+
+            @Override
+            public String toString() {
+                return CONDITION_DESCRIPTION + attempts + " attempts";
+            }
+        };
+    }
+
+    private long pauseAfter(PollingStrategy strategy, int failedAttempts) {
+        return strategy.pauseAfter(failedAttempts, new Duration(50, MILLISECONDS)).in(MILLISECONDS);
+    }
+
+    @Test
+    public void should_retry_immediately_then_double_the_pause_up_to_a_maximum() {
+        PollingStrategy strategy = new BackoffPollingStrategy(300, 0.0);
+
+        assertThat(pauseAfter(strategy, 1), is(0L));
+        assertThat(pauseAfter(strategy, 2), is(50L));
+        assertThat(pauseAfter(strategy, 3), is(100L));
+        assertThat(pauseAfter(strategy, 4), is(200L));
+        assertThat(pauseAfter(strategy, 5), is(300L));
+        assertThat(pauseAfter(strategy, 100), is(300L));
+    }
+
+    @Test
+    public void should_vary_each_pause_by_no_more_than_the_jitter() {
+        PollingStrategy strategy = new BackoffPollingStrategy(1000, 0.2, new Random(42));
+
+        for (int i = 0; i < 100; i++) {
+            long pause = pauseAfter(strategy, 4);
+            assertThat(pause, greaterThanOrEqualTo(160L));
+            assertThat(pause, lessThanOrEqualTo(240L));
+        }
+    }
+
+    @Test
+    public void should_pause_according_to_the_polling_strategy() throws Exception {
+        new NormalFluentWait<WebDriver>(driver, new SystemClock(), sleeper)
+                .withTimeout(1000, MILLISECONDS)
+                .pollingEvery(50, MILLISECONDS)
+                .pollingWith(new BackoffPollingStrategy(1000, 0.0))
+                .until(trueAfter(3));
+
+        verify(sleeper, times(1)).sleep(new Duration(50, MILLISECONDS));
+        verify(sleeper, times(1)).sleep(new Duration(100, MILLISECONDS));
+    }
+
+    @Test
+    public void should_report_the_number_of_attempts_and_the_time_taken_by_a_successful_wait() {
+        new NormalFluentWait<WebDriver>(driver, new SystemClock(), sleeper)
+                .withTimeout(1000, MILLISECONDS)
+                .until(trueAfter(2));
+
+        assertThat(timings.size(), is(1));
+        assertThat(timings.get(0).getCondition(), is(CONDITION_DESCRIPTION + "2 attempts"));
+        assertThat(timings.get(0).getAttempts(), is(3));
+        assertThat(timings.get(0).isSuccessful(), is(true));
+        assertThat(timings.get(0).getDuration(), greaterThanOrEqualTo(0L));
+    }
+
+    @Test
+    public void should_report_waits_that_time_out() {
+        try {
+            new NormalFluentWait<WebDriver>(driver, new SystemClock(), sleeper)
+                    .withTimeout(0, MILLISECONDS)
+                    .until(trueAfter(Integer.MAX_VALUE));
+        } catch (TimeoutException expected) {
+        }
+
+        assertThat(timings.size(), is(1));
+        assertThat(timings.get(0).getAttempts(), is(1));
+        assertThat(timings.get(0).isSuccessful(), is(false));
+    }
+
+    @Test
+    public void the_polling_strategy_can_be_configured() {
+        MockEnvironmentVariables environmentVariables = new MockEnvironmentVariables();
+        assertThat(PollingStrategies.configuredIn(environmentVariables), instanceOf(FixedPollingStrategy.class));
+
+        environmentVariables.setProperty("thucydides.polling.strategy", "backoff");
+        assertThat(PollingStrategies.configuredIn(environmentVariables), instanceOf(BackoffPollingStrategy.class));
+    }
+}
@@ -0,0 +1,164 @@
+package net.thucydides.core.scheduling;
+
+import com.google.common.base.Function;
+import net.thucydides.core.steps.StepEventBus;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.Duration;
+import org.openqa.selenium.support.ui.Sleeper;
+import org.openqa.selenium.support.ui.SystemClock;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.anyVararg;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+public class WhenWaitingForThePageToChange {
+
+    @Mock
+    Sleeper sleeper;
+
+    WebDriver driver;
+
+    @Before
+    public void initMocks() {
+        MockitoAnnotations.initMocks(this);
+        driver = mock(WebDriver.class, withSettings().extraInterfaces(JavascriptExecutor.class)
+                                                      .defaultAnswer(RETURNS_DEEP_STUBS));
+        StepEventBus.getEventBus().clear();
+    }
+
+    private Function<WebDriver, Boolean> trueAfter(final int attempts) {
+        return new Function<WebDriver, Boolean>() {
+            int attempt = 0;
+
+            public Boolean apply(WebDriver driver) {
+                return (++attempt > attempts);
+            }
+        };
+    }
+
+    @Test
+    public void should_wait_in_the_browser_rather_than_sleeping() throws Exception {
+        when(((JavascriptExecutor) driver).executeAsyncScript(anyString(), anyVararg())).thenReturn(Boolean.TRUE);
+
+        new PageChangeFluentWait(driver, new SystemClock(), sleeper)
+                .withTimeout(1000, TimeUnit.MILLISECONDS)
+                .pollingEvery(0, TimeUnit.MILLISECONDS)
+                .until(trueAfter(2));
+
+        verify((JavascriptExecutor) driver, times(2)).executeAsyncScript(anyString(), anyVararg());
+        verify(driver.manage().timeouts()).setScriptTimeout(2000, TimeUnit.MILLISECONDS);
+        verify(sleeper, never()).sleep(any(Duration.class));
+    }
+
+    @Test
+    public void should_wait_in_the_browser_no_longer_than_the_polling_interval() throws Exception {
+        when(((JavascriptExecutor) driver).executeAsyncScript(anyString(), anyVararg())).thenReturn(Boolean.FALSE);
+
+        new PageChangeFluentWait(driver, new SystemClock(), sleeper)
+                .withTimeout(10, TimeUnit.SECONDS)
+                .pollingEvery(250, TimeUnit.MILLISECONDS)
+                .until(trueAfter(2));
+
+        verify((JavascriptExecutor) driver, times(2)).executeAsyncScript(anyString(), eq(250L));
+    }
+
+    @Test
+    public void should_restore_the_default_script_timeout_after_waiting() throws Exception {
+        when(((JavascriptExecutor) driver).executeAsyncScript(anyString(), anyVararg())).thenReturn(Boolean.TRUE);
+
+        new PageChangeFluentWait(driver, new SystemClock(), sleeper)
+                .withTimeout(1000, TimeUnit.MILLISECONDS)
+                .until(trueAfter(2));
+
+        verify(driver.manage().timeouts()).setScriptTimeout(0, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void should_restore_the_default_script_timeout_if_the_wait_times_out() throws Exception {
+        when(((JavascriptExecutor) driver).executeAsyncScript(anyString(), anyVararg())).thenReturn(Boolean.FALSE);
+
+        try {
+            new PageChangeFluentWait(driver, new SystemClock(), sleeper)
+                    .withTimeout(100, TimeUnit.MILLISECONDS)
+                    .until(trueAfter(Integer.MAX_VALUE));
+            fail("Expected a TimeoutException");
+        } catch (TimeoutException expected) {
+            verify(driver.manage().timeouts()).setScriptTimeout(0, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Test
+    public void should_restore_the_configured_script_timeout_after_waiting() throws Exception {
+        when(((JavascriptExecutor) driver).executeAsyncScript(anyString(), anyVararg())).thenReturn(Boolean.TRUE);
+
+        new PageChangeFluentWait(driver, new SystemClock(), sleeper)
+                .restoringScriptTimeoutTo(30, TimeUnit.SECONDS)
+                .withTimeout(1000, TimeUnit.MILLISECONDS)
+                .until(trueAfter(2));
+
+        verify(driver.manage().timeouts()).setScriptTimeout(30000, TimeUnit.MILLISECONDS);
+        verify(driver.manage().timeouts(), never()).setScriptTimeout(0, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void should_pass_the_javascript_condition_to_the_browser() throws Exception {
+        when(((JavascriptExecutor) driver).executeAsyncScript(anyString(), anyVararg())).thenReturn(Boolean.TRUE);
+
+        new PageChangeFluentWait(driver, new SystemClock(), sleeper, "return document.title == values[0];", "Home")
+                .withTimeout(1000, TimeUnit.MILLISECONDS)
+                .until(trueAfter(1));
+
+        verify((JavascriptExecutor) driver).executeAsyncScript(org.mockito.Matchers.contains("document.title == values[0]"),
+                                                               anyVararg());
+    }
+
+    @Test
+    public void should_sleep_between_checks_if_the_driver_does_not_support_javascript() throws Exception {
+        WebDriver driverWithoutJavascript = mock(WebDriver.class);
+
+        new PageChangeFluentWait(driverWithoutJavascript, new SystemClock(), sleeper)
+                .withTimeout(1000, TimeUnit.MILLISECONDS)
+                .until(trueAfter(2));
+
+        verify(sleeper, times(2)).sleep(any(Duration.class));
+    }
+
+    @Test
+    public void should_sleep_between_checks_if_asynchronous_scripts_are_not_supported() throws Exception {
+        when(((JavascriptExecutor) driver).executeAsyncScript(anyString(), anyVararg()))
+                .thenThrow(new UnsupportedOperationException("Javascript is not enabled"));
+
+        new PageChangeFluentWait(driver, new SystemClock(), sleeper)
+                .withTimeout(1000, TimeUnit.MILLISECONDS)
+                .until(trueAfter(3));
+
+        verify((JavascriptExecutor) driver, times(1)).executeAsyncScript(anyString(), anyVararg());
+        verify(sleeper, times(3)).sleep(any(Duration.class));
+    }
+
+    @Test(expected = TimeoutException.class)
+    public void should_time_out_if_the_condition_never_holds() throws Exception {
+        when(((JavascriptExecutor) driver).executeAsyncScript(anyString(), anyVararg())).thenReturn(Boolean.FALSE);
+
+        new PageChangeFluentWait(driver, new SystemClock(), sleeper)
+                .withTimeout(100, TimeUnit.MILLISECONDS)
+                .until(trueAfter(Integer.MAX_VALUE));
+    }
+}
@@ -1,5 +1,6 @@
 package net.thucydides.core.screenshots;
 
+import org.apache.commons.io.FileUtils;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -11,9 +12,17 @@ import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.firefox.FirefoxDriver;
 import org.openqa.selenium.htmlunit.HtmlUnitDriver;
 
+import java.awt.*;
 import java.io.File;
+import java.io.FilenameFilter;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
+import static net.thucydides.core.images.WhenComparingScreenshotFingerprints.blankPage;
+import static net.thucydides.core.images.WhenComparingScreenshotFingerprints.pageWithBanner;
+import static net.thucydides.core.images.WhenComparingScreenshotFingerprints.withASmallMark;
+import static net.thucydides.core.images.WhenComparingScreenshotFingerprints.withOnePixelChanged;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
@@ -40,15 +49,18 @@ public class WhenScreenshotsAreTaken {
     private HtmlUnitDriver htmlDriver;
 
     private Photographer photographer;
-    
+
+    private ScreenshotProcessor screenshotProcessor;
+
     @Before 
-    public void initMocks() {
+    public void initMocks() throws IOException {
         MockitoAnnotations.initMocks(this);
-        photographer = new Photographer(driver, screenshotDirectory);        
+        prepareTemporaryFilesAndDirectories();
+        screenshotProcessor = new MultithreadScreenshotProcessor(2);
+        photographer = new Photographer(driver, screenshotDirectory, screenshotProcessor);
     }
 
-    @Before
-    public void prepareTemporaryFilesAndDirectories() throws IOException {
+    private void prepareTemporaryFilesAndDirectories() throws IOException {
         screenshotDirectory = temporaryDirectory.newFolder("screenshots");
         screenshotTaken = new byte[10000];
     }
@@ -59,7 +71,7 @@ public class WhenScreenshotsAreTaken {
 
         Photographer photographer = new Photographer(null, screenshotDirectory);
         when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotTaken);
-        photographer.takeScreenshot("screenshot");
+        photographer.takeScreenshot();
         
         verify(driver,times(0)).getScreenshotAs((OutputType<?>) anyObject());
     }
@@ -68,7 +80,7 @@ public class WhenScreenshotsAreTaken {
     public void the_driver_should_capture_the_image() throws IOException {
 
         when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotTaken);
-        photographer.takeScreenshot("screenshot");
+        photographer.takeScreenshot();
 
         verify(driver,times(1)).getScreenshotAs((OutputType<?>) anyObject());
     }
@@ -79,7 +91,7 @@ public class WhenScreenshotsAreTaken {
 
         when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotTaken);
         Photographer photographer = new Photographer(htmlDriver, screenshotDirectory);
-        photographer.takeScreenshot("screenshot");
+        photographer.takeScreenshot();
 
         verify(driver,never()).getScreenshotAs((OutputType<?>) anyObject());
     }
@@ -89,7 +101,7 @@ public class WhenScreenshotsAreTaken {
 
         when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotTaken);
         when(driver.getPageSource()).thenReturn("<html/>");
-        photographer.takeScreenshot("screenshot");
+        photographer.takeScreenshot();
 
         verify(driver,times(1)).getPageSource();
     }
@@ -99,7 +111,8 @@ public class WhenScreenshotsAreTaken {
 
         when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotTaken);
         
-        String screenshotFile = photographer.takeScreenshot("screenshot").getName();
+        String screenshotFile = photographer.takeScreenshot().getName();
+        screenshotProcessor.waitUntilDone();
         File savedScreenshot = new File(screenshotDirectory, screenshotFile);
         
         assertThat(savedScreenshot.isFile(), is(true));
@@ -110,8 +123,9 @@ public class WhenScreenshotsAreTaken {
 
         when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotTaken);
         
-        String savedFileName = photographer.takeScreenshot("screenshot").getName();
-        
+        String savedFileName = photographer.takeScreenshot().getName();
+        screenshotProcessor.waitUntilDone();
+
         File savedScreenshot = new File(screenshotDirectory, savedFileName);
         
         assertThat(savedScreenshot.isFile(), is(true));
@@ -124,54 +138,304 @@ public class WhenScreenshotsAreTaken {
         when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotTaken);
         when(driver.getPageSource()).thenReturn("<html/>");
 
-        File screenshotFile = photographer.takeScreenshot("screenshot");
-
-        File htmlSource = photographer.getMatchingSourceCodeFor(screenshotFile);
+        File htmlSource = photographer.takeScreenshotAndSource().getSourcecode();
+        screenshotProcessor.waitUntilDone();
 
         assertThat(htmlSource.isFile(), is(true));
     }
 
     @Test
-    public void the_photographer_should_return_null_for_the_source_code_of_a_null_screenshot() throws IOException {
-        assertThat( photographer.getMatchingSourceCodeFor(null), is(nullValue()));
+    public void the_photographer_should_return_no_source_code_if_no_screenshot_was_taken() throws IOException {
+        Photographer photographer = new Photographer(null, screenshotDirectory, screenshotProcessor);
+
+        ScreenshotAndHtmlSource screenshotAndHtmlSource = photographer.takeScreenshotAndSource();
+
+        assertThat(screenshotAndHtmlSource.wasTaken(), is(false));
+        assertThat(screenshotAndHtmlSource.getSourcecode(), is(nullValue()));
     }
 
     @Test
-    public void successive_screenshots_should_have_different_names() throws IOException {
+    public void identical_screenshots_of_different_pages_should_keep_their_own_source_code() throws IOException {
 
         when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotTaken);
-        
-        String screenshotName1 = photographer.takeScreenshot("screenshot").getName();
-        String screenshotName2 = photographer.takeScreenshot("screenshot").getName();
-        
+        when(driver.getPageSource()).thenReturn("<html>one</html>", "<html>two</html>");
+
+        ScreenshotAndHtmlSource firstPage = photographer.takeScreenshotAndSource();
+        ScreenshotAndHtmlSource secondPage = photographer.takeScreenshotAndSource();
+        screenshotProcessor.waitUntilDone();
+
+        assertThat(secondPage.getScreenshotFile(), is(firstPage.getScreenshotFile()));
+        assertThat(FileUtils.readFileToString(firstPage.getSourcecode()), is("<html>one</html>"));
+        assertThat(FileUtils.readFileToString(secondPage.getSourcecode()), is("<html>two</html>"));
+    }
+
+    @Test
+    public void screenshots_with_different_contents_should_have_different_names() throws IOException {
+
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotTaken, differentScreenshot());
+
+        String screenshotName1 = photographer.takeScreenshot().getName();
+        String screenshotName2 = photographer.takeScreenshot().getName();
+
         assertThat(screenshotName1, is(not((screenshotName2))));
     }
 
+    @Test
+    public void identical_screenshots_should_share_the_same_file() throws IOException {
+
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotTaken);
+
+        File screenshot1 = photographer.takeScreenshot();
+        File screenshot2 = photographer.takeScreenshot();
+        screenshotProcessor.waitUntilDone();
+
+        assertThat(screenshot1, is(screenshot2));
+        assertThat(screenshotDirectory.list(pngFiles()).length, is(1));
+    }
+
+    @Test
+    public void identical_screenshots_from_a_previous_run_should_not_be_rewritten() throws IOException {
+
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotTaken);
+
+        File screenshot = photographer.takeScreenshot();
+        screenshotProcessor.waitUntilDone();
+        screenshot.setLastModified(0);
+
+        Photographer photographerInANewRun = new Photographer(driver, screenshotDirectory,
+                                                              new MultithreadScreenshotProcessor(1));
+        File sameScreenshot = photographerInANewRun.takeScreenshot();
+        photographerInANewRun.getScreenshotProcessor().waitUntilDone();
+
+        assertThat(sameScreenshot, is(screenshot));
+        assertThat(sameScreenshot.lastModified(), is(0L));
+    }
+
     @Test
     public void calling_api_generates_a_filename_safe_hashed_name_for_the_screenshot() throws IOException {
         when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotTaken);
 
-        String screenshotFile = photographer.takeScreenshot("test1_finished").getName();
+        String screenshotFile = photographer.takeScreenshot().getName();
         
-        assertThat(screenshotFile, startsWith("screenshot-989da2d4"));
+        assertThat(screenshotFile.matches("screenshot-[0-9a-f]+\\.png"), is(true));
     }
     
     @Test
     public void by_default_screenshot_files_start_with_Screenshot() throws IOException {
         when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotTaken);
 
-        String screenshotFile = photographer.takeScreenshot("screenshot").getName();
+        String screenshotFile = photographer.takeScreenshot().getName();
         
         assertThat(screenshotFile, startsWith("screenshot"));
     }
 
+    @Test
+    public void the_screenshot_should_be_written_in_the_background_until_the_processor_is_flushed() throws IOException {
+
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotTaken);
+
+        File firstScreenshot = photographer.takeScreenshot();
+        File secondScreenshot = photographer.takeScreenshot();
+        screenshotProcessor.waitUntilDone();
+
+        assertThat(screenshotProcessor.isEmpty(), is(true));
+        assertThat(firstScreenshot.length(), is((long) screenshotTaken.length));
+        assertThat(secondScreenshot.length(), is((long) screenshotTaken.length));
+    }
+
+    @Test
+    public void the_test_thread_should_write_the_screenshots_itself_when_the_queue_is_full() throws IOException {
+
+        Photographer photographer = new Photographer(driver, screenshotDirectory, new MultithreadScreenshotProcessor(1));
+
+        List<File> screenshots = new ArrayList<File>();
+        for(int i = 0; i < 50; i++) {
+            byte[] screenshotData = new byte[10000];
+            screenshotData[0] = (byte) i;
+            when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(screenshotData);
+            screenshots.add(photographer.takeScreenshot());
+        }
+        photographer.getScreenshotProcessor().waitUntilDone();
+
+        for(File screenshot : screenshots) {
+            assertThat(screenshot.isFile(), is(true));
+        }
+    }
+
+    @Test
+    public void a_screenshot_that_could_not_be_written_should_be_written_when_it_is_queued_again() throws IOException {
+
+        File blockedDirectory = new File(screenshotDirectory, "blocked");
+        FileUtils.writeStringToFile(blockedDirectory, "not a directory");
+        File destination = new File(blockedDirectory, "screenshot.png");
+        QueuedScreenshot queuedScreenshot = new QueuedScreenshot(screenshotTaken, null, destination, null);
+
+        screenshotProcessor.queueScreenshot(queuedScreenshot);
+        screenshotProcessor.waitUntilDone();
+        blockedDirectory.delete();
+        screenshotProcessor.queueScreenshot(queuedScreenshot);
+        screenshotProcessor.waitUntilDone();
+
+        assertThat(destination.length(), is((long) screenshotTaken.length));
+    }
+
+    @Test
+    public void the_page_source_should_be_written_even_if_the_screenshot_could_not_be() throws IOException {
+
+        File destination = new File(screenshotDirectory, "screenshot.png");
+        destination.mkdir();
+        File sourcecode = new File(screenshotDirectory, "source.html");
+
+        screenshotProcessor.queueScreenshot(new QueuedScreenshot(screenshotTaken, "<html/>", destination, sourcecode));
+        screenshotProcessor.waitUntilDone();
+
+        assertThat(FileUtils.readFileToString(sourcecode), is("<html/>"));
+        assertThat(screenshotDirectory.list(temporaryFiles()).length, is(0));
+    }
+
+    @Test
+    public void the_photographer_should_record_the_width_of_the_screenshots_it_takes() throws IOException {
+
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(blankPage(800, 600));
+
+        ScreenshotAndHtmlSource screenshotAndHtmlSource = photographer.takeScreenshotAndSource();
+
+        assertThat(screenshotAndHtmlSource.getWidth(), is(800));
+    }
+
+    @Test
+    public void unchanged_screenshots_should_reuse_the_previous_image_when_requested() throws IOException {
+
+        byte[] page = pageWithBanner(Color.BLUE, 800, 600);
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(page, page.clone());
+        photographer.skipUnchangedScreenshots(0, 0);
+
+        File screenshot1 = photographer.takeScreenshot();
+        File screenshot2 = photographer.takeScreenshot();
+        screenshotProcessor.waitUntilDone();
+
+        assertThat(screenshot2, is(screenshot1));
+        assertThat(screenshotDirectory.list(pngFiles()).length, is(1));
+    }
+
+    @Test
+    public void screenshots_with_one_pixel_changed_should_be_stored_when_only_identical_screenshots_are_skipped() throws IOException {
+
+        byte[] page = pageWithBanner(Color.BLUE, 800, 600);
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(page, withOnePixelChanged(page));
+        photographer.skipUnchangedScreenshots(0, 0);
+
+        File screenshot1 = photographer.takeScreenshot();
+        File screenshot2 = photographer.takeScreenshot();
+        screenshotProcessor.waitUntilDone();
+
+        assertThat(screenshot2, is(not(screenshot1)));
+        assertThat(screenshotDirectory.list(pngFiles()).length, is(2));
+    }
+
+    @Test
+    public void nearly_identical_screenshots_should_reuse_the_previous_image_within_the_tolerances() throws IOException {
+
+        byte[] page = pageWithBanner(Color.BLUE, 800, 600);
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(page, withOnePixelChanged(page));
+        photographer.skipUnchangedScreenshots(1, 1);
+
+        File screenshot1 = photographer.takeScreenshot();
+        File screenshot2 = photographer.takeScreenshot();
+        screenshotProcessor.waitUntilDone();
+
+        assertThat(screenshot2, is(screenshot1));
+        assertThat(screenshotDirectory.list(pngFiles()).length, is(1));
+    }
+
+    @Test
+    public void changed_screenshots_should_still_be_stored_when_unchanged_screenshots_are_skipped() throws IOException {
+
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(pageWithBanner(Color.BLUE, 800, 600),
+                                                                  blankPage(800, 600));
+        photographer.skipUnchangedScreenshots(0, 0);
+
+        File screenshot1 = photographer.takeScreenshot();
+        File screenshot2 = photographer.takeScreenshot();
+        screenshotProcessor.waitUntilDone();
+
+        assertThat(screenshot2, is(not(screenshot1)));
+        assertThat(screenshotDirectory.list(pngFiles()).length, is(2));
+    }
+
+    @Test
+    public void screenshots_with_a_small_visible_change_should_still_be_stored() throws IOException {
+
+        byte[] page = pageWithBanner(Color.BLUE, 800, 600);
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(page, withASmallMark(page));
+        photographer.skipUnchangedScreenshots(1, 0);
+
+        File screenshot1 = photographer.takeScreenshot();
+        File screenshot2 = photographer.takeScreenshot();
+        screenshotProcessor.waitUntilDone();
+
+        assertThat(screenshot2, is(not(screenshot1)));
+        assertThat(screenshotDirectory.list(pngFiles()).length, is(2));
+    }
+
+    @Test
+    public void screenshots_of_failing_steps_should_be_stored_even_if_unchanged() throws IOException {
+
+        byte[] page = pageWithBanner(Color.BLUE, 800, 600);
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(page, withOnePixelChanged(page));
+        photographer.skipUnchangedScreenshots(1, 1);
+
+        File screenshot1 = photographer.takeScreenshot();
+        File screenshot2 = photographer.takeScreenshotAndSourceEvenIfUnchanged().getScreenshotFile();
+        screenshotProcessor.waitUntilDone();
+
+        assertThat(screenshot2, is(not(screenshot1)));
+        assertThat(screenshotDirectory.list(pngFiles()).length, is(2));
+    }
+
+    @Test
+    public void unchanged_screenshots_should_not_fetch_the_page_source_again() throws IOException {
+
+        byte[] page = pageWithBanner(Color.BLUE, 800, 600);
+        when(driver.getScreenshotAs(OutputType.BYTES)).thenReturn(page, page.clone());
+        photographer.skipUnchangedScreenshots(0, 0);
+
+        photographer.takeScreenshot();
+        photographer.takeScreenshot();
+
+        verify(driver, times(1)).getPageSource();
+    }
+
+    private byte[] differentScreenshot() {
+        byte[] differentScreenshot = new byte[10000];
+        differentScreenshot[0] = 1;
+        return differentScreenshot;
+    }
+
+    private FilenameFilter temporaryFiles() {
+        return new FilenameFilter() {
+            public boolean accept(File dir, String name) {
+                return name.endsWith(".tmp");
+            }
+        };
+    }
+
+    private FilenameFilter pngFiles() {
+        return new FilenameFilter() {
+            public boolean accept(File dir, String name) {
+                return name.endsWith(".png");
+            }
+        };
+    }
+
     class DodgyPhotographer extends Photographer {
         DodgyPhotographer(WebDriver driver, File targetDirectory) {
             super(driver, targetDirectory);
         }
 
         @Override
-        protected File saveScreenshoot(String prefix, File screenshot) throws IOException {
+        protected ScreenshotAndHtmlSource saveScreenshot(byte[] screenshotData,
+                                                         boolean reuseUnchangedScreenshot) throws IOException {
             throw new IOException();
         }
     }
@@ -45,6 +45,25 @@ public class WhenConfiguringTheStatisticsDatabase {
     }
 
 
+    @Test
+    public void should_send_inserts_in_batches() {
+        Properties properties = DatabaseConfig.usingPropertiesFrom(environmentVariables).getProperties();
+
+        assertThat(properties.getProperty("hibernate.jdbc.batch_size"), is("50"));
+        assertThat(properties.getProperty("hibernate.order_inserts"), is("true"));
+    }
+
+    @Test
+    public void should_allow_the_batch_and_pool_sizes_to_be_configured() {
+        environmentVariables.setProperty("thucydides.statistics.batch_size", "100");
+        environmentVariables.setProperty("thucydides.statistics.pool_size", "8");
+
+        Properties properties = DatabaseConfig.usingPropertiesFrom(environmentVariables).getProperties();
+
+        assertThat(properties.getProperty("hibernate.jdbc.batch_size"), is("100"));
+        assertThat(properties.getProperty("hibernate.connection.pool_size"), is("8"));
+    }
+
     @Test
     public void should_update_the_default_local_database_automatically() {
         Properties properties = DatabaseConfig.usingPropertiesFrom(environmentVariables).getProperties();
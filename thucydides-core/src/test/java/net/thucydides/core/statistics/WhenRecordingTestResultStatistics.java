@@ -1,8 +1,10 @@
 package net.thucydides.core.statistics;
 
+import com.google.common.collect.Lists;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
 import com.google.inject.Key;
+import com.google.inject.Provider;
 import com.google.inject.Singleton;
 import net.thucydides.core.annotations.WithTag;
 import net.thucydides.core.guice.ThucydidesModule;
@@ -13,6 +15,7 @@ import net.thucydides.core.pages.InternalSystemClock;
 import net.thucydides.core.pages.SystemClock;
 import net.thucydides.core.statistics.dao.HibernateTestOutcomeHistoryDAO;
 import net.thucydides.core.statistics.dao.TestOutcomeHistoryDAO;
+import net.thucydides.core.statistics.model.LatestTestRun;
 import net.thucydides.core.statistics.model.TestRun;
 import net.thucydides.core.statistics.model.TestRunTag;
 import net.thucydides.core.statistics.model.TestStatistics;
@@ -25,9 +28,16 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import javax.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static net.thucydides.core.matchers.dates.DateMatchers.isSameAs;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -35,6 +45,9 @@ import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 public class WhenRecordingTestResultStatistics {
@@ -120,6 +133,47 @@ public class WhenRecordingTestResultStatistics {
         assertThat(lastTestRun.getDuration(), is(testOutcome.getDuration()));
     }
 
+    @Test
+    public void should_keep_track_of_the_latest_run_of_each_test() {
+
+        environmentVariables.setProperty("thucydides.project.key", "LATEST");
+        prepareDAOWithFixedClock();
+        when(clock.getCurrentTime()).thenReturn(JANUARY_1ST_2012, JANUARY_1ST_2012.plusDays(1));
+
+        statisticsListener.testFinished(passingTestFor("boat_sales_test"));
+        statisticsListener.testSuiteFinished();
+        statisticsListener.testSuiteStarted(SomeTestScenario.class);
+        statisticsListener.testFinished(failingTestFor("boat_sales_test"));
+        statisticsListener.testSuiteFinished();
+
+        List<LatestTestRun> latestTestRuns = injector.getInstance(EntityManager.class)
+                .createQuery("select l from LatestTestRun l where l.projectKey = 'LATEST'")
+                .getResultList();
+
+        assertThat(latestTestRuns.size(), is(1));
+        assertThat(latestTestRuns.get(0).getResult(), is(TestResult.FAILURE));
+        assertThat(latestTestRuns.get(0).getExecutionDate(), isSameAs(JANUARY_1ST_2012.plusDays(1).toDate()));
+    }
+
+    @Test
+    public void should_keep_track_of_the_latest_run_of_tests_in_different_classes_with_the_same_title() {
+
+        environmentVariables.setProperty("thucydides.project.key", "SAME-TITLE");
+        prepareDAOWithFixedClock();
+
+        statisticsListener.testFinished(TestOutcome.forTest("car_sales_test", CarSalesTestCaseSample.class));
+        statisticsListener.testFinished(passingTestFor("car_sales_test"));
+        statisticsListener.testSuiteFinished();
+
+        List<LatestTestRun> latestTestRuns = injector.getInstance(EntityManager.class)
+                .createQuery("select l from LatestTestRun l where l.projectKey = 'SAME-TITLE' order by l.testName")
+                .getResultList();
+
+        assertThat(latestTestRuns.size(), is(2));
+        assertThat(latestTestRuns.get(0).getTestName(), is(CarSalesTestCaseSample.class.getName() + ".car_sales_test"));
+        assertThat(latestTestRuns.get(1).getTestName(), is(OnlineSalesTestCaseSample.class.getName() + ".car_sales_test"));
+    }
+
     @Test
     public void should_use_a_defined_project_key_to_group_results() {
 
@@ -135,6 +189,68 @@ public class WhenRecordingTestResultStatistics {
     }
 
 
+    @Test
+    public void should_be_able_to_store_test_results_in_the_background() {
+
+        environmentVariables.setProperty("thucydides.project.key", "WIDGETS");
+        environmentVariables.setProperty("thucydides.store.history.background", "true");
+        BackgroundHistoryWriter backgroundHistoryWriter = injector.getInstance(BackgroundHistoryWriter.class);
+        statisticsListener = new StatisticsListener(testOutcomeHistoryDAO, environmentVariables, backgroundHistoryWriter);
+
+        recordTests();
+        backgroundHistoryWriter.waitUntilDone();
+
+        TestStatistics testStatistics = testStatisticsProvider.statisticsForTests(With.title("Boat sales test"));
+
+        assertThat(backgroundHistoryWriter.isEmpty(), is(true));
+        assertThat(testStatistics.getTotalTestRuns(), is(8L));
+    }
+
+    @Test
+    public void should_store_test_results_sharing_tags_across_several_batches() {
+
+        environmentVariables.setProperty("thucydides.project.key", "BATCHED");
+        environmentVariables.setProperty("thucydides.statistics.batch_size", "2");
+        testOutcomeHistoryDAO = new HibernateTestOutcomeHistoryDAO(injector.getInstance(EntityManager.class),
+                                                                   environmentVariables,
+                                                                   injector.getInstance(SystemClock.class));
+        statisticsListener = new StatisticsListener(testOutcomeHistoryDAO, environmentVariables);
+        testStatisticsProvider = new TestStatisticsProvider(testOutcomeHistoryDAO);
+
+        recordTests();
+
+        assertThat(testStatisticsProvider.statisticsForTests(With.tag("Boat sales")).getTotalTestRuns(), is(8L));
+        assertThat(testStatisticsProvider.statisticsForTests(With.tag("Online sales")).getTotalTestRuns(), is(30L));
+        List<TestRunTag> boatSalesTags = injector.getInstance(EntityManager.class)
+                .createQuery("select t from TestRunTag t where t.name = 'Boat sales'")
+                .getResultList();
+        assertThat(boatSalesTags.size(), is(1));
+    }
+
+    @Test
+    public void should_stop_waiting_for_the_background_writer_after_a_timeout() throws Exception {
+
+        final CountDownLatch storing = new CountDownLatch(1);
+        final TestOutcomeHistoryDAO slowDAO = mock(TestOutcomeHistoryDAO.class);
+        doAnswer(new Answer<Void>() {
+            public Void answer(InvocationOnMock invocation) throws InterruptedException {
+                storing.await();
+                return null;
+            }
+        }).when(slowDAO).storeTestOutcomes(anyListOf(TestOutcome.class));
+        BackgroundHistoryWriter backgroundHistoryWriter = new BackgroundHistoryWriter(new Provider<TestOutcomeHistoryDAO>() {
+            public TestOutcomeHistoryDAO get() {
+                return slowDAO;
+            }
+        });
+
+        backgroundHistoryWriter.storeTestOutcomes(Arrays.asList(testOutcome));
+
+        assertThat(backgroundHistoryWriter.waitUntilDone(100, TimeUnit.MILLISECONDS), is(false));
+        storing.countDown();
+        assertThat(backgroundHistoryWriter.waitUntilDone(10, TimeUnit.SECONDS), is(true));
+    }
+
     @Test
     public void should_list_all_the_test_history_results_for_the_current_project() {
 
@@ -310,6 +426,121 @@ public class WhenRecordingTestResultStatistics {
         assertThat(testStatistics.getTags().size(), is(0));
     }
 
+    @Test
+    public void should_retrieve_test_statistics_for_several_tests_at_once() {
+
+        Map<String, TestStatistics> statistics
+                = testStatisticsProvider.statisticsForTestsWithTitles(Arrays.asList("Boat sales test", "Does not exist"));
+
+        assertThat(statistics.get("Boat sales test").getTotalTestRuns(), is(8L));
+        assertThat(statistics.get("Boat sales test").getPassingTestRuns(), is(6L));
+        assertThat(statistics.get("Boat sales test").getPassRate().overTheLast(4).testRuns(), is(1.0));
+        assertThat(statistics.get("Boat sales test").getTags().size(), is(2));
+        assertThat(statistics.get("Does not exist").getTotalTestRuns(), is(0L));
+    }
+
+    @Test
+    public void should_retrieve_test_statistics_for_several_tags_at_once() {
+
+        Map<String, TestStatistics> statistics
+                = testStatisticsProvider.statisticsForTestsWithTags(Arrays.asList("Boat sales", "does-not-exist"));
+
+        assertThat(statistics.get("Boat sales").getTotalTestRuns(), is(8L));
+        assertThat(statistics.get("Boat sales").getFailingTestRuns(), is(1L));
+        assertThat(statistics.get("Boat sales").getPassRate().overTheLast(8).testRuns(), is(0.75));
+        assertThat(statistics.get("does-not-exist").getTotalTestRuns(), is(0L));
+    }
+
+    @Test
+    public void should_use_the_test_run_counts_for_the_overall_pass_rate_when_only_recent_results_are_loaded() {
+
+        TestStatistics testStatistics = new TestStatistics(10L, 5L, 5L,
+                                                           Arrays.asList(TestResult.SUCCESS, TestResult.SUCCESS),
+                                                           Collections.<TestRunTag>emptyList());
+
+        assertThat(testStatistics.getPassRate().testRuns(), is(0.5));
+        assertThat(testStatistics.getPassRate().overTheLast(2).testRuns(), is(1.0));
+    }
+
+    @Test
+    public void should_work_out_a_recent_pass_rate_over_the_recent_results_loaded() {
+
+        TestStatistics testStatistics = new TestStatistics(10L, 5L, 5L,
+                                                           Arrays.asList(TestResult.SUCCESS, TestResult.FAILURE),
+                                                           Collections.<TestRunTag>emptyList());
+
+        assertThat(testStatistics.getPassRate().overTheLast(1).testRuns(), is(1.0));
+        assertThat(testStatistics.getPassRate().overTheLast(5).testRuns(), is(0.5));
+    }
+
+    @Test
+    public void should_work_out_a_pass_rate_over_a_longer_window_of_recent_results_when_asked_to() {
+
+        environmentVariables.setProperty("thucydides.project.key", "LONG_HISTORY");
+        testOutcomeHistoryDAO = new HibernateTestOutcomeHistoryDAO(injector.getInstance(EntityManager.class),
+                                                                   environmentVariables,
+                                                                   injector.getInstance(SystemClock.class));
+        testStatisticsProvider = new TestStatisticsProvider(testOutcomeHistoryDAO);
+
+        int testRunCount = TestStatisticsProvider.MAXIMUM_RECENT_RESULTS + 50;
+        List<TestOutcome> testOutcomes = Lists.newArrayList();
+        for (int i = 0; i < testRunCount; i++) {
+            testOutcomes.add(((i % 3) == 0) ? failingTestFor("boat_sales_test") : passingTestFor("boat_sales_test"));
+        }
+        testOutcomeHistoryDAO.storeTestOutcomes(testOutcomes);
+
+        String title = testOutcomes.get(0).getTitle();
+        int windowSize = TestStatisticsProvider.MAXIMUM_RECENT_RESULTS + 20;
+        TestStatistics testStatistics = testStatisticsProvider.statisticsForTests(With.title(title), windowSize);
+        List<TestResult> results = testOutcomeHistoryDAO.getRecentResultsForTestWithTitle(title, testRunCount);
+        int successfulTestRuns = Collections.frequency(results.subList(0, windowSize), TestResult.SUCCESS);
+
+        assertThat(testStatistics.getPassRate().overTheLast(windowSize).testRuns(),
+                   is(successfulTestRuns / (double) windowSize));
+    }
+
+    @Test
+    public void should_read_the_same_recent_results_for_several_tests_at_once_as_for_each_test() {
+
+        environmentVariables.setProperty("thucydides.project.key", "SEVERAL_HISTORIES");
+        environmentVariables.setProperty("thucydides.statistics.batch_size", "2");
+        testOutcomeHistoryDAO = new HibernateTestOutcomeHistoryDAO(injector.getInstance(EntityManager.class),
+                                                                   environmentVariables,
+                                                                   injector.getInstance(SystemClock.class));
+        List<TestOutcome> testOutcomes = Lists.newArrayList();
+        for (int i = 0; i < 20; i++) {
+            testOutcomes.add(((i % 3) == 0) ? failingTestFor("boat_sales_test") : passingTestFor("boat_sales_test"));
+            if ((i % 4) == 0) {
+                testOutcomes.add(passingTestFor("car_sales_test"));
+            }
+        }
+        testOutcomeHistoryDAO.storeTestOutcomes(testOutcomes);
+
+        List<String> titles = Arrays.asList("Boat sales test", "Car sales test", "Does not exist");
+        Map<String, List<TestResult>> recentResults = testOutcomeHistoryDAO.getRecentResultsForTestsWithTitles(titles, 7);
+
+        for (String title : titles) {
+            assertThat(recentResults.get(title), is(testOutcomeHistoryDAO.getRecentResultsForTestWithTitle(title, 7)));
+        }
+        assertThat(recentResults.get("Boat sales test").size(), is(7));
+        assertThat(recentResults.get("Car sales test").size(), is(5));
+    }
+
+    @Test
+    public void should_retrieve_the_same_statistics_for_several_tags_at_once_as_for_each_tag() {
+
+        List<String> tags = Arrays.asList("Boat sales", "Car sales", "Online sales");
+        Map<String, TestStatistics> statistics = testStatisticsProvider.statisticsForTestsWithTags(tags);
+
+        for (String tag : tags) {
+            TestStatistics tagStatistics = testStatisticsProvider.statisticsForTests(With.tag(tag));
+            assertThat(statistics.get(tag).getTotalTestRuns(), is(tagStatistics.getTotalTestRuns()));
+            assertThat(statistics.get(tag).getPassRate().overTheLast(4).testRuns(),
+                       is(tagStatistics.getPassRate().overTheLast(4).testRuns()));
+            assertThat(statistics.get(tag).getTags(), is(tagStatistics.getTags()));
+        }
+    }
+
 
     /*
         - should retrieve test statistics for a given tag
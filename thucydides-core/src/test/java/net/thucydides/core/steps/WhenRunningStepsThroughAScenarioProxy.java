@@ -228,6 +228,7 @@ public class WhenRunningStepsThroughAScenarioProxy {
         factory = new StepFactory(new Pages(driver));
 
         StepEventBus.getEventBus().clear();
+        StepEventBus.getEventBus().dropAllListeners();
         StepEventBus.getEventBus().registerListener(listener);
     }
 
@@ -179,6 +179,7 @@ public class WhenRunningStepsWithTestData {
         factory = new StepFactory(new Pages(driver));
 
         StepEventBus.getEventBus().clear();
+        StepEventBus.getEventBus().dropAllListeners();
         StepEventBus.getEventBus().registerListener(listener);
         setDefaultStepFactory(null);
     }
@@ -9,6 +9,7 @@ import org.junit.rules.ExpectedException;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.openqa.selenium.By;
 import org.openqa.selenium.NoSuchElementException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
@@ -16,7 +17,11 @@ import org.openqa.selenium.support.FindBy;
 
 import java.lang.reflect.Field;
 
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 public class WhenLocatingWebElements {
 
@@ -53,6 +58,39 @@ public class WhenLocatingWebElements {
         locator.findElement();
     }
 
+    @Test(timeout = 500)
+    public void should_find_element_immediately_during_an_immediate_lookup() {
+        DisplayedElementLocator locator = new DisplayedElementLocator(driver, field, 5);
+        ImmediateElementLookup.start();
+        try {
+            locator.findElement();
+        } finally {
+            ImmediateElementLookup.end();
+        }
+    }
+
+    @Test
+    public void should_look_up_the_element_using_the_annotated_locator() {
+        DisplayedElementLocator locator = new DisplayedElementLocator(driver, field, 5);
+        StepEventBus.getEventBus().stepFailed(failure);
+
+        locator.findElement();
+        locator.findElement();
+
+        verify(driver, times(2)).findElement(By.id("someId"));
+    }
+
+    @Test
+    public void should_only_find_element_immediately_while_the_immediate_lookup_is_in_progress() {
+        ImmediateElementLookup.start();
+        ImmediateElementLookup.start();
+        ImmediateElementLookup.end();
+        assertThat(ImmediateElementLookup.inProgress(), is(true));
+
+        ImmediateElementLookup.end();
+        assertThat(ImmediateElementLookup.inProgress(), is(false));
+    }
+
     @Rule
     public ExpectedException expectedException = ExpectedException.none();
 
@@ -0,0 +1,245 @@
+package net.thucydides.core.webdriver;
+
+import net.thucydides.core.steps.StepEventBus;
+import net.thucydides.core.util.MockEnvironmentVariables;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.firefox.FirefoxDriver;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class WhenPoolingWebdriverInstances {
+
+    @Mock
+    WebDriverFactory webDriverFactory;
+
+    @Mock
+    FirefoxDriver firefoxDriver;
+
+    @Mock
+    FirefoxDriver anotherFirefoxDriver;
+
+    @Mock
+    WebDriver.Options options;
+
+    @Mock
+    WebDriver.TargetLocator targetLocator;
+
+    @Before
+    public void initMocks() {
+        MockitoAnnotations.initMocks(this);
+        when(webDriverFactory.newWebdriverInstance(FirefoxDriver.class)).thenReturn(firefoxDriver, anotherFirefoxDriver);
+        when(webDriverFactory.getClassFor(SupportedWebDriver.FIREFOX)).thenReturn((Class) FirefoxDriver.class);
+        when(firefoxDriver.manage()).thenReturn(options);
+        when(anotherFirefoxDriver.manage()).thenReturn(options);
+        when(firefoxDriver.getWindowHandle()).thenReturn("main");
+        when(anotherFirefoxDriver.getWindowHandle()).thenReturn("main");
+        when(firefoxDriver.getWindowHandles()).thenReturn(Collections.singleton("main"));
+        when(anotherFirefoxDriver.getWindowHandles()).thenReturn(Collections.singleton("main"));
+        StepEventBus.getEventBus().clear();
+        WebdriverProxyFactory.getFactory().clearMockDriver();
+    }
+
+    @After
+    public void clearMocks() {
+        WebdriverProxyFactory.getFactory().clearMockDriver();
+    }
+
+    @Test
+    public void a_released_browser_should_be_reset_and_reused() {
+        WebDriverPool pool = new WebDriverPool(1, 0, 0, 0);
+
+        WebDriver driver = pool.acquire(FirefoxDriver.class, webDriverFactory);
+        pool.release(FirefoxDriver.class, driver);
+        WebDriver reusedDriver = pool.acquire(FirefoxDriver.class, webDriverFactory);
+
+        assertThat(reusedDriver, is((WebDriver) firefoxDriver));
+        verify(options).deleteAllCookies();
+        verify(firefoxDriver).get("about:blank");
+        verify(firefoxDriver, never()).quit();
+        assertThat(pool.getCreatedDriverCount(), is(1L));
+        assertThat(pool.getReusedDriverCount(), is(1L));
+    }
+
+    @Test
+    public void a_browser_should_be_closed_once_it_has_been_used_too_many_times() {
+        WebDriverPool pool = new WebDriverPool(1, 0, 1, 0);
+
+        WebDriver driver = pool.acquire(FirefoxDriver.class, webDriverFactory);
+        pool.release(FirefoxDriver.class, driver);
+
+        verify(firefoxDriver).quit();
+        assertThat(pool.getIdleDriverCount(FirefoxDriver.class), is(0));
+    }
+
+    @Test
+    public void a_browser_should_be_closed_if_the_pool_is_full() {
+        WebDriverPool pool = new WebDriverPool(1, 0, 0, 0);
+
+        WebDriver driver = pool.acquire(FirefoxDriver.class, webDriverFactory);
+        WebDriver anotherDriver = pool.acquire(FirefoxDriver.class, webDriverFactory);
+        pool.release(FirefoxDriver.class, driver);
+        pool.release(FirefoxDriver.class, anotherDriver);
+
+        verify(firefoxDriver, never()).quit();
+        verify(anotherFirefoxDriver).quit();
+        assertThat(pool.getIdleDriverCount(FirefoxDriver.class), is(1));
+    }
+
+    @Test
+    public void a_browser_that_no_longer_responds_should_not_be_reused() {
+        WebDriverPool pool = new WebDriverPool(1, 0, 0, 0);
+        WebDriver driver = pool.acquire(FirefoxDriver.class, webDriverFactory);
+        pool.release(FirefoxDriver.class, driver);
+        when(firefoxDriver.getWindowHandle()).thenThrow(new WebDriverException("browser closed"));
+
+        WebDriver nextDriver = pool.acquire(FirefoxDriver.class, webDriverFactory);
+
+        assertThat(nextDriver, is((WebDriver) anotherFirefoxDriver));
+        verify(firefoxDriver).quit();
+        assertThat(pool.getRetiredDriverCount(), is(1L));
+    }
+
+    @Test
+    public void a_browser_that_cannot_be_reset_should_be_closed() {
+        WebDriverPool pool = new WebDriverPool(1, 0, 0, 0);
+        WebDriver driver = pool.acquire(FirefoxDriver.class, webDriverFactory);
+        when(firefoxDriver.manage()).thenThrow(new WebDriverException("browser closed"));
+
+        pool.release(FirefoxDriver.class, driver);
+
+        verify(firefoxDriver).quit();
+    }
+
+    @Test
+    public void a_browser_should_be_reused_if_it_was_only_used_on_one_host() {
+        WebDriverPool pool = new WebDriverPool(1, 0, 0, 0);
+        WebDriver driver = pool.acquire(FirefoxDriver.class, webDriverFactory);
+        pool.visited(driver, "http://www.google.com/search?q=thucydides");
+        pool.visited(driver, "http://www.google.com/");
+        when(firefoxDriver.getCurrentUrl()).thenReturn("http://www.google.com/");
+
+        pool.release(FirefoxDriver.class, driver);
+
+        verify(firefoxDriver, never()).quit();
+        assertThat(pool.getIdleDriverCount(FirefoxDriver.class), is(1));
+    }
+
+    @Test
+    public void a_browser_used_on_several_hosts_should_be_closed() {
+        WebDriverPool pool = new WebDriverPool(1, 0, 0, 0);
+        WebDriver driver = pool.acquire(FirefoxDriver.class, webDriverFactory);
+        pool.visited(driver, "http://www.google.com/");
+        pool.visited(driver, "http://www.wikipedia.org/");
+        when(firefoxDriver.getCurrentUrl()).thenReturn("http://www.wikipedia.org/");
+
+        pool.release(FirefoxDriver.class, driver);
+
+        verify(firefoxDriver).quit();
+        assertThat(pool.getIdleDriverCount(FirefoxDriver.class), is(0));
+    }
+
+    @Test
+    public void a_browser_that_has_left_the_host_it_was_used_on_should_be_closed() {
+        WebDriverPool pool = new WebDriverPool(1, 0, 0, 0);
+        WebDriver driver = pool.acquire(FirefoxDriver.class, webDriverFactory);
+        pool.visited(driver, "http://www.google.com/");
+        when(firefoxDriver.getCurrentUrl()).thenReturn("http://www.wikipedia.org/");
+
+        pool.release(FirefoxDriver.class, driver);
+
+        verify(firefoxDriver).quit();
+    }
+
+    @Test
+    public void extra_windows_should_be_closed_and_the_original_window_kept() {
+        WebDriverPool pool = new WebDriverPool(1, 0, 0, 0);
+        WebDriver driver = pool.acquire(FirefoxDriver.class, webDriverFactory);
+        when(firefoxDriver.getWindowHandles()).thenReturn(new LinkedHashSet<String>(Arrays.asList("popup", "main")));
+        when(firefoxDriver.switchTo()).thenReturn(targetLocator);
+
+        pool.release(FirefoxDriver.class, driver);
+
+        verify(targetLocator).window("popup");
+        verify(firefoxDriver, times(1)).close();
+        verify(targetLocator).window("main");
+        assertThat(pool.getIdleDriverCount(FirefoxDriver.class), is(1));
+    }
+
+    @Test
+    public void a_browser_whose_original_window_was_closed_should_be_closed() {
+        WebDriverPool pool = new WebDriverPool(1, 0, 0, 0);
+        WebDriver driver = pool.acquire(FirefoxDriver.class, webDriverFactory);
+        when(firefoxDriver.getWindowHandles()).thenReturn(Collections.singleton("popup"));
+
+        pool.release(FirefoxDriver.class, driver);
+
+        verify(firefoxDriver).quit();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void a_browser_that_did_not_come_from_the_pool_should_be_rejected() {
+        WebDriverPool pool = new WebDriverPool(1, 0, 0, 0);
+
+        pool.release(FirefoxDriver.class, firefoxDriver);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void a_pooled_browser_that_is_reset_should_no_longer_be_tracked_by_the_pool() {
+        WebDriverPool pool = new WebDriverPool(1, 0, 0, 0);
+        WebDriverFacade facade = new WebDriverFacade(FirefoxDriver.class, webDriverFactory, pool);
+        facade.get("http://www.google.com");
+
+        facade.reset();
+
+        verify(firefoxDriver).quit();
+        pool.release(FirefoxDriver.class, firefoxDriver);
+    }
+
+    @Test
+    public void the_webdriver_manager_should_keep_pooled_browsers_open_between_test_classes() {
+        WebDriverPool pool = new WebDriverPool(1, 0, 0, 0);
+        Configuration configuration = new SystemPropertiesConfiguration(new MockEnvironmentVariables());
+
+        when(firefoxDriver.getCurrentUrl()).thenReturn("http://www.google.com/");
+
+        WebdriverManager firstTestClass = new ThucydidesWebdriverManager(webDriverFactory, configuration, pool);
+        firstTestClass.getWebdriver().get("http://www.google.com");
+        firstTestClass.closeAllDrivers();
+
+        WebdriverManager secondTestClass = new ThucydidesWebdriverManager(webDriverFactory, configuration, pool);
+        secondTestClass.getWebdriver().get("http://www.google.com");
+        secondTestClass.closeAllDrivers();
+
+        verify(webDriverFactory, times(1)).newWebdriverInstance(FirefoxDriver.class);
+        verify(firefoxDriver, times(2)).get("http://www.google.com");
+        verify(firefoxDriver, never()).quit();
+        verify(firefoxDriver, never()).close();
+    }
+
+    @Test
+    public void browsers_should_be_closed_between_test_classes_if_the_pool_is_disabled() {
+        WebDriverPool pool = new WebDriverPool(0, 0, 0, 0);
+        Configuration configuration = new SystemPropertiesConfiguration(new MockEnvironmentVariables());
+
+        WebdriverManager webdriverManager = new ThucydidesWebdriverManager(webDriverFactory, configuration, pool);
+        webdriverManager.getWebdriver().get("http://www.google.com");
+        webdriverManager.closeAllDrivers();
+
+        verify(firefoxDriver).quit();
+    }
+}
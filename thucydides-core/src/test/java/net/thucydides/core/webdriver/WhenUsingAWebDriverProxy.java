@@ -10,8 +10,12 @@ import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
 import org.openqa.selenium.OutputType;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.firefox.FirefoxDriver;
 import org.openqa.selenium.firefox.FirefoxProfile;
@@ -25,10 +29,13 @@ import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -375,4 +382,145 @@ public class WhenUsingAWebDriverProxy {
 
         assertThat(pages.getDriver(), is((WebDriver)webDriverFacade));
     }
+
+    @Mock
+    WebDriver.TargetLocator targetLocator;
+
+    @Test
+    public void the_webdriver_proxy_should_not_check_the_driver_before_each_command() {
+        webDriverFacade.get("http://www.google.com");
+        webDriverFacade.findElement(By.id("q"));
+        webDriverFacade.getTitle();
+
+        verify(firefoxDriver, never()).getCurrentUrl();
+    }
+
+    @Test
+    public void the_webdriver_proxy_should_recover_the_driver_and_retry_a_failed_command() {
+        when(firefoxDriver.getTitle()).thenThrow(new WebDriverException("frame closed")).thenReturn("Google");
+        when(firefoxDriver.getCurrentUrl()).thenThrow(new WebDriverException("frame closed"));
+        when(firefoxDriver.switchTo()).thenReturn(targetLocator);
+
+        String title = webDriverFacade.getTitle();
+
+        assertThat(title, is("Google"));
+        verify(targetLocator).defaultContent();
+        assertThat(webDriverFacade.getDriverHealth().getRecoveryCount(), is(1L));
+        assertThat(webDriverFacade.getDriverHealth().getLivenessCheckCount(), is(1L));
+    }
+
+    @Test
+    public void the_webdriver_proxy_should_only_retry_a_failed_command_once() {
+        when(firefoxDriver.getTitle()).thenThrow(new WebDriverException("frame closed"));
+        when(firefoxDriver.getCurrentUrl()).thenThrow(new WebDriverException("frame closed"));
+        when(firefoxDriver.switchTo()).thenReturn(targetLocator);
+
+        try {
+            webDriverFacade.getTitle();
+            fail("The command should have failed");
+        } catch (WebDriverException expected) {}
+
+        verify(firefoxDriver, times(2)).getTitle();
+    }
+
+    @Test
+    public void the_webdriver_proxy_should_not_retry_a_command_if_the_driver_did_not_need_recovering() {
+        when(firefoxDriver.getTitle()).thenThrow(new WebDriverException("timeout"));
+        when(firefoxDriver.getCurrentUrl()).thenReturn("http://www.google.com");
+
+        try {
+            webDriverFacade.getTitle();
+            fail("The command should have failed");
+        } catch (WebDriverException expected) {}
+
+        verify(firefoxDriver, times(1)).getTitle();
+        assertThat(webDriverFacade.getDriverHealth().getRecoveryCount(), is(0L));
+        assertThat(webDriverFacade.getDriverHealth().getLivenessCheckCount(), is(1L));
+    }
+
+    @Test
+    public void the_webdriver_proxy_should_not_retry_commands_that_are_not_safe_to_repeat() {
+        doThrow(new WebDriverException("frame closed")).when(firefoxDriver).get("http://www.google.com");
+        when(firefoxDriver.switchTo()).thenReturn(targetLocator);
+
+        try {
+            webDriverFacade.get("http://www.google.com");
+            fail("The command should have failed");
+        } catch (WebDriverException expected) {}
+
+        verify(firefoxDriver, times(1)).get("http://www.google.com");
+        verify(firefoxDriver, never()).getCurrentUrl();
+    }
+
+    @Test
+    public void the_webdriver_proxy_should_check_the_driver_before_the_command_after_a_failed_one() {
+        doThrow(new WebDriverException("frame closed")).when(firefoxDriver).get("http://www.google.com");
+
+        try {
+            webDriverFacade.get("http://www.google.com");
+        } catch (WebDriverException expected) {}
+        webDriverFacade.getTitle();
+
+        verify(firefoxDriver, times(1)).getCurrentUrl();
+        assertThat(webDriverFacade.getDriverHealth().getLivenessCheckCount(), is(1L));
+    }
+
+    @Test
+    public void the_webdriver_proxy_should_not_retry_a_lookup_inside_a_frame() {
+        when(firefoxDriver.findElement(By.id("q"))).thenThrow(new WebDriverException("frame closed"));
+        when(firefoxDriver.switchTo()).thenReturn(targetLocator);
+
+        webDriverFacade.switchTo().frame("results");
+        try {
+            webDriverFacade.findElement(By.id("q"));
+            fail("The command should have failed");
+        } catch (WebDriverException expected) {}
+
+        verify(firefoxDriver, times(1)).findElement(By.id("q"));
+        verify(targetLocator, never()).defaultContent();
+    }
+
+    @Test
+    public void the_webdriver_proxy_should_not_check_the_driver_after_a_stale_element_or_a_timeout() {
+        when(firefoxDriver.findElement(By.id("q"))).thenThrow(new StaleElementReferenceException("stale"));
+        when(firefoxDriver.getTitle()).thenThrow(new TimeoutException("timeout"));
+        try {
+            webDriverFacade.findElement(By.id("q"));
+        } catch (StaleElementReferenceException expected) {}
+        try {
+            webDriverFacade.getTitle();
+        } catch (TimeoutException expected) {}
+
+        webDriverFacade.get("http://www.google.com");
+
+        verify(firefoxDriver, never()).getCurrentUrl();
+        assertThat(webDriverFacade.getDriverHealth().getLivenessCheckCount(), is(0L));
+    }
+
+    @Test
+    public void the_webdriver_proxy_should_not_check_the_driver_after_an_element_is_not_found() {
+        when(firefoxDriver.findElement(By.id("q"))).thenThrow(new NoSuchElementException("no such element"));
+        try {
+            webDriverFacade.findElement(By.id("q"));
+        } catch (NoSuchElementException expected) {}
+
+        webDriverFacade.get("http://www.google.com");
+
+        verify(firefoxDriver, never()).getCurrentUrl();
+        assertThat(webDriverFacade.getDriverHealth().getLivenessCheckCount(), is(0L));
+    }
+
+    @Test
+    public void the_webdriver_proxy_can_check_the_driver_periodically() throws Exception {
+        MockEnvironmentVariables environmentVariables = new MockEnvironmentVariables();
+        environmentVariables.setProperty("thucydides.driver.liveness.check.interval", "1");
+        WebDriverFacade periodicallyCheckedFacade
+                = new WebDriverFacade(FirefoxDriver.class, new WebDriverFactory(webdriverInstanceFactory, environmentVariables));
+
+        Thread.sleep(5);
+        periodicallyCheckedFacade.get("http://www.google.com");
+
+        verify(firefoxDriver).getCurrentUrl();
+        assertThat(periodicallyCheckedFacade.getDriverHealth().getRecoveryCount(), is(0L));
+    }
 }
@@ -65,7 +65,8 @@ public class WhenTakingLargeScreenshots {
         driver = testSite.open("chrome");
 
         Photographer photographer = new Photographer(driver, screenshotDirectory);
-        File screenshotFile = photographer.takeScreenshot("screenshot");
+        File screenshotFile = photographer.takeScreenshot();
+        photographer.getScreenshotProcessor().waitUntilDone();
         ResizableImage image = ResizableImage.loadFrom(screenshotFile);
 
         assertThat(image.getWitdh(), is(greaterThan(750))); // In Windows the actual dimensions are slightly less
@@ -80,7 +81,8 @@ public class WhenTakingLargeScreenshots {
         driver = testSite.open();
 
         Photographer photographer = new Photographer(driver, screenshotDirectory);
-        File screenshotFile = photographer.takeScreenshot("screenshot");
+        File screenshotFile = photographer.takeScreenshot();
+        photographer.getScreenshotProcessor().waitUntilDone();
         ResizableImage image = ResizableImage.loadFrom(screenshotFile);
 
 
@@ -92,7 +94,8 @@ public class WhenTakingLargeScreenshots {
         driver = testSite.open("http:www.google.com", "screenshots/google.html");
 
         Photographer photographer = new Photographer(driver, screenshotDirectory);
-        File screenshotFile = photographer.takeScreenshot("screenshot");
+        File screenshotFile = photographer.takeScreenshot();
+        photographer.getScreenshotProcessor().waitUntilDone();
 
         assertThat(screenshotFile.exists(), is(true));
     }
@@ -103,7 +106,8 @@ public class WhenTakingLargeScreenshots {
         driver = testSite.open("http://www.google.com", "screenshots/google.html", "chrome");
 
         Photographer photographer = new Photographer(driver, screenshotDirectory);
-        File screenshotFile = photographer.takeScreenshot("screenshot");
+        File screenshotFile = photographer.takeScreenshot();
+        photographer.getScreenshotProcessor().waitUntilDone();
 
         assertThat(screenshotFile.exists(), is(true));
     }
@@ -121,7 +125,7 @@ public class WhenTakingLargeScreenshots {
                 return logger;
             }
         };
-        File screenshot = photographer.takeScreenshot("screenshot");  // should not throw an exception
+        File screenshot = photographer.takeScreenshot();  // should not throw an exception
         if (screenshot == null) {
             verify(logger).warn(contains("Failed to write screenshot"));
         }
@@ -138,7 +142,7 @@ public class WhenTakingLargeScreenshots {
                 return logger;
             }
         };
-        File screenshot = photographer.takeScreenshot("screenshot");  // should not throw an exception
+        File screenshot = photographer.takeScreenshot();  // should not throw an exception
         if (screenshot == null) {
             verify(logger).warn(contains("Failed to write screenshot"));
         }
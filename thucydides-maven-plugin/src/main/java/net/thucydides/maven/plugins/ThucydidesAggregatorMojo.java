@@ -57,6 +57,12 @@ public class ThucydidesAggregatorMojo extends AbstractMojo {
      */
     private String jiraProject;
 
+    /**
+     * Only regenerate the pages of the stories whose test results have changed since the last aggregate report.
+     * @parameter expression="${thucydides.incremental}" default-value="false"
+     */
+    private boolean incremental;
+
     private HtmlAggregateStoryReporter reporter;
 
     protected void setOutputDirectory(final File outputDirectory) {
@@ -71,6 +77,10 @@ public class ThucydidesAggregatorMojo extends AbstractMojo {
         this.sourceDirectory = sourceDirectory;
     }
 
+    protected void setIncremental(final boolean incremental) {
+        this.incremental = incremental;
+    }
+
     protected void setReporter(final HtmlAggregateStoryReporter reporter) {
         this.reporter = reporter;
     }
@@ -100,6 +110,7 @@ public class ThucydidesAggregatorMojo extends AbstractMojo {
         getReporter().setIssueTrackerUrl(issueTrackerUrl);
         getReporter().setJiraUrl(jiraUrl);
         getReporter().setJiraProject(jiraProject);
+        getReporter().setIncremental(incremental);
         getReporter().generateReportsForStoriesFrom(sourceDirectory);
     }
 
@@ -76,6 +76,16 @@ public class WhenGeneratingAnAggregateReport {
     }
 
 
+    @Test
+    public void the_aggregate_report_can_be_generated_incrementally() throws Exception {
+
+        plugin.setIncremental(true);
+        plugin.execute();
+
+        verify(reporter).setIncremental(true);
+        verify(reporter).generateReportsForStoriesFrom(sourceDirectory);
+    }
+
     @Test
     public void the_aggregate_report_should_generate_a_new_output_directory_if_not_present() throws Exception {
 